@@ -16,10 +16,8 @@
 package org.everit.json.schema;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
 
 import org.json.JSONArray;
 
@@ -173,13 +171,83 @@ public class ArraySchema extends Schema {
     return schemaOfAdditionalItems;
   }
 
-  private Optional<ValidationException> ifFails(final Schema schema, final Object input) {
-    try {
-      schema.validate(input);
-      return Optional.empty();
-    } catch (ValidationException e) {
-      return Optional.of(e);
+  @Override
+  public boolean isValid(final Object subject) {
+    if (!(subject instanceof JSONArray)) {
+      return !requiresArray;
+    }
+    JSONArray arrSubject = (JSONArray) subject;
+    return itemCountIsValid(arrSubject.length())
+        && (!uniqueItems || itemsAreUnique(arrSubject))
+        && itemsAreValid(arrSubject);
+  }
+
+  private boolean itemCountIsValid(final int actualLength) {
+    return !(minItems != null && actualLength < minItems)
+        && !(maxItems != null && maxItems < actualLength);
+  }
+
+  /**
+   * Tells if the items of {@code subject} are unique. The items are put into an open-addressing
+   * hash table by their {@link ObjectComparator#deepHashCode(Object) structural hash codes}, so
+   * they are compared with {@link ObjectComparator#deepEquals(Object, Object)} only if their hash
+   * codes are equal. The table holds the indexes and the hash codes of the items in two
+   * {@code int} arrays of at most four times the length of the array.
+   */
+  static boolean itemsAreUnique(final JSONArray subject) {
+    int length = subject.length();
+    if (length < 2) {
+      return true;
+    }
+    int capacity = Integer.highestOneBit(length * 2 - 1) << 1;
+    int mask = capacity - 1;
+    int[] hashes = new int[capacity];
+    // the index of the item plus one, 0 marks the empty slots
+    int[] slots = new int[capacity];
+    for (int i = 0; i < length; ++i) {
+      Object item = subject.get(i);
+      int hash = ObjectComparator.deepHashCode(item);
+      int slot = (hash ^ (hash >>> 16)) & mask;
+      while (slots[slot] != 0) {
+        if (hashes[slot] == hash
+            && ObjectComparator.deepEquals(subject.get(slots[slot] - 1), item)) {
+          return false;
+        }
+        slot = (slot + 1) & mask;
+      }
+      hashes[slot] = hash;
+      slots[slot] = i + 1;
     }
+    return true;
+  }
+
+  private boolean itemsAreValid(final JSONArray subject) {
+    int length = subject.length();
+    if (allItemSchema != null) {
+      for (int i = 0; i < length; ++i) {
+        if (!allItemSchema.isValid(subject.get(i))) {
+          return false;
+        }
+      }
+    } else if (itemSchemas != null) {
+      if (!additionalItems && length > itemSchemas.size()) {
+        return false;
+      }
+      int itemValidationUntil = Math.min(length, itemSchemas.size());
+      for (int i = 0; i < itemValidationUntil; ++i) {
+        if (!itemSchemas.get(i).isValid(subject.get(i))) {
+          return false;
+        }
+      }
+      if (schemaOfAdditionalItems != null) {
+        for (int i = itemValidationUntil; i < length; ++i) {
+          if (!schemaOfAdditionalItems.isValid(subject.get(i))) {
+            return false;
+          }
+        }
+      }
+    }
+    return true;
   }
 
   public boolean needsUniqueItems() {
@@ -194,86 +262,105 @@ public class ArraySchema extends Schema {
     return requiresArray;
   }
 
-  private Optional<ValidationException> testItemCount(final JSONArray subject) {
+  private void testItemCount(final JSONArray subject, final ValidationContext context) {
     int actualLength = subject.length();
     if (minItems != null && actualLength < minItems) {
-      return Optional.of(new ValidationException(this, "expected minimum item count: " + minItems
-          + ", found: " + actualLength));
-    }
-    if (maxItems != null && maxItems < actualLength) {
-      return Optional.of(new ValidationException(this, "expected maximum item count: " + minItems
-          + ", found: " + actualLength));
+      context.reportFailure(this, "expected minimum item count: %d, found: %d", minItems,
+          actualLength);
+    } else if (maxItems != null && maxItems < actualLength) {
+      context.reportFailure(this, "expected maximum item count: %d, found: %d", minItems,
+          actualLength);
     }
-    return Optional.empty();
   }
 
-  private List<ValidationException> testItems(final JSONArray subject) {
-    List<ValidationException> rval = new ArrayList<>();
+  private void testItem(final Schema itemSchema, final JSONArray subject, final int index,
+      final ValidationContext context) {
+    context.enter(index);
+    itemSchema.collectViolations(subject.get(index), context);
+    context.leave();
+  }
+
+  /**
+   * Returns the schema of the item at {@code index}, or {@code null} if the item is not validated.
+   */
+  private Schema itemSchema(final int index) {
     if (allItemSchema != null) {
-      for (int i = 0; i < subject.length(); ++i) {
-        int copyOfI = i; // i is not effectively final so we copy it
-        ifFails(allItemSchema, subject.get(i))
-            .map(exc -> exc.prepend(String.valueOf(copyOfI)))
-            .ifPresent(rval::add);
+      return allItemSchema;
+    } else if (itemSchemas == null) {
+      return null;
+    }
+    return index < itemSchemas.size() ? itemSchemas.get(index) : schemaOfAdditionalItems;
+  }
+
+  private void testItems(final JSONArray subject, final ValidationContext context) {
+    if ((allItemSchema != null || itemSchemas != null) && context.isParallel(subject.length())) {
+      testItemsInParallel(subject, context);
+    } else if (allItemSchema != null) {
+      for (int i = 0; i < subject.length() && !context.isFailureLimitReached(); ++i) {
+        testItem(allItemSchema, subject, i, context);
       }
     } else if (itemSchemas != null) {
       if (!additionalItems && subject.length() > itemSchemas.size()) {
-        rval.add(new ValidationException(this, String.format(
-            "expected: [%d] array items, found: [%d]",
-            itemSchemas.size(), subject.length())));
+        context.reportFailure(this, "expected: [%d] array items, found: [%d]",
+            itemSchemas.size(), subject.length());
       }
       int itemValidationUntil = Math.min(subject.length(), itemSchemas.size());
-      for (int i = 0; i < itemValidationUntil; ++i) {
-        int copyOfI = i; // i is not effectively final so we copy it
-        ifFails(itemSchemas.get(i), subject.get(i))
-            .map(exc -> exc.prepend(String.valueOf(copyOfI)))
-            .ifPresent(rval::add);
+      for (int i = 0; i < itemValidationUntil && !context.isFailureLimitReached(); ++i) {
+        testItem(itemSchemas.get(i), subject, i, context);
       }
       if (schemaOfAdditionalItems != null) {
-        for (int i = itemValidationUntil; i < subject.length(); ++i) {
-          int copyOfI = i; // i is not effectively final so we copy it
-          ifFails(schemaOfAdditionalItems, subject.get(i))
-              .map(exc -> exc.prepend(String.valueOf(copyOfI)))
-              .ifPresent(rval::add);
+        for (int i = itemValidationUntil; i < subject.length()
+            && !context.isFailureLimitReached(); ++i) {
+          testItem(schemaOfAdditionalItems, subject, i, context);
         }
       }
     }
-    return rval;
   }
 
-  private Optional<ValidationException> testUniqueness(final JSONArray subject) {
-    if (subject.length() == 0) {
-      return Optional.empty();
-    }
-    Collection<Object> uniqueItems = new ArrayList<Object>(subject.length());
-    for (int i = 0; i < subject.length(); ++i) {
-      Object item = subject.get(i);
-      for (Object contained : uniqueItems) {
-        if (ObjectComparator.deepEquals(contained, item)) {
-          return Optional.of(new ValidationException(this, "array items are not unique"));
-        }
+  private void testItemsInParallel(final JSONArray subject, final ValidationContext context) {
+    int validatedCount = subject.length();
+    if (itemSchemas != null) {
+      if (!additionalItems && subject.length() > itemSchemas.size()) {
+        context.reportFailure(this, "expected: [%d] array items, found: [%d]",
+            itemSchemas.size(), subject.length());
+      }
+      if (schemaOfAdditionalItems == null) {
+        validatedCount = Math.min(validatedCount, itemSchemas.size());
       }
-      uniqueItems.add(item);
     }
-    return Optional.empty();
+    context.validateParts(validatedCount,
+        (index, partContext) -> testItem(itemSchema(index), subject, index, partContext));
+  }
+
+  private void testUniqueness(final JSONArray subject, final ValidationContext context) {
+    if (!itemsAreUnique(subject)) {
+      context.reportFailure(this, "array items are not unique");
+    }
   }
 
   @Override
   public void validate(final Object subject) {
-    List<ValidationException> failures = new ArrayList<>();
+    validate(subject, ValidationContext.collectAll());
+  }
+
+  @Override
+  void collectViolations(final Object subject, final ValidationContext context) {
     if (!(subject instanceof JSONArray)) {
       if (requiresArray) {
-        throw new ValidationException(this, JSONArray.class, subject);
-      }
-    } else {
-      JSONArray arrSubject = (JSONArray) subject;
-      testItemCount(arrSubject).ifPresent(failures::add);
-      if (uniqueItems) {
-        testUniqueness(arrSubject).ifPresent(failures::add);
+        context.reportTypeMismatch(this, JSONArray.class, subject);
       }
-      failures.addAll(testItems(arrSubject));
+      return;
+    }
+    JSONArray arrSubject = (JSONArray) subject;
+    int groupStart = context.startGroup();
+    testItemCount(arrSubject, context);
+    if (uniqueItems && !context.isFailureLimitReached()) {
+      testUniqueness(arrSubject, context);
+    }
+    if (!context.isFailureLimitReached()) {
+      testItems(arrSubject, context);
     }
-    ValidationException.throwFor(this, failures);
+    context.endGroup(this, groupStart);
   }
 
 }
@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+/**
+ * The result of validating a batch of subjects against the same schema, returned by
+ * {@link SchemaValidator#validateAll(List)}.
+ *
+ * <p>
+ * The subjects are only checked by {@link SchemaValidator#isValid(Object)} during the batch
+ * validation, and the failures are recorded in a bit set. The {@link ValidationException} of a
+ * failed subject is created when it is first requested by {@link #getException(int)}, by
+ * validating the subject again against the original schema, so the list of the subjects should
+ * not be modified while the result is in use.
+ * </p>
+ */
+public final class BatchValidationResult {
+
+  /**
+   * Validates a range of the subjects, setting the bits of the failed ones in the shared words of
+   * the failure bit set. The ranges start at multiples of 64, so the chunks never write the same
+   * word.
+   */
+  private static final class Chunk extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final SchemaValidator validator;
+
+    private final List<?> subjects;
+
+    private final long[] words;
+
+    private final int start;
+
+    private final int end;
+
+    Chunk(final SchemaValidator validator, final List<?> subjects, final long[] words,
+        final int start, final int end) {
+      this.validator = validator;
+      this.subjects = subjects;
+      this.words = words;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    protected void compute() {
+      for (int i = start; i < end; ++i) {
+        if (!validator.isValid(subjects.get(i))) {
+          words[i >>> 6] |= 1L << i;
+        }
+      }
+    }
+
+  }
+
+  /**
+   * The number of chunks per thread of the pool the subjects are split into, so that the threads
+   * can balance the load of the subjects of different costs.
+   */
+  private static final int CHUNKS_PER_THREAD = 4;
+
+  static BatchValidationResult validate(final SchemaValidator validator, final List<?> subjects,
+      final ForkJoinPool pool) {
+    List<?> randomAccessSubjects = subjects instanceof RandomAccess
+        ? subjects
+        : new ArrayList<>(subjects);
+    int size = randomAccessSubjects.size();
+    long[] words = new long[(size + 63) >>> 6];
+    if (pool == null || size <= 64) {
+      new Chunk(validator, randomAccessSubjects, words, 0, size).compute();
+    } else {
+      int chunkCount = Math.min(words.length, pool.getParallelism() * CHUNKS_PER_THREAD);
+      int chunkSize = ((words.length + chunkCount - 1) / chunkCount) << 6;
+      List<Chunk> chunks = new ArrayList<>(chunkCount);
+      for (int start = 0; start < size; start += chunkSize) {
+        chunks.add(new Chunk(validator, randomAccessSubjects, words, start,
+            Math.min(start + chunkSize, size)));
+      }
+      if (ForkJoinTask.getPool() == pool) {
+        ForkJoinTask.invokeAll(chunks);
+      } else {
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(chunks)));
+      }
+    }
+    return new BatchValidationResult(validator.getSchema(), randomAccessSubjects,
+        BitSet.valueOf(words));
+  }
+
+  private final Schema schema;
+
+  private final List<?> subjects;
+
+  private final int size;
+
+  private final BitSet failures;
+
+  private final Map<Integer, ValidationException> exceptions = new ConcurrentHashMap<>();
+
+  private BatchValidationResult(final Schema schema, final List<?> subjects,
+      final BitSet failures) {
+    this.schema = schema;
+    this.subjects = subjects;
+    this.size = subjects.size();
+    this.failures = failures;
+  }
+
+  private void checkIndex(final int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+    }
+  }
+
+  /**
+   * Returns the indexes of the failed subjects, in increasing order.
+   *
+   * @return the stream of the failed indexes
+   */
+  public IntStream failedIndexes() {
+    return failures.stream();
+  }
+
+  /**
+   * Returns the exception describing the violations of the subject at {@code index}. The exception
+   * is created on the first call, and the same instance is returned by the subsequent calls.
+   *
+   * @param index
+   *          the index of the subject in the batch
+   * @return the exception, or {@code null} if the subject is valid
+   * @throws IndexOutOfBoundsException
+   *           if {@code index} is out of the range of the batch
+   */
+  public ValidationException getException(final int index) {
+    checkIndex(index);
+    if (!failures.get(index)) {
+      return null;
+    }
+    return exceptions.computeIfAbsent(index, this::validate);
+  }
+
+  public int getFailureCount() {
+    return failures.cardinality();
+  }
+
+  /**
+   * Returns the indexes of the failed subjects.
+   *
+   * @return a copy of the bit set of the failures
+   */
+  public BitSet getFailures() {
+    return (BitSet) failures.clone();
+  }
+
+  /**
+   * Tells if every subject of the batch is valid.
+   *
+   * @return {@code true} if no subject failed
+   */
+  public boolean isAllValid() {
+    return failures.isEmpty();
+  }
+
+  /**
+   * Tells if the subject at {@code index} is valid.
+   *
+   * @param index
+   *          the index of the subject in the batch
+   * @return {@code true} if the subject is valid
+   * @throws IndexOutOfBoundsException
+   *           if {@code index} is out of the range of the batch
+   */
+  public boolean isValid(final int index) {
+    checkIndex(index);
+    return !failures.get(index);
+  }
+
+  /**
+   * Returns the number of the validated subjects.
+   *
+   * @return the size of the batch
+   */
+  public int size() {
+    return size;
+  }
+
+  private ValidationException validate(final int index) {
+    try {
+      schema.validate(subjects.get(index));
+    } catch (ValidationException e) {
+      return e;
+    }
+    throw new IllegalStateException("subject #" + index
+        + " failed the batch validation, but it is valid against the schema");
+  }
+
+}
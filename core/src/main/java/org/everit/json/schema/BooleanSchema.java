@@ -42,10 +42,20 @@ public class BooleanSchema extends Schema {
     super(builder);
   }
 
+  @Override
+  public boolean isValid(final Object subject) {
+    return subject instanceof Boolean;
+  }
+
   @Override
   public void validate(final Object subject) {
+    validate(subject, ValidationContext.collectAll());
+  }
+
+  @Override
+  void collectViolations(final Object subject, final ValidationContext context) {
     if (!(subject instanceof Boolean)) {
-      throw new ValidationException(this, Boolean.class, subject);
+      context.reportTypeMismatch(this, Boolean.class, subject);
     }
   }
 
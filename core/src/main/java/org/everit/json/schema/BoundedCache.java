@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed size, thread-safe, direct-mapped cache: each key has a single slot, selected by its
+ * hash code, and storing an entry evicts the previous entry of the slot. The memory used by the
+ * cache is bounded regardless of the number of distinct keys, so it can be used with keys coming
+ * from the validated documents.
+ *
+ * <p>
+ * Lookups and stores do not lock: the slots hold immutable entries, so a racing lookup either
+ * sees the old or the new entry of a slot.
+ * </p>
+ *
+ * @param <K>
+ *          the type of the keys
+ * @param <V>
+ *          the type of the values
+ */
+final class BoundedCache<K, V> {
+
+  /**
+   * An immutable cache entry.
+   */
+  private static final class Entry<K, V> {
+
+    final K key;
+
+    final V value;
+
+    Entry(final K key, final V value) {
+      this.key = key;
+      this.value = value;
+    }
+
+  }
+
+  private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+  private final Entry<K, V>[] slots;
+
+  private final LongAdder hitCount = new LongAdder();
+
+  private final LongAdder missCount = new LongAdder();
+
+  /**
+   * Constructor.
+   *
+   * @param size
+   *          the minimum number of slots, rounded up to a power of two
+   */
+  BoundedCache(final int size) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("size must be positive, was " + size);
+    }
+    int capacity = size >= MAXIMUM_CAPACITY ? MAXIMUM_CAPACITY
+        : Integer.highestOneBit(size - 1) << 1;
+    @SuppressWarnings("unchecked")
+    Entry<K, V>[] slots = (Entry<K, V>[]) new Entry<?, ?>[Math.max(capacity, 1)];
+    this.slots = slots;
+  }
+
+  /**
+   * Returns the cached value of {@code key}, or {@code null} if it is not cached.
+   */
+  V get(final K key) {
+    Entry<K, V> entry = slots[slot(key)];
+    if (entry != null && entry.key.equals(key)) {
+      hitCount.increment();
+      return entry.value;
+    }
+    missCount.increment();
+    return null;
+  }
+
+  int getCapacity() {
+    return slots.length;
+  }
+
+  CacheStatistics getStatistics() {
+    return new CacheStatistics(hitCount.sum(), missCount.sum());
+  }
+
+  /**
+   * Stores {@code value} for {@code key}, evicting the entry sharing the slot of the key.
+   */
+  void put(final K key, final V value) {
+    slots[slot(key)] = new Entry<>(Objects.requireNonNull(key, "key cannot be null"), value);
+  }
+
+  private int slot(final K key) {
+    int hash = key.hashCode();
+    return (hash ^ (hash >>> 16)) & (slots.length - 1);
+  }
+
+}
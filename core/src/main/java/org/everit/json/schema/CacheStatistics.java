@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+/**
+ * A snapshot of the hit and miss counts of a cache used during validation.
+ */
+public final class CacheStatistics {
+
+  private final long hitCount;
+
+  private final long missCount;
+
+  CacheStatistics(final long hitCount, final long missCount) {
+    this.hitCount = hitCount;
+    this.missCount = missCount;
+  }
+
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Returns the ratio of the hits and the lookups.
+   *
+   * @return the hit rate, or {@code 0} if there were no lookups
+   */
+  public double getHitRate() {
+    long lookupCount = hitCount + missCount;
+    return lookupCount == 0 ? 0 : (double) hitCount / lookupCount;
+  }
+
+  public long getMissCount() {
+    return missCount;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("hits: %d, misses: %d", hitCount, missCount);
+  }
+
+}
@@ -19,8 +19,17 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Objects;
 
+import org.everit.json.schema.CombinedSchema.ValidationCriterion.Outcome;
+
 /**
  * Validator for {@code allOf}, {@code oneOf}, {@code anyOf} schemas.
+ *
+ * <p>
+ * Subschemas which are known to reject the subject without evaluating them are counted as
+ * non-matching subschemas. These are the subschemas which can only accept other JSON types (like
+ * a {@link StringSchema} requiring a string), and the object schemas which restrict a
+ * discriminator property of the subject to other values.
+ * </p>
  */
 public class CombinedSchema extends Schema {
 
@@ -57,10 +66,68 @@ public class CombinedSchema extends Schema {
 
   /**
    * Validation criterion.
+   *
+   * <p>
+   * The combined schema evaluates its subschemas one by one, and asks the criterion after each of
+   * them if the outcome is already {@link #decide(int, int, int) decided}. Custom criteria only
+   * have to implement {@link #validate(int, int)}, in which case all subschemas are evaluated.
+   * </p>
    */
   @FunctionalInterface
   public interface ValidationCriterion {
 
+    /**
+     * The outcome of a criterion after evaluating some of the subschemas.
+     */
+    enum Outcome {
+
+      /**
+       * The criterion is fulfilled, regardless of the remaining subschemas.
+       */
+      FULFILLED,
+
+      /**
+       * The criterion is violated, regardless of the remaining subschemas.
+       */
+      VIOLATED,
+
+      /**
+       * The outcome depends on the remaining subschemas.
+       */
+      UNDECIDED
+
+    }
+
+    /**
+     * Decides the outcome of the criterion after the first {@code checkedCount} subschemas have
+     * been evaluated. The combined schema stops evaluating the subschemas as soon as this method
+     * returns {@link Outcome#FULFILLED} or {@link Outcome#VIOLATED}.
+     *
+     * <p>
+     * Implementations must not return {@link Outcome#UNDECIDED} if {@code checkedCount} equals
+     * {@code subschemaCount}. The default implementation returns {@link Outcome#UNDECIDED} until
+     * all subschemas are evaluated, and then decides using
+     * {@link #isFulfilled(int, int)}.
+     * </p>
+     *
+     * @param subschemaCount
+     *          the total number of subschemas
+     * @param checkedCount
+     *          the number of subschemas evaluated so far
+     * @param matchingSubschemaCount
+     *          the number of the evaluated subschemas which successfully validated the subject
+     * @return the outcome
+     */
+    default Outcome decide(final int subschemaCount, final int checkedCount,
+        final int matchingSubschemaCount) {
+      if (checkedCount < subschemaCount) {
+        return Outcome.UNDECIDED;
+      }
+      return isFulfilled(subschemaCount, matchingSubschemaCount)
+          ? Outcome.FULFILLED
+          : Outcome.VIOLATED;
+    }
+
     /**
      * Throws a {@link ValidationException} if the implemented criterion is not fulfilled by the
      * {@code subschemaCount} and the {@code matchingSubschemaCount}.
@@ -73,37 +140,151 @@ public class CombinedSchema extends Schema {
      */
     void validate(int subschemaCount, int matchingSubschemaCount);
 
+    /**
+     * Checks if the implemented criterion is fulfilled by the {@code subschemaCount} and the
+     * {@code matchingSubschemaCount}. The default implementation calls
+     * {@link #validate(int, int)} and catches the thrown {@link ValidationException}.
+     *
+     * @param subschemaCount
+     *          the total number of checked subschemas
+     * @param matchingSubschemaCount
+     *          the number of subschemas which successfully validated the subject
+     * @return {@code true} if the criterion is fulfilled, {@code false} otherwise
+     */
+    default boolean isFulfilled(final int subschemaCount, final int matchingSubschemaCount) {
+      try {
+        validate(subschemaCount, matchingSubschemaCount);
+        return true;
+      } catch (ValidationException e) {
+        return false;
+      }
+    }
+
+  }
+
+  /**
+   * Base class of the built-in criteria, which can be checked without throwing exceptions, and
+   * decide as soon as possible.
+   */
+  private abstract static class CountingCriterion implements ValidationCriterion {
+
+    @Override
+    public abstract Outcome decide(int subschemaCount, int checkedCount, int matchingCount);
+
+    /**
+     * Returns the format of the failure message of the criterion, which was violated after
+     * evaluating {@code checkedCount} subschemas. The format refers to the
+     * {@code subschemaCount}, the {@code checkedCount} and the {@code matchingCount} as its first,
+     * second and third argument, so that the message is only formatted if it is requested.
+     */
+    abstract String failureFormat(int subschemaCount, int checkedCount);
+
+    @Override
+    public boolean isFulfilled(final int subschemaCount, final int matchingCount) {
+      return decide(subschemaCount, subschemaCount, matchingCount) == Outcome.FULFILLED;
+    }
+
+    @Override
+    public void validate(final int subschemaCount, final int matchingCount) {
+      if (!isFulfilled(subschemaCount, matchingCount)) {
+        throw new ValidationException(String.format(failureFormat(subschemaCount,
+            subschemaCount), subschemaCount, subschemaCount, matchingCount));
+      }
+    }
+
+  }
+
+  /**
+   * The outcome of the criterion after evaluating the first {@code checkedCount} subschemas, of
+   * which {@code matchingCount} accepted the subject. The outcome is
+   * {@link Outcome#UNDECIDED} only if a custom criterion did not decide after all subschemas.
+   */
+  private static final class Evaluation {
+
+    final Outcome outcome;
+
+    final int checkedCount;
+
+    final int matchingCount;
+
+    Evaluation(final Outcome outcome, final int checkedCount, final int matchingCount) {
+      this.outcome = outcome;
+      this.checkedCount = checkedCount;
+      this.matchingCount = matchingCount;
+    }
+
   }
 
   /**
-   * Validation criterion for {@code allOf} schemas.
+   * Validation criterion for {@code allOf} schemas. Violated by the first non-matching
+   * subschema.
    */
-  public static final ValidationCriterion ALL_CRITERION = (subschemaCount, matchingCount) -> {
-    if (matchingCount < subschemaCount) {
-      throw new ValidationException(String.format("only %d subschema matches out of %d",
-          matchingCount, subschemaCount));
+  public static final ValidationCriterion ALL_CRITERION = new CountingCriterion() {
+
+    @Override
+    public Outcome decide(final int subschemaCount, final int checkedCount,
+        final int matchingCount) {
+      if (matchingCount < checkedCount) {
+        return Outcome.VIOLATED;
+      }
+      return checkedCount < subschemaCount ? Outcome.UNDECIDED : Outcome.FULFILLED;
+    }
+
+    @Override
+    String failureFormat(final int subschemaCount, final int checkedCount) {
+      if (checkedCount < subschemaCount) {
+        return "subschema #%2$d out of %1$d does not match";
+      }
+      return "only %3$d subschema matches out of %1$d";
     }
+
   };
 
   /**
-   * Validation criterion for {@code anyOf} schemas.
+   * Validation criterion for {@code anyOf} schemas. Fulfilled by the first matching subschema.
    */
-  public static final ValidationCriterion ANY_CRITERION = (subschemaCount, matchingCount) -> {
-    if (matchingCount == 0) {
-      throw new ValidationException(String.format(
-          "no subschema matched out of the total %d subschemas",
-          subschemaCount));
+  public static final ValidationCriterion ANY_CRITERION = new CountingCriterion() {
+
+    @Override
+    public Outcome decide(final int subschemaCount, final int checkedCount,
+        final int matchingCount) {
+      if (matchingCount > 0) {
+        return Outcome.FULFILLED;
+      }
+      return checkedCount < subschemaCount ? Outcome.UNDECIDED : Outcome.VIOLATED;
+    }
+
+    @Override
+    String failureFormat(final int subschemaCount, final int checkedCount) {
+      return "no subschema matched out of the total %1$d subschemas";
     }
+
   };
 
   /**
-   * Validation criterion for {@code oneOf} schemas.
+   * Validation criterion for {@code oneOf} schemas. Violated by the second matching subschema.
    */
-  public static final ValidationCriterion ONE_CRITERION = (subschemaCount, matchingCount) -> {
-    if (matchingCount != 1) {
-      throw new ValidationException(String.format("%d subschemas matched instead of one",
-          matchingCount));
+  public static final ValidationCriterion ONE_CRITERION = new CountingCriterion() {
+
+    @Override
+    public Outcome decide(final int subschemaCount, final int checkedCount,
+        final int matchingCount) {
+      if (matchingCount > 1) {
+        return Outcome.VIOLATED;
+      } else if (checkedCount < subschemaCount) {
+        return Outcome.UNDECIDED;
+      }
+      return matchingCount == 1 ? Outcome.FULFILLED : Outcome.VIOLATED;
+    }
+
+    @Override
+    String failureFormat(final int subschemaCount, final int checkedCount) {
+      if (checkedCount < subschemaCount) {
+        return "at least %3$d subschemas matched instead of one";
+      }
+      return "%3$d subschemas matched instead of one";
     }
+
   };
 
   public static Builder allOf(final Collection<Schema> schemas) {
@@ -130,6 +311,14 @@ public class CombinedSchema extends Schema {
 
   private final ValidationCriterion criterion;
 
+  private final Schema[] subschemaArray;
+
+  /**
+   * Built lazily, since the referred schemas of the {@link ReferenceSchema} subschemas are not
+   * known at construction time.
+   */
+  private volatile SubschemaIndex subschemaIndex;
+
   /**
    * Constructor.
    *
@@ -140,6 +329,43 @@ public class CombinedSchema extends Schema {
     super(builder);
     this.criterion = Objects.requireNonNull(builder.criterion, "criterion cannot be null");
     this.subschemas = Objects.requireNonNull(builder.subschemas, "subschemas cannot be null");
+    this.subschemaArray = subschemas.toArray(new Schema[subschemas.size()]);
+  }
+
+  /**
+   * Returns the indexes of the subschemas which may accept {@code subject}, in ascending order.
+   * The other subschemas are known to reject it.
+   */
+  private int[] candidates(final Object subject) {
+    SubschemaIndex index = subschemaIndex;
+    if (index == null) {
+      index = new SubschemaIndex(subschemaArray);
+      subschemaIndex = index;
+    }
+    return index.candidates(subject);
+  }
+
+  /**
+   * Evaluates the subschemas on {@code subject} until the criterion is decided. The subschemas
+   * which are not {@link #candidates(Object) candidates} are counted as non-matching.
+   */
+  private Evaluation evaluate(final Object subject) {
+    int[] candidates = candidates(subject);
+    int subschemaCount = subschemaArray.length;
+    int checkedCount = 0;
+    int matchingCount = 0;
+    int nextCandidate = 0;
+    Outcome outcome = criterion.decide(subschemaCount, checkedCount, matchingCount);
+    while (outcome == Outcome.UNDECIDED && checkedCount < subschemaCount) {
+      if (nextCandidate < candidates.length && candidates[nextCandidate] == checkedCount) {
+        ++nextCandidate;
+        if (subschemaArray[checkedCount].isValid(subject)) {
+          ++matchingCount;
+        }
+      }
+      outcome = criterion.decide(subschemaCount, ++checkedCount, matchingCount);
+    }
+    return new Evaluation(outcome, checkedCount, matchingCount);
   }
 
   public ValidationCriterion getCriterion() {
@@ -150,24 +376,42 @@ public class CombinedSchema extends Schema {
     return subschemas;
   }
 
-  private boolean succeeds(final Schema schema, final Object subject) {
-    try {
-      schema.validate(subject);
-      return true;
-    } catch (ValidationException e) {
-      return false;
-    }
+  @Override
+  public boolean isValid(final Object subject) {
+    Evaluation evaluation = evaluate(subject);
+    return evaluation.outcome == Outcome.UNDECIDED
+        ? criterion.isFulfilled(subschemaArray.length, evaluation.matchingCount)
+        : evaluation.outcome == Outcome.FULFILLED;
   }
 
   @Override
   public void validate(final Object subject) {
-    int matchingCount = (int) subschemas.stream()
-        .filter(schema -> succeeds(schema, subject))
-        .count();
+    validate(subject, ValidationContext.collectAll());
+  }
+
+  @Override
+  void collectViolations(final Object subject, final ValidationContext context) {
+    Evaluation evaluation = evaluate(subject);
+    Outcome outcome = evaluation.outcome;
+    int subschemaCount = subschemaArray.length;
+    int checkedCount = evaluation.checkedCount;
+    int matchingCount = evaluation.matchingCount;
+    if (outcome == Outcome.FULFILLED) {
+      return;
+    }
+    if (criterion instanceof CountingCriterion) {
+      context.reportFailure(this, ((CountingCriterion) criterion).failureFormat(subschemaCount,
+          checkedCount), subschemaCount, checkedCount, matchingCount);
+      return;
+    }
     try {
-      criterion.validate(subschemas.size(), matchingCount);
+      criterion.validate(subschemaCount, matchingCount);
+      if (outcome == Outcome.VIOLATED) {
+        context.reportFailure(this, "%d out of the first %d subschemas matched", matchingCount,
+            checkedCount);
+      }
     } catch (ValidationException e) {
-      throw new ValidationException(this, e.getMessage());
+      context.reportFailure(this, e.getMessage());
     }
   }
 
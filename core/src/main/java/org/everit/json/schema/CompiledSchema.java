@@ -0,0 +1,656 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+import org.everit.json.schema.CombinedSchema.ValidationCriterion;
+import org.everit.json.schema.CombinedSchema.ValidationCriterion.Outcome;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * A {@link Schema} compiled into a flat instruction program, which is executed by an interpreter
+ * loop.
+ *
+ * <p>
+ * The compiled program checks if a subject is valid against the schema without walking the
+ * schema tree, creating exceptions or allocating per-node objects. {@link ReferenceSchema}s are
+ * resolved at compilation time into direct jumps, therefore recursive schemas are supported.
+ * </p>
+ *
+ * <p>
+ * If the subject turns out to be invalid, {@link #validate(Object)} re-validates it with the
+ * original schema to report the schema violations, so it throws the same
+ * {@link ValidationException} as {@link Schema#validate(Object)}.
+ * </p>
+ *
+ * <p>
+ * Instances are immutable and can be shared between threads.
+ * </p>
+ */
+public final class CompiledSchema implements SchemaValidator {
+
+  /*
+   * Instruction set. Each instruction is an opcode followed by its operands. Every block (the
+   * compiled form of a schema) is terminated by ACCEPT. The instructions return false from the
+   * block if the subject does not fulfill them. Operands denoted by "block" are code offsets, and
+   * operands denoted by "const" are indexes of the constant pool, where -1 stands for an absent
+   * optional constant. The code holds ints only, the other values (such as the NumberRange and the
+   * MultipleOf check of NUMBER) are stored in the constant pool.
+   */
+
+  /** Accepts the subject. */
+  static final int ACCEPT = 0;
+
+  /** {@code const}: validates the subject with a schema which cannot be compiled. */
+  static final int EXTERNAL = 1;
+
+  /** Requires the subject to be a boolean. */
+  static final int IS_BOOLEAN = 2;
+
+  /** Requires the subject to be null. */
+  static final int IS_NULL = 3;
+
+  /**
+   * {@code flags, const, const}: type test, range and multiple checks of a number subject. The
+   * flags are {@link #REQUIRED_TYPE} and {@link #NUMBER_INTEGER}, the constants are the
+   * {@link NumberRange} and the {@link MultipleOf} check, or {@code -1} if the schema has no bounds
+   * or no {@code multipleOf}.
+   */
+  static final int NUMBER = 4;
+
+  /**
+   * {@code flags, minLength, maxLength, const}: type test, length, pattern and format checks of a
+   * string subject. The only flag is {@link #REQUIRED_TYPE}, and the constant is the
+   * {@link StringSchema} whose pattern must be found in the string and whose format must accept
+   * it, or {@code -1} if there is neither a pattern nor a known format.
+   */
+  static final int STRING = 5;
+
+  /**
+   * {@code flags}: if the subject is not an array, then rejects it if the {@link #REQUIRED_TYPE}
+   * flag is set, and accepts it otherwise.
+   */
+  static final int IF_NOT_ARRAY = 6;
+
+  /** {@code flags}: like {@link #IF_NOT_ARRAY} for objects. */
+  static final int IF_NOT_OBJECT = 7;
+
+  /** {@code const}: the {@link EnumValueSet} of the possible values of the subject. */
+  static final int ENUM = 8;
+
+  /** {@code block}: the subject must not be accepted by the block. */
+  static final int NOT = 9;
+
+  /** {@code count, block...}: the subject must be accepted by all blocks. */
+  static final int ALL_OF = 10;
+
+  /** {@code count, block...}: the subject must be accepted by at least one block. */
+  static final int ANY_OF = 11;
+
+  /** {@code count, block...}: the subject must be accepted by exactly one block. */
+  static final int ONE_OF = 12;
+
+  /**
+   * {@code const, count, block...}: the number of blocks accepting the subject must fulfill the
+   * {@link ValidationCriterion} in the constant pool.
+   */
+  static final int COMBINED = 13;
+
+  /** {@code count}: minimum item count of an array subject. */
+  static final int MIN_ITEMS = 14;
+
+  /** {@code count}: maximum item count of an array subject. */
+  static final int MAX_ITEMS = 15;
+
+  /** The items of an array subject must be unique. */
+  static final int UNIQUE_ITEMS = 16;
+
+  /** {@code count, block...}: the first items of an array subject must be accepted by the blocks. */
+  static final int ITEMS = 17;
+
+  /**
+   * {@code from, block}: the items of an array subject from the {@code from} index must be
+   * accepted by the block.
+   */
+  static final int ITEMS_FROM = 18;
+
+  /** {@code count}: minimum property count of an object subject. */
+  static final int MIN_PROPERTIES = 19;
+
+  /** {@code count}: maximum property count of an object subject. */
+  static final int MAX_PROPERTIES = 20;
+
+  /** {@code const}: array of the required property names of an object subject. */
+  static final int REQUIRED = 21;
+
+  /**
+   * {@code const}: array of property dependencies, each of them is an array of property names.
+   * If the object subject has the property of the first name, then it must have the rest.
+   */
+  static final int PROPERTY_DEPENDENCIES = 22;
+
+  /**
+   * {@code const, block}: if the object subject has the named property, then it must be accepted
+   * by the block.
+   */
+  static final int SCHEMA_DEPENDENCY = 23;
+
+  /**
+   * {@code const, additional, block, patternCount, propertyCount, block...}: validates the
+   * properties of an object subject in a single pass over its keys, looking up each key in the
+   * {@link KeyTable} in the constant pool. The value of the n-th declared property must be
+   * accepted by the n-th property block, and the values of the properties matching the n-th
+   * pattern must be accepted by the n-th pattern block (the pattern blocks precede the property
+   * blocks). Additional properties are rejected if {@code additional} is
+   * {@link #ADDITIONAL_FORBIDDEN}, and must be accepted by the first block if it is
+   * {@link #ADDITIONAL_SCHEMA}.
+   */
+  static final int KEYS = 24;
+
+  static final int ADDITIONAL_ALLOWED = 0;
+
+  static final int ADDITIONAL_FORBIDDEN = 1;
+
+  static final int ADDITIONAL_SCHEMA = 2;
+
+  /** Flag of the type testing instructions: the subject must be of the tested type. */
+  static final int REQUIRED_TYPE = 1;
+
+  /** Flag of {@link #NUMBER}: the subject must be an integer. */
+  static final int NUMBER_INTEGER = 2;
+
+  /**
+   * The property names known by an object schema: the indexes of the declared properties and the
+   * patterns of the pattern properties.
+   */
+  static final class KeyTable {
+
+    final Map<String, Integer> propertyIndexes;
+
+    final Pattern[] patterns;
+
+    /**
+     * Matches all {@link #patterns} at once, {@code null} if there are no patterns.
+     */
+    final MultiPatternMatcher patternMatcher;
+
+    /**
+     * The factory of the regular expressions of the {@link #patterns}.
+     */
+    final RegexpFactory regexpFactory;
+
+    KeyTable(final Map<String, Integer> propertyIndexes, final Pattern[] patterns,
+        final RegexpFactory regexpFactory) {
+      this.propertyIndexes = propertyIndexes;
+      this.patterns = patterns;
+      this.regexpFactory = regexpFactory;
+      this.patternMatcher = patterns.length == 0 ? null
+          : new MultiPatternMatcher(patterns, regexpFactory);
+    }
+
+  }
+
+  /**
+   * Compiles {@code schema}.
+   *
+   * @param schema
+   *          the schema to be compiled
+   * @return the compiled schema
+   * @throws IllegalStateException
+   *           if {@code schema} contains a {@link ReferenceSchema} without a referred schema
+   */
+  public static CompiledSchema compile(final Schema schema) {
+    return new SchemaCompiler().compile(Objects.requireNonNull(schema, "schema cannot be null"));
+  }
+
+  private final Schema schema;
+
+  private final int[] code;
+
+  private final Object[] constants;
+
+  private final int entryPoint;
+
+  CompiledSchema(final Schema schema, final int[] code, final Object[] constants,
+      final int entryPoint) {
+    this.schema = schema;
+    this.code = code;
+    this.constants = constants;
+    this.entryPoint = entryPoint;
+  }
+
+  private boolean execute(final int blockStart, final Object subject) {
+    final int[] code = this.code;
+    int pc = blockStart;
+    while (true) {
+      switch (code[pc]) {
+        case ACCEPT:
+          return true;
+        case EXTERNAL:
+          if (!((Schema) constants[code[pc + 1]]).isValid(subject)) {
+            return false;
+          }
+          pc += 2;
+          break;
+        case IS_BOOLEAN:
+          if (!(subject instanceof Boolean)) {
+            return false;
+          }
+          pc += 1;
+          break;
+        case IS_NULL:
+          if (!isNull(subject)) {
+            return false;
+          }
+          pc += 1;
+          break;
+        case NUMBER:
+          if (!isValidNumber(code, pc, subject)) {
+            return false;
+          }
+          pc += 4;
+          break;
+        case STRING:
+          if (!isValidString(code, pc, subject)) {
+            return false;
+          }
+          pc += 5;
+          break;
+        case IF_NOT_ARRAY:
+          if (!(subject instanceof JSONArray)) {
+            return (code[pc + 1] & REQUIRED_TYPE) == 0;
+          }
+          pc += 2;
+          break;
+        case IF_NOT_OBJECT:
+          if (!(subject instanceof JSONObject)) {
+            return (code[pc + 1] & REQUIRED_TYPE) == 0;
+          }
+          pc += 2;
+          break;
+        case ENUM:
+          if (!((EnumValueSet) constants[code[pc + 1]]).contains(subject)) {
+            return false;
+          }
+          pc += 2;
+          break;
+        case NOT:
+          if (run(code[pc + 1], subject)) {
+            return false;
+          }
+          pc += 2;
+          break;
+        case ALL_OF:
+          if (!allOf(code, pc + 2, code[pc + 1], subject)) {
+            return false;
+          }
+          pc += 2 + code[pc + 1];
+          break;
+        case ANY_OF:
+          if (!anyOf(code, pc + 2, code[pc + 1], subject)) {
+            return false;
+          }
+          pc += 2 + code[pc + 1];
+          break;
+        case ONE_OF:
+          if (!oneOf(code, pc + 2, code[pc + 1], subject)) {
+            return false;
+          }
+          pc += 2 + code[pc + 1];
+          break;
+        case COMBINED:
+          if (!combined((ValidationCriterion) constants[code[pc + 1]], code, pc + 3,
+              code[pc + 2], subject)) {
+            return false;
+          }
+          pc += 3 + code[pc + 2];
+          break;
+        case MIN_ITEMS:
+          if (((JSONArray) subject).length() < code[pc + 1]) {
+            return false;
+          }
+          pc += 2;
+          break;
+        case MAX_ITEMS:
+          if (((JSONArray) subject).length() > code[pc + 1]) {
+            return false;
+          }
+          pc += 2;
+          break;
+        case UNIQUE_ITEMS:
+          if (!ArraySchema.itemsAreUnique((JSONArray) subject)) {
+            return false;
+          }
+          pc += 1;
+          break;
+        case ITEMS:
+          if (!items((JSONArray) subject, code, pc + 2, code[pc + 1])) {
+            return false;
+          }
+          pc += 2 + code[pc + 1];
+          break;
+        case ITEMS_FROM:
+          if (!itemsFrom((JSONArray) subject, code[pc + 1], code[pc + 2])) {
+            return false;
+          }
+          pc += 3;
+          break;
+        case MIN_PROPERTIES:
+          if (((JSONObject) subject).length() < code[pc + 1]) {
+            return false;
+          }
+          pc += 2;
+          break;
+        case MAX_PROPERTIES:
+          if (((JSONObject) subject).length() > code[pc + 1]) {
+            return false;
+          }
+          pc += 2;
+          break;
+        case REQUIRED:
+          if (!hasAll((JSONObject) subject, (String[]) constants[code[pc + 1]], 0)) {
+            return false;
+          }
+          pc += 2;
+          break;
+        case PROPERTY_DEPENDENCIES:
+          if (!propertyDependenciesAreSatisfied((JSONObject) subject,
+              (String[][]) constants[code[pc + 1]])) {
+            return false;
+          }
+          pc += 2;
+          break;
+        case SCHEMA_DEPENDENCY:
+          if (((JSONObject) subject).has((String) constants[code[pc + 1]])
+              && !run(code[pc + 2], subject)) {
+            return false;
+          }
+          pc += 3;
+          break;
+        case KEYS:
+          if (!keysAreValid((JSONObject) subject, (KeyTable) constants[code[pc + 1]], code,
+              pc + 2)) {
+            return false;
+          }
+          pc += 6 + code[pc + 4] + code[pc + 5];
+          break;
+        default:
+          throw new IllegalStateException("invalid opcode " + code[pc] + " at " + pc);
+      }
+    }
+  }
+
+  private boolean allOf(final int[] code, final int blocksStart, final int blockCount,
+      final Object subject) {
+    for (int i = blocksStart; i < blocksStart + blockCount; ++i) {
+      if (!run(code[i], subject)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean anyOf(final int[] code, final int blocksStart, final int blockCount,
+      final Object subject) {
+    for (int i = blocksStart; i < blocksStart + blockCount; ++i) {
+      if (run(code[i], subject)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean combined(final ValidationCriterion criterion, final int[] code,
+      final int blocksStart, final int blockCount, final Object subject) {
+    int matchingCount = 0;
+    Outcome outcome = criterion.decide(blockCount, 0, matchingCount);
+    for (int i = 0; outcome == Outcome.UNDECIDED && i < blockCount; ++i) {
+      if (run(code[blocksStart + i], subject)) {
+        ++matchingCount;
+      }
+      outcome = criterion.decide(blockCount, i + 1, matchingCount);
+    }
+    return outcome == Outcome.UNDECIDED
+        ? criterion.isFulfilled(blockCount, matchingCount)
+        : outcome == Outcome.FULFILLED;
+  }
+
+  int[] getCode() {
+    return code;
+  }
+
+  Object[] getConstants() {
+    return constants;
+  }
+
+  int getEntryPoint() {
+    return entryPoint;
+  }
+
+  @Override
+  public Schema getSchema() {
+    return schema;
+  }
+
+  private boolean hasAll(final JSONObject subject, final String[] propNames, final int from) {
+    for (int i = from; i < propNames.length; ++i) {
+      if (!subject.has(propNames[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean isNull(final Object subject) {
+    return subject == null || subject == JSONObject.NULL;
+  }
+
+  /**
+   * Checks if the {@code subject} is valid against the compiled schema.
+   *
+   * @param subject
+   *          the object to be validated
+   * @return {@code true} if the {@code subject} is valid, {@code false} otherwise
+   */
+  @Override
+  public boolean isValid(final Object subject) {
+    return run(entryPoint, subject);
+  }
+
+  private boolean isValidNumber(final int[] code, final int pc, final Object subject) {
+    int flags = code[pc + 1];
+    if (!(subject instanceof Number)) {
+      return (flags & REQUIRED_TYPE) == 0;
+    }
+    Number number = (Number) subject;
+    if ((flags & NUMBER_INTEGER) != 0 && !NumberSchema.isInteger(number)) {
+      return false;
+    }
+    if (code[pc + 2] != -1 && !((NumberRange) constants[code[pc + 2]]).contains(number)) {
+      return false;
+    }
+    return code[pc + 3] == -1 || ((MultipleOf) constants[code[pc + 3]]).isMultiple(number);
+  }
+
+  private boolean isValidString(final int[] code, final int pc, final Object subject) {
+    if (!(subject instanceof String)) {
+      return (code[pc + 1] & REQUIRED_TYPE) == 0;
+    }
+    String stringSubject = (String) subject;
+    int length = stringSubject.length();
+    if (length < code[pc + 2] || length > code[pc + 3]) {
+      return false;
+    }
+    int schemaIndex = code[pc + 4];
+    if (schemaIndex == -1) {
+      return true;
+    }
+    StringSchema schema = (StringSchema) constants[schemaIndex];
+    return schema.matchesPattern(stringSubject) && schema.matchesFormat(stringSubject);
+  }
+
+  private boolean items(final JSONArray subject, final int[] code, final int blocksStart,
+      final int blockCount) {
+    int itemValidationUntil = Math.min(subject.length(), blockCount);
+    for (int i = 0; i < itemValidationUntil; ++i) {
+      if (!run(code[blocksStart + i], subject.get(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean itemsFrom(final JSONArray subject, final int from, final int itemBlock) {
+    int length = subject.length();
+    for (int i = from; i < length; ++i) {
+      if (!run(itemBlock, subject.get(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean keysAreValid(final JSONObject subject, final KeyTable keyTable,
+      final int[] code, final int operandsStart) {
+    int additional = code[operandsStart];
+    int additionalBlock = code[operandsStart + 1];
+    int patternBlocksStart = operandsStart + 4;
+    int propertyBlocksStart = patternBlocksStart + code[operandsStart + 2];
+    MultiPatternMatcher patternMatcher = keyTable.patternMatcher;
+    BitSet patternMatches = patternMatcher == null ? null : new BitSet(keyTable.patterns.length);
+    for (String key : subject.keySet()) {
+      Integer propertyIndex = keyTable.propertyIndexes.get(key);
+      boolean known = propertyIndex != null;
+      if (known && !run(code[propertyBlocksStart + propertyIndex], subject.get(key))) {
+        return false;
+      }
+      if (patternMatches != null) {
+        try {
+          patternMatcher.match(key, patternMatches);
+        } catch (RegexpStepLimitExceededException e) {
+          return false;
+        }
+        for (int i = patternMatches.nextSetBit(0); i >= 0; i = patternMatches.nextSetBit(i + 1)) {
+          known = true;
+          if (!run(code[patternBlocksStart + i], subject.get(key))) {
+            return false;
+          }
+        }
+      }
+      if (!known) {
+        if (additional == ADDITIONAL_FORBIDDEN) {
+          return false;
+        } else if (additional == ADDITIONAL_SCHEMA && !run(additionalBlock, subject.get(key))) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private boolean oneOf(final int[] code, final int blocksStart, final int blockCount,
+      final Object subject) {
+    int matchingCount = 0;
+    for (int i = blocksStart; i < blocksStart + blockCount; ++i) {
+      if (run(code[i], subject) && ++matchingCount > 1) {
+        return false;
+      }
+    }
+    return matchingCount == 1;
+  }
+
+  private boolean propertyDependenciesAreSatisfied(final JSONObject subject,
+      final String[][] dependencies) {
+    for (String[] dependency : dependencies) {
+      if (subject.has(dependency[0]) && !hasAll(subject, dependency, 1)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the size of the compiled program, in instruction set units (opcodes and operands).
+   *
+   * @return the program size
+   */
+  public int programSize() {
+    return code.length;
+  }
+
+  /**
+   * Executes a block. Scalar blocks, which consist of a single {@link #NUMBER}, {@link #STRING},
+   * {@link #IS_BOOLEAN} or {@link #IS_NULL} instruction and the terminating {@link #ACCEPT}, are
+   * evaluated without entering the interpreter loop. This keeps the validation of the items of
+   * large arrays and of primitive properties cheap.
+   */
+  private boolean run(final int blockStart, final Object subject) {
+    final int[] code = this.code;
+    switch (code[blockStart]) {
+      case NUMBER:
+        return isValidNumber(code, blockStart, subject);
+      case STRING:
+        return isValidString(code, blockStart, subject);
+      case IS_BOOLEAN:
+        return subject instanceof Boolean;
+      case IS_NULL:
+        return isNull(subject);
+      default:
+        return execute(blockStart, subject);
+    }
+  }
+
+  /**
+   * Validates the {@code subject} against the compiled schema. If it is invalid, then the
+   * {@code subject} is validated against the original schema to report the violations.
+   *
+   * @param subject
+   *          the object to be validated
+   * @throws ValidationException
+   *           if the {@code subject} is invalid
+   */
+  @Override
+  public void validate(final Object subject) {
+    if (!isValid(subject)) {
+      schema.validate(subject);
+    }
+  }
+
+  /**
+   * Validates the {@code subject} against the compiled schema. If it is invalid, then the
+   * {@code subject} is validated against the original schema, reporting the violations to the
+   * {@code context}.
+   *
+   * @param subject
+   *          the object to be validated
+   * @param context
+   *          the context receiving the violations
+   * @throws ValidationException
+   *           if the {@code subject} is invalid and the {@code context} collects exceptions
+   */
+  @Override
+  public void validate(final Object subject, final ValidationContext context) {
+    if (!isValid(subject)) {
+      schema.validate(subject, context);
+    }
+  }
+
+}
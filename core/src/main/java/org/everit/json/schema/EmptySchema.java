@@ -47,4 +47,14 @@ public class EmptySchema extends Schema {
     // always passing
   }
 
+  @Override
+  public boolean isValid(final Object subject) {
+    return true;
+  }
+
+  @Override
+  void collectViolations(final Object subject, final ValidationContext context) {
+    // always passing
+  }
+
 }
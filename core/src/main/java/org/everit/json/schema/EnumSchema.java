@@ -54,24 +54,37 @@ public class EnumSchema extends Schema {
 
   private final Set<Object> possibleValues;
 
+  private final EnumValueSet valueSet;
+
   public EnumSchema(final Builder builder) {
     super(builder);
     possibleValues = Collections.unmodifiableSet(new HashSet<>(builder.possibleValues));
+    valueSet = EnumValueSet.of(possibleValues);
   }
 
   public Set<Object> getPossibleValues() {
     return possibleValues;
   }
 
+  EnumValueSet getValueSet() {
+    return valueSet;
+  }
+
+  @Override
+  public boolean isValid(final Object subject) {
+    return valueSet.contains(subject);
+  }
+
   @Override
   public void validate(final Object subject) {
-    possibleValues
-        .stream()
-        .filter(val -> ObjectComparator.deepEquals(val, subject))
-        .findAny()
-        .orElseThrow(
-            () -> new ValidationException(this, String.format("%s is not a valid enum value",
-                subject)));
+    validate(subject, ValidationContext.collectAll());
+  }
+
+  @Override
+  void collectViolations(final Object subject, final ValidationContext context) {
+    if (!isValid(subject)) {
+      context.reportFailure(this, "%s is not a valid enum value", subject);
+    }
   }
 
 }
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.json.JSONObject;
+
+/**
+ * The possible values of an {@link EnumSchema}, which tells in constant time if a subject is one
+ * of them.
+ *
+ * <p>
+ * The values are split by their JSON types. Strings are kept in a hash set, booleans and null as
+ * flags. Numbers, arrays and objects are kept in an open-addressing hash table by their
+ * {@link ObjectComparator#deepHashCode(Object) structural hash codes}, and are compared to the
+ * subject with {@link ObjectComparator#deepEquals(Object, Object)} only if the hash codes are
+ * equal. The lookup of a string, a boolean, a null or a primitive wrapper does not allocate.
+ * Numbers are compared by their values, so {@code 1} is found among the values if {@code 1.0} is
+ * one of them.
+ * </p>
+ */
+public final class EnumValueSet {
+
+  /**
+   * Creates the set of {@code possibleValues}.
+   *
+   * @param possibleValues
+   *          the possible values of the enum
+   * @return the set of the values
+   */
+  public static EnumValueSet of(final Collection<?> possibleValues) {
+    return new EnumValueSet(possibleValues.toArray());
+  }
+
+  private static int slot(final int hash, final int mask) {
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
+  private final Object[] possibleValues;
+
+  private final Set<String> strings = new HashSet<>();
+
+  private final boolean containsTrue;
+
+  private final boolean containsFalse;
+
+  private final boolean containsNull;
+
+  /**
+   * The hash codes of the numbers, arrays and objects, by slot.
+   */
+  private final int[] hashes;
+
+  /**
+   * The numbers, arrays and objects by slot, {@code null} in the empty slots.
+   */
+  private final Object[] values;
+
+  private EnumValueSet(final Object[] possibleValues) {
+    this.possibleValues = possibleValues;
+    boolean containsTrue = false;
+    boolean containsFalse = false;
+    boolean containsNull = false;
+    int otherCount = 0;
+    for (Object value : possibleValues) {
+      if (value instanceof String) {
+        strings.add((String) value);
+      } else if (value instanceof Boolean) {
+        containsTrue |= (Boolean) value;
+        containsFalse |= !(Boolean) value;
+      } else if (value == null || value == JSONObject.NULL) {
+        containsNull = true;
+      } else {
+        ++otherCount;
+      }
+    }
+    this.containsTrue = containsTrue;
+    this.containsFalse = containsFalse;
+    this.containsNull = containsNull;
+    int capacity = otherCount == 0 ? 0 : Integer.highestOneBit(otherCount * 2 - 1) << 1;
+    this.hashes = new int[capacity];
+    this.values = new Object[capacity];
+    for (Object value : possibleValues) {
+      if (!(value instanceof String || value instanceof Boolean || value == null
+          || value == JSONObject.NULL) && !containsOther(value)) {
+        int hash = ObjectComparator.deepHashCode(value);
+        int slot = slot(hash, capacity - 1);
+        while (values[slot] != null) {
+          slot = (slot + 1) & (capacity - 1);
+        }
+        hashes[slot] = hash;
+        values[slot] = value;
+      }
+    }
+  }
+
+  /**
+   * Tells if {@code subject} is one of the possible values.
+   *
+   * @param subject
+   *          the value to be looked up
+   * @return {@code true} if the subject is one of the possible values
+   */
+  public boolean contains(final Object subject) {
+    if (subject instanceof String) {
+      return strings.contains(subject);
+    } else if (subject instanceof Boolean) {
+      return (Boolean) subject ? containsTrue : containsFalse;
+    } else if (subject == null || subject == JSONObject.NULL) {
+      return containsNull;
+    }
+    return containsOther(subject);
+  }
+
+  private boolean containsOther(final Object subject) {
+    if (values.length == 0) {
+      return false;
+    }
+    int hash = ObjectComparator.deepHashCode(subject);
+    int mask = values.length - 1;
+    for (int slot = slot(hash, mask); values[slot] != null; slot = (slot + 1) & mask) {
+      if (hashes[slot] == hash && ObjectComparator.deepEquals(values[slot], subject)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the possible values the set was created from.
+   */
+  Object[] getPossibleValues() {
+    return possibleValues;
+  }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link ValidationListener} building the {@link ValidationException} thrown by
+ * {@link Schema#validate(Object)}.
+ *
+ * <p>
+ * Each reported violation becomes a {@code ValidationException}. The violations reported within a
+ * group (see {@link ValidationContext#startGroup()}) are merged into a single exception if there
+ * are more than one of them, so the resulting exception hierarchy follows the structure of the
+ * validated document.
+ * </p>
+ */
+final class ExceptionCollector implements ValidationListener {
+
+  private final List<ValidationException> failures = new ArrayList<>();
+
+  void add(final ValidationException failure) {
+    failures.add(failure);
+  }
+
+  ValidationException get(final int index) {
+    return failures.get(index);
+  }
+
+  void group(final Schema schema, final JSONPointerPath pointer, final int groupStart) {
+    List<ValidationException> group = failures.subList(groupStart, failures.size());
+    ValidationException groupFailure = new ValidationException(schema, pointer,
+        new ArrayList<>(group));
+    group.clear();
+    failures.add(groupFailure);
+  }
+
+  @Override
+  public void onViolation(final Violation violation) {
+    failures.add(new ValidationException(violation));
+  }
+
+  void reassign(final Schema schema, final int groupStart) {
+    int lastIndex = failures.size() - 1;
+    if (lastIndex >= groupStart) {
+      failures.set(lastIndex, failures.get(lastIndex).withViolatedSchema(schema));
+    }
+  }
+
+  int size() {
+    return failures.size();
+  }
+
+  void throwFailures(final Schema rootSchema) {
+    List<ValidationException> rval = new ArrayList<>(failures);
+    failures.clear();
+    ValidationException.throwFor(rootSchema, rval);
+  }
+
+}
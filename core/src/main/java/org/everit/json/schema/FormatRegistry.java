@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An immutable set of named {@link FormatValidator}s, which validate the strings of the
+ * {@code format}s of the {@link StringSchema}s. The formats unknown to the registry are not
+ * validated at all.
+ *
+ * <p>
+ * The {@link #DEFAULT default registry} contains the formats defined by the draft 4 specification,
+ * see {@link Formats}. Custom formats, or faster validators of the built-in formats, can be added
+ * to a registry created by the {@link #builder() builder}:
+ * </p>
+ *
+ * <pre>
+ * FormatRegistry registry = FormatRegistry.builder()
+ *     .format("uuid", subject -&gt; ...)
+ *     .build();
+ * </pre>
+ */
+public final class FormatRegistry {
+
+  /**
+   * Builder class for {@link FormatRegistry}.
+   */
+  public static class Builder {
+
+    private final Map<String, FormatValidator> validators = new HashMap<>();
+
+    private Builder() {
+      validators.put("date-time", Formats.DATE_TIME);
+      validators.put("email", Formats.EMAIL);
+      validators.put("hostname", Formats.HOSTNAME);
+      validators.put("ipv4", Formats.IPV4);
+      validators.put("ipv6", Formats.IPV6);
+      validators.put("uri", Formats.URI);
+    }
+
+    public FormatRegistry build() {
+      return new FormatRegistry(this);
+    }
+
+    /**
+     * Adds a format, replacing the validator of the format if it is already registered.
+     *
+     * @param format
+     *          the name of the format
+     * @param validator
+     *          the validator of the format
+     * @return {@code this}
+     */
+    public Builder format(final String format, final FormatValidator validator) {
+      validators.put(Objects.requireNonNull(format, "format cannot be null"),
+          Objects.requireNonNull(validator, "validator cannot be null"));
+      return this;
+    }
+
+  }
+
+  /**
+   * The registry of the built-in formats.
+   */
+  public static final FormatRegistry DEFAULT = builder().build();
+
+  /**
+   * Creates a builder which already contains the built-in formats.
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private final Map<String, FormatValidator> validators;
+
+  private FormatRegistry(final Builder builder) {
+    this.validators = Collections.unmodifiableMap(new HashMap<>(builder.validators));
+  }
+
+  /**
+   * Returns the validator of {@code format}, or {@code null} if the format is unknown.
+   *
+   * @param format
+   *          the name of the format
+   * @return the validator or {@code null}
+   */
+  public FormatValidator getValidator(final String format) {
+    return validators.get(format);
+  }
+
+  public Map<String, FormatValidator> getValidators() {
+    return validators;
+  }
+
+}
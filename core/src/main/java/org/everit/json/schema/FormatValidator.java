@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+/**
+ * Validates the strings of a {@code format}, see {@link FormatRegistry}. The built-in validators
+ * are the constants of {@link Formats}.
+ */
+@FunctionalInterface
+public interface FormatValidator {
+
+  /**
+   * Tells if {@code subject} is a valid string of the format.
+   *
+   * @param subject
+   *          the string to be validated
+   * @return {@code true} if the string is valid
+   */
+  boolean isValid(String subject);
+
+}
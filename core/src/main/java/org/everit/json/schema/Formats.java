@@ -0,0 +1,322 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+/**
+ * The validators of the formats defined by the draft 4 specification.
+ *
+ * <p>
+ * Each of them parses the string in a single pass, without regular expressions, without
+ * allocating anything and without constructing {@code java.net.URI} or {@code InetAddress}
+ * instances, so they never trigger DNS lookups. They accept ASCII strings only: the formats are
+ * defined by RFCs which predate internationalized names.
+ * </p>
+ */
+public final class Formats {
+
+  /**
+   * Validates the {@code date-time} production of RFC 3339, like
+   * {@code 1963-06-19T08:30:06.283185Z}. The calendar date must exist, and the seconds may be
+   * {@code 60} for leap seconds.
+   */
+  public static final FormatValidator DATE_TIME = Formats::isDateTime;
+
+  /**
+   * Validates the e-mail addresses of RFC 5322 whose local part is a dot-atom. The domain is
+   * either a {@link #HOSTNAME host name} or an address literal, like {@code [127.0.0.1]} or
+   * {@code [IPv6:::1]}.
+   */
+  public static final FormatValidator EMAIL = Formats::isEmail;
+
+  /**
+   * Validates the host names of RFC 1034, as relaxed by RFC 1123: dot-separated labels of at
+   * most 63 letters, digits and hyphens, not starting or ending with a hyphen, and at most 253
+   * characters altogether.
+   */
+  public static final FormatValidator HOSTNAME = Formats::isHostname;
+
+  /**
+   * Validates the dotted-quad IPv4 addresses, like {@code 192.168.0.1}. The octets must not
+   * have leading zeros, which some parsers would read as octal numbers.
+   */
+  public static final FormatValidator IPV4 = Formats::isIpv4;
+
+  /**
+   * Validates the IPv6 addresses of RFC 4291, including the compressed ({@code ::1}) and the
+   * IPv4-embedding ({@code ::ffff:1.2.3.4}) forms. Zone indexes are not accepted.
+   */
+  public static final FormatValidator IPV6 = Formats::isIpv6;
+
+  /**
+   * Validates the absolute URIs of RFC 3986, and the network-path references
+   * ({@code //host/path}) which the draft 4 test suite accepts too. The characters are checked
+   * against the ones allowed in URIs, and the percent-encodings must be complete.
+   */
+  public static final FormatValidator URI = Formats::isUri;
+
+  private static final int MAX_HOSTNAME_LENGTH = 253;
+
+  private static final int MAX_LABEL_LENGTH = 63;
+
+  private static final int MAX_LOCAL_PART_LENGTH = 64;
+
+  private static final String ATEXT_SYMBOLS = "!#$%&'*+-/=?^_`{|}~";
+
+  /**
+   * The characters allowed in URIs besides the letters, the digits, {@code %} and {@code #}.
+   */
+  private static final String URI_SYMBOLS = "-._~:/?[]@!$&'()*+,;=";
+
+  private static int daysOfMonth(final int year, final int month) {
+    switch (month) {
+      case 2:
+        return year % 4 == 0 && (year % 100 != 0 || year % 400 == 0) ? 29 : 28;
+      case 4:
+      case 6:
+      case 9:
+      case 11:
+        return 30;
+      default:
+        return 31;
+    }
+  }
+
+  /**
+   * Returns the value of the {@code count} decimal digits of {@code subject} at {@code from}, or
+   * -1 if they are not all digits.
+   */
+  private static int digits(final String subject, final int from, final int count) {
+    if (from + count > subject.length()) {
+      return -1;
+    }
+    int rval = 0;
+    for (int i = from; i < from + count; ++i) {
+      char c = subject.charAt(i);
+      if (!isDigit(c)) {
+        return -1;
+      }
+      rval = rval * 10 + c - '0';
+    }
+    return rval;
+  }
+
+  private static boolean isAlphanumeric(final char c) {
+    return isDigit(c) || isLetter(c);
+  }
+
+  public static boolean isDateTime(final String subject) {
+    int year = digits(subject, 0, 4);
+    int month = digits(subject, 5, 2);
+    int day = digits(subject, 8, 2);
+    int hour = digits(subject, 11, 2);
+    int minute = digits(subject, 14, 2);
+    int second = digits(subject, 17, 2);
+    if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysOfMonth(year, month)
+        || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 60
+        || subject.charAt(4) != '-' || subject.charAt(7) != '-'
+        || (subject.charAt(10) | 0x20) != 't'
+        || subject.charAt(13) != ':' || subject.charAt(16) != ':') {
+      return false;
+    }
+    int length = subject.length();
+    int i = 19;
+    if (i < length && subject.charAt(i) == '.') {
+      int fractionStart = ++i;
+      while (i < length && isDigit(subject.charAt(i))) {
+        ++i;
+      }
+      if (i == fractionStart) {
+        return false;
+      }
+    }
+    if (i == length) {
+      return false;
+    }
+    char c = subject.charAt(i);
+    if ((c | 0x20) == 'z') {
+      return i + 1 == length;
+    }
+    int offsetHour = digits(subject, i + 1, 2);
+    int offsetMinute = digits(subject, i + 4, 2);
+    return (c == '+' || c == '-') && i + 6 == length
+        && offsetHour >= 0 && offsetHour <= 23 && subject.charAt(i + 3) == ':'
+        && offsetMinute >= 0 && offsetMinute <= 59;
+  }
+
+  private static boolean isDigit(final char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  public static boolean isEmail(final String subject) {
+    int at = subject.indexOf('@');
+    if (at < 1 || at > MAX_LOCAL_PART_LENGTH) {
+      return false;
+    }
+    for (int i = 0; i < at; ++i) {
+      char c = subject.charAt(i);
+      if (c == '.') {
+        if (i == 0 || i == at - 1 || subject.charAt(i - 1) == '.') {
+          return false;
+        }
+      } else if (!isAlphanumeric(c) && ATEXT_SYMBOLS.indexOf(c) < 0) {
+        return false;
+      }
+    }
+    int length = subject.length();
+    if (length - at > 2 && subject.charAt(at + 1) == '[' && subject.charAt(length - 1) == ']') {
+      return subject.startsWith("IPv6:", at + 2)
+          ? isIpv6(subject, at + 7, length - 1)
+          : isIpv4(subject, at + 2, length - 1);
+    }
+    return isHostname(subject, at + 1, length);
+  }
+
+  private static boolean isHexDigit(final char c) {
+    return isDigit(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+  }
+
+  public static boolean isHostname(final String subject) {
+    return isHostname(subject, 0, subject.length());
+  }
+
+  private static boolean isHostname(final String subject, final int from, final int to) {
+    if (to == from || to - from > MAX_HOSTNAME_LENGTH) {
+      return false;
+    }
+    int labelStart = from;
+    for (int i = from; i <= to; ++i) {
+      if (i == to || subject.charAt(i) == '.') {
+        int labelLength = i - labelStart;
+        if (labelLength == 0 || labelLength > MAX_LABEL_LENGTH
+            || subject.charAt(labelStart) == '-' || subject.charAt(i - 1) == '-') {
+          return false;
+        }
+        labelStart = i + 1;
+      } else if (!isAlphanumeric(subject.charAt(i)) && subject.charAt(i) != '-') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public static boolean isIpv4(final String subject) {
+    return isIpv4(subject, 0, subject.length());
+  }
+
+  private static boolean isIpv4(final String subject, final int from, final int to) {
+    int i = from;
+    for (int octet = 0; octet < 4; ++octet) {
+      if (octet > 0) {
+        if (i == to || subject.charAt(i) != '.') {
+          return false;
+        }
+        ++i;
+      }
+      int start = i;
+      int value = 0;
+      while (i < to && i - start < 3 && isDigit(subject.charAt(i))) {
+        value = value * 10 + subject.charAt(i++) - '0';
+      }
+      if (i == start || value > 255 || (i - start > 1 && subject.charAt(start) == '0')) {
+        return false;
+      }
+    }
+    return i == to;
+  }
+
+  public static boolean isIpv6(final String subject) {
+    return isIpv6(subject, 0, subject.length());
+  }
+
+  private static boolean isIpv6(final String subject, final int from, final int to) {
+    int groups = 0;
+    boolean compressed = to - from >= 2 && subject.charAt(from) == ':'
+        && subject.charAt(from + 1) == ':';
+    int i = compressed ? from + 2 : from;
+    while (i < to) {
+      int start = i;
+      while (i < to && isHexDigit(subject.charAt(i))) {
+        ++i;
+      }
+      if (i < to && subject.charAt(i) == '.') {
+        groups += 2;
+        return isIpv4(subject, start, to) && (compressed ? groups < 8 : groups == 8);
+      }
+      if (i == start || i - start > 4) {
+        return false;
+      }
+      ++groups;
+      if (i == to) {
+        break;
+      }
+      if (subject.charAt(i++) != ':' || i == to) {
+        return false;
+      }
+      if (subject.charAt(i) == ':') {
+        if (compressed) {
+          return false;
+        }
+        compressed = true;
+        ++i;
+      }
+    }
+    return compressed ? groups < 8 : groups == 8;
+  }
+
+  private static boolean isLetter(final char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+  }
+
+  public static boolean isUri(final String subject) {
+    int length = subject.length();
+    int i = 0;
+    if (subject.startsWith("//")) {
+      i = 2;
+    } else {
+      while (i < length && (isLetter(subject.charAt(i))
+          || (i > 0 && (isDigit(subject.charAt(i)) || "+-.".indexOf(subject.charAt(i)) >= 0)))) {
+        ++i;
+      }
+      if (i == 0 || i == length || subject.charAt(i) != ':') {
+        return false;
+      }
+      ++i;
+    }
+    boolean fragment = false;
+    for (; i < length; ++i) {
+      char c = subject.charAt(i);
+      if (c == '%') {
+        if (i + 2 >= length || !isHexDigit(subject.charAt(i + 1))
+            || !isHexDigit(subject.charAt(i + 2))) {
+          return false;
+        }
+        i += 2;
+      } else if (c == '#') {
+        if (fragment) {
+          return false;
+        }
+        fragment = true;
+      } else if (!isAlphanumeric(c) && URI_SYMBOLS.indexOf(c) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private Formats() {
+  }
+
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.everit.json.schema.loader.BigNumberTokener;
+import org.everit.json.schema.loader.SchemaLoader;
+import org.everit.json.schema.loader.internal.DefaultSchemaClient;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Base class of the validator classes generated by {@link ValidatorSourceGenerator}.
+ *
+ * <p>
+ * A generated validator checks the subjects with code specialized for a single schema. If a
+ * subject is invalid, the {@code validate(...)} methods re-validate it with the schema to report
+ * the violations.
+ * </p>
+ *
+ * <p>
+ * The static methods of this class are the runtime support of the generated code, and are not
+ * meant to be called directly.
+ * </p>
+ */
+public abstract class GeneratedValidator implements SchemaValidator {
+
+  /**
+   * Builds the map of the remote documents embedded in a generated validator. Each row holds the
+   * URL of a document followed by the chunks of its content.
+   */
+  protected static Map<String, String> documents(final String[][] chunkedDocuments) {
+    Map<String, String> rval = new HashMap<>();
+    for (String[] row : chunkedDocuments) {
+      rval.put(row[0], String.join("", Arrays.asList(row).subList(1, row.length)));
+    }
+    return rval;
+  }
+
+  /**
+   * Tells if {@code regexp} is found in {@code subject}. A pattern whose matching exceeds its step
+   * limit is treated as not found, like {@link StringSchema} does.
+   */
+  protected static boolean find(final Regexp regexp, final String subject) {
+    try {
+      return regexp.find(subject);
+    } catch (RegexpStepLimitExceededException e) {
+      return false;
+    }
+  }
+
+  protected static boolean isInteger(final Number subject) {
+    return NumberSchema.isInteger(subject);
+  }
+
+  protected static boolean isNull(final Object subject) {
+    return subject == null || subject == JSONObject.NULL;
+  }
+
+  protected static boolean itemsAreUnique(final JSONArray subject) {
+    return ArraySchema.itemsAreUnique(subject);
+  }
+
+  private final String schemaJson;
+
+  private final Map<String, String> remoteDocuments;
+
+  private volatile Schema schema;
+
+  /**
+   * Constructor.
+   *
+   * @param schema
+   *          the schema the validator was generated from
+   */
+  protected GeneratedValidator(final Schema schema) {
+    this.schema = Objects.requireNonNull(schema, "schema cannot be null");
+    this.schemaJson = null;
+    this.remoteDocuments = Collections.emptyMap();
+  }
+
+  /**
+   * Constructor used by the validators generated at build time. The schema is loaded from
+   * {@code schemaJson} using {@link SchemaLoader} when it is first needed, which is the first time
+   * an invalid subject is validated. The remote {@code $ref}s of the schema are fetched at that
+   * time.
+   *
+   * @param schemaJson
+   *          the JSON document of the schema the validator was generated from
+   */
+  protected GeneratedValidator(final String schemaJson) {
+    this(schemaJson, Collections.emptyMap());
+  }
+
+  /**
+   * Constructor used by the validators generated at build time, which embed the remote documents
+   * fetched when the schema was loaded at build time. The schema is loaded from
+   * {@code schemaJson} when it is first needed, and the remote documents are read from
+   * {@code remoteDocuments} instead of being fetched again. The documents missing from
+   * {@code remoteDocuments} are fetched by {@link DefaultSchemaClient}.
+   *
+   * @param schemaJson
+   *          the JSON document of the schema the validator was generated from
+   * @param remoteDocuments
+   *          the contents of the remote documents, keyed by their URLs
+   */
+  protected GeneratedValidator(final String schemaJson,
+      final Map<String, String> remoteDocuments) {
+    this.schemaJson = Objects.requireNonNull(schemaJson, "schemaJson cannot be null");
+    this.remoteDocuments = new HashMap<>(Objects.requireNonNull(remoteDocuments,
+        "remoteDocuments cannot be null"));
+  }
+
+  /**
+   * Returns the content of the remote document at {@code url}, encoded with the charset
+   * {@link SchemaLoader} decodes the fetched documents with.
+   */
+  private InputStream fetch(final String url) {
+    String document = remoteDocuments.get(url);
+    if (document == null) {
+      return new DefaultSchemaClient().get(url);
+    }
+    return new ByteArrayInputStream(document.getBytes(Charset.defaultCharset()));
+  }
+
+  @Override
+  public Schema getSchema() {
+    Schema rval = schema;
+    if (rval == null) {
+      synchronized (this) {
+        rval = schema;
+        if (rval == null) {
+          rval = SchemaLoader.load(new JSONObject(new BigNumberTokener(schemaJson)),
+              this::fetch);
+          schema = rval;
+        }
+      }
+    }
+    return rval;
+  }
+
+  @Override
+  public void validate(final Object subject) {
+    if (!isValid(subject)) {
+      getSchema().validate(subject);
+    }
+  }
+
+  @Override
+  public void validate(final Object subject, final ValidationContext context) {
+    if (!isValid(subject)) {
+      getSchema().validate(subject, context);
+    }
+  }
+
+}
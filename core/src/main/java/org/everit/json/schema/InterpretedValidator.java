@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.util.Objects;
+
+/**
+ * A {@link SchemaValidator} delegating to the object tree of the schema.
+ */
+class InterpretedValidator implements SchemaValidator {
+
+  private final Schema schema;
+
+  InterpretedValidator(final Schema schema) {
+    this.schema = Objects.requireNonNull(schema, "schema cannot be null");
+  }
+
+  @Override
+  public Schema getSchema() {
+    return schema;
+  }
+
+  @Override
+  public boolean isValid(final Object subject) {
+    return schema.isValid(subject);
+  }
+
+  @Override
+  public void validate(final Object subject) {
+    schema.validate(subject);
+  }
+
+  @Override
+  public void validate(final Object subject, final ValidationContext context) {
+    schema.validate(subject, context);
+  }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.io.Serializable;
+
+/**
+ * Immutable JSON pointer, pointing from the root of the validated document to one of its parts.
+ * Each instance stores only its last segment and refers to its parent, so the pointers of
+ * siblings share the common prefix. Prepending a prefix to a pointer creates a single
+ * concatenation node, so it takes constant time regardless of the length of the pointer. The
+ * pointer is rendered to its {@code #/a/b} string form only when {@link #toString()} is called.
+ */
+final class JSONPointerPath implements Serializable {
+
+  private static final long serialVersionUID = -2524880542616542574L;
+
+  static final JSONPointerPath ROOT = new JSONPointerPath(null, null, null);
+
+  static String escape(final String segment) {
+    return segment.replace("~", "~0").replace("/", "~1");
+  }
+
+  static String unescape(final String segment) {
+    return segment.replace("~1", "/").replace("~0", "~");
+  }
+
+  private final JSONPointerPath parent;
+
+  /**
+   * The last segment, or {@code null} if this is the root pointer or a concatenation.
+   */
+  private final String segment;
+
+  /**
+   * The pointer appended to {@link #parent} if this is a concatenation, otherwise {@code null}.
+   */
+  private final JSONPointerPath suffix;
+
+  private JSONPointerPath(final JSONPointerPath parent, final String segment,
+      final JSONPointerPath suffix) {
+    this.parent = parent;
+    this.segment = segment;
+    this.suffix = suffix;
+  }
+
+  private void appendTo(final StringBuilder sb) {
+    if (parent != null) {
+      parent.appendTo(sb);
+      if (suffix != null) {
+        suffix.appendTo(sb);
+      } else {
+        sb.append('/').append(escape(segment));
+      }
+    }
+  }
+
+  JSONPointerPath child(final String childSegment) {
+    return new JSONPointerPath(this, childSegment, null);
+  }
+
+  /**
+   * Returns the pointer of {@code relative} resolved against this pointer.
+   */
+  JSONPointerPath concat(final JSONPointerPath relative) {
+    if (relative.isRoot()) {
+      return this;
+    }
+    if (isRoot()) {
+      return relative;
+    }
+    return new JSONPointerPath(this, null, relative);
+  }
+
+  boolean isRoot() {
+    return parent == null;
+  }
+
+  /**
+   * Appends the segments of a {@code #/a/b} formatted JSON pointer to this pointer.
+   */
+  JSONPointerPath resolve(final String relativePointer) {
+    JSONPointerPath rval = this;
+    int segmentStart = relativePointer.indexOf('/');
+    while (segmentStart != -1) {
+      int segmentEnd = relativePointer.indexOf('/', segmentStart + 1);
+      String escapedSegment = segmentEnd == -1
+          ? relativePointer.substring(segmentStart + 1)
+          : relativePointer.substring(segmentStart + 1, segmentEnd);
+      rval = rval.child(unescape(escapedSegment));
+      segmentStart = segmentEnd;
+    }
+    return rval;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("#");
+    appendTo(sb);
+    return sb.toString();
+  }
+
+}
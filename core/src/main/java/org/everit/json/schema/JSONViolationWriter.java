@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Objects;
+
+import org.json.JSONObject;
+
+/**
+ * {@link ValidationListener} implementation which writes each schema violation to a
+ * {@link Writer} as soon as it is found, without keeping it in memory.
+ *
+ * <p>
+ * Each violation is written as a JSON object on its own line:
+ * </p>
+ *
+ * <pre>
+ * {"pointerToViolation":"#/rectangle/a","message":"-5.0 is not higher or equal to 0"}
+ * </pre>
+ *
+ * <p>
+ * The writer is neither flushed nor closed by this listener.
+ * </p>
+ */
+public class JSONViolationWriter implements ValidationListener {
+
+  private final Writer writer;
+
+  public JSONViolationWriter(final Writer writer) {
+    this.writer = Objects.requireNonNull(writer, "writer cannot be null");
+  }
+
+  @Override
+  public void onViolation(final Violation violation) {
+    try {
+      writer.write("{\"pointerToViolation\":");
+      JSONObject.quote(violation.getPointerToViolation(), writer);
+      writer.write(",\"message\":");
+      JSONObject.quote(violation.getMessage(), writer);
+      writer.write("}\n");
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+}
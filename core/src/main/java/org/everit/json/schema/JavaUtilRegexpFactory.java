@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * A {@link RegexpFactory} matching the patterns using {@link Pattern} itself. Since
+ * {@link Pattern} is a backtracking engine, some patterns take exponential time to match certain
+ * inputs. To bound the time spent on them, a step limit can be set: it is the maximum number of
+ * characters of the input read during a single {@link Regexp#find(String) find}, which is
+ * aborted by throwing a {@link RegexpStepLimitExceededException} once the limit is reached.
+ */
+public final class JavaUtilRegexpFactory implements RegexpFactory {
+
+  /**
+   * An input which counts the characters read from it.
+   */
+  private static final class StepCountingSequence implements CharSequence {
+
+    private final String input;
+
+    private final Pattern pattern;
+
+    private final long stepLimit;
+
+    private long remainingSteps;
+
+    StepCountingSequence(final String input, final Pattern pattern, final long stepLimit) {
+      this.input = input;
+      this.pattern = pattern;
+      this.stepLimit = stepLimit;
+      this.remainingSteps = stepLimit;
+    }
+
+    @Override
+    public char charAt(final int index) {
+      if (--remainingSteps < 0) {
+        throw new RegexpStepLimitExceededException(pattern, stepLimit);
+      }
+      return input.charAt(index);
+    }
+
+    @Override
+    public int length() {
+      return input.length();
+    }
+
+    @Override
+    public CharSequence subSequence(final int start, final int end) {
+      return input.subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+      return input;
+    }
+
+  }
+
+  private final long stepLimit;
+
+  /**
+   * Creates a factory without a step limit.
+   */
+  public JavaUtilRegexpFactory() {
+    this.stepLimit = Long.MAX_VALUE;
+  }
+
+  /**
+   * Creates a factory whose regular expressions read at most {@code stepLimit} characters of
+   * the input in a single {@link Regexp#find(String) find}.
+   *
+   * @param stepLimit
+   *          the step limit, must be positive
+   */
+  public JavaUtilRegexpFactory(final long stepLimit) {
+    if (stepLimit <= 0) {
+      throw new IllegalArgumentException("stepLimit must be positive, was " + stepLimit);
+    }
+    this.stepLimit = stepLimit;
+  }
+
+  @Override
+  public Regexp createHandler(final Pattern pattern) {
+    Objects.requireNonNull(pattern, "pattern cannot be null");
+    if (stepLimit == Long.MAX_VALUE) {
+      return input -> pattern.matcher(input).find();
+    }
+    return input -> pattern.matcher(new StepCountingSequence(input, pattern, stepLimit)).find();
+  }
+
+  public long getStepLimit() {
+    return stepLimit;
+  }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import org.everit.json.schema.CombinedSchema.ValidationCriterion;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * The JSON types of the validated subjects, used to skip the subschemas which cannot accept the
+ * type of a subject without evaluating them.
+ */
+enum JsonType {
+
+  NULL, BOOLEAN, NUMBER, STRING, ARRAY, OBJECT,
+
+  /**
+   * Any other Java type, which is not a JSON value.
+   */
+  OTHER;
+
+  /**
+   * Returns the JSON type of {@code subject}.
+   */
+  static JsonType of(final Object subject) {
+    if (subject instanceof String) {
+      return STRING;
+    } else if (subject instanceof JSONObject) {
+      return OBJECT;
+    } else if (subject instanceof Number) {
+      return NUMBER;
+    } else if (subject instanceof JSONArray) {
+      return ARRAY;
+    } else if (subject instanceof Boolean) {
+      return BOOLEAN;
+    } else if (subject == null || subject == JSONObject.NULL) {
+      return NULL;
+    }
+    return OTHER;
+  }
+
+  /**
+   * Returns the types of the subjects which may be accepted by {@code schema}. The result is
+   * conservative: the schema rejects every subject whose type is not returned, but not
+   * necessarily accepts the subjects of the returned types.
+   */
+  static Set<JsonType> acceptedBy(final Schema schema) {
+    return acceptedBy(schema, Collections.newSetFromMap(new IdentityHashMap<>()));
+  }
+
+  private static Set<JsonType> acceptedBy(final Schema schema, final Set<Schema> visiting) {
+    if (!visiting.add(schema)) {
+      return EnumSet.allOf(JsonType.class);
+    }
+    try {
+      if (schema instanceof ReferenceSchema) {
+        Schema referred = ((ReferenceSchema) schema).getReferredSchema();
+        return referred == null ? EnumSet.allOf(JsonType.class) : acceptedBy(referred, visiting);
+      } else if (schema instanceof CombinedSchema) {
+        return acceptedByCombined((CombinedSchema) schema, visiting);
+      } else if (schema instanceof StringSchema) {
+        return requiring(STRING, ((StringSchema) schema).requiresString());
+      } else if (schema instanceof NumberSchema) {
+        return requiring(NUMBER, ((NumberSchema) schema).requiresNumber());
+      } else if (schema instanceof ObjectSchema) {
+        return requiring(OBJECT, ((ObjectSchema) schema).requiresObject());
+      } else if (schema instanceof ArraySchema) {
+        return requiring(ARRAY, ((ArraySchema) schema).requiresArray());
+      } else if (schema instanceof BooleanSchema) {
+        return EnumSet.of(BOOLEAN);
+      } else if (schema instanceof NullSchema) {
+        return EnumSet.of(NULL);
+      } else if (schema instanceof EnumSchema) {
+        Set<JsonType> rval = EnumSet.noneOf(JsonType.class);
+        for (Object possibleValue : ((EnumSchema) schema).getPossibleValues()) {
+          rval.add(of(possibleValue));
+        }
+        return rval;
+      }
+      return EnumSet.allOf(JsonType.class);
+    } finally {
+      visiting.remove(schema);
+    }
+  }
+
+  private static Set<JsonType> acceptedByCombined(final CombinedSchema schema,
+      final Set<Schema> visiting) {
+    ValidationCriterion criterion = schema.getCriterion();
+    if (criterion == CombinedSchema.ALL_CRITERION) {
+      Set<JsonType> rval = EnumSet.allOf(JsonType.class);
+      for (Schema subschema : schema.getSubschemas()) {
+        rval.retainAll(acceptedBy(subschema, visiting));
+      }
+      return rval;
+    } else if (criterion == CombinedSchema.ANY_CRITERION
+        || criterion == CombinedSchema.ONE_CRITERION) {
+      Set<JsonType> rval = EnumSet.noneOf(JsonType.class);
+      for (Schema subschema : schema.getSubschemas()) {
+        rval.addAll(acceptedBy(subschema, visiting));
+      }
+      return rval;
+    }
+    return EnumSet.allOf(JsonType.class);
+  }
+
+  private static Set<JsonType> requiring(final JsonType type, final boolean required) {
+    return required ? EnumSet.of(type) : EnumSet.allOf(JsonType.class);
+  }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * The default {@link RegexpFactory}, which guarantees linear matching time for the patterns
+ * without backtracking constructs.
+ *
+ * <p>
+ * The patterns without flags, using only the constructs of regular languages (literals,
+ * character classes, groups, alternations, quantifiers and the {@code ^} and {@code $} anchors),
+ * are compiled into a finite automaton, which reads every character of the input once, whatever
+ * the pattern and the input are. The other patterns (for example the ones using back references
+ * or lookarounds) are matched by {@link JavaUtilRegexpFactory backtracking}, with a step limit.
+ * Both kinds of patterns follow the semantics of {@link Pattern}.
+ * </p>
+ *
+ * <p>
+ * The simplest patterns, like anchored literals ({@code ^urn:}) or runs of a character class
+ * ({@code ^[a-z0-9-]+$}), are not compiled at all, they are matched by hand-written code, without
+ * allocating a matcher.
+ * </p>
+ */
+public final class LinearTimeRegexpFactory implements RegexpFactory {
+
+  /**
+   * The default step limit of the patterns which need backtracking.
+   */
+  public static final long DEFAULT_STEP_LIMIT = 10000000L;
+
+  /**
+   * A factory using the {@link #DEFAULT_STEP_LIMIT}.
+   */
+  public static final LinearTimeRegexpFactory INSTANCE = new LinearTimeRegexpFactory();
+
+  private final JavaUtilRegexpFactory backtrackingFactory;
+
+  /**
+   * Creates a factory using the {@link #DEFAULT_STEP_LIMIT}.
+   */
+  public LinearTimeRegexpFactory() {
+    this(DEFAULT_STEP_LIMIT);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param stepLimit
+   *          the step limit of the patterns which need backtracking, see
+   *          {@link JavaUtilRegexpFactory#JavaUtilRegexpFactory(long)}
+   */
+  public LinearTimeRegexpFactory(final long stepLimit) {
+    this.backtrackingFactory = new JavaUtilRegexpFactory(stepLimit);
+  }
+
+  @Override
+  public Regexp createHandler(final Pattern pattern) {
+    Objects.requireNonNull(pattern, "pattern cannot be null");
+    SpecializedRegexp specialized = SpecializedRegexp.of(pattern);
+    if (specialized != null) {
+      return specialized;
+    }
+    return new MultiPatternMatcher(new Pattern[] {pattern}, this);
+  }
+
+  /**
+   * Returns the factory of the patterns which cannot be compiled into an automaton.
+   */
+  JavaUtilRegexpFactory getBacktrackingFactory() {
+    return backtrackingFactory;
+  }
+
+  public long getStepLimit() {
+    return backtrackingFactory.getStepLimit();
+  }
+
+}
@@ -0,0 +1,511 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+import org.everit.json.schema.RegexParser.AlternationNode;
+import org.everit.json.schema.RegexParser.AnchorNode;
+import org.everit.json.schema.RegexParser.CharNode;
+import org.everit.json.schema.RegexParser.CharSet;
+import org.everit.json.schema.RegexParser.ConcatNode;
+import org.everit.json.schema.RegexParser.Node;
+import org.everit.json.schema.RegexParser.RepeatNode;
+
+/**
+ * Matches a string against a set of patterns at once, telling which patterns are
+ * {@link java.util.regex.Matcher#find() found} in the string. As a {@link Regexp}, it tells if
+ * any of the patterns is found.
+ *
+ * <p>
+ * If the patterns are compiled by a {@link LinearTimeRegexpFactory}, the patterns without flags
+ * supported by the {@link RegexParser} are compiled into a single nondeterministic automaton,
+ * which is lazily turned into a deterministic one while matching, so a string is matched against
+ * all of them in a single scan, in linear time. The automaton follows the semantics of
+ * {@link Pattern}: a surrogate pair is matched as a single code point, and {@code $} also matches
+ * before a line terminator at the end of the input. The other patterns, and all patterns of
+ * other factories, are matched one by one by the {@link Regexp}s created by the factory.
+ * </p>
+ */
+final class MultiPatternMatcher implements Regexp {
+
+  private static final int CHAR = 0;
+
+  private static final int SPLIT = 1;
+
+  private static final int BEGIN = 2;
+
+  private static final int END = 3;
+
+  private static final int MATCH = 4;
+
+  private static final int MAX_NFA_STATES = 10000;
+
+  private static final int MAX_DFA_STATES = 10000;
+
+  private static final int ASCII_SIZE = 128;
+
+  /**
+   * The character standing for the supplementary code points in the input of the automaton. The
+   * character sets of the supported patterns either contain all surrogates and supplementary
+   * code points, or none of them, so any surrogate can stand for them.
+   */
+  private static final char SUPPLEMENTARY = '\uD800';
+
+  /**
+   * Thrown if the automaton of a pattern would be too large.
+   */
+  private static final class TooManyStatesException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    TooManyStatesException() {
+      super(null, null, false, false);
+    }
+
+  }
+
+  /**
+   * Builds the nondeterministic automaton. For {@link #CHAR}, {@link #BEGIN} and {@link #END}
+   * states {@code out} is the next state, for {@link #SPLIT} states {@code out} and
+   * {@code alternativeOut} are the next states, for {@link #MATCH} states {@code out} is the
+   * index of the matching pattern.
+   */
+  private static final class NfaBuilder {
+
+    private final List<Integer> types = new ArrayList<>();
+
+    private final List<CharSet> charSets = new ArrayList<>();
+
+    private final List<Integer> outs = new ArrayList<>();
+
+    private final List<Integer> alternativeOuts = new ArrayList<>();
+
+    private int add(final int type, final CharSet chars, final int out, final int alternativeOut) {
+      if (types.size() == MAX_NFA_STATES) {
+        throw new TooManyStatesException();
+      }
+      types.add(type);
+      charSets.add(chars);
+      outs.add(out);
+      alternativeOuts.add(alternativeOut);
+      return types.size() - 1;
+    }
+
+    /**
+     * Adds the states of a pattern, returning its start state, or -1 if its automaton would be too
+     * large, or if it could consume a line terminator after a {@code $}.
+     */
+    int addPattern(final Node regex, final int patternIndex) {
+      int stateCount = types.size();
+      try {
+        int start = compile(regex, add(MATCH, null, patternIndex, -1));
+        for (int state = stateCount; state < types.size(); ++state) {
+          if (types.get(state) == END && consumesAfter(state)) {
+            removeStates(stateCount);
+            return -1;
+          }
+        }
+        return start;
+      } catch (TooManyStatesException e) {
+        removeStates(stateCount);
+        return -1;
+      }
+    }
+
+    /**
+     * Tells if a {@link #CHAR} state is reachable from {@code state} without consuming input. The
+     * automaton does not support these patterns, since it matches {@code $} before the final line
+     * terminator only if the rest of the pattern matches the empty string.
+     */
+    private boolean consumesAfter(final int state) {
+      BitSet visited = new BitSet(types.size());
+      List<Integer> pending = new ArrayList<>();
+      pending.add(outs.get(state));
+      while (!pending.isEmpty()) {
+        int next = pending.remove(pending.size() - 1);
+        if (visited.get(next)) {
+          continue;
+        }
+        visited.set(next);
+        int type = types.get(next);
+        if (type == CHAR) {
+          return true;
+        } else if (type == SPLIT) {
+          pending.add(alternativeOuts.get(next));
+        }
+        if (type != MATCH) {
+          pending.add(outs.get(next));
+        }
+      }
+      return false;
+    }
+
+    private void removeStates(final int from) {
+      types.subList(from, types.size()).clear();
+      charSets.subList(from, charSets.size()).clear();
+      outs.subList(from, outs.size()).clear();
+      alternativeOuts.subList(from, alternativeOuts.size()).clear();
+    }
+
+    /**
+     * Adds the states matching {@code node}, and continuing with {@code next}.
+     *
+     * @return the start state of {@code node}
+     */
+    private int compile(final Node node, final int next) {
+      if (node instanceof CharNode) {
+        return add(CHAR, ((CharNode) node).chars, next, -1);
+      } else if (node instanceof ConcatNode) {
+        List<Node> items = ((ConcatNode) node).items;
+        int rval = next;
+        for (int i = items.size() - 1; i >= 0; --i) {
+          rval = compile(items.get(i), rval);
+        }
+        return rval;
+      } else if (node instanceof AlternationNode) {
+        List<Node> alternatives = ((AlternationNode) node).alternatives;
+        int rval = compile(alternatives.get(alternatives.size() - 1), next);
+        for (int i = alternatives.size() - 2; i >= 0; --i) {
+          rval = add(SPLIT, null, compile(alternatives.get(i), next), rval);
+        }
+        return rval;
+      } else if (node instanceof RepeatNode) {
+        RepeatNode repeat = (RepeatNode) node;
+        int rval = next;
+        if (repeat.max == RepeatNode.UNBOUNDED) {
+          rval = add(SPLIT, null, -1, next);
+          outs.set(rval, compile(repeat.body, rval));
+        } else {
+          for (int i = repeat.min; i < repeat.max; ++i) {
+            rval = add(SPLIT, null, compile(repeat.body, rval), next);
+          }
+        }
+        for (int i = 0; i < repeat.min; ++i) {
+          rval = compile(repeat.body, rval);
+        }
+        return rval;
+      } else {
+        return add(((AnchorNode) node).begin ? BEGIN : END, null, next, -1);
+      }
+    }
+
+  }
+
+  /**
+   * A state of the deterministic automaton: a set of states of the nondeterministic automaton.
+   */
+  private static final class DfaState {
+
+    private final int[] nfaStates;
+
+    /**
+     * The patterns matching the input up to this state, or {@code null} if there are none.
+     */
+    private final BitSet matches;
+
+    /**
+     * The patterns matching if the input ends in this state, or {@code null} if there are none.
+     */
+    private final BitSet matchesAtEnd;
+
+    private final DfaState[] asciiTransitions = new DfaState[ASCII_SIZE];
+
+    DfaState(final int[] nfaStates, final BitSet matches, final BitSet matchesAtEnd) {
+      this.nfaStates = nfaStates;
+      this.matches = matches.isEmpty() ? null : matches;
+      this.matchesAtEnd = matchesAtEnd.isEmpty() ? null : matchesAtEnd;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      return obj instanceof DfaState && Arrays.equals(nfaStates, ((DfaState) obj).nfaStates);
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(nfaStates);
+    }
+
+  }
+
+  private static boolean collect(final BitSet found, final BitSet matches) {
+    if (found == null) {
+      return false;
+    }
+    if (matches != null) {
+      matches.or(found);
+    }
+    return true;
+  }
+
+  /**
+   * Returns the position before the line terminator ending {@code subject}, where {@code $}
+   * matches too, or -1 if {@code subject} does not end with a line terminator.
+   */
+  static int dollarPosition(final String subject) {
+    int length = subject.length();
+    if (length == 0) {
+      return -1;
+    }
+    char last = subject.charAt(length - 1);
+    if (last == '\n') {
+      return length > 1 && subject.charAt(length - 2) == '\r' ? length - 2 : length - 1;
+    }
+    return last == '\r' || last == '\u0085' || last == '\u2028' || last == '\u2029'
+        ? length - 1
+        : -1;
+  }
+
+  private static int push(final int state, final int[] stack, final int stackSize,
+      final BitSet visited) {
+    if (visited.get(state)) {
+      return stackSize;
+    }
+    visited.set(state);
+    stack[stackSize] = state;
+    return stackSize + 1;
+  }
+
+  private static int[] toArray(final List<Integer> list) {
+    return list.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  private final int patternCount;
+
+  /**
+   * The indexes of the patterns not compiled into the automaton.
+   */
+  private final int[] fallbackPatternIndexes;
+
+  /**
+   * The regular expressions of the patterns not compiled into the automaton.
+   */
+  private final Regexp[] fallbacks;
+
+  private final int[] types;
+
+  private final CharSet[] charSets;
+
+  private final int[] outs;
+
+  private final int[] alternativeOuts;
+
+  private final int[] startStates;
+
+  private final DfaState initialState;
+
+  private final ConcurrentMap<DfaState, DfaState> dfaStates = new ConcurrentHashMap<>();
+
+  /**
+   * Constructor.
+   *
+   * @param patterns
+   *          the patterns to be matched
+   * @param factory
+   *          the factory of the regular expressions of the patterns
+   */
+  MultiPatternMatcher(final Pattern[] patterns, final RegexpFactory factory) {
+    this.patternCount = patterns.length;
+    boolean linearTime = factory instanceof LinearTimeRegexpFactory;
+    RegexpFactory fallbackFactory = linearTime
+        ? ((LinearTimeRegexpFactory) factory).getBacktrackingFactory()
+        : factory;
+    NfaBuilder nfa = new NfaBuilder();
+    List<Integer> starts = new ArrayList<>();
+    List<Integer> fallbackIndexes = new ArrayList<>();
+    List<Regexp> fallbackRegexps = new ArrayList<>();
+    for (int i = 0; i < patterns.length; ++i) {
+      Node regex = linearTime && patterns[i].flags() == 0
+          ? RegexParser.parse(patterns[i].pattern())
+          : null;
+      int start = regex == null ? -1 : nfa.addPattern(regex, i);
+      if (start == -1) {
+        fallbackIndexes.add(i);
+        fallbackRegexps.add(fallbackFactory.createHandler(patterns[i]));
+      } else {
+        starts.add(start);
+      }
+    }
+    this.fallbackPatternIndexes = toArray(fallbackIndexes);
+    this.fallbacks = fallbackRegexps.toArray(new Regexp[fallbackRegexps.size()]);
+    this.types = toArray(nfa.types);
+    this.charSets = nfa.charSets.toArray(new CharSet[nfa.charSets.size()]);
+    this.outs = toArray(nfa.outs);
+    this.alternativeOuts = toArray(nfa.alternativeOuts);
+    this.startStates = toArray(starts);
+    this.initialState = dfaState(new int[0], -1, true);
+  }
+
+  /**
+   * Adds the states reachable from the {@code from} states without consuming input to
+   * {@code closure}. The {@link #SPLIT} and {@link #BEGIN} states are followed, the others are
+   * added to the closure.
+   *
+   * @param atEnd
+   *          if {@code true}, the end of the input is reached, so the {@link #END} states are
+   *          followed too, and the {@link #CHAR} states are dropped
+   */
+  private void addClosure(final int[] from, final boolean atBeginning, final boolean atEnd,
+      final BitSet closure) {
+    BitSet visited = new BitSet(types.length);
+    int[] stack = new int[types.length];
+    int stackSize = 0;
+    for (int state : from) {
+      stackSize = push(state, stack, stackSize, visited);
+    }
+    while (stackSize > 0) {
+      int state = stack[--stackSize];
+      int type = types[state];
+      if (type == SPLIT) {
+        stackSize = push(alternativeOuts[state], stack, stackSize, visited);
+        stackSize = push(outs[state], stack, stackSize, visited);
+      } else if ((type == BEGIN && atBeginning) || (type == END && atEnd)) {
+        stackSize = push(outs[state], stack, stackSize, visited);
+      } else if (type == MATCH || (!atEnd && (type == CHAR || type == END))) {
+        closure.set(state);
+      }
+    }
+  }
+
+  /**
+   * Creates or looks up the state reached from the {@code previous} states by consuming
+   * {@code c}, or the initial state if {@code c} is -1.
+   */
+  private DfaState dfaState(final int[] previous, final int c, final boolean atBeginning) {
+    int[] from = new int[previous.length + startStates.length];
+    int fromCount = 0;
+    for (int state : previous) {
+      if (types[state] == CHAR && charSets[state].contains((char) c)) {
+        from[fromCount++] = outs[state];
+      }
+    }
+    System.arraycopy(startStates, 0, from, fromCount, startStates.length);
+    fromCount += startStates.length;
+    BitSet closure = new BitSet(types.length);
+    addClosure(Arrays.copyOf(from, fromCount), atBeginning, false, closure);
+    int[] nfaStates = closure.stream().toArray();
+    BitSet atEnd = new BitSet(types.length);
+    addClosure(nfaStates, atBeginning, true, atEnd);
+    DfaState rval = new DfaState(nfaStates, matches(nfaStates), matches(atEnd.stream().toArray()));
+    if (c == -1 || dfaStates.size() >= MAX_DFA_STATES) {
+      return rval;
+    }
+    DfaState existing = dfaStates.putIfAbsent(rval, rval);
+    return existing == null ? rval : existing;
+  }
+
+  /**
+   * Tells if any of the patterns is found in {@code subject}.
+   */
+  @Override
+  public boolean find(final String subject) {
+    if (scan(subject, null)) {
+      return true;
+    }
+    for (Regexp fallback : fallbacks) {
+      if (fallback.find(subject)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private BitSet matches(final int[] nfaStates) {
+    BitSet rval = new BitSet(patternCount);
+    for (int state : nfaStates) {
+      if (types[state] == MATCH) {
+        rval.set(outs[state]);
+      }
+    }
+    return rval;
+  }
+
+  /**
+   * Finds the patterns in {@code subject}.
+   *
+   * @param subject
+   *          the string to be matched
+   * @param matches
+   *          the set to be filled with the indexes of the patterns found in {@code subject}, it is
+   *          cleared first
+   */
+  void match(final String subject, final BitSet matches) {
+    matches.clear();
+    scan(subject, matches);
+    for (int i = 0; i < fallbacks.length; ++i) {
+      if (fallbacks[i].find(subject)) {
+        matches.set(fallbackPatternIndexes[i]);
+      }
+    }
+  }
+
+  /**
+   * Runs the automaton on {@code subject}.
+   *
+   * @param matches
+   *          the set to be extended with the indexes of the patterns found in {@code subject}, or
+   *          {@code null} if the scan should stop at the first pattern found
+   * @return {@code true} if any pattern of the automaton is found
+   */
+  private boolean scan(final String subject, final BitSet matches) {
+    if (startStates.length == 0) {
+      return false;
+    }
+    int length = subject.length();
+    int dollarPosition = dollarPosition(subject);
+    DfaState state = initialState;
+    boolean found = false;
+    int i = 0;
+    while (true) {
+      found |= collect(state.matches, matches);
+      if (i == length || i == dollarPosition) {
+        found |= collect(state.matchesAtEnd, matches);
+      }
+      if (i == length || (found && matches == null)) {
+        return found;
+      }
+      char c = subject.charAt(i++);
+      if (Character.isHighSurrogate(c) && i < length
+          && Character.isLowSurrogate(subject.charAt(i))) {
+        ++i;
+        c = SUPPLEMENTARY;
+      }
+      state = next(state, c);
+    }
+  }
+
+  private DfaState next(final DfaState state, final char c) {
+    if (c >= ASCII_SIZE) {
+      return dfaState(state.nfaStates, c, false);
+    }
+    DfaState rval = state.asciiTransitions[c];
+    if (rval == null) {
+      rval = dfaState(state.nfaStates, c, false);
+      if (dfaStates.get(rval) == rval) {
+        state.asciiTransitions[c] = rval;
+      }
+    }
+    return rval;
+  }
+
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Objects;
+
+/**
+ * Checks if numbers are multiples of a divisor, the {@code multipleOf} of a {@link NumberSchema}.
+ *
+ * <p>
+ * The numbers are compared by their decimal values: a {@code double} stands for the shortest
+ * decimal which is rounded to it (the one printed by {@link Double#toString(double)}), like
+ * {@code 0.01} or {@code 19.99}, so {@code 19.99} is a multiple of {@code 0.01}, although neither
+ * of them is exactly representable as a {@code double}.
+ * </p>
+ *
+ * <p>
+ * The divisor is analysed once: if it is a decimal of at most 18 fraction digits and its unscaled
+ * value fits in a {@code long} (like {@code 10}, {@code 0.5} or {@code 0.01}), then integral
+ * subjects are checked with a single {@code long} remainder, and {@code double} subjects are
+ * scaled to integers and checked with primitive arithmetic, as long as the scaled value is exact.
+ * Only the other divisors, the huge or high-precision subjects, and the {@link BigDecimal} and
+ * {@link BigInteger} subjects which don't fit in a {@code long} are checked with
+ * {@link BigDecimal#remainder(BigDecimal)}.
+ * </p>
+ */
+public final class MultipleOf {
+
+  /**
+   * The bound of the scaled {@code double} subjects below which the scaling is exact enough to
+   * recover the integer they stand for by rounding.
+   */
+  private static final double MAX_EXACT_SCALED = 1L << 50;
+
+  private static final int MAX_FAST_SCALE = 18;
+
+  private static final int MAX_FAST_INTEGER_DIGITS = 18;
+
+  /**
+   * Creates a check of the multiples of {@code divisor}.
+   *
+   * @param divisor
+   *          the divisor, compared by its decimal value
+   * @return the check
+   */
+  public static MultipleOf of(final Number divisor) {
+    Objects.requireNonNull(divisor, "divisor cannot be null");
+    return new MultipleOf(NumberSchema.toBigDecimal(divisor));
+  }
+
+  private static long gcd(final long a, final long b) {
+    return b == 0 ? a : gcd(b, a % b);
+  }
+
+  private final BigDecimal divisor;
+
+  /**
+   * Tells if the divisor is checked with primitive arithmetic.
+   */
+  private final boolean primitive;
+
+  /**
+   * The absolute value of the unscaled divisor.
+   */
+  private final long unscaledDivisor;
+
+  /**
+   * The smallest integer whose multiples are the integral multiples of the divisor.
+   */
+  private final long integralDivisor;
+
+  /**
+   * The power of ten which scales the multiples of the divisor to integers.
+   */
+  private final double scaleFactor;
+
+  private MultipleOf(final BigDecimal divisor) {
+    this.divisor = divisor;
+    BigDecimal normalized = divisor.abs().stripTrailingZeros();
+    if (normalized.scale() < 0
+        && normalized.precision() - normalized.scale() <= MAX_FAST_INTEGER_DIGITS) {
+      normalized = normalized.setScale(0);
+    }
+    this.primitive = normalized.signum() > 0 && normalized.scale() >= 0
+        && normalized.scale() <= MAX_FAST_SCALE
+        && normalized.unscaledValue().bitLength() < Long.SIZE - 1;
+    if (primitive) {
+      long powerOfTen = BigInteger.TEN.pow(normalized.scale()).longValue();
+      this.unscaledDivisor = normalized.unscaledValue().longValue();
+      this.integralDivisor = unscaledDivisor / gcd(unscaledDivisor, powerOfTen);
+      this.scaleFactor = powerOfTen;
+    } else {
+      this.unscaledDivisor = 0;
+      this.integralDivisor = 0;
+      this.scaleFactor = 0;
+    }
+  }
+
+  public BigDecimal getDivisor() {
+    return divisor;
+  }
+
+  private boolean isMultiple(final BigDecimal subject) {
+    return subject.remainder(divisor).signum() == 0;
+  }
+
+  /**
+   * Tells if {@code subject} is a multiple of the divisor. Infinities and NaN are not multiples
+   * of anything.
+   *
+   * @param subject
+   *          the number to be checked
+   * @return {@code true} if the subject is a multiple of the divisor
+   */
+  public boolean isMultiple(final double subject) {
+    if (Double.isNaN(subject) || Double.isInfinite(subject)) {
+      return false;
+    }
+    if (primitive) {
+      double scaled = subject * scaleFactor;
+      if (Math.abs(scaled) < MAX_EXACT_SCALED) {
+        double rounded = Math.rint(scaled);
+        return rounded / scaleFactor == subject && (long) rounded % unscaledDivisor == 0;
+      }
+    }
+    return isMultiple(BigDecimal.valueOf(subject));
+  }
+
+  /**
+   * Tells if {@code subject} is a multiple of the divisor.
+   *
+   * @param subject
+   *          the number to be checked
+   * @return {@code true} if the subject is a multiple of the divisor
+   */
+  public boolean isMultiple(final long subject) {
+    return primitive ? subject % integralDivisor == 0 : isMultiple(BigDecimal.valueOf(subject));
+  }
+
+  /**
+   * Tells if {@code subject} is a multiple of the divisor. {@code Double}s and {@code Float}s are
+   * checked by {@link #isMultiple(double)}, the other numbers by their exact values.
+   *
+   * @param subject
+   *          the number to be checked
+   * @return {@code true} if the subject is a multiple of the divisor
+   */
+  public boolean isMultiple(final Number subject) {
+    if (NumberSchema.isLongValued(subject)) {
+      return isMultiple(subject.longValue());
+    } else if (subject instanceof Double || subject instanceof Float) {
+      return isMultiple(subject.doubleValue());
+    } else if (subject instanceof BigInteger && ((BigInteger) subject).bitLength() < Long.SIZE) {
+      return isMultiple(subject.longValue());
+    }
+    return isMultiple(NumberSchema.toBigDecimal(subject));
+  }
+
+  @Override
+  public String toString() {
+    return divisor.toString();
+  }
+
+}
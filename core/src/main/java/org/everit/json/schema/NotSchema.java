@@ -52,13 +52,24 @@ public class NotSchema extends Schema {
     this.mustNotMatch = Objects.requireNonNull(builder.mustNotMatch, "mustNotMatch cannot be null");
   }
 
+  public Schema getMustNotMatch() {
+    return mustNotMatch;
+  }
+
+  @Override
+  public boolean isValid(final Object subject) {
+    return !mustNotMatch.isValid(subject);
+  }
+
   @Override
   public void validate(final Object subject) {
-    try {
-      mustNotMatch.validate(subject);
-    } catch (ValidationException e) {
-      return;
+    validate(subject, ValidationContext.collectAll());
+  }
+
+  @Override
+  void collectViolations(final Object subject, final ValidationContext context) {
+    if (mustNotMatch.isValid(subject)) {
+      context.reportFailure(this, "subject must not be valid agains schema %s", mustNotMatch);
     }
-    throw new ValidationException(this, "subject must not be valid agains schema " + mustNotMatch);
   }
 }
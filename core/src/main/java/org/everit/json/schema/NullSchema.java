@@ -43,11 +43,20 @@ public class NullSchema extends Schema {
     super(builder);
   }
 
+  @Override
+  public boolean isValid(final Object subject) {
+    return subject == null || subject == JSONObject.NULL;
+  }
+
   @Override
   public void validate(final Object subject) {
-    if (!(subject == null || subject == JSONObject.NULL)) {
-      throw new ValidationException(this, "expected: null, found: "
-          + subject.getClass().getSimpleName());
+    validate(subject, ValidationContext.collectAll());
+  }
+
+  @Override
+  void collectViolations(final Object subject, final ValidationContext context) {
+    if (!isValid(subject)) {
+      context.reportFailure(this, "expected: null, found: %s", subject.getClass().getSimpleName());
     }
   }
 }
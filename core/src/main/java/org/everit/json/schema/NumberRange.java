@@ -0,0 +1,311 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * The range of the valid numbers of a {@link NumberSchema}: its {@code minimum} and
+ * {@code maximum} with their exclusivity.
+ *
+ * <p>
+ * The numbers are compared by their exact decimal values, like in {@link MultipleOf}: a
+ * {@code double} stands for the shortest decimal which is rounded to it. The bounds are converted
+ * once to the types of the subjects: the {@code int} and {@code long} subjects are compared
+ * against the range of the {@code long}s within the bounds, and the {@code double} subjects
+ * against {@code double} bounds, so the common subjects are checked without boxing, without
+ * conversions and without rounding errors, even if the bounds are not representable in the type
+ * of the subject. {@link BigInteger} and {@link BigDecimal} subjects are compared exactly.
+ * </p>
+ */
+public final class NumberRange {
+
+  /**
+   * The bounds are clamped between these values before they are rounded to {@code long}s, which
+   * keeps the rounding cheap, and does not change the {@code long}s within the range.
+   */
+  private static final BigDecimal BELOW_LONGS = BigDecimal.valueOf(Long.MIN_VALUE)
+      .subtract(BigDecimal.ONE);
+
+  private static final BigDecimal ABOVE_LONGS = BigDecimal.valueOf(Long.MAX_VALUE)
+      .add(BigDecimal.ONE);
+
+  /**
+   * Creates a range.
+   *
+   * @param minimum
+   *          the minimum, or {@code null} if the range is not bounded from below
+   * @param exclusiveMinimum
+   *          if the minimum itself is out of the range
+   * @param maximum
+   *          the maximum, or {@code null} if the range is not bounded from above
+   * @param exclusiveMaximum
+   *          if the maximum itself is out of the range
+   * @return the range
+   */
+  public static NumberRange of(final Number minimum, final boolean exclusiveMinimum,
+      final Number maximum, final boolean exclusiveMaximum) {
+    return new NumberRange(minimum == null ? null : NumberSchema.toBigDecimal(minimum),
+        exclusiveMinimum, maximum == null ? null : NumberSchema.toBigDecimal(maximum),
+        exclusiveMaximum);
+  }
+
+  private static BigDecimal clampToLongs(final BigDecimal bound) {
+    return bound.max(BELOW_LONGS).min(ABOVE_LONGS);
+  }
+
+  /**
+   * Compares {@code value} to {@code bound}, where {@code value} stands for its shortest decimal
+   * and the infinities are beyond any bound.
+   */
+  private static int compare(final double value, final BigDecimal bound) {
+    if (Double.isInfinite(value)) {
+      return value > 0 ? 1 : -1;
+    }
+    return BigDecimal.valueOf(value).compareTo(bound);
+  }
+
+  /**
+   * Compares {@code subject}, which is not NaN, to {@code bound}.
+   */
+  private static int compare(final Number subject, final BigDecimal bound) {
+    if (subject instanceof Double || subject instanceof Float) {
+      return compare(subject.doubleValue(), bound);
+    }
+    return NumberSchema.toBigDecimal(subject).compareTo(bound);
+  }
+
+  private static boolean isNaN(final Number subject) {
+    return (subject instanceof Double || subject instanceof Float)
+        && Double.isNaN(subject.doubleValue());
+  }
+
+  private static long toLong(final BigInteger value) {
+    if (value.bitLength() < Long.SIZE) {
+      return value.longValue();
+    }
+    return value.signum() > 0 ? Long.MAX_VALUE : Long.MIN_VALUE;
+  }
+
+  private final BigDecimal minimum;
+
+  private final boolean exclusiveMinimum;
+
+  private final BigDecimal maximum;
+
+  private final boolean exclusiveMaximum;
+
+  /**
+   * The smallest {@code long} within the range, or {@link Long#MAX_VALUE} if no {@code long} is
+   * within the range, in which case {@link #longMaximum} is {@link Long#MIN_VALUE}.
+   */
+  private final long longMinimum;
+
+  /**
+   * The largest {@code long} within the range.
+   */
+  private final long longMaximum;
+
+  /**
+   * The lower bound of the {@code double}s, which is exclusive if {@link #doubleMinimumExclusive}.
+   */
+  private final double doubleMinimum;
+
+  private final boolean doubleMinimumExclusive;
+
+  private final double doubleMaximum;
+
+  private final boolean doubleMaximumExclusive;
+
+  private NumberRange(final BigDecimal minimum, final boolean exclusiveMinimum,
+      final BigDecimal maximum, final boolean exclusiveMaximum) {
+    this.minimum = minimum;
+    this.exclusiveMinimum = exclusiveMinimum;
+    this.maximum = maximum;
+    this.exclusiveMaximum = exclusiveMaximum;
+    BigInteger longMinimum = null;
+    if (minimum != null) {
+      BigDecimal clamped = clampToLongs(minimum);
+      longMinimum = exclusiveMinimum
+          ? clamped.setScale(0, RoundingMode.FLOOR).toBigInteger().add(BigInteger.ONE)
+          : clamped.setScale(0, RoundingMode.CEILING).toBigInteger();
+    }
+    BigInteger longMaximum = null;
+    if (maximum != null) {
+      BigDecimal clamped = clampToLongs(maximum);
+      longMaximum = exclusiveMaximum
+          ? clamped.setScale(0, RoundingMode.CEILING).toBigInteger().subtract(BigInteger.ONE)
+          : clamped.setScale(0, RoundingMode.FLOOR).toBigInteger();
+    }
+    if ((longMinimum != null && longMinimum.compareTo(BigInteger.valueOf(Long.MAX_VALUE)) > 0)
+        || (longMaximum != null
+            && longMaximum.compareTo(BigInteger.valueOf(Long.MIN_VALUE)) < 0)) {
+      this.longMinimum = Long.MAX_VALUE;
+      this.longMaximum = Long.MIN_VALUE;
+    } else {
+      this.longMinimum = longMinimum == null ? Long.MIN_VALUE : toLong(longMinimum);
+      this.longMaximum = longMaximum == null ? Long.MAX_VALUE : toLong(longMaximum);
+    }
+    if (minimum == null) {
+      this.doubleMinimum = Double.NEGATIVE_INFINITY;
+      this.doubleMinimumExclusive = false;
+    } else {
+      double nearest = minimum.doubleValue();
+      int comparison = compare(nearest, minimum);
+      if (comparison == 0) {
+        this.doubleMinimum = nearest;
+        this.doubleMinimumExclusive = exclusiveMinimum;
+      } else {
+        this.doubleMinimum = comparison > 0 ? nearest : Math.nextUp(nearest);
+        this.doubleMinimumExclusive = false;
+      }
+    }
+    if (maximum == null) {
+      this.doubleMaximum = Double.POSITIVE_INFINITY;
+      this.doubleMaximumExclusive = false;
+    } else {
+      double nearest = maximum.doubleValue();
+      int comparison = compare(nearest, maximum);
+      if (comparison == 0) {
+        this.doubleMaximum = nearest;
+        this.doubleMaximumExclusive = exclusiveMaximum;
+      } else {
+        this.doubleMaximum = comparison < 0 ? nearest : Math.nextDown(nearest);
+        this.doubleMaximumExclusive = false;
+      }
+    }
+  }
+
+  /**
+   * Tells if {@code subject} is within the range.
+   *
+   * @param subject
+   *          the number to be checked
+   * @return {@code true} if the subject is within the range
+   */
+  public boolean contains(final double subject) {
+    return !(doubleMinimumExclusive ? subject <= doubleMinimum : subject < doubleMinimum)
+        && !(doubleMaximumExclusive ? subject >= doubleMaximum : subject > doubleMaximum);
+  }
+
+  /**
+   * Tells if {@code subject} is within the range.
+   *
+   * @param subject
+   *          the number to be checked
+   * @return {@code true} if the subject is within the range
+   */
+  public boolean contains(final long subject) {
+    return subject >= longMinimum && subject <= longMaximum;
+  }
+
+  /**
+   * Tells if {@code subject} is within the range. {@code int}s and {@code long}s are checked by
+   * {@link #contains(long)}, {@code double}s and {@code float}s by {@link #contains(double)}, the
+   * other numbers by their exact values.
+   *
+   * @param subject
+   *          the number to be checked
+   * @return {@code true} if the subject is within the range
+   */
+  public boolean contains(final Number subject) {
+    if (NumberSchema.isLongValued(subject)) {
+      return contains(subject.longValue());
+    } else if (subject instanceof Double || subject instanceof Float) {
+      return contains(subject.doubleValue());
+    }
+    return !isBelowMinimum(subject) && !isAboveMaximum(subject);
+  }
+
+  double getDoubleMaximum() {
+    return doubleMaximum;
+  }
+
+  double getDoubleMinimum() {
+    return doubleMinimum;
+  }
+
+  long getLongMaximum() {
+    return longMaximum;
+  }
+
+  long getLongMinimum() {
+    return longMinimum;
+  }
+
+  public BigDecimal getMaximum() {
+    return maximum;
+  }
+
+  public BigDecimal getMinimum() {
+    return minimum;
+  }
+
+  boolean isDoubleMaximumExclusive() {
+    return doubleMaximumExclusive;
+  }
+
+  boolean isDoubleMinimumExclusive() {
+    return doubleMinimumExclusive;
+  }
+
+  /**
+   * Tells if {@code subject} is above the maximum.
+   *
+   * @param subject
+   *          the number to be checked
+   * @return {@code true} if the subject is above the maximum
+   */
+  public boolean isAboveMaximum(final Number subject) {
+    if (maximum == null || isNaN(subject)) {
+      return false;
+    }
+    int comparison = compare(subject, maximum);
+    return exclusiveMaximum ? comparison >= 0 : comparison > 0;
+  }
+
+  /**
+   * Tells if {@code subject} is below the minimum.
+   *
+   * @param subject
+   *          the number to be checked
+   * @return {@code true} if the subject is below the minimum
+   */
+  public boolean isBelowMinimum(final Number subject) {
+    if (minimum == null || isNaN(subject)) {
+      return false;
+    }
+    int comparison = compare(subject, minimum);
+    return exclusiveMinimum ? comparison <= 0 : comparison < 0;
+  }
+
+  public boolean isExclusiveMaximum() {
+    return exclusiveMaximum;
+  }
+
+  public boolean isExclusiveMinimum() {
+    return exclusiveMinimum;
+  }
+
+  @Override
+  public String toString() {
+    return (minimum == null ? "(-inf" : (exclusiveMinimum ? "(" : "[") + minimum) + ", "
+        + (maximum == null ? "inf)" : maximum + (exclusiveMaximum ? ")" : "]"));
+  }
+
+}
@@ -16,6 +16,7 @@
 package org.everit.json.schema;
 
 import java.math.BigDecimal;
+import java.math.BigInteger;
 
 /**
  * Number schema validator.
@@ -87,6 +88,36 @@ public class NumberSchema extends Schema {
     return new Builder();
   }
 
+  /**
+   * Tells if {@code number} is an integer, that is a {@link BigInteger} or a number whose value is
+   * a {@code long}.
+   */
+  static boolean isInteger(final Number number) {
+    return isLongValued(number) || number instanceof BigInteger;
+  }
+
+  static boolean isLongValued(final Number number) {
+    return number instanceof Integer || number instanceof Long || number instanceof Short
+        || number instanceof Byte;
+  }
+
+  /**
+   * Converts {@code number} to its exact decimal value, where a {@code double} stands for the
+   * shortest decimal which is rounded to it.
+   */
+  static BigDecimal toBigDecimal(final Number number) {
+    if (number instanceof BigDecimal) {
+      return (BigDecimal) number;
+    } else if (number instanceof BigInteger) {
+      return new BigDecimal((BigInteger) number);
+    } else if (isLongValued(number)) {
+      return BigDecimal.valueOf(number.longValue());
+    } else if (number instanceof Double) {
+      return BigDecimal.valueOf(number.doubleValue());
+    }
+    return new BigDecimal(number.toString());
+  }
+
   private final boolean requiresNumber;
 
   private final Number minimum;
@@ -95,6 +126,10 @@ public class NumberSchema extends Schema {
 
   private final Number multipleOf;
 
+  private final MultipleOf multipleOfCheck;
+
+  private final NumberRange range;
+
   private boolean exclusiveMinimum = false;
 
   private boolean exclusiveMaximum = false;
@@ -118,38 +153,23 @@ public class NumberSchema extends Schema {
     this.exclusiveMinimum = builder.exclusiveMinimum;
     this.exclusiveMaximum = builder.exclusiveMaximum;
     this.multipleOf = builder.multipleOf;
+    this.multipleOfCheck = multipleOf == null ? null : MultipleOf.of(multipleOf);
+    this.range = minimum == null && maximum == null ? null
+        : NumberRange.of(minimum, exclusiveMinimum, maximum, exclusiveMaximum);
     this.requiresNumber = builder.requiresNumber;
     this.requiresInteger = builder.requiresInteger;
   }
 
-  private void checkMaximum(final double subject) {
-    if (maximum != null) {
-      if (exclusiveMaximum && maximum.doubleValue() <= subject) {
-        throw new ValidationException(this, subject + " is not lower than " + maximum);
-      } else if (maximum.doubleValue() < subject) {
-        throw new ValidationException(this, subject + " is not lower or equal to " + maximum);
-      }
-    }
+  private boolean aboveMaximum(final Number subject) {
+    return range != null && range.isAboveMaximum(subject);
   }
 
-  private void checkMinimum(final double subject) {
-    if (minimum != null) {
-      if (exclusiveMinimum && subject <= minimum.doubleValue()) {
-        throw new ValidationException(this, subject + " is not higher than " + minimum);
-      } else if (subject < minimum.doubleValue()) {
-        throw new ValidationException(this, subject + " is not higher or equal to " + minimum);
-      }
-    }
+  private boolean belowMinimum(final Number subject) {
+    return range != null && range.isBelowMinimum(subject);
   }
 
-  private void checkMultipleOf(final double subject) {
-    if (multipleOf != null) {
-      BigDecimal remainder = BigDecimal.valueOf(subject).remainder(
-          BigDecimal.valueOf(multipleOf.doubleValue()));
-      if (remainder.compareTo(BigDecimal.ZERO) != 0) {
-        throw new ValidationException(this, subject + " is not a multiple of " + multipleOf);
-      }
-    }
+  private boolean isMultipleOf(final Number subject) {
+    return multipleOfCheck == null || multipleOfCheck.isMultiple(subject);
   }
 
   public Number getMaximum() {
@@ -164,6 +184,18 @@ public class NumberSchema extends Schema {
     return multipleOf;
   }
 
+  /**
+   * Returns the range of the valid numbers, or {@code null} if the schema has neither minimum nor
+   * maximum.
+   */
+  NumberRange getRange() {
+    return range;
+  }
+
+  MultipleOf getMultipleOfCheck() {
+    return multipleOfCheck;
+  }
+
   public boolean isExclusiveMaximum() {
     return exclusiveMaximum;
   }
@@ -172,25 +204,68 @@ public class NumberSchema extends Schema {
     return exclusiveMinimum;
   }
 
+  @Override
+  public boolean isValid(final Object subject) {
+    if (!(subject instanceof Number)) {
+      return !requiresNumber;
+    }
+    Number numberSubject = (Number) subject;
+    if (requiresInteger && !isInteger(numberSubject)) {
+      return false;
+    }
+    return (range == null || range.contains(numberSubject)) && isMultipleOf(numberSubject);
+  }
+
   public boolean requiresInteger() {
     return requiresInteger;
   }
 
+  public boolean requiresNumber() {
+    return requiresNumber;
+  }
+
   @Override
   public void validate(final Object subject) {
+    validate(subject, ValidationContext.collectAll());
+  }
+
+  @Override
+  void collectViolations(final Object subject, final ValidationContext context) {
     if (!(subject instanceof Number)) {
       if (requiresNumber) {
-        throw new ValidationException(this, Number.class, subject);
+        context.reportTypeMismatch(this, Number.class, subject);
       }
-    } else {
-      if (!(subject instanceof Integer) && requiresInteger) {
-        throw new ValidationException(this, Integer.class, subject);
-      }
-      double intSubject = ((Number) subject).doubleValue();
-      checkMinimum(intSubject);
-      checkMaximum(intSubject);
-      checkMultipleOf(intSubject);
+      return;
+    }
+    Number numberSubject = (Number) subject;
+    if (requiresInteger && !isInteger(numberSubject)) {
+      context.reportTypeMismatch(this, Integer.class, subject);
+      return;
+    }
+    if (belowMinimum(numberSubject)) {
+      context.reportFailure(this, exclusiveMinimum
+          ? "%s is not higher than %s"
+          : "%s is not higher or equal to %s", toMessageValue(numberSubject), minimum);
+    } else if (aboveMaximum(numberSubject)) {
+      context.reportFailure(this, exclusiveMaximum
+          ? "%s is not lower than %s"
+          : "%s is not lower or equal to %s", toMessageValue(numberSubject), maximum);
+    } else if (!isMultipleOf(numberSubject)) {
+      context.reportFailure(this, "%s is not a multiple of %s", toMessageValue(numberSubject),
+          multipleOf);
+    }
+  }
+
+  /**
+   * Returns the value of {@code subject} which is printed in the failure messages: the numbers
+   * which may not fit in a {@code double} are printed as they are, the others as {@code double}s.
+   */
+  private Object toMessageValue(final Number subject) {
+    if (subject instanceof Long || subject instanceof BigInteger
+        || subject instanceof BigDecimal) {
+      return subject;
     }
+    return subject.doubleValue();
   }
 
 }
@@ -15,14 +15,23 @@
  */
 package org.everit.json.schema;
 
-import java.util.Arrays;
-import java.util.Objects;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
 
 /**
  * Deep-equals implementation on primitive wrappers, {@link JSONObject} and {@link JSONArray}.
+ * Numbers are equal if their values are equal, regardless of their types, so {@code 1} equals
+ * {@code 1.0}. Objects are equal if they have the same properties with equal values, regardless
+ * of the order of their properties.
+ *
+ * <p>
+ * The comparison does not copy the property names or the values: identical values are equal
+ * without being traversed, objects and arrays of different sizes are unequal without being
+ * traversed, and the properties of an object are looked up by name in the other object.
+ * </p>
  */
 public final class ObjectComparator {
 
@@ -36,7 +45,9 @@ public final class ObjectComparator {
    * @return {@code true} if the two objects are equal, {@code false} otherwise
    */
   public static boolean deepEquals(final Object obj1, final Object obj2) {
-    if (obj1 instanceof JSONArray) {
+    if (obj1 == obj2) {
+      return true;
+    } else if (obj1 instanceof JSONArray) {
       if (!(obj2 instanceof JSONArray)) {
         return false;
       }
@@ -46,8 +57,44 @@ public final class ObjectComparator {
         return false;
       }
       return deepEqualObjects((JSONObject) obj1, (JSONObject) obj2);
+    } else if (obj1 instanceof Number && obj2 instanceof Number) {
+      return numbersEqual((Number) obj1, (Number) obj2);
+    } else if (isNull(obj1)) {
+      return isNull(obj2);
+    }
+    return obj1.equals(obj2);
+  }
+
+  /**
+   * Returns a structural hash code of {@code obj}, which is consistent with
+   * {@link #deepEquals(Object, Object)}. The hash code of a {@link JSONObject} does not depend on
+   * the order of its properties.
+   *
+   * @param obj
+   *          the object to be hashed
+   * @return the hash code
+   */
+  public static int deepHashCode(final Object obj) {
+    if (obj instanceof JSONArray) {
+      JSONArray array = (JSONArray) obj;
+      int rval = 1;
+      for (int i = 0; i < array.length(); ++i) {
+        rval = 31 * rval + deepHashCode(array.get(i));
+      }
+      return rval;
+    } else if (obj instanceof JSONObject) {
+      JSONObject object = (JSONObject) obj;
+      int rval = 0;
+      for (String key : object.keySet()) {
+        rval += key.hashCode() ^ deepHashCode(object.opt(key));
+      }
+      return rval;
+    } else if (obj instanceof Number) {
+      return numberHashCode((Number) obj);
+    } else if (isNull(obj)) {
+      return 0;
     }
-    return Objects.equals(obj1, obj2);
+    return obj.hashCode();
   }
 
   private static boolean deepEqualArrays(final JSONArray arr1, final JSONArray arr2) {
@@ -63,21 +110,101 @@ public final class ObjectComparator {
   }
 
   private static boolean deepEqualObjects(final JSONObject jsonObj1, final JSONObject jsonObj2) {
-    String[] obj1Names = JSONObject.getNames(jsonObj1);
-    if (!Arrays.equals(obj1Names, JSONObject.getNames(jsonObj2))) {
+    if (jsonObj1.length() != jsonObj2.length()) {
       return false;
     }
-    if (obj1Names == null) {
-      return true;
-    }
-    for (String name : obj1Names) {
-      if (!deepEquals(jsonObj1.get(name), jsonObj2.get(name))) {
+    for (String name : jsonObj1.keySet()) {
+      Object value2 = jsonObj2.opt(name);
+      if (value2 == null || !deepEquals(jsonObj1.opt(name), value2)) {
         return false;
       }
     }
     return true;
   }
 
+  private static boolean isFloatingPoint(final Number number) {
+    return number instanceof Double || number instanceof Float;
+  }
+
+  /**
+   * Tells if {@code value} is integral and fits in a {@code long}. {@code 2^63} does not fit,
+   * although {@code (long)} converts it to {@link Long#MAX_VALUE}.
+   */
+  private static boolean isLong(final double value) {
+    long longValue = (long) value;
+    return longValue == value && longValue != Long.MAX_VALUE;
+  }
+
+  private static boolean isNull(final Object obj) {
+    return obj == null || obj == JSONObject.NULL;
+  }
+
+  /**
+   * Returns the canonical form of {@code number}: a {@link Long} if its value is integral and fits
+   * in a {@code long}, a {@link Double} if its value is exactly the shortest decimal of a
+   * {@code double}, or a {@link BigDecimal} without trailing zeros. Numbers of the same value have
+   * equal canonical forms.
+   */
+  static Number normalizeNumber(final Number number) {
+    if (NumberSchema.isLongValued(number)) {
+      return number instanceof Long ? number : Long.valueOf(number.longValue());
+    } else if (isFloatingPoint(number)) {
+      double value = number.doubleValue();
+      if (isLong(value)) {
+        return Long.valueOf((long) value);
+      }
+      return Double.valueOf(value);
+    }
+    BigDecimal value = NumberSchema.toBigDecimal(number).stripTrailingZeros();
+    if (value.scale() <= 0 && value.precision() - value.scale() < 20) {
+      BigInteger integer = value.toBigIntegerExact();
+      if (integer.bitLength() < Long.SIZE) {
+        return Long.valueOf(integer.longValue());
+      }
+    }
+    double doubleValue = value.doubleValue();
+    if (!Double.isInfinite(doubleValue)
+        && BigDecimal.valueOf(doubleValue).compareTo(value) == 0) {
+      return Double.valueOf(doubleValue);
+    }
+    return value;
+  }
+
+  /**
+   * Returns the hash code of the {@link #normalizeNumber(Number) canonical form} of
+   * {@code number}, without creating it for the primitive wrappers.
+   */
+  private static int numberHashCode(final Number number) {
+    if (NumberSchema.isLongValued(number)) {
+      return Long.hashCode(number.longValue());
+    } else if (isFloatingPoint(number)) {
+      double value = number.doubleValue();
+      return isLong(value) ? Long.hashCode((long) value) : Double.hashCode(value);
+    }
+    return normalizeNumber(number).hashCode();
+  }
+
+  /**
+   * Compares the values of two numbers. The primitive wrappers are compared without creating
+   * their {@link #normalizeNumber(Number) canonical forms}.
+   */
+  private static boolean numbersEqual(final Number number1, final Number number2) {
+    if (NumberSchema.isLongValued(number1) && NumberSchema.isLongValued(number2)) {
+      return number1.longValue() == number2.longValue();
+    } else if (isFloatingPoint(number1) && isFloatingPoint(number2)) {
+      double value1 = number1.doubleValue();
+      double value2 = number2.doubleValue();
+      return value1 == value2 || (Double.isNaN(value1) && Double.isNaN(value2));
+    } else if (NumberSchema.isLongValued(number1) && isFloatingPoint(number2)) {
+      double value = number2.doubleValue();
+      return isLong(value) && (long) value == number1.longValue();
+    } else if (isFloatingPoint(number1) && NumberSchema.isLongValued(number2)) {
+      double value = number1.doubleValue();
+      return isLong(value) && (long) value == number2.longValue();
+    }
+    return normalizeNumber(number1).equals(normalizeNumber(number2));
+  }
+
   private ObjectComparator() {
   }
 
@@ -17,6 +17,8 @@ package org.everit.json.schema;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -24,11 +26,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.Set;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import org.json.JSONObject;
 
@@ -62,6 +61,12 @@ public class ObjectSchema extends Schema {
 
     private final Map<String, Schema> schemaDependencies = new HashMap<>();
 
+    private int keyCacheSize = Integer.getInteger(KEY_CACHE_SIZE_PROPERTY, 0);
+
+    private int shapeCacheSize = Integer.getInteger(SHAPE_CACHE_SIZE_PROPERTY, 0);
+
+    private RegexpFactory regexpFactory = LinearTimeRegexpFactory.INSTANCE;
+
     public Builder additionalProperties(final boolean additionalProperties) {
       this.additionalProperties = additionalProperties;
       return this;
@@ -94,6 +99,22 @@ public class ObjectSchema extends Schema {
       return new ObjectSchema(this);
     }
 
+    /**
+     * Sets the size of the cache of the classifications of the keys of the validated objects
+     * (whether a key is a declared property, which pattern properties it matches, or if it is an
+     * additional property). The cache is bounded, a key evicts the previously cached key with the
+     * same slot. The default is the value of the {@value #KEY_CACHE_SIZE_PROPERTY} system
+     * property, or {@code 0} (no cache) if it is not set.
+     *
+     * @param keyCacheSize
+     *          the number of cached keys, {@code 0} to disable caching
+     * @return {@code this}
+     */
+    public Builder keyCacheSize(final int keyCacheSize) {
+      this.keyCacheSize = keyCacheSize;
+      return this;
+    }
+
     public Builder maxProperties(final Integer maxProperties) {
       this.maxProperties = maxProperties;
       return this;
@@ -134,6 +155,19 @@ public class ObjectSchema extends Schema {
       return this;
     }
 
+    /**
+     * Sets the factory compiling the patterns of the pattern properties. The default is
+     * {@link LinearTimeRegexpFactory#INSTANCE}.
+     *
+     * @param regexpFactory
+     *          the factory of the regular expressions
+     * @return {@code this}
+     */
+    public Builder regexpFactory(final RegexpFactory regexpFactory) {
+      this.regexpFactory = Objects.requireNonNull(regexpFactory, "regexpFactory cannot be null");
+      return this;
+    }
+
     public Builder requiresObject(final boolean requiresObject) {
       this.requiresObject = requiresObject;
       return this;
@@ -149,16 +183,110 @@ public class ObjectSchema extends Schema {
       return this;
     }
 
+    /**
+     * Sets the size of the cache of the known-good shapes (key sets) of the validated objects. If
+     * an object has the same key set as a previously validated object which passed the checks
+     * depending only on its keys (required properties, property dependencies, size limits, and
+     * the prohibition of additional properties), then these checks are skipped, and only the
+     * property values are validated. The cache is bounded, a shape evicts the previously cached
+     * shape with the same slot. The default is the value of the
+     * {@value #SHAPE_CACHE_SIZE_PROPERTY} system property, or {@code 0} (no cache) if it is not
+     * set.
+     *
+     * @param shapeCacheSize
+     *          the number of cached shapes, {@code 0} to disable caching
+     * @return {@code this}
+     */
+    public Builder shapeCacheSize(final int shapeCacheSize) {
+      this.shapeCacheSize = shapeCacheSize;
+      return this;
+    }
+
+  }
+
+  /**
+   * The name of the system property setting the default {@link Builder#keyCacheSize(int) key
+   * cache size}.
+   */
+  public static final String KEY_CACHE_SIZE_PROPERTY =
+      "org.everit.json.schema.ObjectSchema.keyCacheSize";
+
+  /**
+   * The name of the system property setting the default {@link Builder#shapeCacheSize(int) shape
+   * cache size}.
+   */
+  public static final String SHAPE_CACHE_SIZE_PROPERTY =
+      "org.everit.json.schema.ObjectSchema.shapeCacheSize";
+
+  /**
+   * The classification of a key of the validated objects.
+   */
+  private static final class KeyClass {
+
+    private static final int[] NO_PATTERNS = new int[0];
+
+    /**
+     * The index of the key among the tracked keys, or -1 if it is not tracked.
+     */
+    final int trackedIndex;
+
+    /**
+     * The schema of the declared property, or {@code null} if the key is not declared.
+     */
+    final Schema propertySchema;
+
+    /**
+     * The indexes of the matching pattern properties.
+     */
+    final int[] patternIndexes;
+
+    /**
+     * {@code true} if the key is neither declared, nor matches any pattern property.
+     */
+    final boolean additional;
+
+    KeyClass(final int trackedIndex, final Schema propertySchema, final BitSet patternMatches) {
+      this.trackedIndex = trackedIndex;
+      this.propertySchema = propertySchema;
+      this.patternIndexes = patternMatches.isEmpty()
+          ? NO_PATTERNS
+          : patternMatches.stream().toArray();
+      this.additional = propertySchema == null && patternIndexes.length == 0;
+    }
+
   }
 
   public static Builder builder() {
     return new Builder();
   }
 
+  private static boolean contains(final long[] keySet, final int keyIndex) {
+    return (keySet[keyIndex >>> 6] & (1L << keyIndex)) != 0;
+  }
+
   private static <K, V> Map<K, V> copyMap(final Map<K, V> original) {
     return Collections.unmodifiableMap(new HashMap<>(original));
   }
 
+  /**
+   * Returns the indexes of the {@code keys}, adding the keys which are not tracked yet to
+   * {@code keyIndexes}.
+   */
+  private static int[] trackKeys(final Collection<String> keys,
+      final Map<String, Integer> keyIndexes) {
+    int[] rval = new int[keys.size()];
+    int i = 0;
+    for (String key : keys) {
+      Integer index = keyIndexes.get(key);
+      if (index == null) {
+        index = keyIndexes.size();
+        keyIndexes.put(key, index);
+      }
+      rval[i++] = index;
+    }
+    return rval;
+  }
+
   private final Map<String, Schema> propertySchemas;
 
   private final boolean additionalProperties;
@@ -179,6 +307,56 @@ public class ObjectSchema extends Schema {
 
   private final Map<Pattern, Schema> patternProperties;
 
+  private final RegexpFactory regexpFactory;
+
+  /**
+   * The names of the properties which are declared, required, or take part in a dependency. The
+   * presence of these properties in the subject is tracked by a bitset over their indexes, which
+   * is filled while visiting the keys of the subject.
+   */
+  private final String[] trackedKeys;
+
+  private final Map<String, Integer> trackedKeyIndexes;
+
+  /**
+   * The classifications of the tracked keys, by their indexes.
+   */
+  private final KeyClass[] trackedKeyClasses;
+
+  private final int[] requiredKeyIndexes;
+
+  private final int[] propertyDependencyKeyIndexes;
+
+  private final int[][] propertyDependencyTargetIndexes;
+
+  private final int[] schemaDependencyKeyIndexes;
+
+  private final Schema[] schemaDependencySchemas;
+
+  private final Schema[] patternSchemas;
+
+  /**
+   * Finds all pattern properties matching a key at once, {@code null} if there are no pattern
+   * properties.
+   */
+  private final MultiPatternMatcher patternMatcher;
+
+  /**
+   * The classification of the keys which are not tracked and do not match any pattern property.
+   */
+  private final KeyClass additionalKeyClass;
+
+  /**
+   * The cache of the key classifications, {@code null} if caching is disabled.
+   */
+  private final BoundedCache<String, KeyClass> keyCache;
+
+  /**
+   * The cache of the known-good key sets, mapped to the set of the tracked keys they contain
+   * (which is never modified), {@code null} if caching is disabled.
+   */
+  private final BoundedCache<Set<String>, long[]> shapeCache;
+
   /**
    * Constructor.
    *
@@ -203,18 +381,103 @@ public class ObjectSchema extends Schema {
     this.schemaDependencies = copyMap(builder.schemaDependencies);
     this.requiresObject = builder.requiresObject;
     this.patternProperties = copyMap(builder.patternProperties);
+    this.regexpFactory = builder.regexpFactory;
+    Map<String, Integer> keyIndexes = new HashMap<>();
+    List<Schema> keySchemas = new ArrayList<>();
+    for (Entry<String, Schema> property : propertySchemas.entrySet()) {
+      keyIndexes.put(property.getKey(), keyIndexes.size());
+      keySchemas.add(property.getValue());
+    }
+    this.requiredKeyIndexes = trackKeys(requiredProperties, keyIndexes);
+    this.propertyDependencyKeyIndexes = trackKeys(propertyDependencies.keySet(), keyIndexes);
+    this.propertyDependencyTargetIndexes = new int[propertyDependencyKeyIndexes.length][];
+    int i = 0;
+    for (Set<String> mustBePresent : propertyDependencies.values()) {
+      propertyDependencyTargetIndexes[i++] = trackKeys(mustBePresent, keyIndexes);
+    }
+    this.schemaDependencyKeyIndexes = trackKeys(schemaDependencies.keySet(), keyIndexes);
+    this.schemaDependencySchemas = schemaDependencies.values()
+        .toArray(new Schema[schemaDependencies.size()]);
+    this.trackedKeys = new String[keyIndexes.size()];
+    for (Entry<String, Integer> key : keyIndexes.entrySet()) {
+      trackedKeys[key.getValue()] = key.getKey();
+    }
+    this.trackedKeyIndexes = keyIndexes;
+    Pattern[] patterns = patternProperties.keySet().toArray(new Pattern[patternProperties.size()]);
+    this.patternSchemas = new Schema[patterns.length];
+    for (int j = 0; j < patterns.length; ++j) {
+      patternSchemas[j] = patternProperties.get(patterns[j]);
+    }
+    this.patternMatcher = patterns.length == 0 ? null
+        : new MultiPatternMatcher(patterns, regexpFactory);
+    BitSet patternMatches = new BitSet(patterns.length);
+    this.trackedKeyClasses = new KeyClass[trackedKeys.length];
+    for (int j = 0; j < trackedKeys.length; ++j) {
+      if (patternMatcher != null) {
+        try {
+          patternMatcher.match(trackedKeys[j], patternMatches);
+        } catch (RegexpStepLimitExceededException e) {
+          throw new SchemaException("cannot match the pattern properties against property ["
+              + trackedKeys[j] + "]: " + e.getMessage(), e);
+        }
+      }
+      trackedKeyClasses[j] = new KeyClass(j, j < keySchemas.size() ? keySchemas.get(j) : null,
+          patternMatches);
+    }
+    patternMatches.clear();
+    this.additionalKeyClass = new KeyClass(-1, null, patternMatches);
+    this.keyCache = builder.keyCacheSize > 0 ? new BoundedCache<>(builder.keyCacheSize) : null;
+    this.shapeCache = builder.shapeCacheSize > 0 ? new BoundedCache<>(builder.shapeCacheSize)
+        : null;
   }
 
-  private Stream<String> getAdditionalProperties(final JSONObject subject) {
-    String[] names = JSONObject.getNames(subject);
-    if (names == null) {
-      return Stream.empty();
+  /**
+   * Classifies a key of the validated object.
+   *
+   * @param patternMatches
+   *          a bitset which can be used to match the pattern properties
+   * @throws RegexpStepLimitExceededException
+   *           if a pattern property could not be matched against the key within its step limit
+   */
+  private KeyClass classify(final String key, final BitSet patternMatches) {
+    if (keyCache != null) {
+      KeyClass cached = keyCache.get(key);
+      if (cached != null) {
+        return cached;
+      }
+    }
+    Integer keyIndex = trackedKeyIndexes.get(key);
+    KeyClass rval;
+    if (keyIndex != null) {
+      rval = trackedKeyClasses[keyIndex];
+    } else if (patternMatcher == null) {
+      rval = additionalKeyClass;
     } else {
-      return Arrays
-          .stream(names)
-          .filter(key -> !propertySchemas.containsKey(key))
-          .filter(key -> !matchesAnyPattern(key));
+      patternMatcher.match(key, patternMatches);
+      rval = patternMatches.isEmpty() ? additionalKeyClass : new KeyClass(-1, null, patternMatches);
+    }
+    if (keyCache != null) {
+      keyCache.put(key, rval);
     }
+    return rval;
+  }
+
+  /**
+   * Returns the hit and miss counts of the {@link Builder#keyCacheSize(int) key cache}.
+   *
+   * @return the statistics of the cache, or {@code null} if the key cache is disabled
+   */
+  public CacheStatistics getKeyCacheStatistics() {
+    return keyCache == null ? null : keyCache.getStatistics();
+  }
+
+  /**
+   * Returns the hit and miss counts of the {@link Builder#shapeCacheSize(int) shape cache}.
+   *
+   * @return the statistics of the cache, or {@code null} if the shape cache is disabled
+   */
+  public CacheStatistics getShapeCacheStatistics() {
+    return shapeCache == null ? null : shapeCache.getStatistics();
   }
 
   public Integer getMaxProperties() {
@@ -237,6 +500,10 @@ public class ObjectSchema extends Schema {
     return propertySchemas;
   }
 
+  public RegexpFactory getRegexpFactory() {
+    return regexpFactory;
+  }
+
   public List<String> getRequiredProperties() {
     return requiredProperties;
   }
@@ -249,147 +516,317 @@ public class ObjectSchema extends Schema {
     return schemaOfAdditionalProperties;
   }
 
-  private Optional<ValidationException> ifFails(final Schema schema, final Object input) {
-    try {
-      schema.validate(input);
-      return Optional.empty();
-    } catch (ValidationException e) {
-      return Optional.of(e);
+  @Override
+  public boolean isValid(final Object subject) {
+    if (!(subject instanceof JSONObject)) {
+      return !requiresObject;
     }
+    JSONObject objSubject = (JSONObject) subject;
+    long[] knownPresentKeys = knownShape(objSubject);
+    if (knownPresentKeys != null) {
+      return keysAreValid(objSubject, null)
+          && schemaDependenciesAreSatisfied(objSubject, knownPresentKeys);
+    }
+    if (!sizeIsValid(objSubject)) {
+      return false;
+    }
+    long[] presentKeys = newKeySet();
+    if (!(keysAreValid(objSubject, presentKeys)
+        && requiredPropertiesArePresent(presentKeys)
+        && propertyDependenciesAreSatisfied(presentKeys))) {
+      return false;
+    }
+    rememberShape(objSubject, presentKeys);
+    return schemaDependenciesAreSatisfied(objSubject, presentKeys);
   }
 
-  private boolean matchesAnyPattern(final String key) {
-    return patternProperties.keySet().stream()
-        .filter(pattern -> pattern.matcher(key).find())
-        .findAny()
-        .isPresent();
+  /**
+   * Checks the declared, the pattern and the additional properties of the subject in a single
+   * pass over its keys, and records the tracked keys present in the subject in
+   * {@code presentKeys}, unless it is {@code null}. The keys which cannot be matched against the
+   * pattern properties within their step limit are invalid.
+   */
+  private boolean keysAreValid(final JSONObject subject, final long[] presentKeys) {
+    BitSet patternMatches = patternMatcher == null ? null : new BitSet(patternSchemas.length);
+    for (String key : subject.keySet()) {
+      KeyClass keyClass;
+      try {
+        keyClass = classify(key, patternMatches);
+      } catch (RegexpStepLimitExceededException e) {
+        return false;
+      }
+      if (presentKeys != null && keyClass.trackedIndex >= 0) {
+        presentKeys[keyClass.trackedIndex >>> 6] |= 1L << keyClass.trackedIndex;
+      }
+      if (keyClass.additional) {
+        if (!additionalProperties) {
+          return false;
+        }
+        if (schemaOfAdditionalProperties != null
+            && !schemaOfAdditionalProperties.isValid(subject.get(key))) {
+          return false;
+        }
+        continue;
+      }
+      Object value = subject.get(key);
+      if (keyClass.propertySchema != null && !keyClass.propertySchema.isValid(value)) {
+        return false;
+      }
+      for (int patternIndex : keyClass.patternIndexes) {
+        if (!patternSchemas[patternIndex].isValid(value)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the tracked keys present in the subject if its key set is a cached known-good shape,
+   * otherwise {@code null}.
+   */
+  private long[] knownShape(final JSONObject subject) {
+    return shapeCache == null ? null : shapeCache.get(subject.keySet());
+  }
+
+  private long[] newKeySet() {
+    return new long[(trackedKeys.length + 63) >>> 6];
   }
 
   public boolean permitsAdditionalProperties() {
     return additionalProperties;
   }
 
+  private boolean propertyDependenciesAreSatisfied(final long[] presentKeys) {
+    for (int i = 0; i < propertyDependencyKeyIndexes.length; ++i) {
+      if (contains(presentKeys, propertyDependencyKeyIndexes[i])) {
+        for (int mustBePresent : propertyDependencyTargetIndexes[i]) {
+          if (!contains(presentKeys, mustBePresent)) {
+            return false;
+          }
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Caches the key set of the subject as a known-good shape. Must be called only if the subject
+   * passed the checks depending only on its keys.
+   */
+  private void rememberShape(final JSONObject subject, final long[] presentKeys) {
+    if (shapeCache != null) {
+      shapeCache.put(new HashSet<>(subject.keySet()), presentKeys);
+    }
+  }
+
+  private boolean requiredPropertiesArePresent(final long[] presentKeys) {
+    for (int keyIndex : requiredKeyIndexes) {
+      if (!contains(presentKeys, keyIndex)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   public boolean requiresObject() {
     return requiresObject;
   }
 
-  private List<ValidationException> testAdditionalProperties(final JSONObject subject) {
+  private boolean schemaDependenciesAreSatisfied(final JSONObject subject,
+      final long[] presentKeys) {
+    for (int i = 0; i < schemaDependencyKeyIndexes.length; ++i) {
+      if (contains(presentKeys, schemaDependencyKeyIndexes[i])
+          && !schemaDependencySchemas[i].isValid(subject)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean sizeIsValid(final JSONObject subject) {
+    int actualSize = subject.length();
+    return !(minProperties != null && actualSize < minProperties.intValue())
+        && !(maxProperties != null && actualSize > maxProperties.intValue());
+  }
+
+  private void testAdditionalProperty(final String key, final JSONObject subject,
+      final ValidationContext context) {
     if (!additionalProperties) {
-      return getAdditionalProperties(subject)
-          .map(unneeded -> String.format("extraneous key [%s] is not permitted", unneeded))
-          .map(msg -> new ValidationException(this, msg))
-          .collect(Collectors.toList());
+      context.reportFailure(this, "extraneous key [%s] is not permitted", key);
     } else if (schemaOfAdditionalProperties != null) {
-      List<String> additionalPropNames = getAdditionalProperties(subject)
-          .collect(Collectors.toList());
-      List<ValidationException> rval = new ArrayList<ValidationException>();
-      for (String propName : additionalPropNames) {
-        Object propVal = subject.get(propName);
-        ifFails(schemaOfAdditionalProperties, propVal)
-            .map(failure -> failure.prepend(propName, this))
-            .ifPresent(rval::add);
-      }
-      return rval;
+      int groupStart = context.startGroup();
+      testProperty(schemaOfAdditionalProperties, key, subject.get(key), context);
+      context.reassignViolatedSchema(this, groupStart);
     }
-    return Collections.emptyList();
   }
 
-  private List<ValidationException> testPatternProperties(final JSONObject subject) {
-    String[] propNames = JSONObject.getNames(subject);
-    if (propNames == null || propNames.length == 0) {
-      return Collections.emptyList();
+  /**
+   * Validates a declared, pattern or additional property of the subject.
+   *
+   * @return the index of the key among the tracked keys, or -1 if it is not tracked
+   */
+  private int testKey(final String key, final JSONObject subject, final BitSet patternMatches,
+      final ValidationContext context) {
+    KeyClass keyClass;
+    try {
+      keyClass = classify(key, patternMatches);
+    } catch (RegexpStepLimitExceededException e) {
+      context.reportFailure(this, "key [%s] cannot be matched against the pattern properties: %s",
+          key, e.getMessage());
+      return -1;
     }
-    List<ValidationException> rval = new ArrayList<>();
-    for (Entry<Pattern, Schema> entry : patternProperties.entrySet()) {
-      for (String propName : propNames) {
-        if (entry.getKey().matcher(propName).find()) {
-          ifFails(entry.getValue(), subject.get(propName))
-              .map(exc -> exc.prepend(propName))
-              .ifPresent(rval::add);
-        }
+    if (keyClass.additional) {
+      testAdditionalProperty(key, subject, context);
+      return keyClass.trackedIndex;
+    }
+    Object value = subject.get(key);
+    if (keyClass.propertySchema != null) {
+      testProperty(keyClass.propertySchema, key, value, context);
+    }
+    for (int patternIndex : keyClass.patternIndexes) {
+      testProperty(patternSchemas[patternIndex], key, value, context);
+    }
+    return keyClass.trackedIndex;
+  }
+
+  /**
+   * Validates the declared, the pattern and the additional properties of the subject in a single
+   * pass over its keys, and records the tracked keys present in the subject in
+   * {@code presentKeys}, unless it is {@code null}.
+   */
+  private void testKeys(final JSONObject subject, final long[] presentKeys,
+      final ValidationContext context) {
+    if (context.isParallel(subject.length())) {
+      testKeysInParallel(subject, presentKeys, context);
+      return;
+    }
+    BitSet patternMatches = patternMatcher == null ? null : new BitSet(patternSchemas.length);
+    for (String key : subject.keySet()) {
+      if (context.isFailureLimitReached()) {
+        break;
+      }
+      int trackedIndex = testKey(key, subject, patternMatches, context);
+      if (presentKeys != null && trackedIndex >= 0) {
+        presentKeys[trackedIndex >>> 6] |= 1L << trackedIndex;
       }
     }
-    return rval;
   }
 
-  private List<ValidationException> testProperties(final JSONObject subject) {
-    if (propertySchemas != null) {
-      List<ValidationException> rval = new ArrayList<>();
-      for (Entry<String, Schema> entry : propertySchemas.entrySet()) {
-        String key = entry.getKey();
-        if (subject.has(key)) {
-          ifFails(entry.getValue(), subject.get(key))
-              .map(exc -> exc.prepend(key))
-              .ifPresent(rval::add);
+  /**
+   * Like {@link #testKeys(JSONObject, long[], ValidationContext)}, but validates the properties
+   * in parallel. The tracked keys are recorded by each property on its own, and are collected
+   * into {@code presentKeys} once the properties are validated.
+   */
+  private void testKeysInParallel(final JSONObject subject, final long[] presentKeys,
+      final ValidationContext context) {
+    String[] keys = subject.keySet().toArray(new String[0]);
+    int[] trackedIndexes = new int[keys.length];
+    Arrays.fill(trackedIndexes, -1);
+    context.validateParts(keys.length, (index, partContext) -> {
+      BitSet patternMatches = patternMatcher == null ? null : new BitSet(patternSchemas.length);
+      trackedIndexes[index] = testKey(keys[index], subject, patternMatches, partContext);
+    });
+    if (presentKeys != null) {
+      for (int trackedIndex : trackedIndexes) {
+        if (trackedIndex >= 0) {
+          presentKeys[trackedIndex >>> 6] |= 1L << trackedIndex;
         }
       }
-      return rval;
     }
-    return Collections.emptyList();
   }
 
-  private List<ValidationException> testPropertyDependencies(final JSONObject subject) {
-    return propertyDependencies.keySet().stream()
-        .filter(subject::has)
-        .flatMap(ifPresent -> propertyDependencies.get(ifPresent).stream())
-        .filter(mustBePresent -> !subject.has(mustBePresent))
-        .map(missingKey -> String.format("property [%s] is required", missingKey))
-        .map(excMessage -> new ValidationException(this, excMessage))
-        .collect(Collectors.toList());
+  private void testProperty(final Schema propertySchema, final String propName,
+      final Object value, final ValidationContext context) {
+    context.enter(propName);
+    propertySchema.collectViolations(value, context);
+    context.leave();
   }
 
-  private List<ValidationException> testRequiredProperties(final JSONObject subject) {
-    return requiredProperties.stream()
-        .filter(key -> !subject.has(key))
-        .map(missingKey -> String.format("required key [%s] not found", missingKey))
-        .map(excMessage -> new ValidationException(this, excMessage))
-        .collect(Collectors.toList());
+  private void testPropertyDependencies(final long[] presentKeys,
+      final ValidationContext context) {
+    for (int i = 0; i < propertyDependencyKeyIndexes.length; ++i) {
+      if (contains(presentKeys, propertyDependencyKeyIndexes[i])) {
+        for (int mustBePresent : propertyDependencyTargetIndexes[i]) {
+          if (context.isFailureLimitReached()) {
+            return;
+          }
+          if (!contains(presentKeys, mustBePresent)) {
+            context.reportFailure(this, "property [%s] is required", trackedKeys[mustBePresent]);
+          }
+        }
+      }
+    }
   }
 
-  private List<ValidationException> testSchemaDependencies(final JSONObject subject) {
-    List<ValidationException> rval = new ArrayList<>();
-    for (Map.Entry<String, Schema> schemaDep : schemaDependencies.entrySet()) {
-      String propName = schemaDep.getKey();
-      if (subject.has(propName)) {
-        ifFails(schemaDep.getValue(), subject).ifPresent(rval::add);
+  private void testRequiredProperties(final long[] presentKeys,
+      final ValidationContext context) {
+    for (int keyIndex : requiredKeyIndexes) {
+      if (context.isFailureLimitReached()) {
+        return;
+      }
+      if (!contains(presentKeys, keyIndex)) {
+        context.reportFailure(this, "required key [%s] not found", trackedKeys[keyIndex]);
       }
     }
-    return rval;
   }
 
-  private List<ValidationException> testSize(final JSONObject subject) {
+  private void testSchemaDependencies(final JSONObject subject, final long[] presentKeys,
+      final ValidationContext context) {
+    for (int i = 0; i < schemaDependencyKeyIndexes.length; ++i) {
+      if (context.isFailureLimitReached()) {
+        return;
+      }
+      if (contains(presentKeys, schemaDependencyKeyIndexes[i])) {
+        schemaDependencySchemas[i].collectViolations(subject, context);
+      }
+    }
+  }
+
+  private void testSize(final JSONObject subject, final ValidationContext context) {
+    if (context.isFailureLimitReached()) {
+      return;
+    }
     int actualSize = subject.length();
     if (minProperties != null && actualSize < minProperties.intValue()) {
-      return Arrays
-          .asList(new ValidationException(this, String.format("minimum size: [%d], found: [%d]",
-              minProperties, actualSize)));
-    }
-    if (maxProperties != null && actualSize > maxProperties.intValue()) {
-      return Arrays
-          .asList(new ValidationException(this, String.format("maximum size: [%d], found: [%d]",
-              maxProperties, actualSize)));
+      context.reportFailure(this, "minimum size: [%d], found: [%d]", minProperties, actualSize);
+    } else if (maxProperties != null && actualSize > maxProperties.intValue()) {
+      context.reportFailure(this, "maximum size: [%d], found: [%d]", maxProperties, actualSize);
     }
-    return Collections.emptyList();
   }
 
   @Override
   public void validate(final Object subject) {
+    validate(subject, ValidationContext.collectAll());
+  }
+
+  @Override
+  void collectViolations(final Object subject, final ValidationContext context) {
     if (!(subject instanceof JSONObject)) {
       if (requiresObject) {
-        throw new ValidationException(this, JSONObject.class, subject);
+        context.reportTypeMismatch(this, JSONObject.class, subject);
       }
+      return;
+    }
+    JSONObject objSubject = (JSONObject) subject;
+    int groupStart = context.startGroup();
+    long[] presentKeys = knownShape(objSubject);
+    if (presentKeys != null) {
+      testKeys(objSubject, null, context);
     } else {
-      List<ValidationException> failures = new ArrayList<>();
-      JSONObject objSubject = (JSONObject) subject;
-      failures.addAll(testProperties(objSubject));
-      failures.addAll(testRequiredProperties(objSubject));
-      failures.addAll(testAdditionalProperties(objSubject));
-      failures.addAll(testSize(objSubject));
-      failures.addAll(testPropertyDependencies(objSubject));
-      failures.addAll(testSchemaDependencies(objSubject));
-      failures.addAll(testPatternProperties(objSubject));
-      ValidationException.throwFor(this, failures);
+      int failureCount = context.getFailureCount();
+      presentKeys = newKeySet();
+      testKeys(objSubject, presentKeys, context);
+      testRequiredProperties(presentKeys, context);
+      testSize(objSubject, context);
+      testPropertyDependencies(presentKeys, context);
+      // if the failure limit is reached, then the checks of the keys may have been skipped
+      if (context.getFailureCount() == failureCount && !context.isFailureLimitReached()) {
+        rememberShape(objSubject, presentKeys);
+      }
     }
+    testSchemaDependencies(objSubject, presentKeys, context);
+    context.endGroup(this, groupStart);
   }
 
 }
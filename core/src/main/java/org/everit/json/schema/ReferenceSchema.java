@@ -53,12 +53,27 @@ public class ReferenceSchema extends Schema {
     super(builder);
   }
 
-  @Override
-  public void validate(final Object subject) {
+  private void checkInjected() {
     if (referredSchema == null) {
       throw new IllegalStateException("referredSchema must be injected before validation");
     }
-    referredSchema.validate(subject);
+  }
+
+  @Override
+  public boolean isValid(final Object subject) {
+    checkInjected();
+    return referredSchema.isValid(subject);
+  }
+
+  @Override
+  public void validate(final Object subject) {
+    validate(subject, ValidationContext.collectAll());
+  }
+
+  @Override
+  void collectViolations(final Object subject, final ValidationContext context) {
+    checkInjected();
+    referredSchema.collectViolations(subject, context);
   }
 
   public Schema getReferredSchema() {
@@ -0,0 +1,501 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parser of the subset of the {@link java.util.regex.Pattern} syntax which can be matched by a
+ * finite automaton: literals, character classes, the predefined {@code \d \w \s} classes and
+ * their negations, {@code .}, groups, alternations, greedy and lazy quantifiers, and the
+ * {@code ^} and {@code $} anchors.
+ *
+ * <p>
+ * Back references, lookarounds, possessive quantifiers, word boundaries, embedded flags, unicode
+ * properties, class unions and intersections, and supplementary characters are not supported,
+ * {@link #parse(String)} returns {@code null} for the patterns using them. Neither are the anchors
+ * inside a quantified group, like {@code (^a|b){2}}: {@link java.util.regex.Pattern} stops
+ * iterating such a group after an empty iteration, so it does not match every string of the
+ * regular language. Neither are the
+ * character ranges spanning the surrogates, so every character set either contains all
+ * surrogates (and matches the supplementary code points, like a negated class), or none of them.
+ * </p>
+ */
+final class RegexParser {
+
+  /**
+   * A node of the syntax tree of a regular expression.
+   */
+  abstract static class Node {
+  }
+
+  /**
+   * Matches a single character of a {@link CharSet}.
+   */
+  static final class CharNode extends Node {
+
+    final CharSet chars;
+
+    CharNode(final CharSet chars) {
+      this.chars = chars;
+    }
+
+  }
+
+  /**
+   * Matches its items one after the other.
+   */
+  static final class ConcatNode extends Node {
+
+    final List<Node> items;
+
+    ConcatNode(final List<Node> items) {
+      this.items = items;
+    }
+
+  }
+
+  /**
+   * Matches any of its alternatives.
+   */
+  static final class AlternationNode extends Node {
+
+    final List<Node> alternatives;
+
+    AlternationNode(final List<Node> alternatives) {
+      this.alternatives = alternatives;
+    }
+
+  }
+
+  /**
+   * Matches its body at least {@code min} and at most {@code max} times. The maximum is
+   * {@link #UNBOUNDED} for the {@code *}, {@code +} and {@code {n,}} quantifiers.
+   */
+  static final class RepeatNode extends Node {
+
+    static final int UNBOUNDED = -1;
+
+    final Node body;
+
+    final int min;
+
+    final int max;
+
+    RepeatNode(final Node body, final int min, final int max) {
+      this.body = body;
+      this.min = min;
+      this.max = max;
+    }
+
+  }
+
+  /**
+   * Matches the empty string at the beginning ({@code ^}) or at the end ({@code $}) of the input.
+   */
+  static final class AnchorNode extends Node {
+
+    final boolean begin;
+
+    AnchorNode(final boolean begin) {
+      this.begin = begin;
+    }
+
+  }
+
+  /**
+   * An immutable set of {@code char}s, stored as sorted, disjoint, non-adjacent ranges.
+   */
+  static final class CharSet {
+
+    private static final CharSet DIGITS = new CharSet(new char[] {'0', '9'});
+
+    private static final CharSet WORD_CHARS = new CharSet(new char[] {'0', '9', 'A', 'Z',
+        '_', '_', 'a', 'z'});
+
+    private static final CharSet WHITESPACES = new CharSet(new char[] {'\t', '\r', ' ', ' '});
+
+    /**
+     * The characters except the line terminators, matched by {@code .}.
+     */
+    private static final CharSet DOT = new CharSet(new char[] {'\n', '\n', '\r', '\r',
+        '\u0085', '\u0085', '\u2028', '\u2029'}).complement();
+
+    static CharSet of(final char c) {
+      return new CharSet(new char[] {c, c});
+    }
+
+    /**
+     * Creates the union of the given ranges.
+     *
+     * @param ranges
+     *          the inclusive bounds of the ranges, in pairs
+     */
+    static CharSet union(final List<char[]> ranges) {
+      List<char[]> sorted = new ArrayList<>(ranges);
+      Collections.sort(sorted, (range1, range2) -> Character.compare(range1[0], range2[0]));
+      char[] rval = new char[sorted.size() * 2];
+      int length = 0;
+      for (char[] range : sorted) {
+        if (length > 0 && range[0] <= rval[length - 1] + 1) {
+          rval[length - 1] = (char) Math.max(rval[length - 1], range[1]);
+        } else {
+          rval[length++] = range[0];
+          rval[length++] = range[1];
+        }
+      }
+      return new CharSet(Arrays.copyOf(rval, length));
+    }
+
+    private final char[] ranges;
+
+    private CharSet(final char[] ranges) {
+      this.ranges = ranges;
+    }
+
+    /**
+     * Returns the ranges of this set, in pairs of inclusive bounds.
+     */
+    List<char[]> asRanges() {
+      List<char[]> rval = new ArrayList<>();
+      for (int i = 0; i < ranges.length; i += 2) {
+        rval.add(new char[] {ranges[i], ranges[i + 1]});
+      }
+      return rval;
+    }
+
+    CharSet complement() {
+      char[] rval = new char[ranges.length + 2];
+      int length = 0;
+      int from = Character.MIN_VALUE;
+      for (int i = 0; i < ranges.length; i += 2) {
+        if (ranges[i] > from) {
+          rval[length++] = (char) from;
+          rval[length++] = (char) (ranges[i] - 1);
+        }
+        from = ranges[i + 1] + 1;
+      }
+      if (from <= Character.MAX_VALUE) {
+        rval[length++] = (char) from;
+        rval[length++] = Character.MAX_VALUE;
+      }
+      return new CharSet(Arrays.copyOf(rval, length));
+    }
+
+    boolean contains(final char c) {
+      for (int i = 0; i < ranges.length && ranges[i] <= c; i += 2) {
+        if (c <= ranges[i + 1]) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+  }
+
+  /**
+   * Thrown internally if the pattern uses an unsupported construct.
+   */
+  private static final class UnsupportedSyntaxException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    UnsupportedSyntaxException() {
+      super(null, null, false, false);
+    }
+
+  }
+
+  /**
+   * Parses a regular expression which is known to be a valid {@link java.util.regex.Pattern}.
+   *
+   * @param regex
+   *          the regular expression
+   * @return the root of the syntax tree, or {@code null} if the expression uses an unsupported
+   *         construct
+   */
+  static Node parse(final String regex) {
+    RegexParser parser = new RegexParser(regex);
+    try {
+      Node rval = parser.parseAlternation();
+      if (parser.pos < regex.length()) {
+        throw new UnsupportedSyntaxException();
+      }
+      return rval;
+    } catch (UnsupportedSyntaxException | IndexOutOfBoundsException e) {
+      return null;
+    }
+  }
+
+  private final String regex;
+
+  private int pos = 0;
+
+  private int anchorCount = 0;
+
+  private RegexParser(final String regex) {
+    this.regex = regex;
+  }
+
+  private char literal(final char c) {
+    if (Character.isSurrogate(c)) {
+      throw new UnsupportedSyntaxException();
+    }
+    return c;
+  }
+
+  private Node parseAlternation() {
+    List<Node> alternatives = new ArrayList<>();
+    alternatives.add(parseConcat());
+    while (pos < regex.length() && regex.charAt(pos) == '|') {
+      ++pos;
+      alternatives.add(parseConcat());
+    }
+    return alternatives.size() == 1 ? alternatives.get(0) : new AlternationNode(alternatives);
+  }
+
+  private Node parseAtom() {
+    char c = regex.charAt(pos++);
+    switch (c) {
+      case '(':
+        return parseGroup();
+      case '[':
+        return new CharNode(parseCharClass());
+      case '.':
+        return new CharNode(CharSet.DOT);
+      case '^':
+        ++anchorCount;
+        return new AnchorNode(true);
+      case '$':
+        ++anchorCount;
+        return new AnchorNode(false);
+      case '\\':
+        CharSet predefined = parsePredefinedClass();
+        return new CharNode(predefined == null ? CharSet.of(parseEscapedChar()) : predefined);
+      case '*':
+      case '+':
+      case '?':
+      case '{':
+        throw new UnsupportedSyntaxException();
+      default:
+        return new CharNode(CharSet.of(literal(c)));
+    }
+  }
+
+  private CharSet parseCharClass() {
+    boolean negated = regex.charAt(pos) == '^';
+    if (negated) {
+      ++pos;
+    }
+    if (regex.charAt(pos) == ']') {
+      throw new UnsupportedSyntaxException();
+    }
+    List<char[]> ranges = new ArrayList<>();
+    while (regex.charAt(pos) != ']') {
+      char c = regex.charAt(pos++);
+      if (c == '[' || (c == '&' && regex.charAt(pos) == '&')) {
+        throw new UnsupportedSyntaxException();
+      }
+      char from;
+      if (c == '\\') {
+        CharSet predefined = parsePredefinedClass();
+        if (predefined != null) {
+          ranges.addAll(predefined.asRanges());
+          continue;
+        }
+        from = parseEscapedChar();
+      } else {
+        from = literal(c);
+      }
+      char to = from;
+      if (regex.charAt(pos) == '-' && regex.charAt(pos + 1) != ']') {
+        ++pos;
+        c = regex.charAt(pos++);
+        if (c == '[') {
+          throw new UnsupportedSyntaxException();
+        } else if (c == '\\') {
+          if (parsePredefinedClass() != null) {
+            throw new UnsupportedSyntaxException();
+          }
+          to = parseEscapedChar();
+        } else {
+          to = literal(c);
+        }
+        if (from < Character.MIN_SURROGATE && to > Character.MAX_SURROGATE) {
+          throw new UnsupportedSyntaxException();
+        }
+      }
+      ranges.add(new char[] {from, to});
+    }
+    ++pos;
+    CharSet rval = CharSet.union(ranges);
+    return negated ? rval.complement() : rval;
+  }
+
+  private Node parseConcat() {
+    List<Node> items = new ArrayList<>();
+    while (pos < regex.length() && regex.charAt(pos) != '|' && regex.charAt(pos) != ')') {
+      int anchorsBefore = anchorCount;
+      Node atom = parseAtom();
+      items.add(parseQuantifiers(atom, anchorCount > anchorsBefore));
+    }
+    return items.size() == 1 ? items.get(0) : new ConcatNode(items);
+  }
+
+  /**
+   * Parses an escape sequence denoting a single character, after the backslash.
+   */
+  private char parseEscapedChar() {
+    char c = regex.charAt(pos++);
+    switch (c) {
+      case 't':
+        return '\t';
+      case 'n':
+        return '\n';
+      case 'r':
+        return '\r';
+      case 'f':
+        return '\f';
+      case 'a':
+        return '\u0007';
+      case 'e':
+        return '\u001B';
+      case 'x':
+        pos += 2;
+        return literal((char) Integer.parseInt(parseHex(pos - 2, pos), 16));
+      case 'u':
+        pos += 4;
+        return literal((char) Integer.parseInt(parseHex(pos - 4, pos), 16));
+      default:
+        if (Character.isLetterOrDigit(c)) {
+          throw new UnsupportedSyntaxException();
+        }
+        return literal(c);
+    }
+  }
+
+  private Node parseGroup() {
+    if (regex.startsWith("?:", pos)) {
+      pos += 2;
+    } else if (regex.startsWith("?<", pos) && Character.isLetter(regex.charAt(pos + 2))) {
+      pos = regex.indexOf('>', pos) + 1;
+    } else if (regex.charAt(pos) == '?') {
+      throw new UnsupportedSyntaxException();
+    }
+    Node rval = parseAlternation();
+    if (regex.charAt(pos++) != ')') {
+      throw new UnsupportedSyntaxException();
+    }
+    return rval;
+  }
+
+  private String parseHex(final int from, final int to) {
+    String rval = regex.substring(from, to);
+    for (int i = 0; i < rval.length(); ++i) {
+      if (Character.digit(rval.charAt(i), 16) < 0) {
+        throw new UnsupportedSyntaxException();
+      }
+    }
+    return rval;
+  }
+
+  private int parseInt() {
+    int start = pos;
+    while (Character.isDigit(regex.charAt(pos))) {
+      ++pos;
+    }
+    if (start == pos || pos - start > 6) {
+      throw new UnsupportedSyntaxException();
+    }
+    return Integer.parseInt(regex.substring(start, pos));
+  }
+
+  /**
+   * Parses a predefined character class after the backslash, or returns {@code null} without
+   * consuming anything if the escape sequence is not a predefined class.
+   */
+  private CharSet parsePredefinedClass() {
+    CharSet rval;
+    switch (regex.charAt(pos)) {
+      case 'd':
+      case 'D':
+        rval = CharSet.DIGITS;
+        break;
+      case 'w':
+      case 'W':
+        rval = CharSet.WORD_CHARS;
+        break;
+      case 's':
+      case 'S':
+        rval = CharSet.WHITESPACES;
+        break;
+      default:
+        return null;
+    }
+    return Character.isUpperCase(regex.charAt(pos++)) ? rval.complement() : rval;
+  }
+
+  private Node parseQuantifiers(final Node atom, final boolean anchored) {
+    Node rval = atom;
+    while (pos < regex.length()) {
+      int min;
+      int max;
+      switch (regex.charAt(pos)) {
+        case '*':
+          min = 0;
+          max = RepeatNode.UNBOUNDED;
+          break;
+        case '+':
+          min = 1;
+          max = RepeatNode.UNBOUNDED;
+          break;
+        case '?':
+          min = 0;
+          max = 1;
+          break;
+        case '{':
+          ++pos;
+          min = parseInt();
+          max = min;
+          if (regex.charAt(pos) == ',') {
+            ++pos;
+            max = regex.charAt(pos) == '}' ? RepeatNode.UNBOUNDED : parseInt();
+          }
+          if (regex.charAt(pos) != '}') {
+            throw new UnsupportedSyntaxException();
+          }
+          break;
+        default:
+          return rval;
+      }
+      if (anchored) {
+        throw new UnsupportedSyntaxException();
+      }
+      ++pos;
+      if (pos < regex.length() && regex.charAt(pos) == '?') {
+        ++pos;
+      } else if (pos < regex.length() && regex.charAt(pos) == '+') {
+        throw new UnsupportedSyntaxException();
+      }
+      rval = new RepeatNode(rval, min, max);
+    }
+    return rval;
+  }
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+/**
+ * A compiled regular expression, used by {@link StringSchema} to check the {@code pattern} of the
+ * strings, and by {@link ObjectSchema} to find the {@code patternProperties} matching the keys.
+ * Instances are created by a {@link RegexpFactory}, and must be thread-safe.
+ */
+public interface Regexp {
+
+  /**
+   * Tells if the regular expression matches a substring of {@code input}, with the semantics of
+   * {@link java.util.regex.Matcher#find()}.
+   *
+   * @param input
+   *          the string to be matched
+   * @return {@code true} if the regular expression is found in {@code input}
+   * @throws RegexpStepLimitExceededException
+   *           if the matching was aborted since it took too many steps
+   */
+  boolean find(String input);
+
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.util.regex.Pattern;
+
+/**
+ * Creates the {@link Regexp}s matching the patterns of the schemas. The default implementation
+ * is {@link LinearTimeRegexpFactory}, which matches the input in linear time, so that an untrusted
+ * schema or input cannot make the validation hang.
+ */
+public interface RegexpFactory {
+
+  /**
+   * Compiles {@code pattern}.
+   *
+   * @param pattern
+   *          the pattern to be compiled, it is a valid {@link Pattern}
+   * @return the compiled regular expression
+   */
+  Regexp createHandler(Pattern pattern);
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.util.regex.Pattern;
+
+/**
+ * Thrown by {@link Regexp#find(String)} if the matching of a pattern takes more steps than the
+ * limit set by {@link JavaUtilRegexpFactory#JavaUtilRegexpFactory(long)}. The schemas treat it as
+ * a failure to match the pattern.
+ */
+public class RegexpStepLimitExceededException extends RuntimeException {
+
+  private static final long serialVersionUID = -4046421564315419418L;
+
+  private final Pattern pattern;
+
+  /**
+   * Constructor.
+   *
+   * @param pattern
+   *          the pattern which took too many steps to match
+   * @param stepLimit
+   *          the exceeded step limit
+   */
+  public RegexpStepLimitExceededException(final Pattern pattern, final long stepLimit) {
+    super(String.format("matching pattern %s exceeded the step limit of %d", pattern.pattern(),
+        stepLimit));
+    this.pattern = pattern;
+  }
+
+  public Pattern getPattern() {
+    return pattern;
+  }
+
+}
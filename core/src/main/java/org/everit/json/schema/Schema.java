@@ -85,6 +85,78 @@ public abstract class Schema {
    */
   public abstract void validate(final Object subject);
 
+  /**
+   * Performs the schema validation, reporting the violations to the {@code context}, and stopping
+   * the validation when the failure limit of the {@code context} is reached.
+   *
+   * <p>
+   * If the context collects exceptions (see {@link ValidationContext#collectAll()}), then the
+   * violations found until that point are thrown the same way as by {@link #validate(Object)}.
+   * Contexts with a {@link ValidationListener} only notify their listener.
+   * </p>
+   *
+   * @param subject
+   *          the object to be validated
+   * @param context
+   *          the context receiving the violations and holding the failure limit of the validation
+   * @throws ValidationException
+   *           if the {@code subject} is invalid against this schema and the {@code context}
+   *           collects exceptions.
+   */
+  public void validate(final Object subject, final ValidationContext context) {
+    collectViolations(subject, context);
+    context.throwFailures(this);
+  }
+
+  /**
+   * Reports the violations of the {@code subject} to the {@code context}.
+   *
+   * <p>
+   * The default implementation calls {@link #validate(Object)} and reports the violations of the
+   * thrown exception, so that schema implementations outside of this package work with any
+   * {@link ValidationContext}. The schema implementations of this package override this method to
+   * report the violations as soon as they are found, and to check the failure limit during the
+   * validation.
+   * </p>
+   *
+   * @param subject
+   *          the object to be validated
+   * @param context
+   *          the context receiving the violations
+   */
+  void collectViolations(final Object subject, final ValidationContext context) {
+    try {
+      validate(subject);
+    } catch (ValidationException e) {
+      context.reportException(e);
+    }
+  }
+
+  /**
+   * Checks if the {@code subject} is valid against this schema, without reporting the details of
+   * the schema violations.
+   *
+   * <p>
+   * The default implementation calls {@link #validate(Object)} and catches the thrown
+   * {@link ValidationException}. The schema implementations of this package override this method
+   * with a check which does not create exceptions, therefore it should be preferred over
+   * {@link #validate(Object)} if only the result of the validation is needed.
+   * </p>
+   *
+   * @param subject
+   *          the object to be validated
+   * @return {@code true} if the {@code subject} is valid against this schema, {@code false}
+   *         otherwise
+   */
+  public boolean isValid(final Object subject) {
+    try {
+      validate(subject);
+      return true;
+    } catch (ValidationException e) {
+      return false;
+    }
+  }
+
   @Override
   public int hashCode() {
     final int prime = 31;
@@ -0,0 +1,309 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import static org.everit.json.schema.CompiledSchema.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.everit.json.schema.CompiledSchema.KeyTable;
+
+/**
+ * Compiles a {@link Schema} into the instruction program executed by {@link CompiledSchema}.
+ *
+ * <p>
+ * Each schema instance is compiled into a single block, and blocks refer to each other by block
+ * ids during the compilation. Since a block is emitted only after the blocks of its subschemas,
+ * the block ids are replaced by the code offsets of the blocks at the end of the compilation. The
+ * block id of a schema is assigned before compiling its subschemas, so recursive schemas (built
+ * using {@link ReferenceSchema}) are compiled into loops of jumps.
+ * </p>
+ */
+class SchemaCompiler {
+
+  private int[] code = new int[64];
+
+  private int codeLength = 0;
+
+  private final List<Object> constants = new ArrayList<>();
+
+  private final Map<Schema, Integer> blockIds = new IdentityHashMap<>();
+
+  private final List<Integer> blockOffsets = new ArrayList<>();
+
+  /**
+   * Code positions holding block ids, to be replaced by block offsets.
+   */
+  private final List<Integer> blockReferences = new ArrayList<>();
+
+  private int block(final Schema schema) {
+    Schema target = resolve(schema);
+    Integer blockId = blockIds.get(target);
+    if (blockId == null) {
+      blockId = blockOffsets.size();
+      blockIds.put(target, blockId);
+      blockOffsets.add(-1);
+      blockOffsets.set(blockId, compileBlock(target));
+    }
+    return blockId;
+  }
+
+  private int[] blocks(final Collection<Schema> schemas) {
+    int[] rval = new int[schemas.size()];
+    int i = 0;
+    for (Schema schema : schemas) {
+      rval[i++] = block(schema);
+    }
+    return rval;
+  }
+
+  CompiledSchema compile(final Schema schema) {
+    int rootBlockId = block(schema);
+    for (int position : blockReferences) {
+      code[position] = blockOffsets.get(code[position]);
+    }
+    return new CompiledSchema(schema, Arrays.copyOf(code, codeLength), constants.toArray(),
+        blockOffsets.get(rootBlockId));
+  }
+
+  private int compileArraySchema(final ArraySchema schema) {
+    int allItemsBlock = schema.getAllItemSchema() == null ? -1 : block(schema.getAllItemSchema());
+    int[] itemBlocks = schema.getItemSchemas() == null ? null : blocks(schema.getItemSchemas());
+    int additionalItemsBlock = schema.getSchemaOfAdditionalItems() == null
+        ? -1
+        : block(schema.getSchemaOfAdditionalItems());
+    int blockStart = codeLength;
+    emit(IF_NOT_ARRAY, schema.requiresArray() ? REQUIRED_TYPE : 0);
+    if (schema.getMinItems() != null) {
+      emit(MIN_ITEMS, schema.getMinItems());
+    }
+    if (schema.getMaxItems() != null) {
+      emit(MAX_ITEMS, schema.getMaxItems());
+    }
+    if (schema.needsUniqueItems()) {
+      emit(UNIQUE_ITEMS);
+    }
+    if (allItemsBlock != -1) {
+      emit(ITEMS_FROM, 0);
+      emitBlockReference(allItemsBlock);
+    } else if (itemBlocks != null) {
+      if (!schema.permitsAdditionalItems()) {
+        emit(MAX_ITEMS, itemBlocks.length);
+      }
+      emit(ITEMS, itemBlocks.length);
+      emitBlockReferences(itemBlocks);
+      if (additionalItemsBlock != -1) {
+        emit(ITEMS_FROM, itemBlocks.length);
+        emitBlockReference(additionalItemsBlock);
+      }
+    }
+    return blockStart;
+  }
+
+  private int compileBlock(final Schema schema) {
+    int blockStart;
+    if (schema instanceof ObjectSchema) {
+      blockStart = compileObjectSchema((ObjectSchema) schema);
+    } else if (schema instanceof ArraySchema) {
+      blockStart = compileArraySchema((ArraySchema) schema);
+    } else if (schema instanceof CombinedSchema) {
+      blockStart = compileCombinedSchema((CombinedSchema) schema);
+    } else if (schema instanceof NotSchema) {
+      int mustNotMatchBlock = block(((NotSchema) schema).getMustNotMatch());
+      blockStart = codeLength;
+      emit(NOT);
+      emitBlockReference(mustNotMatchBlock);
+    } else if (schema instanceof StringSchema) {
+      blockStart = compileStringSchema((StringSchema) schema);
+    } else if (schema instanceof NumberSchema) {
+      blockStart = compileNumberSchema((NumberSchema) schema);
+    } else {
+      blockStart = codeLength;
+      if (schema instanceof EnumSchema) {
+        emit(ENUM, constant(((EnumSchema) schema).getValueSet()));
+      } else if (schema instanceof BooleanSchema) {
+        emit(IS_BOOLEAN);
+      } else if (schema instanceof NullSchema) {
+        emit(IS_NULL);
+      } else if (!(schema instanceof EmptySchema)) {
+        emit(EXTERNAL, constant(schema));
+      }
+    }
+    emit(ACCEPT);
+    return blockStart;
+  }
+
+  private int compileCombinedSchema(final CombinedSchema schema) {
+    int[] subschemaBlocks = blocks(schema.getSubschemas());
+    int blockStart = codeLength;
+    if (schema.getCriterion() == CombinedSchema.ALL_CRITERION) {
+      emit(ALL_OF, subschemaBlocks.length);
+    } else if (schema.getCriterion() == CombinedSchema.ANY_CRITERION) {
+      emit(ANY_OF, subschemaBlocks.length);
+    } else if (schema.getCriterion() == CombinedSchema.ONE_CRITERION) {
+      emit(ONE_OF, subschemaBlocks.length);
+    } else {
+      emit(COMBINED, constant(schema.getCriterion()), subschemaBlocks.length);
+    }
+    emitBlockReferences(subschemaBlocks);
+    return blockStart;
+  }
+
+  private int compileNumberSchema(final NumberSchema schema) {
+    int flags = schema.requiresNumber() ? REQUIRED_TYPE : 0;
+    if (schema.requiresInteger()) {
+      flags |= NUMBER_INTEGER;
+    }
+    int range = schema.getRange() == null ? -1 : constant(schema.getRange());
+    int multipleOf = schema.getMultipleOfCheck() == null
+        ? -1
+        : constant(schema.getMultipleOfCheck());
+    int blockStart = codeLength;
+    emit(NUMBER, flags, range, multipleOf);
+    return blockStart;
+  }
+
+  private int compileObjectSchema(final ObjectSchema schema) {
+    Map<String, Schema> propertySchemas = schema.getPropertySchemas() == null
+        ? Collections.emptyMap()
+        : schema.getPropertySchemas();
+    int[] propertyBlocks = blocks(propertySchemas.values());
+    int[] patternBlocks = blocks(schema.getPatternProperties().values());
+    int[] schemaDependencyBlocks = blocks(schema.getSchemaDependencies().values());
+    boolean hasAdditionalSchema = schema.permitsAdditionalProperties()
+        && schema.getSchemaOfAdditionalProperties() != null;
+    int additionalBlock = hasAdditionalSchema
+        ? block(schema.getSchemaOfAdditionalProperties())
+        : -1;
+    int blockStart = codeLength;
+    emit(IF_NOT_OBJECT, schema.requiresObject() ? REQUIRED_TYPE : 0);
+    if (schema.getMinProperties() != null) {
+      emit(MIN_PROPERTIES, schema.getMinProperties());
+    }
+    if (schema.getMaxProperties() != null) {
+      emit(MAX_PROPERTIES, schema.getMaxProperties());
+    }
+    if (!schema.getRequiredProperties().isEmpty()) {
+      emit(REQUIRED, constant(schema.getRequiredProperties().toArray(new String[0])));
+    }
+    if (!schema.getPropertyDependencies().isEmpty()) {
+      emit(PROPERTY_DEPENDENCIES, constant(propertyDependencies(schema)));
+    }
+    if (propertyBlocks.length > 0 || patternBlocks.length > 0
+        || !schema.permitsAdditionalProperties() || hasAdditionalSchema) {
+      Map<String, Integer> propertyIndexes = new HashMap<>();
+      for (String propName : propertySchemas.keySet()) {
+        propertyIndexes.put(propName, propertyIndexes.size());
+      }
+      Pattern[] patterns = schema.getPatternProperties().keySet().toArray(new Pattern[0]);
+      int additional;
+      if (!schema.permitsAdditionalProperties()) {
+        additional = ADDITIONAL_FORBIDDEN;
+      } else if (hasAdditionalSchema) {
+        additional = ADDITIONAL_SCHEMA;
+      } else {
+        additional = ADDITIONAL_ALLOWED;
+      }
+      emit(KEYS, constant(new KeyTable(propertyIndexes, patterns, schema.getRegexpFactory())),
+          additional);
+      if (hasAdditionalSchema) {
+        emitBlockReference(additionalBlock);
+      } else {
+        emit(0);
+      }
+      emit(patternBlocks.length, propertyBlocks.length);
+      emitBlockReferences(patternBlocks);
+      emitBlockReferences(propertyBlocks);
+    }
+    int i = 0;
+    for (String propName : schema.getSchemaDependencies().keySet()) {
+      emit(SCHEMA_DEPENDENCY, constant(propName));
+      emitBlockReference(schemaDependencyBlocks[i++]);
+    }
+    return blockStart;
+  }
+
+  private int compileStringSchema(final StringSchema schema) {
+    int blockStart = codeLength;
+    emit(STRING, schema.requiresString() ? REQUIRED_TYPE : 0,
+        schema.getMinLength() == null ? 0 : schema.getMinLength(),
+        schema.getMaxLength() == null ? Integer.MAX_VALUE : schema.getMaxLength(),
+        schema.getPattern() == null && schema.getFormatValidator() == null ? -1
+            : constant(schema));
+    return blockStart;
+  }
+
+  private int constant(final Object value) {
+    constants.add(value);
+    return constants.size() - 1;
+  }
+
+  private void emit(final int... words) {
+    for (int word : words) {
+      if (codeLength == code.length) {
+        code = Arrays.copyOf(code, codeLength * 2);
+      }
+      code[codeLength++] = word;
+    }
+  }
+
+  private void emitBlockReference(final int blockId) {
+    blockReferences.add(codeLength);
+    emit(blockId);
+  }
+
+  private void emitBlockReferences(final int[] blockIds) {
+    for (int blockId : blockIds) {
+      emitBlockReference(blockId);
+    }
+  }
+
+  private String[][] propertyDependencies(final ObjectSchema schema) {
+    List<String[]> rval = new ArrayList<>();
+    for (Map.Entry<String, Set<String>> dependency : schema.getPropertyDependencies().entrySet()) {
+      String[] propNames = new String[dependency.getValue().size() + 1];
+      propNames[0] = dependency.getKey();
+      int i = 1;
+      for (String mustBePresent : dependency.getValue()) {
+        propNames[i++] = mustBePresent;
+      }
+      rval.add(propNames);
+    }
+    return rval.toArray(new String[rval.size()][]);
+  }
+
+  private Schema resolve(final Schema schema) {
+    Schema rval = schema;
+    while (rval instanceof ReferenceSchema) {
+      Schema referred = ((ReferenceSchema) rval).getReferredSchema();
+      if (referred == null) {
+        throw new IllegalStateException("referredSchema must be injected before compilation");
+      }
+      rval = referred;
+    }
+    return rval;
+  }
+
+}
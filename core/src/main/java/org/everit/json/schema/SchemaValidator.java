@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Validates subjects against a {@link Schema}, possibly using a faster representation of the
+ * schema than its object tree.
+ *
+ * <p>
+ * All implementations report the schema violations the same way as the {@link Schema} they were
+ * created from: the {@code validate(...)} methods throw the same {@link ValidationException}, or
+ * notify the same {@link ValidationListener}, as {@link Schema#validate(Object)} and
+ * {@link Schema#validate(Object, ValidationContext)}.
+ * </p>
+ *
+ * @see CompiledSchema
+ * @see ValidatorGenerator
+ */
+public interface SchemaValidator {
+
+  /**
+   * Returns a validator which validates by walking the object tree of {@code schema}.
+   *
+   * @param schema
+   *          the schema to validate against
+   * @return the interpreting validator
+   */
+  static SchemaValidator interpreted(final Schema schema) {
+    return new InterpretedValidator(schema);
+  }
+
+  /**
+   * Returns the schema the subjects are validated against.
+   *
+   * @return the schema
+   */
+  Schema getSchema();
+
+  /**
+   * Checks if the {@code subject} is valid against the schema.
+   *
+   * @param subject
+   *          the object to be validated
+   * @return {@code true} if the {@code subject} is valid, {@code false} otherwise
+   */
+  boolean isValid(Object subject);
+
+  /**
+   * Validates the {@code subject} against the schema.
+   *
+   * @param subject
+   *          the object to be validated
+   * @throws ValidationException
+   *           if the {@code subject} is invalid against the schema
+   */
+  void validate(Object subject);
+
+  /**
+   * Validates the {@code subject} against the schema, reporting the violations to the
+   * {@code context}.
+   *
+   * @param subject
+   *          the object to be validated
+   * @param context
+   *          the context receiving the violations
+   * @throws ValidationException
+   *           if the {@code subject} is invalid and the {@code context} collects exceptions
+   */
+  void validate(Object subject, ValidationContext context);
+
+  /**
+   * Validates each of the {@code subjects} against the schema, on the calling thread.
+   *
+   * <p>
+   * The subjects are checked by {@link #isValid(Object)}, so no exceptions are created during the
+   * batch validation: the failures are recorded in the returned result, which creates the
+   * {@link ValidationException} of a failed subject only when it is requested.
+   * </p>
+   *
+   * @param subjects
+   *          the objects to be validated
+   * @return the failures of the batch
+   */
+  default BatchValidationResult validateAll(final List<?> subjects) {
+    return BatchValidationResult.validate(this,
+        Objects.requireNonNull(subjects, "subjects cannot be null"), null);
+  }
+
+  /**
+   * Validates each of the {@code subjects} against the schema, splitting them into chunks which
+   * are validated in parallel on {@code pool}. The result is the same as the result of
+   * {@link #validateAll(List)}.
+   *
+   * @param subjects
+   *          the objects to be validated
+   * @param pool
+   *          the pool validating the chunks
+   * @return the failures of the batch
+   */
+  default BatchValidationResult validateAll(final List<?> subjects, final ForkJoinPool pool) {
+    return BatchValidationResult.validate(this,
+        Objects.requireNonNull(subjects, "subjects cannot be null"),
+        Objects.requireNonNull(pool, "pool cannot be null"));
+  }
+
+  /**
+   * Collects the {@code subjects} into a list, and validates them by {@link #validateAll(List)}.
+   * The indexes of the result are the positions of the subjects in the stream.
+   *
+   * @param subjects
+   *          the objects to be validated
+   * @return the failures of the batch
+   */
+  default BatchValidationResult validateAll(final Stream<?> subjects) {
+    return validateAll(subjects.collect(Collectors.toList()));
+  }
+
+}
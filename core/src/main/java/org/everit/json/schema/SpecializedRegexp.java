@@ -0,0 +1,294 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.everit.json.schema.RegexParser.AnchorNode;
+import org.everit.json.schema.RegexParser.CharNode;
+import org.everit.json.schema.RegexParser.CharSet;
+import org.everit.json.schema.RegexParser.ConcatNode;
+import org.everit.json.schema.RegexParser.Node;
+import org.everit.json.schema.RegexParser.RepeatNode;
+
+/**
+ * Hand-written matchers of the simplest, and most common, patterns, which find them without
+ * allocating anything and without running an automaton.
+ *
+ * <p>
+ * Two shapes of patterns without flags are specialized:
+ * </p>
+ * <ul>
+ * <li>literals, optionally anchored at either end, like {@code ^urn:} or {@code ^abc$}, matched
+ * by {@link String#startsWith(String)}, {@link String#endsWith(String)} or
+ * {@link String#indexOf(String)}</li>
+ * <li>sequences of character classes with fixed repetitions, anchored at the beginning and
+ * optionally ending with a repeated class, like {@code ^[a-z0-9-]+$}, {@code ^\d{4}-\d{2}$} or
+ * {@code ^[a-z][a-z0-9_]*$}, matched by a single scan checking the characters against lookup
+ * tables</li>
+ * </ul>
+ * <p>
+ * Like the automaton of {@link MultiPatternMatcher}, the matchers follow the semantics of
+ * {@link Pattern}: a character class matches a surrogate pair as a single code point, and
+ * {@code $} also matches before a line terminator at the end of the input.
+ * </p>
+ */
+abstract class SpecializedRegexp implements Regexp {
+
+  /**
+   * The maximum number of fixed positions of a class sequence.
+   */
+  private static final int MAX_POSITIONS = 256;
+
+  private static final int ASCII_SIZE = 128;
+
+  /**
+   * A character class, with a lookup table of its ASCII characters.
+   */
+  static final class CharTable {
+
+    private final boolean[] ascii = new boolean[ASCII_SIZE];
+
+    private final CharSet chars;
+
+    private final boolean supplementary;
+
+    CharTable(final CharSet chars) {
+      this.chars = chars;
+      for (char c = 0; c < ASCII_SIZE; ++c) {
+        ascii[c] = chars.contains(c);
+      }
+      this.supplementary = chars.contains(Character.MIN_SURROGATE);
+    }
+
+    boolean matches(final int codePoint) {
+      if (codePoint < ASCII_SIZE) {
+        return ascii[codePoint];
+      }
+      return codePoint > Character.MAX_VALUE ? supplementary : chars.contains((char) codePoint);
+    }
+
+  }
+
+  /**
+   * Matches a literal, optionally anchored at either end.
+   */
+  static final class Literal extends SpecializedRegexp {
+
+    private final String literal;
+
+    private final boolean anchoredBegin;
+
+    private final boolean anchoredEnd;
+
+    Literal(final String literal, final boolean anchoredBegin, final boolean anchoredEnd) {
+      this.literal = literal;
+      this.anchoredBegin = anchoredBegin;
+      this.anchoredEnd = anchoredEnd;
+    }
+
+    @Override
+    public boolean find(final String input) {
+      if (anchoredBegin) {
+        return input.startsWith(literal) && (!anchoredEnd || isEnd(input, literal.length()));
+      } else if (anchoredEnd) {
+        return input.endsWith(literal)
+            || input.startsWith(literal, MultiPatternMatcher.dollarPosition(input)
+                - literal.length());
+      }
+      return input.indexOf(literal) >= 0;
+    }
+
+  }
+
+  /**
+   * Matches a sequence of character classes anchored at the beginning: the classes of the fixed
+   * positions, then optionally a class repeated between {@code tailMin} and {@code tailMax}
+   * times up to the end.
+   */
+  static final class ClassSequence extends SpecializedRegexp {
+
+    private final CharTable[] positions;
+
+    private final boolean anchoredEnd;
+
+    private final CharTable tail;
+
+    private final int tailMin;
+
+    private final int tailMax;
+
+    ClassSequence(final CharTable[] positions, final boolean anchoredEnd, final CharTable tail,
+        final int tailMin, final int tailMax) {
+      this.positions = positions;
+      this.anchoredEnd = anchoredEnd;
+      this.tail = tail;
+      this.tailMin = tailMin;
+      this.tailMax = tailMax;
+    }
+
+    @Override
+    public boolean find(final String input) {
+      int length = input.length();
+      int i = 0;
+      for (CharTable position : positions) {
+        if (i == length) {
+          return false;
+        }
+        int codePoint = input.codePointAt(i);
+        if (!position.matches(codePoint)) {
+          return false;
+        }
+        i += Character.charCount(codePoint);
+      }
+      if (!anchoredEnd) {
+        return true;
+      } else if (tail == null) {
+        return isEnd(input, i);
+      }
+      int dollarPosition = MultiPatternMatcher.dollarPosition(input);
+      int countAtDollar = -1;
+      int count = 0;
+      while (true) {
+        if (i == dollarPosition) {
+          countAtDollar = count;
+        }
+        if (i == length) {
+          break;
+        }
+        int codePoint = input.codePointAt(i);
+        if (!tail.matches(codePoint)) {
+          break;
+        }
+        i += Character.charCount(codePoint);
+        ++count;
+      }
+      return (i == length && isTailCount(count)) || isTailCount(countAtDollar);
+    }
+
+    private boolean isTailCount(final int count) {
+      return count >= tailMin && count <= tailMax;
+    }
+
+  }
+
+  private static void flatten(final Node node, final List<Node> items) {
+    if (node instanceof ConcatNode) {
+      for (Node item : ((ConcatNode) node).items) {
+        flatten(item, items);
+      }
+    } else {
+      items.add(node);
+    }
+  }
+
+  private static boolean isAnchor(final Node node, final boolean begin) {
+    return node instanceof AnchorNode && ((AnchorNode) node).begin == begin;
+  }
+
+  /**
+   * Tells if {@code $} matches at {@code position} of {@code input}.
+   */
+  static boolean isEnd(final String input, final int position) {
+    return position == input.length() || position == MultiPatternMatcher.dollarPosition(input);
+  }
+
+  /**
+   * Returns the only character of {@code node}, or -1 if it is not a single character.
+   */
+  private static int literalChar(final Node node) {
+    if (!(node instanceof CharNode)) {
+      return -1;
+    }
+    List<char[]> ranges = ((CharNode) node).chars.asRanges();
+    return ranges.size() == 1 && ranges.get(0)[0] == ranges.get(0)[1] ? ranges.get(0)[0] : -1;
+  }
+
+  /**
+   * Returns a specialized matcher of {@code pattern}, or {@code null} if the pattern has no
+   * specialized matcher.
+   *
+   * @param pattern
+   *          the pattern to be matched
+   * @return the matcher or {@code null}
+   */
+  static SpecializedRegexp of(final Pattern pattern) {
+    if (pattern.flags() != 0) {
+      return null;
+    }
+    Node root = RegexParser.parse(pattern.pattern());
+    if (root == null) {
+      return null;
+    }
+    List<Node> items = new ArrayList<>();
+    flatten(root, items);
+    boolean anchoredBegin = !items.isEmpty() && isAnchor(items.get(0), true);
+    if (anchoredBegin) {
+      items.remove(0);
+    }
+    boolean anchoredEnd = !items.isEmpty() && isAnchor(items.get(items.size() - 1), false);
+    if (anchoredEnd) {
+      items.remove(items.size() - 1);
+    }
+    StringBuilder literal = new StringBuilder();
+    for (Node item : items) {
+      int c = literalChar(item);
+      if (c < 0) {
+        return anchoredBegin ? classSequence(items, anchoredEnd) : null;
+      }
+      literal.append((char) c);
+    }
+    return new Literal(literal.toString(), anchoredBegin, anchoredEnd);
+  }
+
+  private static ClassSequence classSequence(final List<Node> items, final boolean anchoredEnd) {
+    List<CharTable> positions = new ArrayList<>();
+    for (int i = 0; i < items.size(); ++i) {
+      Node item = items.get(i);
+      CharSet chars;
+      int min = 1;
+      int max = 1;
+      if (item instanceof RepeatNode && ((RepeatNode) item).body instanceof CharNode) {
+        RepeatNode repeat = (RepeatNode) item;
+        chars = ((CharNode) repeat.body).chars;
+        min = repeat.min;
+        max = repeat.max == RepeatNode.UNBOUNDED ? Integer.MAX_VALUE : repeat.max;
+      } else if (item instanceof CharNode) {
+        chars = ((CharNode) item).chars;
+      } else {
+        return null;
+      }
+      boolean last = i == items.size() - 1;
+      if (min != max && last && anchoredEnd) {
+        return new ClassSequence(positions.toArray(new CharTable[positions.size()]), true,
+            new CharTable(chars), min, max);
+      } else if (min != max && !last) {
+        return null;
+      } else if (positions.size() + min > MAX_POSITIONS) {
+        return null;
+      }
+      CharTable table = new CharTable(chars);
+      for (int j = 0; j < min; ++j) {
+        positions.add(table);
+      }
+    }
+    return new ClassSequence(positions.toArray(new CharTable[positions.size()]), anchoredEnd,
+        null, 0, 0);
+  }
+
+}
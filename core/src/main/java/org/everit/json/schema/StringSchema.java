@@ -15,6 +15,7 @@
  */
 package org.everit.json.schema;
 
+import java.util.Objects;
 import java.util.regex.Pattern;
 
 /**
@@ -35,11 +36,36 @@ public class StringSchema extends Schema {
 
     private boolean requiresString = true;
 
+    private RegexpFactory regexpFactory = LinearTimeRegexpFactory.INSTANCE;
+
+    private String format;
+
+    private FormatRegistry formatRegistry = FormatRegistry.DEFAULT;
+
     @Override
     public StringSchema build() {
       return new StringSchema(this);
     }
 
+    public Builder format(final String format) {
+      this.format = format;
+      return this;
+    }
+
+    /**
+     * Sets the registry of the validator of the {@link #format(String) format}. The default is
+     * {@link FormatRegistry#DEFAULT}.
+     *
+     * @param formatRegistry
+     *          the registry of the formats
+     * @return {@code this}
+     */
+    public Builder formatRegistry(final FormatRegistry formatRegistry) {
+      this.formatRegistry = Objects.requireNonNull(formatRegistry,
+          "formatRegistry cannot be null");
+      return this;
+    }
+
     public Builder maxLength(final Integer maxLength) {
       this.maxLength = maxLength;
       return this;
@@ -55,6 +81,19 @@ public class StringSchema extends Schema {
       return this;
     }
 
+    /**
+     * Sets the factory compiling the {@link #pattern(String) pattern}. The default is
+     * {@link LinearTimeRegexpFactory#INSTANCE}.
+     *
+     * @param regexpFactory
+     *          the factory of the regular expressions
+     * @return {@code this}
+     */
+    public Builder regexpFactory(final RegexpFactory regexpFactory) {
+      this.regexpFactory = Objects.requireNonNull(regexpFactory, "regexpFactory cannot be null");
+      return this;
+    }
+
     public Builder requiresString(final boolean requiresString) {
       this.requiresString = requiresString;
       return this;
@@ -72,8 +111,16 @@ public class StringSchema extends Schema {
 
   private final Pattern pattern;
 
+  private final RegexpFactory regexpFactory;
+
+  private final Regexp regexp;
+
   private final boolean requiresString;
 
+  private final String format;
+
+  private final FormatValidator formatValidator;
+
   public StringSchema() {
     this(builder());
   }
@@ -89,11 +136,28 @@ public class StringSchema extends Schema {
     this.minLength = builder.minLength;
     this.maxLength = builder.maxLength;
     this.requiresString = builder.requiresString;
+    this.regexpFactory = builder.regexpFactory;
     if (builder.pattern != null) {
       this.pattern = Pattern.compile(builder.pattern);
+      this.regexp = regexpFactory.createHandler(pattern);
     } else {
       this.pattern = null;
+      this.regexp = null;
     }
+    this.format = builder.format;
+    this.formatValidator = format == null ? null : builder.formatRegistry.getValidator(format);
+  }
+
+  public String getFormat() {
+    return format;
+  }
+
+  /**
+   * Returns the validator of the format, or {@code null} if the schema has no format, or its
+   * format is unknown to the registry of the builder.
+   */
+  public FormatValidator getFormatValidator() {
+    return formatValidator;
   }
 
   public Integer getMaxLength() {
@@ -108,35 +172,73 @@ public class StringSchema extends Schema {
     return pattern;
   }
 
-  private void testLength(final String subject) {
-    int actualLength = subject.length();
-    if (minLength != null && actualLength < minLength.intValue()) {
-      throw new ValidationException(this, "expected minLength: " + minLength + ", actual: "
-          + actualLength);
-    }
-    if (maxLength != null && actualLength > maxLength.intValue()) {
-      throw new ValidationException(this, "expected maxLength: " + maxLength + ", actual: "
-          + actualLength);
+  public RegexpFactory getRegexpFactory() {
+    return regexpFactory;
+  }
+
+  public boolean requiresString() {
+    return requiresString;
+  }
+
+  @Override
+  public boolean isValid(final Object subject) {
+    if (!(subject instanceof String)) {
+      return !requiresString;
     }
+    String stringSubject = (String) subject;
+    int actualLength = stringSubject.length();
+    return !tooShort(actualLength) && !tooLong(actualLength) && matchesPattern(stringSubject)
+        && matchesFormat(stringSubject);
   }
 
-  private void testPattern(final String subject) {
-    if (pattern != null && !pattern.matcher(subject).find()) {
-      throw new ValidationException(this, String.format("string [%s] does not match pattern %s",
-          subject, pattern.pattern()));
+  boolean matchesFormat(final String subject) {
+    return formatValidator == null || formatValidator.isValid(subject);
+  }
+
+  /**
+   * Tells if the pattern is found in {@code subject}. A pattern whose matching exceeds its step
+   * limit is treated as not found.
+   */
+  boolean matchesPattern(final String subject) {
+    try {
+      return regexp == null || regexp.find(subject);
+    } catch (RegexpStepLimitExceededException e) {
+      return false;
     }
   }
 
+  private boolean tooLong(final int actualLength) {
+    return maxLength != null && actualLength > maxLength.intValue();
+  }
+
+  private boolean tooShort(final int actualLength) {
+    return minLength != null && actualLength < minLength.intValue();
+  }
+
   @Override
   public void validate(final Object subject) {
+    validate(subject, ValidationContext.collectAll());
+  }
+
+  @Override
+  void collectViolations(final Object subject, final ValidationContext context) {
     if (!(subject instanceof String)) {
       if (requiresString) {
-        throw new ValidationException(this, String.class, subject);
+        context.reportTypeMismatch(this, String.class, subject);
       }
-    } else {
-      String stringSubject = (String) subject;
-      testLength(stringSubject);
-      testPattern(stringSubject);
+      return;
+    }
+    String stringSubject = (String) subject;
+    int actualLength = stringSubject.length();
+    if (tooShort(actualLength)) {
+      context.reportFailure(this, "expected minLength: %d, actual: %d", minLength, actualLength);
+    } else if (tooLong(actualLength)) {
+      context.reportFailure(this, "expected maxLength: %d, actual: %d", maxLength, actualLength);
+    } else if (!matchesPattern(stringSubject)) {
+      context.reportFailure(this, "string [%s] does not match pattern %s", stringSubject,
+          pattern.pattern());
+    } else if (!matchesFormat(stringSubject)) {
+      context.reportFailure(this, "string [%s] is not a valid %s", stringSubject, format);
     }
   }
 
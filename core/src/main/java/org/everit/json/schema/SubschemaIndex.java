@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Index of the subschemas of a {@link CombinedSchema}, telling which subschemas may accept a
+ * given subject. The subschemas which are not returned by {@link #candidates(Object)} are known
+ * to reject the subject, so they don't have to be evaluated.
+ *
+ * <p>
+ * Two indexes are used:
+ * <ul>
+ * <li>if every subschema is an object schema which restricts the same property (the
+ * <i>discriminator</i>) to an {@code enum} of primitive values, then the subschemas are looked up
+ * by the value of the discriminator property of the subject</li>
+ * <li>otherwise the subschemas are looked up by the {@link JsonType} of the subject</li>
+ * </ul>
+ * </p>
+ */
+final class SubschemaIndex {
+
+  private static final int[] NONE = new int[0];
+
+  /**
+   * Returns the allowed values of the properties which are restricted to an {@code enum} of
+   * primitive values by {@code schema}, when validating a {@link JSONObject}. The values are
+   * {@link #key(Object) normalized}.
+   */
+  private static Map<String, Set<Object>> enumProperties(final Schema schema) {
+    Schema resolved = resolve(schema);
+    if (resolved instanceof ObjectSchema) {
+      Map<String, Set<Object>> rval = new LinkedHashMap<>();
+      for (Map.Entry<String, Schema> property : ((ObjectSchema) resolved).getPropertySchemas()
+          .entrySet()) {
+        Schema propertySchema = resolve(property.getValue());
+        if (propertySchema instanceof EnumSchema) {
+          Set<Object> possibleValues = ((EnumSchema) propertySchema).getPossibleValues();
+          if (possibleValues.stream().allMatch(SubschemaIndex::isPrimitive)) {
+            rval.put(property.getKey(), possibleValues.stream().map(SubschemaIndex::key)
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+          }
+        }
+      }
+      return rval;
+    } else if (resolved instanceof CombinedSchema
+        && ((CombinedSchema) resolved).getCriterion() == CombinedSchema.ALL_CRITERION) {
+      Map<String, Set<Object>> rval = new LinkedHashMap<>();
+      for (Schema subschema : ((CombinedSchema) resolved).getSubschemas()) {
+        for (Map.Entry<String, Set<Object>> property : enumProperties(subschema).entrySet()) {
+          Set<Object> allowedValues = rval.get(property.getKey());
+          if (allowedValues == null) {
+            rval.put(property.getKey(), property.getValue());
+          } else {
+            allowedValues = new LinkedHashSet<>(allowedValues);
+            allowedValues.retainAll(property.getValue());
+            rval.put(property.getKey(), allowedValues);
+          }
+        }
+      }
+      return rval;
+    }
+    return Collections.emptyMap();
+  }
+
+  /**
+   * Primitive values are equal if their {@link #key(Object) normalized forms} are equal, so they
+   * can be hashed.
+   */
+  private static boolean isPrimitive(final Object value) {
+    return !(value instanceof JSONObject || value instanceof JSONArray);
+  }
+
+  /**
+   * Normalizes a primitive value to the key of the discriminator index: numbers are replaced by
+   * their canonical forms, since {@link EnumSchema} compares them by value, and {@code null} by
+   * {@link JSONObject#NULL}.
+   */
+  private static Object key(final Object value) {
+    if (value instanceof Number) {
+      return ObjectComparator.normalizeNumber((Number) value);
+    }
+    return value == null ? JSONObject.NULL : value;
+  }
+
+  private static Schema resolve(final Schema schema) {
+    Schema rval = schema;
+    while (rval instanceof ReferenceSchema) {
+      Schema referred = ((ReferenceSchema) rval).getReferredSchema();
+      if (referred == null) {
+        return rval;
+      }
+      rval = referred;
+    }
+    return rval;
+  }
+
+  private final int[][] candidatesByType;
+
+  private final String discriminator;
+
+  private final Map<Object, int[]> candidatesByDiscriminatorValue;
+
+  /**
+   * Constructor.
+   *
+   * @param subschemas
+   *          the subschemas to be indexed. The referred schemas of the {@link ReferenceSchema}
+   *          instances must be already injected.
+   */
+  SubschemaIndex(final Schema[] subschemas) {
+    this.candidatesByType = indexByType(subschemas);
+    this.discriminator = findDiscriminator(subschemas);
+    this.candidatesByDiscriminatorValue = discriminator == null
+        ? Collections.emptyMap()
+        : indexByDiscriminatorValue(subschemas);
+  }
+
+  /**
+   * Returns the indexes of the subschemas which may accept {@code subject}, in ascending order.
+   */
+  int[] candidates(final Object subject) {
+    if (discriminator != null && subject instanceof JSONObject) {
+      Object value = ((JSONObject) subject).opt(discriminator);
+      if (value != null) {
+        int[] rval = candidatesByDiscriminatorValue.get(key(value));
+        return rval == null ? NONE : rval;
+      }
+    }
+    return candidatesByType[JsonType.of(subject).ordinal()];
+  }
+
+  private String findDiscriminator(final Schema[] subschemas) {
+    if (subschemas.length < 2) {
+      return null;
+    }
+    Map<String, Set<Object>> candidates = enumProperties(subschemas[0]);
+    for (int i = 1; i < subschemas.length && !candidates.isEmpty(); ++i) {
+      candidates.keySet().retainAll(enumProperties(subschemas[i]).keySet());
+    }
+    return candidates.isEmpty() ? null : candidates.keySet().iterator().next();
+  }
+
+  String getDiscriminator() {
+    return discriminator;
+  }
+
+  private Map<Object, int[]> indexByDiscriminatorValue(final Schema[] subschemas) {
+    Map<Object, int[]> rval = new HashMap<>();
+    for (int i = 0; i < subschemas.length; ++i) {
+      for (Object value : enumProperties(subschemas[i]).get(discriminator)) {
+        int[] candidates = rval.get(value);
+        if (candidates == null) {
+          candidates = new int[] {i};
+        } else {
+          candidates = Arrays.copyOf(candidates, candidates.length + 1);
+          candidates[candidates.length - 1] = i;
+        }
+        rval.put(value, candidates);
+      }
+    }
+    return rval;
+  }
+
+  private int[][] indexByType(final Schema[] subschemas) {
+    JsonType[] types = JsonType.values();
+    int[][] rval = new int[types.length][subschemas.length];
+    int[] candidateCounts = new int[types.length];
+    for (int i = 0; i < subschemas.length; ++i) {
+      for (JsonType type : JsonType.acceptedBy(subschemas[i])) {
+        rval[type.ordinal()][candidateCounts[type.ordinal()]++] = i;
+      }
+    }
+    for (int i = 0; i < types.length; ++i) {
+      rval[i] = Arrays.copyOf(rval[i], candidateCounts[i]);
+    }
+    return rval;
+  }
+
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A {@link SchemaValidator} which interprets its schema until it has been invoked a given number
+ * of times, and then switches to a compiled validator.
+ *
+ * <p>
+ * The compilation runs in the background on the configured {@link Executor}, so it never blocks
+ * the callers: they keep using the schema tree until the compiled validator is swapped in. If the
+ * compilation fails, the validator keeps interpreting the schema, and does not retry.
+ * </p>
+ *
+ * <p>
+ * Instances are created by {@link TieredValidators}, which also reports the current tier of each
+ * of its validators.
+ * </p>
+ */
+public final class TieredValidator implements SchemaValidator {
+
+  /**
+   * The execution tiers of a {@link TieredValidator}.
+   */
+  public enum Tier {
+
+    /**
+     * The schema is interpreted, and the invocations are counted.
+     */
+    INTERPRETED,
+
+    /**
+     * The compile threshold has been reached, and the schema is being compiled. The schema is
+     * interpreted until the compilation finishes.
+     */
+    COMPILING,
+
+    /**
+     * The compiled validator is used.
+     */
+    COMPILED,
+
+    /**
+     * The compilation failed, the schema is interpreted.
+     */
+    FAILED
+
+  }
+
+  private final Schema schema;
+
+  private final long compileThreshold;
+
+  private final Executor executor;
+
+  private final Function<Schema, SchemaValidator> compiler;
+
+  private final LongAdder invocationCount = new LongAdder();
+
+  private final AtomicReference<Tier> tier = new AtomicReference<>(Tier.INTERPRETED);
+
+  private volatile SchemaValidator current;
+
+  private volatile Throwable compilationFailure;
+
+  TieredValidator(final Schema schema, final long compileThreshold, final Executor executor,
+      final Function<Schema, SchemaValidator> compiler) {
+    this.schema = Objects.requireNonNull(schema, "schema cannot be null");
+    this.compileThreshold = compileThreshold;
+    this.executor = executor;
+    this.compiler = compiler;
+    this.current = SchemaValidator.interpreted(schema);
+  }
+
+  private void compile() {
+    try {
+      current = Objects.requireNonNull(compiler.apply(schema), "compiler returned null");
+      tier.set(Tier.COMPILED);
+    } catch (RuntimeException | Error e) {
+      compilationFailure = e;
+      tier.set(Tier.FAILED);
+    }
+  }
+
+  /**
+   * Returns the exception thrown by the compiler, if the validator is in the {@link Tier#FAILED}
+   * tier.
+   *
+   * @return the compilation failure, or {@code null}
+   */
+  public Throwable getCompilationFailure() {
+    return compilationFailure;
+  }
+
+  public long getCompileThreshold() {
+    return compileThreshold;
+  }
+
+  /**
+   * Returns the validator currently used: the interpreting validator, or the compiled one.
+   *
+   * @return the current validator
+   */
+  public SchemaValidator getCurrentValidator() {
+    return current;
+  }
+
+  /**
+   * Returns the number of the validations performed by this validator so far.
+   *
+   * @return the invocation count
+   */
+  public long getInvocationCount() {
+    return invocationCount.sum();
+  }
+
+  @Override
+  public Schema getSchema() {
+    return schema;
+  }
+
+  public Tier getTier() {
+    return tier.get();
+  }
+
+  private SchemaValidator invoke() {
+    invocationCount.increment();
+    if (tier.get() == Tier.INTERPRETED && invocationCount.sum() >= compileThreshold
+        && tier.compareAndSet(Tier.INTERPRETED, Tier.COMPILING)) {
+      try {
+        executor.execute(this::compile);
+      } catch (RuntimeException e) {
+        compilationFailure = e;
+        tier.set(Tier.FAILED);
+      }
+    }
+    return current;
+  }
+
+  @Override
+  public boolean isValid(final Object subject) {
+    return invoke().isValid(subject);
+  }
+
+  @Override
+  public void validate(final Object subject) {
+    invoke().validate(subject);
+  }
+
+  @Override
+  public void validate(final Object subject, final ValidationContext context) {
+    invoke().validate(subject, context);
+  }
+
+}
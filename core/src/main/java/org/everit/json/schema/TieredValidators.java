@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+import org.everit.json.schema.TieredValidator.Tier;
+
+/**
+ * Creates and keeps track of the {@link TieredValidator}s of a set of root schemas.
+ *
+ * <p>
+ * Applications validating against many schemas, of which only a few are used frequently, can
+ * obtain the validator of each schema using {@link #forSchema(Schema)}. The schemas are
+ * interpreted until their validator has been invoked {@link Builder#compileThreshold(long)}
+ * times, then they are compiled in the background. {@link #getTiers()} reports the current tier
+ * of each schema.
+ * </p>
+ *
+ * <p>
+ * The schemas are identified by object identity. Instances are thread-safe.
+ * </p>
+ */
+public class TieredValidators {
+
+  /**
+   * Builder class for {@link TieredValidators}.
+   */
+  public static class Builder {
+
+    private long compileThreshold = DEFAULT_COMPILE_THRESHOLD;
+
+    private Executor executor = ForkJoinPool.commonPool();
+
+    private Function<Schema, SchemaValidator> compiler = TieredValidators::compile;
+
+    public TieredValidators build() {
+      return new TieredValidators(this);
+    }
+
+    /**
+     * Sets the function compiling the schemas. By default the schemas are compiled by
+     * {@link ValidatorGenerator} if it is available, and by {@link CompiledSchema} otherwise.
+     *
+     * @param compiler
+     *          the compiler function
+     * @return {@code this}
+     */
+    public Builder compiler(final Function<Schema, SchemaValidator> compiler) {
+      this.compiler = Objects.requireNonNull(compiler, "compiler cannot be null");
+      return this;
+    }
+
+    public Builder compileThreshold(final long compileThreshold) {
+      if (compileThreshold < 0) {
+        throw new IllegalArgumentException("compileThreshold must not be negative, "
+            + compileThreshold + " given");
+      }
+      this.compileThreshold = compileThreshold;
+      return this;
+    }
+
+    /**
+     * Sets the executor running the compilations. Defaults to {@link ForkJoinPool#commonPool()}.
+     *
+     * @param executor
+     *          the executor
+     * @return {@code this}
+     */
+    public Builder executor(final Executor executor) {
+      this.executor = Objects.requireNonNull(executor, "executor cannot be null");
+      return this;
+    }
+
+  }
+
+  /**
+   * The default number of invocations after which a schema is compiled.
+   */
+  public static final long DEFAULT_COMPILE_THRESHOLD = 1000;
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private static SchemaValidator compile(final Schema schema) {
+    return ValidatorGenerator.isAvailable()
+        ? ValidatorGenerator.generate(schema)
+        : CompiledSchema.compile(schema);
+  }
+
+  private final long compileThreshold;
+
+  private final Executor executor;
+
+  private final Function<Schema, SchemaValidator> compiler;
+
+  private final Map<Schema, TieredValidator> validators = new IdentityHashMap<>();
+
+  public TieredValidators() {
+    this(builder());
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param builder
+   *          the builder object containing the configuration
+   */
+  public TieredValidators(final Builder builder) {
+    this.compileThreshold = builder.compileThreshold;
+    this.executor = builder.executor;
+    this.compiler = builder.compiler;
+  }
+
+  /**
+   * Returns the validator of {@code schema}, creating it on first use.
+   *
+   * @param schema
+   *          the root schema
+   * @return the tiered validator of the schema
+   */
+  public synchronized TieredValidator forSchema(final Schema schema) {
+    return validators.computeIfAbsent(Objects.requireNonNull(schema, "schema cannot be null"),
+        key -> new TieredValidator(key, compileThreshold, executor, compiler));
+  }
+
+  /**
+   * Returns the current tier of each schema.
+   *
+   * @return a snapshot of the tiers, keyed by the schemas
+   */
+  public synchronized Map<Schema, Tier> getTiers() {
+    Map<Schema, Tier> rval = new IdentityHashMap<>();
+    for (TieredValidator validator : validators.values()) {
+      rval.put(validator.getSchema(), validator.getTier());
+    }
+    return Collections.unmodifiableMap(rval);
+  }
+
+  /**
+   * Stops tracking {@code schema}. The validator returned for it before remains usable.
+   *
+   * @param schema
+   *          the root schema
+   * @return {@code true} if the schema was tracked
+   */
+  public synchronized boolean remove(final Schema schema) {
+    return validators.remove(schema) != null;
+  }
+
+}
@@ -0,0 +1,535 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Holds the state of a single validation run, passed to
+ * {@link Schema#validate(Object, ValidationContext)}.
+ *
+ * <p>
+ * The schemas report each violation to the context as soon as they find it. The context keeps
+ * track of the JSON pointer of the currently validated part of the subject, counts the violations
+ * and forwards them to its {@link ValidationListener}. Once the configured failure limit is
+ * reached, the schemas stop validating further parts of the subject.
+ * </p>
+ *
+ * <p>
+ * The contexts created by {@link #collectAll()}, {@link #failFast()} and {@link #maxFailures(int)}
+ * collect the violations into a {@link ValidationException} which is thrown at the end of the
+ * validation. The contexts created by {@link #withListener(ValidationListener)} only notify the
+ * listener, and never throw {@code ValidationException}.
+ * </p>
+ *
+ * <p>
+ * The items of large arrays and the properties of large objects can be validated in parallel,
+ * see {@link #parallel(ForkJoinPool, int)}. The violations are reported to the listener on the
+ * calling thread, in the same order as by a sequential validation.
+ * </p>
+ *
+ * <p>
+ * A context instance should not be shared between validation runs.
+ * </p>
+ */
+public class ValidationContext {
+
+  /**
+   * Validates a part of the subject, such as an item of an array, reporting its violations to
+   * {@code context}.
+   */
+  @FunctionalInterface
+  interface PartValidator {
+
+    void validate(int index, ValidationContext context);
+
+  }
+
+  /**
+   * Validates a range of the parts of the subject with a context of its own, and records the
+   * number of violations after each part, so that they can be merged into the parent context part
+   * by part.
+   */
+  private static final class Chunk extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ValidationContext context;
+
+    private final List<Violation> violations;
+
+    private final int start;
+
+    private final int end;
+
+    private final PartValidator validator;
+
+    /**
+     * The number of validated parts. The parts after them were skipped, since the failure limit
+     * was reached.
+     */
+    private int validatedCount = 0;
+
+    /**
+     * The number of the reported entries (exceptions or violations) after each validated part.
+     */
+    private final int[] entryEnds;
+
+    /**
+     * The failure count of the context after each validated part.
+     */
+    private final int[] failureEnds;
+
+    Chunk(final ValidationContext parent, final int start, final int end,
+        final PartValidator validator) {
+      this.violations = parent.exceptionCollector == null ? new ArrayList<>() : null;
+      this.context = parent.fork(violations == null ? new ExceptionCollector() : violations::add);
+      this.start = start;
+      this.end = end;
+      this.validator = validator;
+      this.entryEnds = new int[end - start];
+      this.failureEnds = new int[end - start];
+    }
+
+    @Override
+    protected void compute() {
+      for (int i = start; i < end && !context.isFailureLimitReached(); ++i) {
+        validator.validate(i, context);
+        entryEnds[validatedCount] = entryCount();
+        failureEnds[validatedCount] = context.failureCount;
+        ++validatedCount;
+      }
+    }
+
+    private int entryCount() {
+      return violations == null ? context.exceptionCollector.size() : violations.size();
+    }
+
+    /**
+     * Reports the violations of the validated parts to {@code parent}, until its failure limit is
+     * reached. The part reaching the limit of {@code parent} is validated again in
+     * {@code parent}, so that its violations are cut at the same point as by a sequential
+     * validation.
+     */
+    void mergeInto(final ValidationContext parent) {
+      int entryStart = 0;
+      int failureStart = 0;
+      for (int i = 0; i < validatedCount && !parent.isFailureLimitReached(); ++i) {
+        if (failureEnds[i] - failureStart > parent.failureLimit - parent.failureCount) {
+          validator.validate(start + i, parent);
+          return;
+        }
+        for (int entry = entryStart; entry < entryEnds[i]; ++entry) {
+          if (violations == null) {
+            parent.exceptionCollector.add(context.exceptionCollector.get(entry));
+          } else {
+            parent.listener.onViolation(violations.get(entry));
+          }
+        }
+        parent.failureCount += failureEnds[i] - failureStart;
+        entryStart = entryEnds[i];
+        failureStart = failureEnds[i];
+      }
+    }
+
+  }
+
+  /**
+   * Failure limit denoting that all schema violations should be collected.
+   */
+  public static final int UNLIMITED = Integer.MAX_VALUE;
+
+  /**
+   * The number of chunks per thread of the pool the parts of the subject are split into, so that
+   * the threads can balance the load of the chunks of different costs.
+   */
+  private static final int CHUNKS_PER_THREAD = 4;
+
+  private static final int INITIAL_DEPTH = 8;
+
+  private static int checkFailureLimit(final int failureLimit) {
+    if (failureLimit < 1) {
+      throw new IllegalArgumentException("failureLimit must be positive, " + failureLimit
+          + " given");
+    }
+    return failureLimit;
+  }
+
+  /**
+   * Creates a context which collects every schema violation. This is how
+   * {@link Schema#validate(Object)} works.
+   *
+   * @return the new context
+   */
+  public static ValidationContext collectAll() {
+    return new ValidationContext(new ExceptionCollector(), UNLIMITED);
+  }
+
+  /**
+   * Creates a context which stops the validation at the first schema violation.
+   *
+   * @return the new context
+   */
+  public static ValidationContext failFast() {
+    return new ValidationContext(new ExceptionCollector(), 1);
+  }
+
+  /**
+   * Creates a context which stops the validation after {@code failureLimit} schema violations.
+   *
+   * @param failureLimit
+   *          the maximum number of schema violations to be collected, must be positive
+   * @return the new context
+   */
+  public static ValidationContext maxFailures(final int failureLimit) {
+    return new ValidationContext(new ExceptionCollector(), checkFailureLimit(failureLimit));
+  }
+
+  /**
+   * Creates a context which reports every schema violation to {@code listener}.
+   *
+   * @param listener
+   *          the listener to be notified about the violations
+   * @return the new context
+   */
+  public static ValidationContext withListener(final ValidationListener listener) {
+    return new ValidationContext(listener, UNLIMITED);
+  }
+
+  /**
+   * Creates a context which reports the schema violations to {@code listener}, and stops the
+   * validation after {@code failureLimit} violations.
+   *
+   * @param listener
+   *          the listener to be notified about the violations
+   * @param failureLimit
+   *          the maximum number of schema violations to be reported, must be positive
+   * @return the new context
+   */
+  public static ValidationContext withListener(final ValidationListener listener,
+      final int failureLimit) {
+    return new ValidationContext(listener, checkFailureLimit(failureLimit));
+  }
+
+  private final ValidationListener listener;
+
+  private final ExceptionCollector exceptionCollector;
+
+  private final int failureLimit;
+
+  private int failureCount = 0;
+
+  /**
+   * The number of segments of the JSON pointer of the currently validated part of the subject.
+   */
+  private int depth = 0;
+
+  /**
+   * The property names of the pointer segments, {@code null} for array indexes.
+   */
+  private String[] keys;
+
+  /**
+   * The array indexes of the pointer segments which are not property names.
+   */
+  private int[] indexes;
+
+  /**
+   * Lazily created pointers: {@code pointers[i]} is the pointer of the first {@code i} segments,
+   * or {@code null} if it has not been created yet. This way no pointer instance is created while
+   * the validation does not find violations, and the pointers of the violations found in the same
+   * subtree share their common prefix.
+   */
+  private JSONPointerPath[] pointers;
+
+  /**
+   * The pool validating the parts of the subject in parallel, {@code null} if the validation is
+   * sequential.
+   */
+  private ForkJoinPool pool;
+
+  private int parallelThreshold = UNLIMITED;
+
+  ValidationContext(final ValidationListener listener, final int failureLimit) {
+    this.listener = Objects.requireNonNull(listener, "listener cannot be null");
+    this.exceptionCollector = listener instanceof ExceptionCollector
+        ? (ExceptionCollector) listener
+        : null;
+    this.failureLimit = failureLimit;
+  }
+
+  JSONPointerPath currentPointer() {
+    if (depth == 0) {
+      return JSONPointerPath.ROOT;
+    }
+    int createdUntil = depth;
+    while (createdUntil > 0 && pointers[createdUntil] == null) {
+      --createdUntil;
+    }
+    JSONPointerPath pointer = createdUntil == 0 ? JSONPointerPath.ROOT : pointers[createdUntil];
+    for (int i = createdUntil; i < depth; ++i) {
+      pointer = pointer.child(keys[i] == null ? String.valueOf(indexes[i]) : keys[i]);
+      pointers[i + 1] = pointer;
+    }
+    return pointer;
+  }
+
+  /**
+   * Closes the group of violations opened by {@link #startGroup()}. If more than one violation
+   * was reported in the group, then they will be the causing exceptions of a single
+   * {@link ValidationException} thrown by {@link Schema#validate(Object)}.
+   */
+  void endGroup(final Schema schema, final int groupStart) {
+    if (exceptionCollector != null && exceptionCollector.size() - groupStart > 1) {
+      exceptionCollector.group(schema, currentPointer(), groupStart);
+    }
+  }
+
+  /**
+   * Creates a context validating a part of the subject on another thread, at the current JSON
+   * pointer of this context, with the remaining failure limit of this context.
+   */
+  private ValidationContext fork(final ValidationListener childListener) {
+    ValidationContext rval = new ValidationContext(childListener, failureLimit == UNLIMITED
+        ? UNLIMITED
+        : failureLimit - failureCount);
+    rval.pool = pool;
+    rval.parallelThreshold = parallelThreshold;
+    if (depth > 0) {
+      rval.keys = Arrays.copyOf(keys, keys.length);
+      rval.indexes = Arrays.copyOf(indexes, indexes.length);
+      rval.pointers = Arrays.copyOf(pointers, pointers.length);
+      rval.depth = depth;
+    }
+    return rval;
+  }
+
+  /**
+   * Appends an array index to the JSON pointer of the currently validated part of the subject.
+   */
+  void enter(final int index) {
+    push(null, index);
+  }
+
+  /**
+   * Appends a property name to the JSON pointer of the currently validated part of the subject.
+   */
+  void enter(final String key) {
+    push(key, -1);
+  }
+
+  public int getFailureCount() {
+    return failureCount;
+  }
+
+  public int getFailureLimit() {
+    return failureLimit;
+  }
+
+  /**
+   * Checks if the validation should be stopped, since the failure limit is reached.
+   *
+   * @return {@code true} if no more schema violations should be collected
+   */
+  public boolean isFailureLimitReached() {
+    return failureCount >= failureLimit;
+  }
+
+  /**
+   * Tells if {@code partCount} parts of the subject, such as the items of an array, should be
+   * validated in parallel by {@link #validateParts(int, PartValidator)}.
+   */
+  boolean isParallel(final int partCount) {
+    return pool != null && partCount >= parallelThreshold;
+  }
+
+  /**
+   * Removes the last segment of the JSON pointer of the currently validated part of the subject.
+   */
+  void leave() {
+    --depth;
+  }
+
+  /**
+   * Enables the parallel validation of the items of the arrays and of the properties of the
+   * objects which have at least {@code threshold} items or properties. They are split into chunks
+   * which are validated on {@code pool}, each with a context of its own. The violations of the
+   * chunks are reported to this context in the order of the items and properties, on the calling
+   * thread, so the reported violations and their JSON pointers are the same as with a sequential
+   * validation. Smaller arrays and objects are validated sequentially.
+   *
+   * <p>
+   * With a failure limit, the chunks are validated until they reach the limit on their own, and
+   * their violations are reported until this context reaches it.
+   * </p>
+   *
+   * @param pool
+   *          the pool validating the chunks
+   * @param threshold
+   *          the minimum number of items or properties validated in parallel, must be positive
+   * @return {@code this}
+   */
+  public ValidationContext parallel(final ForkJoinPool pool, final int threshold) {
+    if (threshold < 1) {
+      throw new IllegalArgumentException("threshold must be positive, " + threshold + " given");
+    }
+    this.pool = Objects.requireNonNull(pool, "pool cannot be null");
+    this.parallelThreshold = threshold;
+    return this;
+  }
+
+  private void push(final String key, final int index) {
+    if (keys == null) {
+      keys = new String[INITIAL_DEPTH];
+      indexes = new int[INITIAL_DEPTH];
+      pointers = new JSONPointerPath[INITIAL_DEPTH + 1];
+    } else if (depth == keys.length) {
+      keys = Arrays.copyOf(keys, depth * 2);
+      indexes = Arrays.copyOf(indexes, depth * 2);
+      pointers = Arrays.copyOf(pointers, depth * 2 + 1);
+    }
+    keys[depth] = key;
+    indexes[depth] = index;
+    pointers[++depth] = null;
+  }
+
+  /**
+   * Sets the violated schema of the violations reported since {@code groupStart} to
+   * {@code schema}, in the {@link ValidationException} thrown by {@link Schema#validate(Object)}.
+   * The group must contain at most one violation, therefore it should be
+   * {@link #endGroup(Schema, int) closed} before.
+   */
+  void reassignViolatedSchema(final Schema schema, final int groupStart) {
+    if (exceptionCollector != null) {
+      exceptionCollector.reassign(schema, groupStart);
+    }
+  }
+
+  /**
+   * Reports the violations of an exception thrown by a schema which does not report its
+   * violations to the context. The pointers of the violations are relative to the currently
+   * validated part of the subject.
+   */
+  void reportException(final ValidationException failure) {
+    failureCount += failure.getViolationCount();
+    if (exceptionCollector != null) {
+      exceptionCollector.add(failure.prependPointer(currentPointer(),
+          failure.getViolatedSchema()));
+    } else {
+      reportLeaves(failure);
+    }
+  }
+
+  private void reportLeaves(final ValidationException failure) {
+    if (failure.getCausingExceptions().isEmpty()) {
+      JSONPointerPath pointer = currentPointer().concat(failure.getPointer());
+      listener.onViolation(new Violation(pointer, failure.getViolatedSchema(),
+          failure.getErrorMessage()));
+    } else {
+      for (ValidationException cause : failure.getCausingExceptions()) {
+        reportLeaves(cause);
+      }
+    }
+  }
+
+  /**
+   * Reports a schema violation found at the currently validated part of the subject.
+   */
+  void reportFailure(final Schema violatedSchema, final String message) {
+    ++failureCount;
+    listener.onViolation(new Violation(currentPointer(), violatedSchema, message));
+  }
+
+  /**
+   * Reports a schema violation found at the currently validated part of the subject. The message
+   * is formatted using {@link String#format(String, Object...)} only if it is requested by the
+   * listener.
+   */
+  void reportFailure(final Schema violatedSchema, final String messageFormat,
+      final Object... messageArgs) {
+    ++failureCount;
+    listener.onViolation(new Violation(currentPointer(), violatedSchema, messageFormat,
+        messageArgs));
+  }
+
+  /**
+   * Reports that the currently validated part of the subject is not an instance of
+   * {@code expectedType}.
+   */
+  void reportTypeMismatch(final Schema violatedSchema, final Class<?> expectedType,
+      final Object actualValue) {
+    reportFailure(violatedSchema, "expected type: %s, found: %s", expectedType.getSimpleName(),
+        actualValue == null ? "null" : actualValue.getClass().getSimpleName());
+  }
+
+  /**
+   * Opens a group of violations. Used by schemas which may report multiple violations, so that
+   * {@link Schema#validate(Object)} can build the hierarchy of {@link ValidationException}s.
+   *
+   * @return the group start to be passed to {@link #endGroup(Schema, int)}
+   */
+  int startGroup() {
+    return exceptionCollector == null ? 0 : exceptionCollector.size();
+  }
+
+  /**
+   * Validates {@code partCount} parts of the subject with {@code validator}: in parallel chunks
+   * if {@link #isParallel(int)}, otherwise one after the other until the failure limit is reached.
+   */
+  void validateParts(final int partCount, final PartValidator validator) {
+    if (!isParallel(partCount)) {
+      for (int i = 0; i < partCount && !isFailureLimitReached(); ++i) {
+        validator.validate(i, this);
+      }
+      return;
+    } else if (isFailureLimitReached()) {
+      return;
+    }
+    // the pointer prefix is created once, and shared by the chunks
+    currentPointer();
+    int chunkCount = Math.min(partCount, pool.getParallelism() * CHUNKS_PER_THREAD);
+    int chunkSize = (partCount + chunkCount - 1) / chunkCount;
+    List<Chunk> chunks = new ArrayList<>(chunkCount);
+    for (int start = 0; start < partCount; start += chunkSize) {
+      chunks.add(new Chunk(this, start, Math.min(start + chunkSize, partCount), validator));
+    }
+    if (ForkJoinTask.getPool() == pool) {
+      ForkJoinTask.invokeAll(chunks);
+    } else {
+      pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(chunks)));
+    }
+    for (Chunk chunk : chunks) {
+      chunk.mergeInto(this);
+    }
+  }
+
+  /**
+   * Throws the collected {@link ValidationException}, if this context collects exceptions and
+   * violations were found.
+   */
+  void throwFailures(final Schema rootSchema) {
+    if (exceptionCollector != null) {
+      exceptionCollector.throwFailures(rootSchema);
+    }
+  }
+
+}
@@ -15,18 +15,39 @@
  */
 package org.everit.json.schema;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 /**
  * Thrown by {@link Schema} subclasses on validation failure.
+ *
+ * <p>
+ * Validation exceptions are cheap to create: the {@link #getPointerToViolation() JSON pointer}
+ * and the message are rendered only when they are requested, {@link #prepend(String)} takes
+ * constant time regardless of the size of the exception hierarchy, and no stack trace is
+ * captured. The stack trace capturing can be turned on by setting the
+ * {@value #CAPTURE_STACK_TRACE_PROPERTY} system property to {@code true}.
+ * </p>
  */
 public class ValidationException extends RuntimeException {
   private static final long serialVersionUID = 6192047123024651924L;
 
+  /**
+   * The name of the system property turning on the stack trace capturing of validation
+   * exceptions.
+   */
+  public static final String CAPTURE_STACK_TRACE_PROPERTY =
+      "org.everit.json.schema.ValidationException.captureStackTrace";
+
+  private static final boolean CAPTURE_STACK_TRACE = Boolean.getBoolean(
+      CAPTURE_STACK_TRACE_PROPERTY);
+
+  private static final Object[] NO_ARGS = new Object[0];
+
   /**
    * Sort of static factory method. It is used by {@link ObjectSchema} and {@link ArraySchema} to
    * create {@code ValidationException}s, handling the case of multiple violations occuring during
@@ -53,16 +74,37 @@ public class ValidationException extends RuntimeException {
     } else if (failureCount == 1) {
       throw failures.get(0);
     } else {
-      throw new ValidationException(rootFailingSchema, new ArrayList<>(failures));
+      throw new ValidationException(rootFailingSchema, JSONPointerPath.ROOT,
+          new ArrayList<>(failures));
     }
   }
 
-  private final StringBuilder pointerToViolation;
+  private final JSONPointerPath pointerToViolation;
 
   private final transient Schema violatedSchema;
 
+  /**
+   * The causing exceptions, with pointers relative to {@link #causePrefix}.
+   */
   private final List<ValidationException> causingExceptions;
 
+  /**
+   * The pointer prepended to the pointers of {@link #causingExceptions}. The causing exceptions are
+   * rebased only when {@link #getCausingExceptions()} is called.
+   */
+  private final JSONPointerPath causePrefix;
+
+  private transient List<ValidationException> rebasedCausingExceptions;
+
+  private final transient String messageFormat;
+
+  private final transient Object[] messageArgs;
+
+  /**
+   * The formatted message, created at the first {@link #getErrorMessage()} call.
+   */
+  private String message;
+
   /**
    * Deprecated, use {@code ValidationException(Schema, Class<?>, Object)} instead.
    *
@@ -88,17 +130,20 @@ public class ValidationException extends RuntimeException {
    */
   public ValidationException(final Schema violatedSchema, final Class<?> expectedType,
       final Object actualValue) {
-    this(violatedSchema, new StringBuilder("#"),
-        "expected type: " + expectedType.getSimpleName() + ", found: "
-            + (actualValue == null ? "null" : actualValue.getClass().getSimpleName()),
-        Collections.emptyList());
+    this(violatedSchema, JSONPointerPath.ROOT, "expected type: %s, found: %s",
+        new Object[] {expectedType.getSimpleName(),
+            actualValue == null ? "null" : actualValue.getClass().getSimpleName() },
+        Collections.emptyList(), JSONPointerPath.ROOT);
   }
 
-  private ValidationException(final Schema rootFailingSchema,
+  /**
+   * Creates the exception of a group of violations, found by {@code rootFailingSchema} at
+   * {@code pointer}.
+   */
+  ValidationException(final Schema rootFailingSchema, final JSONPointerPath pointer,
       final List<ValidationException> causingExceptions) {
-    this(rootFailingSchema, new StringBuilder("#"),
-        causingExceptions.size() + " schema violations found",
-        causingExceptions);
+    this(rootFailingSchema, pointer, "%d schema violations found",
+        new Object[] {causingExceptions.size() }, causingExceptions, JSONPointerPath.ROOT);
   }
 
   /**
@@ -110,7 +155,8 @@ public class ValidationException extends RuntimeException {
    *          the readable exception message
    */
   public ValidationException(final Schema violatedSchema, final String message) {
-    this(violatedSchema, new StringBuilder("#"), message, Collections.emptyList());
+    this(violatedSchema, JSONPointerPath.ROOT, message, NO_ARGS, Collections.emptyList(),
+        JSONPointerPath.ROOT);
   }
 
   /***
@@ -129,10 +175,8 @@ public class ValidationException extends RuntimeException {
   ValidationException(final Schema violatedSchema, final StringBuilder pointerToViolation,
       final String message,
       final List<ValidationException> causingExceptions) {
-    super(message);
-    this.violatedSchema = violatedSchema;
-    this.pointerToViolation = pointerToViolation;
-    this.causingExceptions = Collections.unmodifiableList(causingExceptions);
+    this(violatedSchema, JSONPointerPath.ROOT.resolve(pointerToViolation.toString()), message,
+        NO_ARGS, causingExceptions, JSONPointerPath.ROOT);
   }
 
   /**
@@ -143,27 +187,76 @@ public class ValidationException extends RuntimeException {
    */
   @Deprecated
   public ValidationException(final String message) {
-    this((Schema) null, new StringBuilder("#"), message, Collections.emptyList());
+    this((Schema) null, message);
   }
 
-  private ValidationException(final StringBuilder pointerToViolation,
-      final Schema violatedSchema,
-      final String message,
-      final List<ValidationException> causingExceptions) {
-    this(violatedSchema, pointerToViolation, message, causingExceptions);
+  private ValidationException(final Schema violatedSchema,
+      final JSONPointerPath pointerToViolation,
+      final String messageFormat,
+      final Object[] messageArgs,
+      final List<ValidationException> causingExceptions,
+      final JSONPointerPath causePrefix) {
+    super(null, null, false, CAPTURE_STACK_TRACE);
+    this.violatedSchema = violatedSchema;
+    this.pointerToViolation = pointerToViolation;
+    this.messageFormat = messageFormat;
+    this.messageArgs = messageArgs;
+    this.causingExceptions = Collections.unmodifiableList(causingExceptions);
+    this.causePrefix = causePrefix;
   }
 
-  private String escapeFragment(final String fragment) {
-    return fragment.replace("~", "~0").replace("/", "~1");
+  /**
+   * Creates the exception of a single violation reported to a {@link ValidationContext}.
+   */
+  ValidationException(final Violation violation) {
+    this(violation.getViolatedSchema(), violation.getPointer(), violation.getMessageFormat(),
+        violation.getMessageArgs(), Collections.emptyList(), JSONPointerPath.ROOT);
   }
 
+  /**
+   * Returns the causing exceptions. Their pointers are rebased to the pointer prepended to this
+   * exception at the first call.
+   *
+   * @return the causing exceptions
+   */
   public List<ValidationException> getCausingExceptions() {
-    return causingExceptions;
+    if (causePrefix.isRoot()) {
+      return causingExceptions;
+    }
+    List<ValidationException> rval = rebasedCausingExceptions;
+    if (rval == null) {
+      List<ValidationException> rebased = new ArrayList<>(causingExceptions.size());
+      for (ValidationException cause : causingExceptions) {
+        rebased.add(cause.prependPointer(causePrefix, cause.violatedSchema));
+      }
+      rval = Collections.unmodifiableList(rebased);
+      rebasedCausingExceptions = rval;
+    }
+    return rval;
+  }
+
+  /**
+   * Returns the readable description of the violation, without the
+   * {@link #getPointerToViolation() JSON pointer} prefix of {@link #getMessage()}.
+   *
+   * @return the error message
+   */
+  public String getErrorMessage() {
+    String rval = message;
+    if (rval == null) {
+      rval = messageArgs.length == 0 ? messageFormat : String.format(messageFormat, messageArgs);
+      message = rval;
+    }
+    return rval;
   }
 
   @Override
   public String getMessage() {
-    return getPointerToViolation() + ": " + super.getMessage();
+    return getPointerToViolation() + ": " + getErrorMessage();
+  }
+
+  JSONPointerPath getPointer() {
+    return pointerToViolation;
   }
 
   /**
@@ -177,10 +270,40 @@ public class ValidationException extends RuntimeException {
     return pointerToViolation.toString();
   }
 
+  /**
+   * Returns the number of schema violations denoted by this exception. It is {@code 1} if there
+   * are no {@link #getCausingExceptions() causing exceptions}, otherwise it is the sum of the
+   * violation counts of the causing exceptions.
+   *
+   * @return the number of violations
+   */
+  public int getViolationCount() {
+    if (causingExceptions.isEmpty()) {
+      return 1;
+    }
+    int rval = 0;
+    for (ValidationException cause : causingExceptions) {
+      rval += cause.getViolationCount();
+    }
+    return rval;
+  }
+
   public Schema getViolatedSchema() {
     return violatedSchema;
   }
 
+  /**
+   * Creates a new {@code ViolationException} instance based on this one, but with
+   * {@code prefix} prepended to its JSON pointer and to the pointers of its causing exceptions.
+   */
+  ValidationException prependPointer(final JSONPointerPath prefix, final Schema newViolatedSchema) {
+    ValidationException rval = new ValidationException(newViolatedSchema,
+        prefix.concat(pointerToViolation), messageFormat, messageArgs, causingExceptions,
+        prefix.concat(causePrefix));
+    rval.message = message;
+    return rval;
+  }
+
   /**
    * Creates a new {@code ViolationException} instance based on this one, but with changed
    * {@link #getPointerToViolation() JSON pointer}.
@@ -205,14 +328,17 @@ public class ValidationException extends RuntimeException {
    * @return the new {@code ViolationException} instance
    */
   public ValidationException prepend(final String fragment, final Schema violatedSchema) {
-    String escapedFragment = escapeFragment(
-        Objects.requireNonNull(fragment, "fragment cannot be null"));
-    StringBuilder newPointer = this.pointerToViolation.insert(1, '/').insert(2, escapedFragment);
-    List<ValidationException> prependedCausingExceptions = causingExceptions.stream()
-        .map(exc -> exc.prepend(escapedFragment))
-        .collect(Collectors.toList());
-    return new ValidationException(newPointer, violatedSchema, super.getMessage(),
-        prependedCausingExceptions);
+    Objects.requireNonNull(fragment, "fragment cannot be null");
+    return prependPointer(JSONPointerPath.ROOT.child(fragment), violatedSchema);
+  }
+
+  ValidationException withViolatedSchema(final Schema newViolatedSchema) {
+    return prependPointer(JSONPointerPath.ROOT, newViolatedSchema);
+  }
+
+  private void writeObject(final ObjectOutputStream out) throws IOException {
+    getErrorMessage();
+    out.defaultWriteObject();
   }
 
 }
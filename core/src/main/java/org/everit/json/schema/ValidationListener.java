@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+/**
+ * Receives the schema violations found during a validation, in the order they are found.
+ *
+ * <p>
+ * Listeners are registered using {@link ValidationContext#withListener(ValidationListener)}. The
+ * built-in implementations are {@link ViolationCounter}, {@link ViolationCollector} and
+ * {@link JSONViolationWriter}.
+ * </p>
+ */
+@FunctionalInterface
+public interface ValidationListener {
+
+  /**
+   * Called when a schema violation is found.
+   *
+   * @param violation
+   *          the found violation
+   */
+  void onViolation(Violation violation);
+
+}
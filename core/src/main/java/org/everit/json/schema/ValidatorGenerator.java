@@ -0,0 +1,237 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.security.CodeSource;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.JavaFileObject.Kind;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import org.json.JSONObject;
+
+/**
+ * Generates a dedicated validator class for a schema at runtime.
+ *
+ * <p>
+ * The Java source produced by {@link ValidatorSourceGenerator} is compiled in memory with the
+ * system Java compiler, and loaded by a new class loader. The generated validator implements the
+ * same contract as {@link Schema#validate(Object)}, but checks the subjects with code specialized
+ * for the schema, which the JIT compiler can inline end-to-end.
+ * </p>
+ *
+ * <p>
+ * Generating a validator takes tens of milliseconds, so it pays off only for schemas which
+ * validate many subjects. If the system Java compiler is not available (the application runs on a
+ * JRE) or the {@value #ENABLED_PROPERTY} system property is set to {@code false}, then
+ * {@link #generate(Schema)} returns a validator interpreting the schema tree.
+ * </p>
+ */
+public final class ValidatorGenerator {
+
+  /**
+   * Name of the system property which can be set to {@code false} to make
+   * {@link #generate(Schema)} fall back to interpreting the schema tree.
+   */
+  public static final String ENABLED_PROPERTY = "org.everit.json.schema.ValidatorGenerator.enabled";
+
+  private static final String PACKAGE_NAME = "org.everit.json.schema.generated";
+
+  private static final AtomicInteger CLASS_COUNTER = new AtomicInteger();
+
+  /**
+   * The compiled class files of a single compilation, keyed by class name.
+   */
+  private static class ClassFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+
+    private final Map<String, ByteArrayOutputStream> classFiles = new HashMap<>();
+
+    ClassFileManager(final JavaFileManager fileManager) {
+      super(fileManager);
+    }
+
+    @Override
+    public JavaFileObject getJavaFileForOutput(final Location location, final String className,
+        final Kind kind, final FileObject sibling) {
+      ByteArrayOutputStream classFile = new ByteArrayOutputStream();
+      classFiles.put(className, classFile);
+      return new SimpleJavaFileObject(URI.create("mem:///" + className.replace('.', '/')
+          + kind.extension), kind) {
+
+        @Override
+        public OutputStream openOutputStream() {
+          return classFile;
+        }
+
+      };
+    }
+
+  }
+
+  /**
+   * Loads the classes of a single compilation.
+   */
+  private static class GeneratedClassLoader extends ClassLoader {
+
+    private final Map<String, ByteArrayOutputStream> classFiles;
+
+    GeneratedClassLoader(final Map<String, ByteArrayOutputStream> classFiles) {
+      super(GeneratedValidator.class.getClassLoader());
+      this.classFiles = classFiles;
+    }
+
+    @Override
+    protected Class<?> findClass(final String name) throws ClassNotFoundException {
+      ByteArrayOutputStream classFile = classFiles.get(name);
+      if (classFile == null) {
+        throw new ClassNotFoundException(name);
+      }
+      byte[] bytes = classFile.toByteArray();
+      return defineClass(name, bytes, 0, bytes.length);
+    }
+
+  }
+
+  private static String classPath() {
+    Set<String> entries = new LinkedHashSet<>();
+    for (Class<?> clazz : Arrays.asList(GeneratedValidator.class, JSONObject.class)) {
+      CodeSource codeSource = clazz.getProtectionDomain().getCodeSource();
+      if (codeSource != null && codeSource.getLocation() != null) {
+        try {
+          entries.add(new File(codeSource.getLocation().toURI()).getPath());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+          // not a file location, rely on the class path of the application
+        }
+      }
+    }
+    entries.addAll(Arrays.asList(System.getProperty("java.class.path", "")
+        .split(File.pathSeparator)));
+    return String.join(File.pathSeparator, entries);
+  }
+
+  /**
+   * Generates a validator for {@code schema}, or returns an interpreting validator if generating
+   * validators is not possible or is disabled.
+   *
+   * @param schema
+   *          the schema to generate the validator for
+   * @return the validator
+   * @throws IllegalStateException
+   *           if {@code schema} contains a {@link ReferenceSchema} without a referred schema, or if
+   *           the generated source cannot be compiled
+   */
+  public static SchemaValidator generate(final Schema schema) {
+    Objects.requireNonNull(schema, "schema cannot be null");
+    if (!isEnabled()) {
+      return SchemaValidator.interpreted(schema);
+    }
+    return generate(schema, ToolProvider.getSystemJavaCompiler());
+  }
+
+  static SchemaValidator generate(final Schema schema, final JavaCompiler compiler) {
+    if (compiler == null) {
+      return SchemaValidator.interpreted(schema);
+    }
+    ValidatorSourceGenerator sourceGenerator = new ValidatorSourceGenerator(schema);
+    String simpleClassName = "Validator" + CLASS_COUNTER.incrementAndGet();
+    String className = PACKAGE_NAME + "." + simpleClassName;
+    String source = sourceGenerator.generate(PACKAGE_NAME, simpleClassName);
+    Class<?> validatorClass = compile(compiler, className, source);
+    try {
+      return (SchemaValidator) validatorClass.getConstructor(Schema.class, Object[].class)
+          .newInstance(schema, sourceGenerator.getExternalConstants().toArray());
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("failed to instantiate " + className, e);
+    }
+  }
+
+  private static Class<?> compile(final JavaCompiler compiler, final String className,
+      final String source) {
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    JavaFileObject sourceFile = new SimpleJavaFileObject(URI.create("string:///"
+        + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE) {
+
+      @Override
+      public CharSequence getCharContent(final boolean ignoreEncodingErrors) {
+        return source;
+      }
+
+    };
+    List<String> options = Arrays.asList("-classpath", classPath(), "-proc:none", "-g:none");
+    Map<String, ByteArrayOutputStream> classFiles;
+    try (ClassFileManager fileManager = new ClassFileManager(compiler.getStandardFileManager(
+        diagnostics, null, StandardCharsets.UTF_8))) {
+      boolean success = compiler.getTask(null, fileManager, diagnostics, options, null,
+          Collections.singletonList(sourceFile)).call();
+      if (!success) {
+        StringBuilder message = new StringBuilder("failed to compile " + className + ":");
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+          message.append('\n').append(diagnostic.getMessage(null));
+        }
+        throw new IllegalStateException(message.toString());
+      }
+      classFiles = fileManager.classFiles;
+    } catch (IOException e) {
+      throw new IllegalStateException("failed to close the file manager of " + className, e);
+    }
+    try {
+      return new GeneratedClassLoader(classFiles).loadClass(className);
+    } catch (ClassNotFoundException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Checks if {@link #generate(Schema)} generates validator classes: the system Java compiler is
+   * available and generation is not disabled by the {@value #ENABLED_PROPERTY} system property.
+   *
+   * @return {@code true} if validators are generated
+   */
+  public static boolean isAvailable() {
+    return isEnabled() && ToolProvider.getSystemJavaCompiler() != null;
+  }
+
+  private static boolean isEnabled() {
+    return Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"));
+  }
+
+  private ValidatorGenerator() {
+  }
+
+}
@@ -0,0 +1,830 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import static org.everit.json.schema.CompiledSchema.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import org.everit.json.schema.CombinedSchema.ValidationCriterion;
+import org.everit.json.schema.CompiledSchema.KeyTable;
+import org.everit.json.schema.loader.BigNumberTokener;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Generates the Java source of a validator class specialized for a single schema.
+ *
+ * <p>
+ * The generator translates the program of the {@link CompiledSchema} into Java code: every block
+ * of the program becomes a private method of the generated class, and the instructions become
+ * plain Java statements, with the property names, bounds, patterns and enum values inlined as
+ * literals and constants. The calls between the blocks are non-virtual, so the JIT compiler can
+ * inline them.
+ * </p>
+ *
+ * <p>
+ * The generated class extends {@link GeneratedValidator}. The classes generated by
+ * {@link #generate(String, String)} have a public constructor taking the schema and an
+ * {@code Object[]} holding the {@link #getExternalConstants() external constants}: the schemas,
+ * {@link ValidationCriterion}s, {@link Regexp}s and {@link FormatValidator}s which cannot be
+ * expressed in Java source (for example custom {@link Schema}, {@link RegexpFactory} and format
+ * implementations). The classes generated
+ * by {@link #generateStandalone(String, String, String)} do not depend on any object at runtime:
+ * they have a public no-arg constructor, and embed the JSON document of the schema, to load it
+ * when the violations of an invalid subject have to be reported, and optionally the remote
+ * documents its {@code $ref}s were resolved from.
+ * </p>
+ */
+public class ValidatorSourceGenerator {
+
+  private static final String INDENT = "  ";
+
+  private static final int STRING_CHUNK_LENGTH = 8192;
+
+  private static final String VALIDATION_CRITERION =
+      "org.everit.json.schema.CombinedSchema.ValidationCriterion";
+
+  private static final String OUTCOME = VALIDATION_CRITERION + ".Outcome";
+
+  private static final String STEP_LIMIT_EXCEEDED =
+      RegexpStepLimitExceededException.class.getName();
+
+  static String literal(final String value) {
+    StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+    for (int i = 0; i < value.length(); ++i) {
+      char ch = value.charAt(i);
+      if (ch == '"' || ch == '\\') {
+        sb.append('\\').append(ch);
+      } else if (ch == '\n') {
+        sb.append("\\n");
+      } else if (ch == '\r') {
+        sb.append("\\r");
+      } else if (ch < 0x20 || ch >= 0x7f) {
+        sb.append(String.format("\\u%04x", (int) ch));
+      } else {
+        sb.append(ch);
+      }
+    }
+    return sb.append('"').toString();
+  }
+
+  private final CompiledSchema program;
+
+  private final int[] code;
+
+  private final Object[] constants;
+
+  private final StringBuilder out = new StringBuilder();
+
+  /**
+   * The names of the static constant fields of the generated class, keyed by the constants.
+   */
+  private final Map<Object, String> constantFieldNames = new IdentityHashMap<>();
+
+  private final List<String> constantFields = new ArrayList<>();
+
+  private final List<Object> externalConstants = new ArrayList<>();
+
+  private final Map<Object, Integer> externalIndexes = new IdentityHashMap<>();
+
+  /**
+   * Constructor.
+   *
+   * @param schema
+   *          the schema to generate the validator for
+   * @throws IllegalStateException
+   *           if {@code schema} contains a {@link ReferenceSchema} without a referred schema
+   */
+  public ValidatorSourceGenerator(final Schema schema) {
+    this(CompiledSchema.compile(Objects.requireNonNull(schema, "schema cannot be null")));
+  }
+
+  ValidatorSourceGenerator(final CompiledSchema program) {
+    this.program = program;
+    this.code = program.getCode();
+    this.constants = program.getConstants();
+  }
+
+  private List<Integer> blockOperands(final int pc) {
+    List<Integer> rval = new ArrayList<>();
+    switch (code[pc]) {
+      case NOT:
+        rval.add(code[pc + 1]);
+        break;
+      case ALL_OF:
+      case ANY_OF:
+      case ONE_OF:
+      case ITEMS:
+        addAll(rval, pc + 2, code[pc + 1]);
+        break;
+      case COMBINED:
+        addAll(rval, pc + 3, code[pc + 2]);
+        break;
+      case ITEMS_FROM:
+      case SCHEMA_DEPENDENCY:
+        rval.add(code[pc + 2]);
+        break;
+      case KEYS:
+        if (code[pc + 2] == ADDITIONAL_SCHEMA) {
+          rval.add(code[pc + 3]);
+        }
+        addAll(rval, pc + 6, code[pc + 4] + code[pc + 5]);
+        break;
+      default:
+        break;
+    }
+    return rval;
+  }
+
+  private void addAll(final List<Integer> blocks, final int from, final int count) {
+    for (int i = from; i < from + count; ++i) {
+      blocks.add(code[i]);
+    }
+  }
+
+  private String blockCall(final int block, final String subject) {
+    return "b" + block + "(" + subject + ")";
+  }
+
+  private String constantField(final Object constant, final String type,
+      final String initializer) {
+    String name = constantFieldNames.get(constant);
+    if (name == null) {
+      name = "C" + constantFields.size();
+      constantFieldNames.put(constant, name);
+      constantFields.add("private static final " + type + " " + name + " = " + initializer + ";");
+    }
+    return name;
+  }
+
+  private String external(final Object value, final String type) {
+    Integer index = externalIndexes.get(value);
+    if (index == null) {
+      index = externalConstants.size();
+      externalIndexes.put(value, index);
+      externalConstants.add(value);
+    }
+    return "((" + type + ") externals[" + index + "])";
+  }
+
+  /**
+   * Generates the source of the validator class.
+   *
+   * @param packageName
+   *          the package of the generated class, or {@code null} for the default package
+   * @param simpleClassName
+   *          the simple name of the generated class
+   * @return the Java source of a compilation unit
+   */
+  public String generate(final String packageName, final String simpleClassName) {
+    return generate(packageName, simpleClassName, null, Collections.emptyMap());
+  }
+
+  private String generate(final String packageName, final String simpleClassName,
+      final String schemaJson, final Map<String, String> remoteDocuments) {
+    out.setLength(0);
+    constantFieldNames.clear();
+    constantFields.clear();
+    externalConstants.clear();
+    externalIndexes.clear();
+    for (int block : reachableBlocks()) {
+      generateBlock(block);
+    }
+    if (schemaJson != null && !externalConstants.isEmpty()) {
+      throw new IllegalStateException("standalone validators cannot refer to custom schema,"
+          + " criterion, regexp factory or format implementations, found: " + externalConstants);
+    }
+    String methods = out.toString();
+    out.setLength(0);
+    if (packageName != null && !packageName.isEmpty()) {
+      line(0, "package " + packageName + ";");
+      line(0, "");
+    }
+    line(0, "import org.everit.json.schema.GeneratedValidator;");
+    line(0, "import org.everit.json.schema.Schema;");
+    line(0, "import org.json.JSONArray;");
+    line(0, "import org.json.JSONObject;");
+    line(0, "");
+    line(0, "/**");
+    line(0, " * Generated validator, do not edit.");
+    line(0, " */");
+    line(0, "public final class " + simpleClassName + " extends GeneratedValidator {");
+    line(0, "");
+    for (String field : constantFields) {
+      line(1, field);
+      line(0, "");
+    }
+    if (schemaJson == null) {
+      line(1, "private final Object[] externals;");
+      line(0, "");
+      line(1, "public " + simpleClassName + "(final Schema schema, final Object[] externals) {");
+      line(2, "super(schema);");
+      line(2, "this.externals = externals.clone();");
+      line(1, "}");
+    } else {
+      generateSchemaJson(schemaJson);
+      line(0, "");
+      if (!remoteDocuments.isEmpty()) {
+        generateRemoteDocuments(remoteDocuments);
+        line(0, "");
+      }
+      line(1, "public " + simpleClassName + "() {");
+      line(2, remoteDocuments.isEmpty()
+          ? "super(String.join(\"\", SCHEMA_JSON));"
+          : "super(String.join(\"\", SCHEMA_JSON), documents(REMOTE_DOCUMENTS));");
+      line(1, "}");
+    }
+    line(0, "");
+    line(1, "@Override");
+    line(1, "public boolean isValid(final Object subject) {");
+    line(2, "return " + blockCall(program.getEntryPoint(), "subject") + ";");
+    line(1, "}");
+    out.append(methods);
+    line(0, "");
+    line(0, "}");
+    return out.toString();
+  }
+
+  /**
+   * Generates the source of a validator class which can be used without the schema instance it
+   * was generated from. If the generated validator needs to report violations, it loads the
+   * schema from {@code schemaJson} using {@link org.everit.json.schema.loader.SchemaLoader}.
+   *
+   * @param packageName
+   *          the package of the generated class, or {@code null} for the default package
+   * @param simpleClassName
+   *          the simple name of the generated class
+   * @param schemaJson
+   *          the JSON document the schema of this generator was loaded from
+   * @return the Java source of a compilation unit
+   * @throws IllegalStateException
+   *           if the schema contains custom schema, criterion or regexp factory implementations,
+   *           which cannot be expressed in Java source
+   */
+  public String generateStandalone(final String packageName, final String simpleClassName,
+      final String schemaJson) {
+    return generateStandalone(packageName, simpleClassName, schemaJson, Collections.emptyMap());
+  }
+
+  /**
+   * Generates the source of a validator class like
+   * {@link #generateStandalone(String, String, String)}, which also embeds the remote documents
+   * the schema refers to. When the generated validator loads the schema, it reads these documents
+   * instead of fetching them again.
+   *
+   * @param packageName
+   *          the package of the generated class, or {@code null} for the default package
+   * @param simpleClassName
+   *          the simple name of the generated class
+   * @param schemaJson
+   *          the JSON document the schema of this generator was loaded from
+   * @param remoteDocuments
+   *          the contents of the remote documents fetched when the schema was loaded, keyed by
+   *          their URLs
+   * @return the Java source of a compilation unit
+   * @throws IllegalStateException
+   *           if the schema contains custom schema, criterion or regexp factory implementations,
+   *           which cannot be expressed in Java source
+   */
+  public String generateStandalone(final String packageName, final String simpleClassName,
+      final String schemaJson, final Map<String, String> remoteDocuments) {
+    return generate(packageName, simpleClassName,
+        Objects.requireNonNull(schemaJson, "schemaJson cannot be null"),
+        Objects.requireNonNull(remoteDocuments, "remoteDocuments cannot be null"));
+  }
+
+  private void generateBlock(final int blockStart) {
+    line(0, "");
+    line(1, "private boolean b" + blockStart + "(final Object subject) {");
+    int pc = blockStart;
+    while (code[pc] != ACCEPT) {
+      pc = generateInstruction(pc);
+    }
+    line(2, "return true;");
+    line(1, "}");
+  }
+
+  private int generateInstruction(final int pc) {
+    switch (code[pc]) {
+      case EXTERNAL:
+        returnFalseIf("!" + external(constants[code[pc + 1]], "Schema") + ".isValid(subject)");
+        return pc + 2;
+      case IS_BOOLEAN:
+        returnFalseIf("!(subject instanceof Boolean)");
+        return pc + 1;
+      case IS_NULL:
+        returnFalseIf("!isNull(subject)");
+        return pc + 1;
+      case NUMBER:
+        generateNumber(pc);
+        return pc + 4;
+      case STRING:
+        generateString(pc);
+        return pc + 5;
+      case IF_NOT_ARRAY:
+        generateTypeTest(pc, "JSONArray", "array");
+        return pc + 2;
+      case IF_NOT_OBJECT:
+        generateTypeTest(pc, "JSONObject", "object");
+        return pc + 2;
+      case ENUM:
+        returnFalseIf("!" + enumValues(code[pc + 1]) + ".contains(subject)");
+        return pc + 2;
+      case NOT:
+        returnFalseIf(blockCall(code[pc + 1], "subject"));
+        return pc + 2;
+      case ALL_OF:
+        for (int i = pc + 2; i < pc + 2 + code[pc + 1]; ++i) {
+          returnFalseIf("!" + blockCall(code[i], "subject"));
+        }
+        return pc + 2 + code[pc + 1];
+      case ANY_OF:
+        generateAnyOf(pc);
+        return pc + 2 + code[pc + 1];
+      case ONE_OF:
+        generateOneOf(pc);
+        return pc + 2 + code[pc + 1];
+      case COMBINED:
+        generateCombined(pc);
+        return pc + 3 + code[pc + 2];
+      case MIN_ITEMS:
+        returnFalseIf("array.length() < " + code[pc + 1]);
+        return pc + 2;
+      case MAX_ITEMS:
+        returnFalseIf("array.length() > " + code[pc + 1]);
+        return pc + 2;
+      case UNIQUE_ITEMS:
+        returnFalseIf("!itemsAreUnique(array)");
+        return pc + 1;
+      case ITEMS:
+        for (int i = 0; i < code[pc + 1]; ++i) {
+          returnFalseIf("array.length() > " + i + " && !"
+              + blockCall(code[pc + 2 + i], "array.get(" + i + ")"));
+        }
+        return pc + 2 + code[pc + 1];
+      case ITEMS_FROM:
+        line(2, "for (int i = " + code[pc + 1] + ", length = array.length(); i < length; ++i) {");
+        line(3, "if (!" + blockCall(code[pc + 2], "array.get(i)") + ") {");
+        line(4, "return false;");
+        line(3, "}");
+        line(2, "}");
+        return pc + 3;
+      case MIN_PROPERTIES:
+        returnFalseIf("object.length() < " + code[pc + 1]);
+        return pc + 2;
+      case MAX_PROPERTIES:
+        returnFalseIf("object.length() > " + code[pc + 1]);
+        return pc + 2;
+      case REQUIRED:
+        for (String propName : (String[]) constants[code[pc + 1]]) {
+          returnFalseIf("!object.has(" + literal(propName) + ")");
+        }
+        return pc + 2;
+      case PROPERTY_DEPENDENCIES:
+        for (String[] dependency : (String[][]) constants[code[pc + 1]]) {
+          StringBuilder condition = new StringBuilder("object.has(" + literal(dependency[0])
+              + ") && !(true");
+          for (int i = 1; i < dependency.length; ++i) {
+            condition.append(" && object.has(").append(literal(dependency[i])).append(")");
+          }
+          returnFalseIf(condition.append(")").toString());
+        }
+        return pc + 2;
+      case SCHEMA_DEPENDENCY:
+        returnFalseIf("object.has(" + literal((String) constants[code[pc + 1]]) + ") && !"
+            + blockCall(code[pc + 2], "subject"));
+        return pc + 3;
+      case KEYS:
+        generateKeys(pc);
+        return pc + 6 + code[pc + 4] + code[pc + 5];
+      default:
+        throw new IllegalStateException("invalid opcode " + code[pc] + " at " + pc);
+    }
+  }
+
+  private void generateAnyOf(final int pc) {
+    StringBuilder condition = new StringBuilder();
+    for (int i = pc + 2; i < pc + 2 + code[pc + 1]; ++i) {
+      condition.append(condition.length() == 0 ? "!(" : " || ")
+          .append(blockCall(code[i], "subject"));
+    }
+    returnFalseIf(condition.length() == 0 ? "true" : condition.append(")").toString());
+  }
+
+  /**
+   * Generates {@code value} as string literals, since a single string constant of a class file
+   * cannot be longer than 65535 bytes.
+   */
+  private void generateChunks(final int indent, final String value) {
+    for (int i = 0; i < value.length(); i += STRING_CHUNK_LENGTH) {
+      String chunk = value.substring(i, Math.min(value.length(), i + STRING_CHUNK_LENGTH));
+      line(indent, literal(chunk) + ",");
+    }
+  }
+
+  private void generateCombined(final int pc) {
+    int blockCount = code[pc + 2];
+    String criterion = external(constants[code[pc + 1]], VALIDATION_CRITERION);
+    line(2, "{");
+    line(3, "int matchingCount = 0;");
+    line(3, OUTCOME + " outcome = " + criterion + ".decide(" + blockCount + ", 0, 0);");
+    for (int i = 0; i < blockCount; ++i) {
+      line(3, "if (outcome == " + OUTCOME + ".UNDECIDED) {");
+      line(4, "if (" + blockCall(code[pc + 3 + i], "subject") + ") {");
+      line(5, "++matchingCount;");
+      line(4, "}");
+      line(4, "outcome = " + criterion + ".decide(" + blockCount + ", " + (i + 1)
+          + ", matchingCount);");
+      line(3, "}");
+    }
+    returnFalseIf(3, "outcome == " + OUTCOME + ".UNDECIDED ? !" + criterion + ".isFulfilled("
+        + blockCount + ", matchingCount) : outcome != " + OUTCOME + ".FULFILLED");
+    line(2, "}");
+  }
+
+  private void generateKeys(final int pc) {
+    KeyTable keyTable = (KeyTable) constants[code[pc + 1]];
+    int additional = code[pc + 2];
+    int patternBlocksStart = pc + 6;
+    int propertyBlocksStart = patternBlocksStart + code[pc + 4];
+    boolean trackKnown = additional != ADDITIONAL_ALLOWED;
+    Pattern[] patterns = keyTable.patterns;
+    int indentation = 2;
+    if (patterns.length > 0) {
+      line(2, "try {");
+      ++indentation;
+    }
+    line(indentation, "for (String key : object.keySet()) {");
+    if (trackKnown) {
+      line(indentation + 1, "boolean known = false;");
+    }
+    if (!keyTable.propertyIndexes.isEmpty()) {
+      line(indentation + 1, "switch (key) {");
+      for (String propName : new TreeSet<>(keyTable.propertyIndexes.keySet())) {
+        int block = code[propertyBlocksStart + keyTable.propertyIndexes.get(propName)];
+        line(indentation + 2, "case " + literal(propName) + ":");
+        line(indentation + 3, "if (!" + blockCall(block, "object.get(key)") + ") {");
+        line(indentation + 4, "return false;");
+        line(indentation + 3, "}");
+        if (trackKnown) {
+          line(indentation + 3, "known = true;");
+        }
+        line(indentation + 3, "break;");
+      }
+      line(indentation + 2, "default:");
+      line(indentation + 3, "break;");
+      line(indentation + 1, "}");
+    }
+    for (int i = 0; i < patterns.length; ++i) {
+      String regexp = regexpField(patterns[i], keyTable.regexpFactory);
+      line(indentation + 1, "if (" + regexp + ".find(key)) {");
+      line(indentation + 2, "if (!" + blockCall(code[patternBlocksStart + i], "object.get(key)")
+          + ") {");
+      line(indentation + 3, "return false;");
+      line(indentation + 2, "}");
+      if (trackKnown) {
+        line(indentation + 2, "known = true;");
+      }
+      line(indentation + 1, "}");
+    }
+    if (additional == ADDITIONAL_FORBIDDEN) {
+      line(indentation + 1, "if (!known) {");
+      line(indentation + 2, "return false;");
+      line(indentation + 1, "}");
+    } else if (additional == ADDITIONAL_SCHEMA) {
+      line(indentation + 1, "if (!known && !" + blockCall(code[pc + 3], "object.get(key)")
+          + ") {");
+      line(indentation + 2, "return false;");
+      line(indentation + 1, "}");
+    }
+    line(indentation, "}");
+    if (patterns.length > 0) {
+      line(2, "} catch (" + STEP_LIMIT_EXCEEDED + " e) {");
+      line(3, "return false;");
+      line(2, "}");
+    }
+  }
+
+  private void generateNumber(final int pc) {
+    int flags = code[pc + 1];
+    line(2, "if (subject instanceof Number) {");
+    if ((flags & NUMBER_INTEGER) != 0) {
+      returnFalseIf(3, "!isInteger((Number) subject)");
+    }
+    if (code[pc + 2] != -1) {
+      generateNumberRange((NumberRange) constants[code[pc + 2]]);
+    }
+    if (code[pc + 3] != -1) {
+      MultipleOf multipleOf = (MultipleOf) constants[code[pc + 3]];
+      String check = constantField(multipleOf, MultipleOf.class.getName(),
+          MultipleOf.class.getName() + ".of(" + bigDecimalLiteral(multipleOf.getDivisor()) + ")");
+      returnFalseIf(3, "!" + check + ".isMultiple((Number) subject)");
+    }
+    generateTypeMismatch(flags);
+  }
+
+  /**
+   * Generates the range check of a number, which compares the {@code int}, {@code long} and
+   * {@code double} subjects to primitive literals, and the other numbers to a {@link NumberRange}
+   * constant.
+   */
+  private void generateNumberRange(final NumberRange range) {
+    line(3, "if (subject instanceof Integer || subject instanceof Long) {");
+    line(4, "long value = ((Number) subject).longValue();");
+    if (range.getLongMinimum() != Long.MIN_VALUE) {
+      returnFalseIf(4, "value < " + range.getLongMinimum() + "L");
+    }
+    if (range.getLongMaximum() != Long.MAX_VALUE) {
+      returnFalseIf(4, "value > " + range.getLongMaximum() + "L");
+    }
+    line(3, "} else if (subject instanceof Double) {");
+    line(4, "double value = (Double) subject;");
+    if (range.getDoubleMinimum() != Double.NEGATIVE_INFINITY || range.isDoubleMinimumExclusive()) {
+      String operator = range.isDoubleMinimumExclusive() ? " <= " : " < ";
+      returnFalseIf(4, "value" + operator + doubleLiteral(range.getDoubleMinimum()));
+    }
+    if (range.getDoubleMaximum() != Double.POSITIVE_INFINITY || range.isDoubleMaximumExclusive()) {
+      String operator = range.isDoubleMaximumExclusive() ? " >= " : " > ";
+      returnFalseIf(4, "value" + operator + doubleLiteral(range.getDoubleMaximum()));
+    }
+    String type = NumberRange.class.getName();
+    String field = constantField(range, type, type + ".of("
+        + bigDecimalLiteral(range.getMinimum()) + ", " + range.isExclusiveMinimum() + ", "
+        + bigDecimalLiteral(range.getMaximum()) + ", " + range.isExclusiveMaximum() + ")");
+    line(3, "} else if (!" + field + ".contains((Number) subject)) {");
+    line(4, "return false;");
+    line(3, "}");
+  }
+
+  private void generateOneOf(final int pc) {
+    line(2, "{");
+    line(3, "int matchingCount = 0;");
+    for (int i = pc + 2; i < pc + 2 + code[pc + 1]; ++i) {
+      line(3, "if (" + blockCall(code[i], "subject") + " && ++matchingCount > 1) {");
+      line(4, "return false;");
+      line(3, "}");
+    }
+    line(3, "if (matchingCount == 0) {");
+    line(4, "return false;");
+    line(3, "}");
+    line(2, "}");
+  }
+
+  /**
+   * Generates the remote documents as rows of string literals: the URL of the document followed
+   * by the chunks of its content.
+   */
+  private void generateRemoteDocuments(final Map<String, String> remoteDocuments) {
+    line(1, "private static final String[][] REMOTE_DOCUMENTS = {");
+    for (Map.Entry<String, String> document : new TreeMap<>(remoteDocuments).entrySet()) {
+      line(2, "{");
+      line(3, literal(document.getKey()) + ",");
+      generateChunks(3, document.getValue());
+      line(2, "},");
+    }
+    line(1, "};");
+  }
+
+  /**
+   * Generates the JSON document of the schema as an array of string literals.
+   */
+  private void generateSchemaJson(final String schemaJson) {
+    line(1, "private static final String[] SCHEMA_JSON = {");
+    generateChunks(2, schemaJson);
+    line(1, "};");
+  }
+
+  private void generateString(final int pc) {
+    line(2, "if (subject instanceof String) {");
+    boolean checksLength = code[pc + 2] > 0 || code[pc + 3] < Integer.MAX_VALUE;
+    if (checksLength) {
+      line(3, "int length = ((String) subject).length();");
+    }
+    if (code[pc + 2] > 0) {
+      returnFalseIf(3, "length < " + code[pc + 2]);
+    }
+    if (code[pc + 3] < Integer.MAX_VALUE) {
+      returnFalseIf(3, "length > " + code[pc + 3]);
+    }
+    if (code[pc + 4] != -1) {
+      StringSchema schema = (StringSchema) constants[code[pc + 4]];
+      if (schema.getPattern() != null) {
+        String regexp = regexpField(schema.getPattern(), schema.getRegexpFactory());
+        returnFalseIf(3, "!find(" + regexp + ", (String) subject)");
+      }
+      if (schema.getFormatValidator() != null) {
+        String validator = formatField(schema.getFormat(), schema.getFormatValidator());
+        returnFalseIf(3, "!" + validator + ".isValid((String) subject)");
+      }
+    }
+    generateTypeMismatch(code[pc + 1]);
+  }
+
+  private void generateTypeMismatch(final int flags) {
+    if ((flags & REQUIRED_TYPE) != 0) {
+      line(2, "} else {");
+      line(3, "return false;");
+    }
+    line(2, "}");
+  }
+
+  private void generateTypeTest(final int pc, final String type, final String variable) {
+    line(2, "if (!(subject instanceof " + type + ")) {");
+    line(3, "return " + ((code[pc + 1] & REQUIRED_TYPE) == 0) + ";");
+    line(2, "}");
+    line(2, "final " + type + " " + variable + " = (" + type + ") subject;");
+  }
+
+  private String bigDecimalLiteral(final BigDecimal value) {
+    return value == null ? "null" : "new java.math.BigDecimal(" + literal(value.toString()) + ")";
+  }
+
+  private String doubleLiteral(final double value) {
+    if (Double.isNaN(value)) {
+      return "Double.NaN";
+    } else if (Double.isInfinite(value)) {
+      return value > 0 ? "Double.POSITIVE_INFINITY" : "Double.NEGATIVE_INFINITY";
+    }
+    return Double.toString(value);
+  }
+
+  private String enumValues(final int index) {
+    EnumValueSet valueSet = (EnumValueSet) constants[index];
+    String type = EnumValueSet.class.getName();
+    StringBuilder initializer = new StringBuilder(type).append(".of(java.util.Arrays.asList(");
+    int valuesStart = initializer.length();
+    for (Object value : valueSet.getPossibleValues()) {
+      initializer.append(initializer.length() == valuesStart ? "" : ", ")
+          .append(valueLiteral(value));
+    }
+    return constantField(valueSet, type, initializer.append("))").toString());
+  }
+
+  private String formatField(final String format, final FormatValidator validator) {
+    if (FormatRegistry.DEFAULT.getValidator(format) != validator) {
+      return external(validator, FormatValidator.class.getName());
+    }
+    return constantField(validator, FormatValidator.class.getName(),
+        FormatRegistry.class.getName() + ".DEFAULT.getValidator(" + literal(format) + ")");
+  }
+
+  /**
+   * Returns the schemas and criteria referenced by the generated source which cannot be
+   * expressed in Java source, in the order the generated constructor expects them. Valid after
+   * {@link #generate(String, String)} has been called.
+   *
+   * @return the external constants
+   */
+  public List<Object> getExternalConstants() {
+    return new ArrayList<>(externalConstants);
+  }
+
+  private void line(final int indentation, final String line) {
+    for (int i = 0; i < indentation; ++i) {
+      out.append(INDENT);
+    }
+    out.append(line).append('\n');
+  }
+
+  private List<Integer> reachableBlocks() {
+    List<Integer> rval = new ArrayList<>();
+    Deque<Integer> pending = new ArrayDeque<>();
+    Set<Integer> seen = new HashSet<>();
+    pending.add(program.getEntryPoint());
+    seen.add(program.getEntryPoint());
+    while (!pending.isEmpty()) {
+      int block = pending.poll();
+      rval.add(block);
+      for (int pc = block; code[pc] != ACCEPT; pc = nextInstruction(pc)) {
+        for (int referred : blockOperands(pc)) {
+          if (seen.add(referred)) {
+            pending.add(referred);
+          }
+        }
+      }
+    }
+    return rval;
+  }
+
+  /**
+   * Returns the expression of the compiled {@code pattern}. The regular expressions of the
+   * built-in factories are static constants of the generated class, the others are external
+   * constants.
+   */
+  private String regexpField(final Pattern pattern, final RegexpFactory factory) {
+    String factoryExpression;
+    if (factory instanceof LinearTimeRegexpFactory) {
+      factoryExpression = "new " + LinearTimeRegexpFactory.class.getName() + "("
+          + ((LinearTimeRegexpFactory) factory).getStepLimit() + "L)";
+    } else if (factory instanceof JavaUtilRegexpFactory) {
+      factoryExpression = "new " + JavaUtilRegexpFactory.class.getName() + "("
+          + ((JavaUtilRegexpFactory) factory).getStepLimit() + "L)";
+    } else {
+      return external(factory.createHandler(pattern), Regexp.class.getName());
+    }
+    return constantField(pattern, Regexp.class.getName(), factoryExpression
+        + ".createHandler(java.util.regex.Pattern.compile(" + literal(pattern.pattern())
+        + (pattern.flags() == 0 ? "" : ", " + pattern.flags()) + "))");
+  }
+
+  private int nextInstruction(final int pc) {
+    switch (code[pc]) {
+      case IS_BOOLEAN:
+      case IS_NULL:
+      case UNIQUE_ITEMS:
+        return pc + 1;
+      case NUMBER:
+        return pc + 4;
+      case STRING:
+        return pc + 5;
+      case ALL_OF:
+      case ANY_OF:
+      case ONE_OF:
+      case ITEMS:
+        return pc + 2 + code[pc + 1];
+      case COMBINED:
+        return pc + 3 + code[pc + 2];
+      case ITEMS_FROM:
+      case SCHEMA_DEPENDENCY:
+        return pc + 3;
+      case KEYS:
+        return pc + 6 + code[pc + 4] + code[pc + 5];
+      default:
+        return pc + 2;
+    }
+  }
+
+  private void returnFalseIf(final int indentation, final String condition) {
+    line(indentation, "if (" + condition + ") {");
+    line(indentation + 1, "return false;");
+    line(indentation, "}");
+  }
+
+  private void returnFalseIf(final String condition) {
+    returnFalseIf(2, condition);
+  }
+
+  /**
+   * Returns the expression of a tokener reading the JSON document of {@code value}, which keeps
+   * the exact values of its numbers.
+   */
+  private String tokener(final Object value) {
+    return "new " + BigNumberTokener.class.getName() + "(" + literal(value.toString()) + ")";
+  }
+
+  private String valueLiteral(final Object value) {
+    if (value instanceof String) {
+      return literal((String) value);
+    } else if (value instanceof Boolean) {
+      return "Boolean." + (((Boolean) value) ? "TRUE" : "FALSE");
+    } else if (value instanceof Integer) {
+      return "Integer.valueOf(" + value + ")";
+    } else if (value instanceof Long) {
+      return "Long.valueOf(" + value + "L)";
+    } else if (value instanceof Double && !((Double) value).isNaN()
+        && !((Double) value).isInfinite()) {
+      return "Double.valueOf(" + value + ")";
+    } else if (value instanceof BigInteger) {
+      return "new java.math.BigInteger(" + literal(value.toString()) + ")";
+    } else if (value instanceof BigDecimal) {
+      return "new java.math.BigDecimal(" + literal(value.toString()) + ")";
+    } else if (value == null || value == JSONObject.NULL) {
+      return "JSONObject.NULL";
+    } else if (value instanceof JSONObject) {
+      return "new JSONObject(" + tokener(value) + ")";
+    } else if (value instanceof JSONArray) {
+      return "new JSONArray(" + tokener(value) + ")";
+    } else {
+      return external(value, "Object");
+    }
+  }
+
+}
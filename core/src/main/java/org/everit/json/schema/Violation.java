@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.util.Objects;
+
+/**
+ * A single schema violation reported to a {@link ValidationListener}.
+ *
+ * <p>
+ * Both the JSON pointer and the message of the violation are rendered to strings only when they
+ * are requested, so listeners which do not need them (like {@link ViolationCounter}) do not pay
+ * for their formatting.
+ * </p>
+ */
+public final class Violation {
+
+  private static final Object[] NO_ARGS = new Object[0];
+
+  private final JSONPointerPath pointer;
+
+  private final Schema violatedSchema;
+
+  private final String messageFormat;
+
+  private final Object[] messageArgs;
+
+  Violation(final JSONPointerPath pointer, final Schema violatedSchema, final String message) {
+    this(pointer, violatedSchema, message, NO_ARGS);
+  }
+
+  Violation(final JSONPointerPath pointer, final Schema violatedSchema,
+      final String messageFormat, final Object[] messageArgs) {
+    this.pointer = Objects.requireNonNull(pointer, "pointer cannot be null");
+    this.violatedSchema = violatedSchema;
+    this.messageFormat = Objects.requireNonNull(messageFormat, "messageFormat cannot be null");
+    this.messageArgs = messageArgs;
+  }
+
+  /**
+   * Returns the readable description of the violation, without the JSON pointer prefix.
+   *
+   * @return the message
+   */
+  public String getMessage() {
+    if (messageArgs.length == 0) {
+      return messageFormat;
+    }
+    return String.format(messageFormat, messageArgs);
+  }
+
+  Object[] getMessageArgs() {
+    return messageArgs;
+  }
+
+  String getMessageFormat() {
+    return messageFormat;
+  }
+
+  JSONPointerPath getPointer() {
+    return pointer;
+  }
+
+  /**
+   * A JSON pointer denoting the part of the document which violates the schema. It always starts
+   * with {@code #}.
+   *
+   * @return the JSON pointer
+   */
+  public String getPointerToViolation() {
+    return pointer.toString();
+  }
+
+  public Schema getViolatedSchema() {
+    return violatedSchema;
+  }
+
+  @Override
+  public String toString() {
+    return getPointerToViolation() + ": " + getMessage();
+  }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link ValidationListener} implementation which keeps the first {@code n} schema violations and
+ * counts the rest.
+ */
+public class ViolationCollector implements ValidationListener {
+
+  private final int maxViolations;
+
+  private final List<Violation> violations = new ArrayList<>();
+
+  private int totalCount = 0;
+
+  /**
+   * Creates a collector which keeps every violation.
+   */
+  public ViolationCollector() {
+    this(Integer.MAX_VALUE);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param maxViolations
+   *          the maximum number of violations to be kept
+   */
+  public ViolationCollector(final int maxViolations) {
+    if (maxViolations < 0) {
+      throw new IllegalArgumentException("maxViolations cannot be negative, " + maxViolations
+          + " given");
+    }
+    this.maxViolations = maxViolations;
+  }
+
+  /**
+   * Returns the number of violations reported to this collector, including the ones which were not
+   * kept.
+   *
+   * @return the number of violations
+   */
+  public int getTotalCount() {
+    return totalCount;
+  }
+
+  /**
+   * Returns the kept violations, in the order they were found.
+   *
+   * @return the unmodifiable list of violations
+   */
+  public List<Violation> getViolations() {
+    return Collections.unmodifiableList(violations);
+  }
+
+  @Override
+  public void onViolation(final Violation violation) {
+    ++totalCount;
+    if (violations.size() < maxViolations) {
+      violations.add(violation);
+    }
+  }
+
+}
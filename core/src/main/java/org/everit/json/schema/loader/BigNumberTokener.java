@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema.loader;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+/**
+ * A {@link JSONTokener} which keeps the exact values of the numbers.
+ *
+ * <p>
+ * {@link JSONTokener} reads the integers which do not fit in a {@code long}, and the numbers
+ * which overflow a {@code double} as strings, and rounds the other decimals to {@code double}s.
+ * This tokener reads these numbers as {@link BigInteger}s and {@link BigDecimal}s instead, so they
+ * are validated by their exact values. The other numbers are read as {@link JSONTokener} reads
+ * them. Pass it to {@link JSONObject#JSONObject(JSONTokener)} or
+ * {@link org.json.JSONArray#JSONArray(JSONTokener)}.
+ * </p>
+ */
+public class BigNumberTokener extends JSONTokener {
+
+  private static final String DELIMITERS = ",:]}/\\\"[{;=#";
+
+  private static boolean isDigit(final char ch) {
+    return ch >= '0' && ch <= '9';
+  }
+
+  /**
+   * Tells if {@code token} is a number in JSON syntax.
+   */
+  private static boolean isNumber(final String token) {
+    int length = token.length();
+    int pos = token.startsWith("-") ? 1 : 0;
+    int integerStart = pos;
+    while (pos < length && isDigit(token.charAt(pos))) {
+      ++pos;
+    }
+    if (pos == integerStart || (token.charAt(integerStart) == '0' && pos > integerStart + 1)) {
+      return false;
+    }
+    if (pos < length && token.charAt(pos) == '.') {
+      int fractionStart = ++pos;
+      while (pos < length && isDigit(token.charAt(pos))) {
+        ++pos;
+      }
+      if (pos == fractionStart) {
+        return false;
+      }
+    }
+    if (pos < length && (token.charAt(pos) == 'e' || token.charAt(pos) == 'E')) {
+      ++pos;
+      if (pos < length && (token.charAt(pos) == '+' || token.charAt(pos) == '-')) {
+        ++pos;
+      }
+      int exponentStart = pos;
+      while (pos < length && isDigit(token.charAt(pos))) {
+        ++pos;
+      }
+      if (pos == exponentStart) {
+        return false;
+      }
+    }
+    return pos == length;
+  }
+
+  private static Number toBigNumber(final String token) {
+    BigDecimal value = new BigDecimal(token);
+    if (token.indexOf('.') < 0 && token.indexOf('e') < 0 && token.indexOf('E') < 0) {
+      return value.toBigIntegerExact();
+    }
+    return value;
+  }
+
+  /**
+   * Converts a value read by {@link JSONObject#stringToValue(String)} from {@code token} to a
+   * number keeping the exact value of the token. Numbers whose exponent does not fit in an
+   * {@code int} are left as they are.
+   */
+  private static Object toExactValue(final String token, final Object value) {
+    try {
+      if (value instanceof String) {
+        return isNumber(token) ? toBigNumber(token) : value;
+      } else if (value instanceof Double && isNumber(token)) {
+        BigDecimal exactValue = new BigDecimal(token);
+        if (exactValue.compareTo(BigDecimal.valueOf((Double) value)) != 0) {
+          return exactValue;
+        }
+      }
+    } catch (NumberFormatException e) {
+      return value;
+    }
+    return value;
+  }
+
+  public BigNumberTokener(final InputStream inputStream) {
+    super(inputStream);
+  }
+
+  public BigNumberTokener(final Reader reader) {
+    super(reader);
+  }
+
+  public BigNumberTokener(final String source) {
+    super(source);
+  }
+
+  @Override
+  public Object nextValue() throws JSONException {
+    char ch = nextClean();
+    if (ch == '"' || ch == '\'' || ch == '{' || ch == '[') {
+      back();
+      return super.nextValue();
+    }
+    StringBuilder token = new StringBuilder();
+    while (ch >= ' ' && DELIMITERS.indexOf(ch) < 0) {
+      token.append(ch);
+      ch = next();
+    }
+    back();
+    String trimmed = token.toString().trim();
+    if (trimmed.isEmpty()) {
+      throw syntaxError("Missing value");
+    }
+    return toExactValue(trimmed, JSONObject.stringToValue(trimmed));
+  }
+
+}
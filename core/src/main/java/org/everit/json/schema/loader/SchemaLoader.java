@@ -34,12 +34,15 @@ import org.everit.json.schema.BooleanSchema;
 import org.everit.json.schema.CombinedSchema;
 import org.everit.json.schema.EmptySchema;
 import org.everit.json.schema.EnumSchema;
+import org.everit.json.schema.FormatRegistry;
+import org.everit.json.schema.LinearTimeRegexpFactory;
 import org.everit.json.schema.NotSchema;
 import org.everit.json.schema.NullSchema;
 import org.everit.json.schema.NumberSchema;
 import org.everit.json.schema.ObjectSchema;
 import org.everit.json.schema.ObjectSchema.Builder;
 import org.everit.json.schema.ReferenceSchema;
+import org.everit.json.schema.RegexpFactory;
 import org.everit.json.schema.Schema;
 import org.everit.json.schema.SchemaException;
 import org.everit.json.schema.StringSchema;
@@ -83,7 +86,7 @@ public class SchemaLoader {
       "additionalProperties");
 
   private static final List<String> STRING_SCHEMA_PROPS = Arrays.asList("minLength", "maxLength",
-      "pattern");
+      "pattern", "format");
 
   static {
     COMB_SCHEMA_PROVIDERS.put("allOf", CombinedSchema::allOf);
@@ -113,13 +116,53 @@ public class SchemaLoader {
    * @return the created schema
    */
   public static Schema load(final JSONObject schemaJson, final SchemaClient httpClient) {
+    return load(schemaJson, httpClient, LinearTimeRegexpFactory.INSTANCE);
+  }
+
+  /**
+   * Creates Schema instance from its JSON representation.
+   *
+   * @param schemaJson
+   *          the JSON representation of the schema.
+   * @param httpClient
+   *          the HTTP client to be used for resolving remote JSON references.
+   * @param regexpFactory
+   *          the factory compiling the {@code pattern} and {@code patternProperties} of the
+   *          schema
+   * @return the created schema
+   */
+  public static Schema load(final JSONObject schemaJson, final SchemaClient httpClient,
+      final RegexpFactory regexpFactory) {
+    return load(schemaJson, httpClient, regexpFactory, FormatRegistry.DEFAULT);
+  }
+
+  /**
+   * Creates Schema instance from its JSON representation.
+   *
+   * @param schemaJson
+   *          the JSON representation of the schema.
+   * @param httpClient
+   *          the HTTP client to be used for resolving remote JSON references.
+   * @param regexpFactory
+   *          the factory compiling the {@code pattern} and {@code patternProperties} of the
+   *          schema
+   * @param formatRegistry
+   *          the validators of the {@code format}s of the schema
+   * @return the created schema
+   */
+  public static Schema load(final JSONObject schemaJson, final SchemaClient httpClient,
+      final RegexpFactory regexpFactory, final FormatRegistry formatRegistry) {
     String schemaId = schemaJson.optString("id");
-    return new SchemaLoader(schemaId, schemaJson, schemaJson, new HashMap<>(), httpClient)
-        .load().build();
+    return new SchemaLoader(schemaId, schemaJson, schemaJson, new HashMap<>(), httpClient,
+        regexpFactory, formatRegistry).load().build();
   }
 
   private final SchemaClient httpClient;
 
+  private final RegexpFactory regexpFactory;
+
+  private final FormatRegistry formatRegistry;
+
   private String id = null;
 
   private final Map<String, ReferenceSchema.Builder> pointerSchemas;
@@ -134,10 +177,24 @@ public class SchemaLoader {
   SchemaLoader(final String id, final JSONObject schemaJson,
       final JSONObject rootSchemaJson, final Map<String, ReferenceSchema.Builder> pointerSchemas,
       final SchemaClient httpClient) {
+    this(id, schemaJson, rootSchemaJson, pointerSchemas, httpClient,
+        LinearTimeRegexpFactory.INSTANCE, FormatRegistry.DEFAULT);
+  }
+
+  /**
+   * Constructor.
+   */
+  SchemaLoader(final String id, final JSONObject schemaJson,
+      final JSONObject rootSchemaJson, final Map<String, ReferenceSchema.Builder> pointerSchemas,
+      final SchemaClient httpClient, final RegexpFactory regexpFactory,
+      final FormatRegistry formatRegistry) {
     this.schemaJson = Objects.requireNonNull(schemaJson, "schemaJson cannot be null");
     this.rootSchemaJson = Objects.requireNonNull(rootSchemaJson, "rootSchemaJson cannot be null");
     this.id = id;
     this.httpClient = Objects.requireNonNull(httpClient, "httpClient cannot be null");
+    this.regexpFactory = Objects.requireNonNull(regexpFactory, "regexpFactory cannot be null");
+    this.formatRegistry = Objects.requireNonNull(formatRegistry,
+        "formatRegistry cannot be null");
     this.pointerSchemas = pointerSchemas;
   }
 
@@ -226,7 +283,7 @@ public class SchemaLoader {
   }
 
   private ObjectSchema.Builder buildObjectSchema() {
-    ObjectSchema.Builder builder = ObjectSchema.builder();
+    ObjectSchema.Builder builder = ObjectSchema.builder().regexpFactory(regexpFactory);
     ifPresent("minProperties", Integer.class, builder::minProperties);
     ifPresent("maxProperties", Integer.class, builder::maxProperties);
     if (schemaJson.has("properties")) {
@@ -279,10 +336,12 @@ public class SchemaLoader {
   }
 
   private StringSchema.Builder buildStringSchema() {
-    StringSchema.Builder builder = StringSchema.builder();
+    StringSchema.Builder builder = StringSchema.builder().regexpFactory(regexpFactory)
+        .formatRegistry(formatRegistry);
     ifPresent("minLength", Integer.class, builder::minLength);
     ifPresent("maxLength", Integer.class, builder::maxLength);
     ifPresent("pattern", String.class, builder::pattern);
+    ifPresent("format", String.class, builder::format);
     return builder;
   }
 
@@ -357,7 +416,7 @@ public class SchemaLoader {
 
   private Schema.Builder<?> loadChild(final JSONObject childJson) {
     return new SchemaLoader(id, childJson, rootSchemaJson, pointerSchemas,
-        httpClient).load();
+        httpClient, regexpFactory, formatRegistry).load();
   }
 
   private Schema.Builder<?> loadForExplicitType(final String typeString) {
@@ -407,7 +466,7 @@ public class SchemaLoader {
     QueryResult result = pointer.query();
     JSONObject resultObject = extend(withoutRef(ctx), result.getQueryResult());
     SchemaLoader childLoader = new SchemaLoader(id, resultObject,
-        result.getContainingDocument(), pointerSchemas, httpClient);
+        result.getContainingDocument(), pointerSchemas, httpClient, regexpFactory, formatRegistry);
     Schema referredSchema = childLoader.load().build();
     refBuilder.build().setReferredSchema(referredSchema);
     return refBuilder;
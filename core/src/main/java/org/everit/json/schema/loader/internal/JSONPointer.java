@@ -25,11 +25,11 @@ import java.util.Objects;
 import java.util.function.Supplier;
 
 import org.everit.json.schema.SchemaException;
+import org.everit.json.schema.loader.BigNumberTokener;
 import org.everit.json.schema.loader.SchemaClient;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
-import org.json.JSONTokener;
 
 /**
  * JSON pointer implementation.
@@ -93,7 +93,7 @@ public class JSONPointer {
         strBuilder.append(line);
       }
       resp = strBuilder.toString();
-      return new JSONObject(new JSONTokener(resp));
+      return new JSONObject(new BigNumberTokener(resp));
     } catch (IOException e) {
       throw new UncheckedIOException(e);
     } catch (JSONException e) {
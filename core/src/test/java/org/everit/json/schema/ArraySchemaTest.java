@@ -15,6 +15,7 @@
  */
 package org.everit.json.schema;
 
+import org.json.JSONArray;
 import org.json.JSONObject;
 import org.json.JSONTokener;
 import org.junit.Test;
@@ -113,6 +114,18 @@ public class ArraySchemaTest {
     TestSupport.expectFailure(subject, "#", ARRAYS.get("nonUniqueObjects"));
   }
 
+  @Test
+  public void uniqueItemsOfLargeArray() {
+    JSONArray subject = new JSONArray();
+    for (int i = 0; i < 20000; ++i) {
+      subject.put(new JSONObject().put("id", i).put("tags", new JSONArray().put("a").put(i % 7)));
+    }
+    ArraySchema schema = ArraySchema.builder().uniqueItems(true).build();
+    schema.validate(subject);
+    subject.put(new JSONObject("{\"tags\": [\"a\", 3], \"id\": 10}"));
+    TestSupport.expectFailure(schema, "#", subject);
+  }
+
   @Test
   public void uniqueItemsViolation() {
     ArraySchema subject = ArraySchema.builder().uniqueItems(true).build();
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BatchValidationResultTest {
+
+  private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+  private final ObjectSchema schema = ObjectSchema.builder()
+      .addPropertySchema("id", NumberSchema.builder().requiresInteger(true).minimum(0).build())
+      .addRequiredProperty("id")
+      .build();
+
+  private List<Object> subjects(final int count) {
+    List<Object> rval = new ArrayList<>(count);
+    for (int i = 0; i < count; ++i) {
+      rval.add(new JSONObject().put("id", i % 3 == 0 ? -i - 1 : i));
+    }
+    return rval;
+  }
+
+  @Test
+  public void exceptionsAreCreatedOnDemand() {
+    BatchValidationResult result = SchemaValidator.interpreted(schema)
+        .validateAll(Arrays.asList(new JSONObject(), new JSONObject("{\"id\": 1}")));
+    Assert.assertEquals(2, result.size());
+    Assert.assertEquals(1, result.getFailureCount());
+    Assert.assertFalse(result.isValid(0));
+    Assert.assertTrue(result.isValid(1));
+    ValidationException e = result.getException(0);
+    Assert.assertEquals("#: required key [id] not found", e.getMessage());
+    Assert.assertSame(e, result.getException(0));
+    Assert.assertNull(result.getException(1));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void indexOutOfBounds() {
+    SchemaValidator.interpreted(schema).validateAll(subjects(3)).isValid(3);
+  }
+
+  @Test
+  public void parallel() {
+    List<Object> subjects = subjects(10000);
+    SchemaValidator validator = CompiledSchema.compile(schema);
+    BatchValidationResult expected = validator.validateAll(subjects);
+    BatchValidationResult actual = validator.validateAll(subjects, POOL);
+    Assert.assertEquals(3334, actual.getFailureCount());
+    Assert.assertEquals(expected.getFailures(), actual.getFailures());
+    Assert.assertNull(actual.getException(8));
+    Assert.assertEquals("#/id", actual.getException(9).getPointerToViolation());
+  }
+
+  @Test
+  public void sequentialList() {
+    BatchValidationResult result = SchemaValidator.interpreted(schema)
+        .validateAll(new LinkedList<>(subjects(100)));
+    Assert.assertEquals(100, result.size());
+    Assert.assertEquals(34, result.getFailureCount());
+    Assert.assertEquals(Arrays.asList(0, 3, 6),
+        result.failedIndexes().limit(3).boxed().collect(Collectors.toList()));
+    Assert.assertFalse(result.isAllValid());
+  }
+
+  @Test
+  public void stream() {
+    BatchValidationResult result = SchemaValidator.interpreted(schema)
+        .validateAll(Stream.of(new JSONObject("{\"id\": 1}"), new JSONObject("{\"id\": 2}")));
+    Assert.assertTrue(result.isAllValid());
+    Assert.assertTrue(result.getFailures().isEmpty());
+  }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BoundedCacheTest {
+
+  @Test
+  public void capacityIsRoundedUp() {
+    Assert.assertEquals(1, new BoundedCache<String, String>(1).getCapacity());
+    Assert.assertEquals(4, new BoundedCache<String, String>(3).getCapacity());
+    Assert.assertEquals(4, new BoundedCache<String, String>(4).getCapacity());
+  }
+
+  @Test
+  public void countsHitsAndMisses() {
+    BoundedCache<String, Integer> subject = new BoundedCache<>(16);
+    Assert.assertNull(subject.get("a"));
+    subject.put("a", 1);
+    Assert.assertEquals(Integer.valueOf(1), subject.get("a"));
+    Assert.assertEquals(Integer.valueOf(1), subject.get("a"));
+    CacheStatistics statistics = subject.getStatistics();
+    Assert.assertEquals(2, statistics.getHitCount());
+    Assert.assertEquals(1, statistics.getMissCount());
+    Assert.assertEquals(2.0 / 3, statistics.getHitRate(), 0.0001);
+  }
+
+  @Test
+  public void isBounded() {
+    BoundedCache<Integer, Integer> subject = new BoundedCache<>(8);
+    for (int i = 0; i < 1000; ++i) {
+      subject.put(i, i);
+    }
+    int cachedCount = 0;
+    for (int i = 0; i < 1000; ++i) {
+      Integer cached = subject.get(i);
+      if (cached != null) {
+        Assert.assertEquals(Integer.valueOf(i), cached);
+        ++cachedCount;
+      }
+    }
+    Assert.assertEquals(8, cachedCount);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void sizeMustBePositive() {
+    new BoundedCache<String, String>(0);
+  }
+
+}
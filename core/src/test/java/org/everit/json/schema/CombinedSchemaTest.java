@@ -15,9 +15,14 @@
  */
 package org.everit.json.schema;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import org.everit.json.schema.CombinedSchema.ValidationCriterion;
+import org.everit.json.schema.CombinedSchema.ValidationCriterion.Outcome;
+import org.json.JSONObject;
+import org.junit.Assert;
 import org.junit.Test;
 
 public class CombinedSchemaTest {
@@ -27,6 +32,60 @@ public class CombinedSchemaTest {
       NumberSchema.builder().multipleOf(3).build()
       );
 
+  /**
+   * Subschema recording whether it was evaluated.
+   */
+  private static class RecordingSchema extends Schema {
+
+    private final boolean valid;
+
+    private final List<Schema> evaluated;
+
+    RecordingSchema(final boolean valid, final List<Schema> evaluated) {
+      super(EmptySchema.builder());
+      this.valid = valid;
+      this.evaluated = evaluated;
+    }
+
+    @Override
+    public boolean isValid(final Object subject) {
+      evaluated.add(this);
+      return valid;
+    }
+
+    @Override
+    public void validate(final Object subject) {
+      if (!isValid(subject)) {
+        throw new ValidationException(this, "invalid");
+      }
+    }
+
+  }
+
+  private final List<Schema> evaluated = new ArrayList<>();
+
+  private List<Schema> recordingSubschemas(final boolean... valid) {
+    List<Schema> rval = new ArrayList<>();
+    for (boolean subschemaValid : valid) {
+      rval.add(new RecordingSchema(subschemaValid, evaluated));
+    }
+    return rval;
+  }
+
+  @Test
+  public void allOfStopsAtFirstFailure() {
+    List<Schema> subschemas = recordingSubschemas(true, false, true);
+    CombinedSchema subject = CombinedSchema.allOf(subschemas).build();
+    Assert.assertFalse(subject.isValid("x"));
+    Assert.assertEquals(subschemas.subList(0, 2), evaluated);
+    try {
+      subject.validate("x");
+      Assert.fail("did not throw exception");
+    } catch (ValidationException e) {
+      Assert.assertEquals("#: subschema #2 out of 3 does not match", e.getMessage());
+    }
+  }
+
   @Test(expected = ValidationException.class)
   public void allCriterionFailure() {
     CombinedSchema.ALL_CRITERION.validate(10, 1);
@@ -55,6 +114,129 @@ public class CombinedSchemaTest {
         .build().validate("foo");
   }
 
+  @Test
+  public void branchesOfOtherTypesAreSkipped() {
+    StringSchema stringSchema = new StringSchema() {
+
+      @Override
+      public boolean isValid(final Object subject) {
+        evaluated.add(this);
+        return super.isValid(subject);
+      }
+
+    };
+    CombinedSchema subject = CombinedSchema.oneOf(Arrays.asList(stringSchema,
+        NumberSchema.builder().build(), NullSchema.INSTANCE)).build();
+    Assert.assertTrue(subject.isValid(42));
+    Assert.assertFalse(subject.isValid(true));
+    subject.validate(JSONObject.NULL);
+    Assert.assertTrue(evaluated.isEmpty());
+    Assert.assertTrue(subject.isValid("x"));
+    Assert.assertEquals(Arrays.asList(stringSchema), evaluated);
+  }
+
+  @Test
+  public void allOfFailsAtFirstBranchOfOtherType() {
+    CombinedSchema subject = CombinedSchema.allOf(Arrays.asList(
+        StringSchema.builder().build(), NumberSchema.builder().build())).build();
+    try {
+      subject.validate(1);
+      Assert.fail("did not throw exception");
+    } catch (ValidationException e) {
+      Assert.assertEquals("#: subschema #1 out of 2 does not match", e.getMessage());
+    }
+  }
+
+  @Test
+  public void branchesAreLookedUpByDiscriminator() {
+    List<Schema> subschemas = new ArrayList<>();
+    for (String type : Arrays.asList("a", "b", "c")) {
+      subschemas.add(new ObjectSchema(ObjectSchema.builder()
+          .addPropertySchema("type", EnumSchema.builder().possibleValue(type).build())) {
+
+        @Override
+        public boolean isValid(final Object subject) {
+          evaluated.add(this);
+          return super.isValid(subject);
+        }
+
+      });
+    }
+    CombinedSchema subject = CombinedSchema.oneOf(subschemas).build();
+    Assert.assertTrue(subject.isValid(new JSONObject("{\"type\": \"c\"}")));
+    Assert.assertFalse(subject.isValid(new JSONObject("{\"type\": \"d\"}")));
+    Assert.assertEquals(Arrays.asList(subschemas.get(2)), evaluated);
+    Assert.assertFalse(subject.isValid(new JSONObject("{}")));
+    Assert.assertEquals(3, evaluated.size());
+  }
+
+  @Test
+  public void builtinCriteriaAreFulfilled() {
+    Assert.assertTrue(CombinedSchema.ALL_CRITERION.isFulfilled(2, 2));
+    Assert.assertFalse(CombinedSchema.ALL_CRITERION.isFulfilled(2, 1));
+    Assert.assertTrue(CombinedSchema.ANY_CRITERION.isFulfilled(2, 1));
+    Assert.assertFalse(CombinedSchema.ANY_CRITERION.isFulfilled(2, 0));
+    Assert.assertTrue(CombinedSchema.ONE_CRITERION.isFulfilled(2, 1));
+    Assert.assertFalse(CombinedSchema.ONE_CRITERION.isFulfilled(2, 2));
+  }
+
+  @Test
+  public void anyOfStopsAtFirstMatch() {
+    List<Schema> subschemas = recordingSubschemas(false, true, true);
+    Assert.assertTrue(CombinedSchema.anyOf(subschemas).build().isValid("x"));
+    Assert.assertEquals(subschemas.subList(0, 2), evaluated);
+  }
+
+  @Test
+  public void customCriterionDecidingEarly() {
+    ValidationCriterion firstMatches = new ValidationCriterion() {
+
+      @Override
+      public Outcome decide(final int subschemaCount, final int checkedCount,
+          final int matchingCount) {
+        if (checkedCount == 0) {
+          return Outcome.UNDECIDED;
+        }
+        return matchingCount == 1 ? Outcome.FULFILLED : Outcome.VIOLATED;
+      }
+
+      @Override
+      public void validate(final int subschemaCount, final int matchingCount) {
+        throw new UnsupportedOperationException();
+      }
+
+    };
+    List<Schema> subschemas = recordingSubschemas(true, false);
+    CombinedSchema subject = CombinedSchema.builder(subschemas).criterion(firstMatches).build();
+    Assert.assertTrue(subject.isValid("x"));
+    Assert.assertTrue(CompiledSchema.compile(subject).isValid("x"));
+    Assert.assertEquals(Arrays.asList(subschemas.get(0), subschemas.get(0)), evaluated);
+  }
+
+  @Test
+  public void customCriterionEvaluatesAllSubschemas() {
+    List<Schema> subschemas = recordingSubschemas(false, false, true);
+    CombinedSchema subject = CombinedSchema.builder(subschemas)
+        .criterion((subschemaCount, matchingCount) -> {
+          if (matchingCount != 1) {
+            throw new ValidationException("one match expected");
+          }
+        }).build();
+    Assert.assertTrue(subject.isValid("x"));
+    Assert.assertEquals(subschemas, evaluated);
+  }
+
+  @Test
+  public void customCriterionIsFulfilled() {
+    ValidationCriterion criterion = (subschemaCount, matchingCount) -> {
+      if (matchingCount != 2) {
+        throw new ValidationException("two matches expected");
+      }
+    };
+    Assert.assertTrue(criterion.isFulfilled(3, 2));
+    Assert.assertFalse(criterion.isFulfilled(3, 1));
+  }
+
   @Test
   public void factories() {
     CombinedSchema.allOf(Arrays.asList(BooleanSchema.INSTANCE));
@@ -62,6 +244,20 @@ public class CombinedSchemaTest {
     CombinedSchema.oneOf(Arrays.asList(BooleanSchema.INSTANCE));
   }
 
+  @Test
+  public void oneOfStopsAtSecondMatch() {
+    List<Schema> subschemas = recordingSubschemas(true, false, true, true);
+    CombinedSchema subject = CombinedSchema.oneOf(subschemas).build();
+    Assert.assertFalse(subject.isValid("x"));
+    Assert.assertEquals(subschemas.subList(0, 3), evaluated);
+    try {
+      subject.validate("x");
+      Assert.fail("did not throw exception");
+    } catch (ValidationException e) {
+      Assert.assertEquals("#: at least 2 subschemas matched instead of one", e.getMessage());
+    }
+  }
+
   @Test(expected = ValidationException.class)
   public void oneCriterionFailure() {
     CombinedSchema.ONE_CRITERION.validate(10, 2);
@@ -82,6 +278,13 @@ public class CombinedSchemaTest {
     TestSupport.expectFailure(CombinedSchema.anyOf(SUBSCHEMAS).build(), 5);
   }
 
+  @Test
+  public void isValid() {
+    Assert.assertTrue(CombinedSchema.allOf(SUBSCHEMAS).build().isValid(30));
+    Assert.assertTrue(CombinedSchema.anyOf(SUBSCHEMAS).build().isValid(3));
+    Assert.assertTrue(CombinedSchema.oneOf(SUBSCHEMAS).build().isValid(10));
+  }
+
   @Test
   public void validateOne() {
     TestSupport.expectFailure(CombinedSchema.oneOf(SUBSCHEMAS).build(), 30);
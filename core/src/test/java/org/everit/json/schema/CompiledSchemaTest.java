@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.util.Arrays;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompiledSchemaTest {
+
+  private static final Schema CUSTOM = new Schema(EmptySchema.builder()) {
+
+    @Override
+    public void validate(final Object subject) {
+      if (!"custom".equals(subject)) {
+        throw new ValidationException(this, "not custom");
+      }
+    }
+
+  };
+
+  private ObjectSchema buildObjectSchema() {
+    return ObjectSchema.builder()
+        .addPropertySchema("name", StringSchema.builder().minLength(1).maxLength(5).build())
+        .addPropertySchema("age", NumberSchema.builder().requiresInteger(true)
+            .minimum(0).exclusiveMaximum(true).maximum(150).build())
+        .addRequiredProperty("name")
+        .patternProperty("^x-", BooleanSchema.INSTANCE)
+        .additionalProperties(false)
+        .propertyDependency("age", "name")
+        .schemaDependency("age", ObjectSchema.builder().minProperties(2).build())
+        .build();
+  }
+
+  @Test
+  public void arraySchema() {
+    CompiledSchema subject = CompiledSchema.compile(ArraySchema.builder()
+        .addItemSchema(BooleanSchema.INSTANCE)
+        .addItemSchema(NullSchema.INSTANCE)
+        .schemaOfAdditionalItems(NumberSchema.builder().multipleOf(0.5).build())
+        .uniqueItems(true)
+        .maxItems(4)
+        .build());
+    Assert.assertTrue(subject.isValid(new JSONArray("[true, null, 1.5, 2]")));
+    Assert.assertFalse(subject.isValid(new JSONArray("[true, null, 1.5, 1.5]")));
+    Assert.assertFalse(subject.isValid(new JSONArray("[true, null, 1.6]")));
+    Assert.assertFalse(subject.isValid(new JSONArray("[null]")));
+    Assert.assertFalse(subject.isValid(new JSONArray("[true, null, 1, 2, 3]")));
+  }
+
+  @Test
+  public void combinedSchemas() {
+    Schema oneOf = CombinedSchema.oneOf(Arrays.asList(
+        NumberSchema.builder().multipleOf(2).build(),
+        NumberSchema.builder().multipleOf(3).build())).build();
+    CompiledSchema subject = CompiledSchema.compile(oneOf);
+    Assert.assertTrue(subject.isValid(4));
+    Assert.assertFalse(subject.isValid(6));
+    Assert.assertFalse(subject.isValid(7));
+    CompiledSchema not = CompiledSchema.compile(NotSchema.builder().mustNotMatch(oneOf).build());
+    Assert.assertTrue(not.isValid(6));
+  }
+
+  @Test
+  public void customCriterion() {
+    CombinedSchema noneOf = CombinedSchema.builder()
+        .criterion((subschemaCount, matchingCount) -> {
+          if (matchingCount > 0) {
+            throw new ValidationException("matched");
+          }
+        })
+        .subschema(BooleanSchema.INSTANCE)
+        .subschema(NullSchema.INSTANCE)
+        .build();
+    CompiledSchema subject = CompiledSchema.compile(noneOf);
+    Assert.assertTrue(subject.isValid("string"));
+    Assert.assertFalse(subject.isValid(true));
+  }
+
+  @Test
+  public void customSchema() {
+    CompiledSchema subject = CompiledSchema.compile(ArraySchema.builder()
+        .allItemSchema(CUSTOM)
+        .build());
+    Assert.assertTrue(subject.isValid(new JSONArray("[\"custom\"]")));
+    Assert.assertFalse(subject.isValid(new JSONArray("[\"custom\", 1]")));
+  }
+
+  @Test
+  public void objectSchema() {
+    CompiledSchema subject = CompiledSchema.compile(buildObjectSchema());
+    Assert.assertTrue(subject.isValid(new JSONObject("{\"name\": \"abc\", \"x-a\": true}")));
+    Assert.assertTrue(subject.isValid(new JSONObject("{\"name\": \"abc\", \"age\": 0}")));
+    Assert.assertFalse(subject.isValid("not an object"));
+    Assert.assertFalse(subject.isValid(new JSONObject("{\"name\": \"\"}")));
+    Assert.assertFalse(subject.isValid(new JSONObject("{\"name\": \"abc\", \"age\": 150}")));
+    Assert.assertFalse(subject.isValid(new JSONObject("{\"name\": \"abc\", \"age\": 1.5}")));
+    Assert.assertFalse(subject.isValid(new JSONObject("{\"name\": \"abc\", \"x-a\": 1}")));
+    Assert.assertFalse(subject.isValid(new JSONObject("{\"name\": \"abc\", \"other\": 1}")));
+    Assert.assertFalse(subject.isValid(new JSONObject("{\"age\": 1}")));
+  }
+
+  @Test
+  public void recursiveSchema() {
+    ReferenceSchema ref = ReferenceSchema.builder().build();
+    ObjectSchema tree = ObjectSchema.builder()
+        .addPropertySchema("value", NumberSchema.builder().build())
+        .addPropertySchema("children", ArraySchema.builder().allItemSchema(ref).build())
+        .build();
+    ref.setReferredSchema(tree);
+    CompiledSchema subject = CompiledSchema.compile(ref);
+    Assert.assertTrue(subject.isValid(new JSONObject(
+        "{\"value\": 1, \"children\": [{\"value\": 2, \"children\": [{\"value\": 3}]}]}")));
+    Assert.assertFalse(subject.isValid(new JSONObject(
+        "{\"value\": 1, \"children\": [{\"value\": 2, \"children\": [{\"value\": \"3\"}]}]}")));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void uninjectedReference() {
+    CompiledSchema.compile(ReferenceSchema.builder().build());
+  }
+
+  @Test
+  public void validateThrowsTheExceptionOfTheSchema() {
+    ObjectSchema schema = buildObjectSchema();
+    CompiledSchema subject = CompiledSchema.compile(schema);
+    subject.validate(new JSONObject("{\"name\": \"abc\"}"));
+    try {
+      subject.validate(new JSONObject("{\"other\": 1}"));
+      Assert.fail("did not throw exception");
+    } catch (ValidationException e) {
+      Assert.assertSame(schema, e.getViolatedSchema());
+      Assert.assertEquals(2, e.getViolationCount());
+    }
+  }
+
+}
@@ -15,6 +15,7 @@
  */
 package org.everit.json.schema;
 
+import java.math.BigDecimal;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -42,6 +43,35 @@ public class EnumSchemaTest {
     TestSupport.expectFailure(subject, new JSONArray("[1]"));
   }
 
+  @Test
+  public void largeEnum() {
+    EnumSchema.Builder builder = EnumSchema.builder();
+    for (int i = 0; i < 5000; ++i) {
+      builder.possibleValue("value" + i).possibleValue(i * 0.5);
+    }
+    EnumSchema subject = builder.build();
+    subject.validate("value4999");
+    subject.validate(2499.5);
+    subject.validate(2499);
+    TestSupport.expectFailure(subject, "value5000");
+    TestSupport.expectFailure(subject, 2500);
+  }
+
+  @Test
+  public void numbersAreComparedByValue() {
+    EnumSchema subject = EnumSchema.builder()
+        .possibleValue(1)
+        .possibleValue(2.5)
+        .possibleValue(new JSONArray("[3]"))
+        .build();
+    subject.validate(1.0);
+    subject.validate(1L);
+    subject.validate(new BigDecimal("2.50"));
+    subject.validate(new JSONArray("[3.0]"));
+    TestSupport.expectFailure(subject, 1.5);
+    TestSupport.expectFailure(subject, "1");
+  }
+
   private EnumSchema subject() {
     return EnumSchema.builder().possibleValues(possibleValues).build();
   }
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FormatsTest {
+
+  private static void assertFormat(final FormatValidator validator, final List<String> valid,
+      final List<String> invalid) {
+    for (String subject : valid) {
+      Assert.assertTrue("[" + subject + "] should be valid", validator.isValid(subject));
+    }
+    for (String subject : invalid) {
+      Assert.assertFalse("[" + subject + "] should be invalid", validator.isValid(subject));
+    }
+  }
+
+  private static String repeat(final char c, final int count) {
+    char[] rval = new char[count];
+    Arrays.fill(rval, c);
+    return new String(rval);
+  }
+
+  @Test
+  public void dateTime() {
+    assertFormat(Formats.DATE_TIME,
+        Arrays.asList("1963-06-19T08:30:06.283185Z", "1963-06-19t08:30:06z",
+            "2016-02-29T23:59:60+01:00", "2000-02-29T00:00:00-23:59", "1999-12-31T23:59:59.9Z"),
+        Arrays.asList("", "06/19/1963 08:30:06 PST", "2013-350T01:01:01", "1963-06-19T08:30:06",
+            "1963-06-19 08:30:06Z", "1963-13-19T08:30:06Z", "1963-06-31T08:30:06Z",
+            "2015-02-29T08:30:06Z", "1900-02-29T08:30:06Z", "1963-06-19T24:00:00Z",
+            "1963-06-19T08:60:06Z", "1963-06-19T08:30:61Z", "1963-06-19T08:30:06.Z",
+            "1963-06-19T08:30:06+0100", "1963-06-19T08:30:06+01:00Z", "1963-06-19T08:30:06ZZ",
+            "1963-06-19T08:30:06+24:00", "١963-06-19T08:30:06Z"));
+  }
+
+  @Test
+  public void email() {
+    assertFormat(Formats.EMAIL,
+        Arrays.asList("joe.bloggs@example.com", "a@b", "o'reilly+tag@example.co.uk",
+            "joe@[127.0.0.1]", "joe@[IPv6:::1]"),
+        Arrays.asList("", "2962", "@example.com", "joe@", ".joe@example.com",
+            "joe.@example.com", "jo..e@example.com", "joe@example..com", "jo e@example.com",
+            "joe@@example.com", "joe@-example.com", "joe@[300.0.0.1]", "joe@[IPv6:12345::]",
+            "joe@[]", repeat('a', 65) + "@example.com"));
+  }
+
+  @Test
+  public void hostname() {
+    assertFormat(Formats.HOSTNAME,
+        Arrays.asList("www.example.com", "localhost", "xn--nnx388a", "1.example",
+            repeat('a', 63) + ".com"),
+        Arrays.asList("", "-a-host-name-that-starts-with--", "not_a_valid_host_name",
+            "a-vvvvvvvvvvvvvvvveeeeeeeeeeeeeeeerrrrrrrrrrrrrrrryyyyyyyyyyyyyyyy-long-host-name"
+                + "-component",
+            "example.com.", ".example.com", "exa..mple.com", "example-.com", "exämple.com",
+            repeat('a', 64) + ".com", repeat('a', 50) + "." + repeat('b', 50) + "."
+                + repeat('c', 50) + "." + repeat('d', 50) + "." + repeat('e', 50)));
+  }
+
+  @Test
+  public void ipv4() {
+    assertFormat(Formats.IPV4,
+        Arrays.asList("192.168.0.1", "0.0.0.0", "255.255.255.255"),
+        Arrays.asList("", "127.0.0.0.1", "256.256.256.256", "127.0", "0x7f000001", "127.0.0.01",
+            "1234.1.1.1", "1.2.3.", ".1.2.3", "1..2.3", "1.2.3.4 ", "١.2.3.4"));
+  }
+
+  @Test
+  public void ipv6() {
+    assertFormat(Formats.IPV6,
+        Arrays.asList("::1", "::", "1::", "1:2:3:4:5:6:7:8", "fe80::1:abcd", "FE80::",
+            "::ffff:192.168.0.1", "1:2:3:4:5:6:1.2.3.4", "1::8"),
+        Arrays.asList("", "12345::", "1:1:1:1:1:1:1:1:1:1:1:1:1:1:1:1", "::laptop", ":::",
+            "1:2:3:4:5:6:7", "1:2:3:4:5:6:7:8:9", "1::2::3", "1:", ":1", "1:2:3:4:5:6:7::8",
+            "1:2:3:4:5:6:7:1.2.3.4", "::1.2.3", "fe80::1%eth0", "1.2.3.4"));
+  }
+
+  @Test
+  public void uri() {
+    assertFormat(Formats.URI,
+        Arrays.asList("http://foo.bar/?baz=qux#quux", "//foo.bar/?baz=qux#quux",
+            "urn:isbn:0451450523", "mailto:joe@example.com", "http://[::1]:80/a%20b",
+            "a+b-c.d:"),
+        Arrays.asList("", "\\\\WINDOWS\\fileshare", "abc", "/abs/path", ":no-scheme",
+            "1http://example.com", "http://exa mple.com", "http://example.com/%2",
+            "http://example.com/%zz", "http://example.com/#a#b", "http://éxample.com"));
+  }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+
+import org.everit.json.schema.loader.SchemaLoader;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JsonTypeTest {
+
+  @Test
+  public void combinedSchemas() {
+    Schema stringOrNumber = CombinedSchema.anyOf(Arrays.asList(StringSchema.builder().build(),
+        NumberSchema.builder().build())).build();
+    Assert.assertEquals(EnumSet.of(JsonType.STRING, JsonType.NUMBER),
+        JsonType.acceptedBy(stringOrNumber));
+    Schema string = CombinedSchema.allOf(Arrays.asList(stringOrNumber,
+        StringSchema.builder().minLength(2).build())).build();
+    Assert.assertEquals(EnumSet.of(JsonType.STRING), JsonType.acceptedBy(string));
+    Schema custom = CombinedSchema.builder().criterion((subschemaCount, matchingCount) -> {
+    }).subschema(string).build();
+    Assert.assertEquals(EnumSet.allOf(JsonType.class), JsonType.acceptedBy(custom));
+  }
+
+  @Test
+  public void enumSchema() {
+    Schema schema = EnumSchema.builder().possibleValue("a").possibleValue(1)
+        .possibleValue(JSONObject.NULL).build();
+    Assert.assertEquals(EnumSet.of(JsonType.STRING, JsonType.NUMBER, JsonType.NULL),
+        JsonType.acceptedBy(schema));
+  }
+
+  @Test
+  public void multipleTypes() {
+    Schema schema = SchemaLoader.load(new JSONObject("{\"type\": [\"string\", \"null\"]}"));
+    Assert.assertEquals(EnumSet.of(JsonType.STRING, JsonType.NULL), JsonType.acceptedBy(schema));
+  }
+
+  @Test
+  public void of() {
+    Assert.assertEquals(JsonType.NULL, JsonType.of(null));
+    Assert.assertEquals(JsonType.NULL, JsonType.of(JSONObject.NULL));
+    Assert.assertEquals(JsonType.BOOLEAN, JsonType.of(true));
+    Assert.assertEquals(JsonType.NUMBER, JsonType.of(1L));
+    Assert.assertEquals(JsonType.STRING, JsonType.of(""));
+    Assert.assertEquals(JsonType.ARRAY, JsonType.of(new JSONArray()));
+    Assert.assertEquals(JsonType.OBJECT, JsonType.of(new JSONObject()));
+    Assert.assertEquals(JsonType.OTHER, JsonType.of(new Object()));
+  }
+
+  @Test
+  public void recursiveReference() {
+    ReferenceSchema ref = ReferenceSchema.builder().build();
+    Assert.assertEquals(EnumSet.allOf(JsonType.class), JsonType.acceptedBy(ref));
+    Schema schema = CombinedSchema.anyOf(Arrays.asList(NullSchema.INSTANCE, ref)).build();
+    ref.setReferredSchema(schema);
+    Assert.assertEquals(EnumSet.allOf(JsonType.class), JsonType.acceptedBy(schema));
+    ReferenceSchema nullableBoolean = ReferenceSchema.builder().build();
+    nullableBoolean.setReferredSchema(CombinedSchema.anyOf(Arrays.asList(NullSchema.INSTANCE,
+        BooleanSchema.INSTANCE)).build());
+    Assert.assertEquals(EnumSet.of(JsonType.NULL, JsonType.BOOLEAN),
+        JsonType.acceptedBy(nullableBoolean));
+  }
+
+  @Test
+  public void typeIsOptional() {
+    Assert.assertEquals(EnumSet.allOf(JsonType.class),
+        JsonType.acceptedBy(StringSchema.builder().requiresString(false).build()));
+    Assert.assertEquals(EnumSet.of(JsonType.OBJECT),
+        JsonType.acceptedBy(ObjectSchema.builder().build()));
+    Assert.assertEquals(EnumSet.allOf(JsonType.class), JsonType.acceptedBy(EmptySchema.INSTANCE));
+  }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MultiPatternMatcherTest {
+
+  private static final List<String> PATTERNS = Arrays.asList(
+      "^x-", "-$", "^[a-z]+$", "\\d{2,3}", "^(foo|bar)baz?$", "a.c", "[^\\w\\s]", "(?:ab)*c",
+      "^$", "^\\S*\\.json$", "[\\x41-\\u0043]", "^a{3}$", "(?<name>q)u+", "colou?r", "\\$\\^",
+      "^[-a-f0-9]{8}$", "^(?=a)", "(a)\\1", "\\bword\\b", "a++b", "(?i)abc", "\\p{Lu}", "x|",
+      "^.*$", "a*?b", "[a-c&&b]", "^[\\s\\d]+$", "|^z$", "^.$", "^[^a]{2}$", "a$\\n",
+      "^[\\x00-\\uFFFF]$", "\\S$", "^\\W\\w");
+
+  private static final List<String> SUBJECTS = Arrays.asList(
+      "", "x-a", "a-x-", "abc", "ABC", "foobaz", "barba", "bar", "a1c", "12", "1234", "ababc",
+      "c", "#", "a b", "file.json", "dir/file.json", "aaa", "aaaa", "quu", "color", "colour",
+      "$^", "0123abcd", "0123abcg", "aa", "word", "aab", "x\ny", "line\n", "éé",
+      "😀", "z", " 42", "Abc", "b", "a\u2028c", "a\r\n", "a\r", "a\n\n", "\u2029", "a\u0085",
+      "\ud83d", "\ude00a", "\ud83d\ude00\ud83d\ude00", "a\ud83d\ude00");
+
+  private static void assertSameMatches(final List<String> patterns, final String subject) {
+    Pattern[] compiled = patterns.stream().map(Pattern::compile).toArray(Pattern[]::new);
+    MultiPatternMatcher matcher = new MultiPatternMatcher(compiled,
+        LinearTimeRegexpFactory.INSTANCE);
+    BitSet actual = new BitSet();
+    matcher.match(subject, actual);
+    for (int i = 0; i < compiled.length; ++i) {
+      Assert.assertEquals("pattern " + compiled[i] + ", subject [" + subject + "]",
+          compiled[i].matcher(subject).find(), actual.get(i));
+    }
+    Assert.assertEquals(!actual.isEmpty(), matcher.find(subject));
+  }
+
+  private static String randomRegex(final Random random, final int depth) {
+    StringBuilder rval = new StringBuilder();
+    int length = 1 + random.nextInt(3);
+    for (int i = 0; i < length; ++i) {
+      switch (random.nextInt(depth > 2 ? 4 : 7)) {
+        case 0:
+          rval.append("ab-.".charAt(random.nextInt(4)));
+          break;
+        case 1:
+          rval.append(random.nextBoolean() ? "[a-b]" : "[^a]");
+          break;
+        case 2:
+          rval.append(random.nextBoolean() ? "^" : "$");
+          break;
+        case 3:
+          rval.append(random.nextBoolean() ? "\\w" : "\\W");
+          break;
+        case 4:
+          rval.append('(').append(randomRegex(random, depth + 1)).append('|')
+              .append(randomRegex(random, depth + 1)).append(')');
+          break;
+        default:
+          rval.append("(?:").append(randomRegex(random, depth + 1)).append(')')
+              .append(Arrays.asList("*", "+", "?", "{2}", "{1,3}", "{0,}", "*?").get(
+                  random.nextInt(7)));
+          break;
+      }
+    }
+    return rval.toString();
+  }
+
+  @Test
+  public void anchorInQuantifiedGroupFallsBackToPattern() {
+    List<String> patterns = Arrays.asList("(^.{0,}|[a-c]c){2}$",
+        "^(^[-a]*?|x\\D*?[^a]?[a-c]?){2}$");
+    for (String regex : patterns) {
+      Assert.assertNull(regex, RegexParser.parse(regex));
+    }
+    assertSameMatches(patterns, "x\u00e9 ");
+    assertSameMatches(patterns, "-\n");
+  }
+
+  @Test
+  public void agreesWithPatterns() {
+    for (String subject : SUBJECTS) {
+      assertSameMatches(PATTERNS, subject);
+    }
+  }
+
+  @Test
+  public void agreesWithRandomPatterns() {
+    Random random = new Random(42);
+    for (int i = 0; i < 300; ++i) {
+      List<String> patterns = Arrays.asList(randomRegex(random, 0), randomRegex(random, 0),
+          randomRegex(random, 0));
+      for (int j = 0; j < 20; ++j) {
+        char[] subject = new char[random.nextInt(6)];
+        for (int k = 0; k < subject.length; ++k) {
+          subject[k] = "ab- \n\r\ud83d\ude00".charAt(random.nextInt(8));
+        }
+        assertSameMatches(patterns, new String(subject));
+      }
+    }
+  }
+
+  @Test
+  public void tooLargeAutomatonFallsBackToPattern() {
+    assertSameMatches(Arrays.asList("^(a|b){5000}$", "a"), "ab");
+  }
+
+  @Test
+  public void unsupportedSyntax() {
+    for (String regex : Arrays.asList("(?=a)", "(a)\\1", "\\bw", "a++", "(?i)a", "\\p{Lu}",
+        "[a&&b]", "[[a]]", "\\Qa\\E", "\\x{41}", "\\0101", "[\\x00-\\uFFFF]", "😀")) {
+      Assert.assertNull(regex, RegexParser.parse(regex));
+    }
+  }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MultipleOfTest {
+
+  private static boolean expected(final BigDecimal subject, final BigDecimal divisor) {
+    return subject.remainder(divisor).signum() == 0;
+  }
+
+  @Test
+  public void agreesWithBigDecimalOnDoubles() {
+    Random random = new Random(42);
+    for (String divisor : Arrays.asList("1", "2", "3", "10", "0.5", "0.01", "0.25", "0.0001",
+        "1.5", "7", "1E+3", "0.3")) {
+      MultipleOf subject = MultipleOf.of(Double.valueOf(divisor));
+      BigDecimal exactDivisor = new BigDecimal(divisor);
+      for (int i = 0; i < 2000; ++i) {
+        int scale = random.nextInt(6);
+        double value = BigDecimal.valueOf(random.nextInt(2000000) - 1000000, scale).doubleValue();
+        Assert.assertEquals(value + " / " + divisor,
+            expected(BigDecimal.valueOf(value), exactDivisor), subject.isMultiple(value));
+      }
+    }
+  }
+
+  @Test
+  public void agreesWithBigDecimalOnLongs() {
+    Random random = new Random(42);
+    for (String divisor : Arrays.asList("1", "2", "6", "0.5", "0.04", "2.5", "1E+3", "12.34")) {
+      MultipleOf subject = MultipleOf.of(new BigDecimal(divisor));
+      for (int i = 0; i < 2000; ++i) {
+        long value = random.nextInt(100000) * (random.nextBoolean() ? 1L : Long.MAX_VALUE / 100000);
+        Assert.assertEquals(value + " / " + divisor,
+            expected(BigDecimal.valueOf(value), new BigDecimal(divisor)),
+            subject.isMultiple(value));
+      }
+    }
+  }
+
+  @Test
+  public void bigNumbers() {
+    MultipleOf subject = MultipleOf.of(3);
+    Assert.assertTrue(subject.isMultiple(new BigInteger("300000000000000000000000000000")));
+    Assert.assertFalse(subject.isMultiple(new BigInteger("300000000000000000000000000001")));
+    Assert.assertTrue(subject.isMultiple(new BigDecimal("3.0000000000000000000000000000E+40")));
+    Assert.assertTrue(subject.isMultiple(3e300));
+    Assert.assertFalse(subject.isMultiple(1e300));
+    Assert.assertFalse(subject.isMultiple(new BigDecimal("3.000000000000000000000000000001")));
+  }
+
+  @Test
+  public void highPrecisionDivisor() {
+    MultipleOf subject = MultipleOf.of(new BigDecimal("0.00000000000000000001"));
+    Assert.assertTrue(subject.isMultiple(1.5));
+    Assert.assertTrue(subject.isMultiple(3L));
+    Assert.assertFalse(subject.isMultiple(new BigDecimal("1E-21")));
+  }
+
+  @Test
+  public void integersAreExact() {
+    MultipleOf subject = MultipleOf.of(2);
+    Assert.assertTrue(subject.isMultiple(Long.valueOf(9007199254740992L)));
+    Assert.assertFalse(subject.isMultiple(Long.valueOf(9007199254740993L)));
+    Assert.assertTrue(subject.isMultiple(Integer.valueOf(-4)));
+    Assert.assertFalse(subject.isMultiple(Short.valueOf((short) 3)));
+  }
+
+  @Test
+  public void nonFiniteDoubles() {
+    MultipleOf subject = MultipleOf.of(0.5);
+    Assert.assertFalse(subject.isMultiple(Double.NaN));
+    Assert.assertFalse(subject.isMultiple(Double.POSITIVE_INFINITY));
+  }
+
+  @Test
+  public void shortestDecimalOfDoubles() {
+    MultipleOf subject = MultipleOf.of(0.01);
+    Assert.assertTrue(subject.isMultiple(19.99));
+    Assert.assertFalse(subject.isMultiple(0.1 + 0.2));
+    Assert.assertTrue(subject.isMultiple(Float.valueOf(0.5f)));
+    Assert.assertEquals("0.01", subject.toString());
+  }
+
+}
@@ -15,6 +15,7 @@
  */
 package org.everit.json.schema;
 
+import org.junit.Assert;
 import org.junit.Test;
 
 public class NotSchemaTest {
@@ -25,6 +26,13 @@ public class NotSchemaTest {
     TestSupport.expectFailure(subject, true);
   }
 
+  @Test
+  public void isValid() {
+    NotSchema subject = NotSchema.builder().mustNotMatch(BooleanSchema.INSTANCE).build();
+    Assert.assertTrue(subject.isValid("foo"));
+    Assert.assertFalse(subject.isValid(true));
+  }
+
   @Test
   public void success() {
     NotSchema.builder().mustNotMatch(BooleanSchema.INSTANCE).build().validate("foo");
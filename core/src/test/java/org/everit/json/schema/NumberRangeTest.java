@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NumberRangeTest {
+
+  @Test
+  public void boundsBetweenDoubles() {
+    NumberRange subject = NumberRange.of(new BigDecimal("0.10000000000000000001"), false,
+        new BigDecimal("0.30000000000000000001"), true);
+    Assert.assertFalse(subject.contains(0.1));
+    Assert.assertTrue(subject.contains(Math.nextUp(0.1)));
+    Assert.assertTrue(subject.contains(0.3));
+    Assert.assertFalse(subject.contains(Math.nextUp(0.3)));
+  }
+
+  @Test
+  public void emptyLongRange() {
+    NumberRange subject = NumberRange.of(0.25, false, 0.75, false);
+    Assert.assertFalse(subject.contains(0L));
+    Assert.assertFalse(subject.contains(1L));
+    Assert.assertTrue(subject.contains(0.5));
+  }
+
+  @Test
+  public void exclusiveBounds() {
+    NumberRange subject = NumberRange.of(1, true, 3, true);
+    Assert.assertFalse(subject.contains(1L));
+    Assert.assertTrue(subject.contains(2L));
+    Assert.assertFalse(subject.contains(3L));
+    Assert.assertFalse(subject.contains(1.0));
+    Assert.assertTrue(subject.contains(Math.nextUp(1.0)));
+    Assert.assertFalse(subject.contains(3.0));
+    Assert.assertTrue(subject.contains(new BigDecimal("2.999999999999999999999")));
+    Assert.assertFalse(subject.contains(new BigDecimal("3.0")));
+  }
+
+  @Test
+  public void hugeBounds() {
+    NumberRange subject = NumberRange.of(new BigDecimal("-1e1000"), false,
+        new BigDecimal("1e1000"), false);
+    Assert.assertTrue(subject.contains(Long.MIN_VALUE));
+    Assert.assertTrue(subject.contains(Long.MAX_VALUE));
+    Assert.assertTrue(subject.contains(Double.MAX_VALUE));
+    Assert.assertFalse(subject.contains(Double.POSITIVE_INFINITY));
+    Assert.assertTrue(subject.contains(BigInteger.TEN.pow(1000)));
+    Assert.assertFalse(subject.contains(BigInteger.TEN.pow(1000).add(BigInteger.ONE)));
+  }
+
+  @Test
+  public void longsBeyondDoublePrecision() {
+    NumberRange subject = NumberRange.of(null, false, Long.MAX_VALUE - 1, false);
+    Assert.assertTrue(subject.contains(Long.MAX_VALUE - 1));
+    Assert.assertFalse(subject.contains(Long.MAX_VALUE));
+    Assert.assertTrue(subject.contains(Integer.valueOf(5)));
+  }
+
+  @Test
+  public void nanIsNotOutOfRange() {
+    NumberRange subject = NumberRange.of(0, false, 1, false);
+    Assert.assertTrue(subject.contains(Double.NaN));
+    Assert.assertFalse(subject.isBelowMinimum(Double.NaN));
+    Assert.assertFalse(subject.isAboveMaximum(Double.NaN));
+  }
+
+  @Test
+  public void toStringShowsTheBounds() {
+    Assert.assertEquals("[1, 2.5)", NumberRange.of(1, false, 2.5, true).toString());
+    Assert.assertEquals("(0, inf)", NumberRange.of(0, true, null, false).toString());
+  }
+
+}
@@ -15,10 +15,35 @@
  */
 package org.everit.json.schema;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
 import org.junit.Test;
 
 public class NumberSchemaTest {
 
+  @Test
+  public void bigBounds() {
+    NumberSchema subject = NumberSchema.builder()
+        .minimum(new BigInteger("-18446744073709551615"))
+        .maximum(new BigDecimal("972783798187987123879878123.18878137"))
+        .exclusiveMaximum(true)
+        .build();
+    subject.validate(new BigInteger("18446744073709551600"));
+    subject.validate(Long.MIN_VALUE);
+    subject.validate(1e26);
+    TestSupport.expectFailure(subject, new BigDecimal("972783798187987123879878123.188781371"));
+    TestSupport.expectFailure(subject, new BigInteger("-18446744073709551616"));
+    TestSupport.expectFailure(subject, 1e27);
+  }
+
+  @Test
+  public void boundsAreExactForLongs() {
+    NumberSchema subject = NumberSchema.builder().maximum(9007199254740992L).build();
+    subject.validate(9007199254740992L);
+    TestSupport.expectFailure(subject, 9007199254740993L);
+  }
+
   @Test
   public void exclusiveMinimum() {
     NumberSchema subject = NumberSchema.builder().minimum(10.0).exclusiveMinimum(true).build();
@@ -49,6 +74,22 @@ public class NumberSchemaTest {
     TestSupport.expectFailure(subject, 15);
   }
 
+  @Test
+  public void multipleOfIsExactForLongs() {
+    NumberSchema subject = NumberSchema.builder().multipleOf(2).build();
+    subject.validate(9007199254740992L);
+    TestSupport.expectFailure(subject, 9007199254740993L);
+  }
+
+  @Test
+  public void multipleOfMoney() {
+    NumberSchema subject = NumberSchema.builder().multipleOf(0.01).build();
+    subject.validate(19.99);
+    subject.validate(0.07);
+    subject.validate(-1234567.89);
+    TestSupport.expectFailure(subject, 19.999);
+  }
+
   @Test
   public void notRequiresNumber() {
     NumberSchema.builder().requiresNumber(false).build().validate("foo");
@@ -65,6 +106,14 @@ public class NumberSchemaTest {
     NumberSchema.builder().requiresInteger(true).build().validate(10);
   }
 
+  @Test
+  public void requiresIntegerAcceptsBigIntegers() {
+    NumberSchema subject = NumberSchema.builder().requiresInteger(true).build();
+    subject.validate(3000000000L);
+    subject.validate(new BigInteger("12345678910111213141516171819202122232425262728293031"));
+    TestSupport.expectFailure(subject, new BigDecimal("1.5"));
+  }
+
   @Test
   public void smallMultipleOf() {
     NumberSchema.builder()
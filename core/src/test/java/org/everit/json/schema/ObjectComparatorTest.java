@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ObjectComparatorTest {
+
+  private void assertSameHashCode(final Object obj1, final Object obj2) {
+    Assert.assertEquals(ObjectComparator.deepHashCode(obj1), ObjectComparator.deepHashCode(obj2));
+  }
+
+  @Test
+  public void numbersAreEqualByValue() {
+    Assert.assertTrue(ObjectComparator.deepEquals(1, 1.0));
+    Assert.assertTrue(ObjectComparator.deepEquals(1.0, 1L));
+    Assert.assertTrue(ObjectComparator.deepEquals(new BigInteger("18446744073709552000"), 0x1p64));
+    Assert.assertTrue(ObjectComparator.deepEquals(new BigDecimal("0.10"), 0.1));
+    Assert.assertTrue(ObjectComparator.deepEquals(new JSONArray("[1]"), new JSONArray("[1.0]")));
+    Assert.assertFalse(ObjectComparator.deepEquals(new BigInteger("18446744073709551616"), 0x1p64));
+    Assert.assertFalse(ObjectComparator.deepEquals(Long.MAX_VALUE, 0x1p63));
+    Assert.assertFalse(ObjectComparator.deepEquals(1, 1.5));
+    Assert.assertFalse(ObjectComparator.deepEquals(1, "1"));
+  }
+
+  @Test
+  public void hashCodeIgnoresPropertyOrder() {
+    JSONObject obj1 = new JSONObject("{\"a\": 1, \"b\": [true, null], \"c\": {\"d\": \"e\"}}");
+    JSONObject obj2 = new JSONObject("{\"c\": {\"d\": \"e\"}, \"b\": [true, null], \"a\": 1}");
+    Assert.assertTrue(ObjectComparator.deepEquals(obj1, obj2));
+    assertSameHashCode(obj1, obj2);
+  }
+
+  @Test
+  public void objectsWithDifferentProperties() {
+    Assert.assertFalse(ObjectComparator.deepEquals(new JSONObject("{\"a\": null}"),
+        new JSONObject("{\"b\": null}")));
+    Assert.assertFalse(ObjectComparator.deepEquals(new JSONObject("{\"a\": 1}"),
+        new JSONObject("{\"a\": 1, \"b\": 2}")));
+    Assert.assertFalse(ObjectComparator.deepEquals(new JSONObject("{\"a\": {\"b\": [1, 2]}}"),
+        new JSONObject("{\"a\": {\"b\": [2, 1]}}")));
+  }
+
+  @Test
+  public void nullEqualsJsonNull() {
+    Assert.assertTrue(ObjectComparator.deepEquals(null, JSONObject.NULL));
+    Assert.assertTrue(ObjectComparator.deepEquals(JSONObject.NULL, null));
+    Assert.assertFalse(ObjectComparator.deepEquals(null, "null"));
+  }
+
+  @Test
+  public void hashCodeOfArraysDependsOnOrder() {
+    Assert.assertNotEquals(ObjectComparator.deepHashCode(new JSONArray("[1, 2]")),
+        ObjectComparator.deepHashCode(new JSONArray("[2, 1]")));
+  }
+
+  @Test
+  public void hashCodeNormalizesNumbers() {
+    assertSameHashCode(1, 1.0);
+    assertSameHashCode(1, 1L);
+    assertSameHashCode(1, new BigDecimal("1.00"));
+    assertSameHashCode(0, -0.0);
+    assertSameHashCode(0.1, new BigDecimal("0.10"));
+    assertSameHashCode(1e20, BigInteger.TEN.pow(20));
+    assertSameHashCode(new BigInteger("18446744073709551615"),
+        new BigDecimal("18446744073709551615.0"));
+  }
+
+}
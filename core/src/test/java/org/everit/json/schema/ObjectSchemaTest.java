@@ -15,6 +15,9 @@
  */
 package org.everit.json.schema;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 import org.json.JSONObject;
 import org.json.JSONTokener;
 import org.junit.Assert;
@@ -41,6 +44,31 @@ public class ObjectSchemaTest {
     TestSupport.expectFailure(subject, "#/foo", OBJECTS.get("additionalPropertySchema"));
   }
 
+  @Test
+  public void keyCache() {
+    ObjectSchema subject = ObjectSchema.builder()
+        .addPropertySchema("a", BooleanSchema.INSTANCE)
+        .patternProperty("^x-", NullSchema.INSTANCE)
+        .additionalProperties(false)
+        .keyCacheSize(16)
+        .build();
+    JSONObject valid = new JSONObject("{\"a\": true, \"x-1\": null, \"x-2\": null}");
+    JSONObject invalid = new JSONObject("{\"a\": true, \"x-1\": 1, \"b\": null}");
+    for (int i = 0; i < 3; ++i) {
+      Assert.assertTrue(subject.isValid(valid));
+      Assert.assertFalse(subject.isValid(invalid));
+      TestSupport.expectFailure(subject, invalid);
+    }
+    CacheStatistics statistics = subject.getKeyCacheStatistics();
+    Assert.assertEquals(4, statistics.getMissCount());
+    Assert.assertTrue(statistics.getHitCount() >= 17);
+  }
+
+  @Test
+  public void keyCacheIsDisabledByDefault() {
+    Assert.assertNull(ObjectSchema.builder().build().getKeyCacheStatistics());
+  }
+
   @Test
   public void maxPropertiesFailure() {
     ObjectSchema subject = ObjectSchema.builder().maxProperties(2).build();
@@ -124,6 +152,45 @@ public class ObjectSchemaTest {
     }
   }
 
+  @Test
+  public void wideObject() {
+    ObjectSchema.Builder builder = ObjectSchema.builder()
+        .patternProperty("^x-", BooleanSchema.INSTANCE)
+        .schemaOfAdditionalProperties(NullSchema.INSTANCE);
+    JSONObject valid = new JSONObject();
+    for (int i = 0; i < 150; ++i) {
+      builder.addPropertySchema("p" + i, NumberSchema.builder().build());
+      builder.addRequiredProperty("r" + i);
+      valid.put("p" + i, i).put("r" + i, JSONObject.NULL).put("x-" + i, true);
+    }
+    builder.propertyDependency("r149", "d").schemaDependency("p149",
+        ObjectSchema.builder().addRequiredProperty("d").build());
+    ObjectSchema subject = builder.build();
+    valid.put("d", JSONObject.NULL);
+    subject.validate(valid);
+    Assert.assertTrue(subject.isValid(valid));
+
+    JSONObject invalid = new JSONObject(valid.toString());
+    invalid.remove("r140");
+    invalid.remove("d");
+    invalid.put("p130", "a").put("x-1", 1).put("other", 1);
+    Assert.assertFalse(subject.isValid(invalid));
+    try {
+      subject.validate(invalid);
+      Assert.fail("did not throw exception");
+    } catch (ValidationException e) {
+      Assert.assertEquals(6, e.getViolationCount());
+      List<String> messages = e.getCausingExceptions().stream()
+          .map(ValidationException::getMessage)
+          .collect(Collectors.toList());
+      Assert.assertTrue(messages.contains("#: required key [r140] not found"));
+      Assert.assertTrue(messages.contains("#: property [d] is required"));
+      Assert.assertTrue(messages.contains("#: required key [d] not found"));
+    }
+    Assert.assertFalse(subject.isValid(new JSONObject(valid.toString()).put("x-1", 1)));
+    Assert.assertFalse(subject.isValid(new JSONObject(valid.toString()).put("other", 1)));
+  }
+
   @Test
   public void noAdditionalProperties() {
     ObjectSchema subject = ObjectSchema.builder().additionalProperties(false).build();
@@ -165,6 +232,17 @@ public class ObjectSchemaTest {
         OBJECTS.get("patternPropertyViolation"));
   }
 
+  @Test
+  public void patternPropertyExceedingStepLimit() {
+    ObjectSchema subject = ObjectSchema.builder()
+        .patternProperty("^a*$", BooleanSchema.INSTANCE)
+        .regexpFactory(new JavaUtilRegexpFactory(1000))
+        .build();
+    JSONObject input = new JSONObject().put(new String(new char[2000]).replace('\0', 'a'), true);
+    TestSupport.expectFailure(subject, "#", input);
+    subject.validate(new JSONObject("{\"aaaa\": true, \"b\": 1}"));
+  }
+
   @Test
   public void patternPropsOverrideAdditionalProps() {
     ObjectSchema.builder()
@@ -227,6 +305,62 @@ public class ObjectSchemaTest {
         .schemaOfAdditionalProperties(BooleanSchema.INSTANCE).build();
   }
 
+  @Test
+  public void shapeCache() {
+    ObjectSchema subject = ObjectSchema.builder()
+        .addPropertySchema("a", BooleanSchema.INSTANCE)
+        .addPropertySchema("b", BooleanSchema.INSTANCE)
+        .addRequiredProperty("a")
+        .propertyDependency("b", "a")
+        .schemaDependency("b", ObjectSchema.builder()
+            .addPropertySchema("b", EnumSchema.builder().possibleValue(true).build())
+            .build())
+        .additionalProperties(false)
+        .maxProperties(2)
+        .shapeCacheSize(16)
+        .build();
+    JSONObject valid = new JSONObject("{\"a\": true, \"b\": true}");
+    JSONObject invalidValue = new JSONObject("{\"a\": 1, \"b\": true}");
+    JSONObject schemaDepViolation = new JSONObject("{\"a\": true, \"b\": false}");
+    JSONObject missingRequired = new JSONObject("{\"b\": true}");
+    for (int i = 0; i < 3; ++i) {
+      Assert.assertTrue(subject.isValid(valid));
+      TestSupport.expectFailure(subject, BooleanSchema.INSTANCE, "#/a", invalidValue);
+      Assert.assertFalse(subject.isValid(schemaDepViolation));
+      TestSupport.expectFailure(subject, "#", missingRequired);
+    }
+    CacheStatistics statistics = subject.getShapeCacheStatistics();
+    Assert.assertEquals(11, statistics.getHitCount());
+    Assert.assertEquals(7, statistics.getMissCount());
+  }
+
+  @Test
+  public void shapeCacheIgnoresSkippedChecks() {
+    ObjectSchema inner = ObjectSchema.builder()
+        .addRequiredProperty("x")
+        .shapeCacheSize(16)
+        .build();
+    ObjectSchema outer = ObjectSchema.builder()
+        .addPropertySchema("a", ObjectSchema.builder().minProperties(1).build())
+        .patternProperty("^a", inner)
+        .build();
+    JSONObject empty = new JSONObject();
+    Assert.assertFalse(inner.isValid(empty));
+    try {
+      outer.validate(new JSONObject("{\"a\": {}}"), ValidationContext.failFast());
+      Assert.fail("did not throw ValidationException");
+    } catch (ValidationException e) {
+      Assert.assertEquals("#/a", e.getPointerToViolation());
+    }
+    Assert.assertFalse(inner.isValid(empty));
+    TestSupport.expectFailure(inner, "#", empty);
+  }
+
+  @Test
+  public void shapeCacheIsDisabledByDefault() {
+    Assert.assertNull(ObjectSchema.builder().build().getShapeCacheStatistics());
+  }
+
   @Test
   public void testImmutability() {
     ObjectSchema.Builder builder = ObjectSchema.builder();
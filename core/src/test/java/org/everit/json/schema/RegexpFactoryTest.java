@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.util.regex.Pattern;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RegexpFactoryTest {
+
+  private static String repeat(final char c, final int count) {
+    return new String(new char[count]).replace('\0', c);
+  }
+
+  @Test
+  public void automatonIsNotLimited() {
+    Regexp subject = new LinearTimeRegexpFactory(1).createHandler(Pattern.compile("^(a+)+$"));
+    Assert.assertFalse(subject.find(repeat('a', 100000) + "b"));
+    Assert.assertTrue(subject.find(repeat('a', 100000)));
+  }
+
+  @Test(expected = RegexpStepLimitExceededException.class)
+  public void backtrackingIsLimited() {
+    // the back reference needs the backtracking engine, which reads at least one character from
+    // each start position
+    Regexp subject = new LinearTimeRegexpFactory(10000).createHandler(Pattern.compile("(a)\\1"));
+    subject.find(repeat('b', 20000));
+  }
+
+  @Test
+  public void backtrackingWithinLimit() {
+    Regexp subject = new LinearTimeRegexpFactory(10000).createHandler(Pattern.compile("(a)\\1"));
+    Assert.assertTrue(subject.find("baab"));
+    Assert.assertFalse(subject.find("abab"));
+  }
+
+  @Test
+  public void javaUtilRegexpFactory() {
+    Regexp subject = new JavaUtilRegexpFactory().createHandler(Pattern.compile("^a.c$"));
+    Assert.assertTrue(subject.find("abc"));
+    Assert.assertFalse(subject.find("abcd"));
+  }
+
+  @Test
+  public void flagsAreKept() {
+    Regexp subject = LinearTimeRegexpFactory.INSTANCE.createHandler(
+        Pattern.compile("^abc$", Pattern.CASE_INSENSITIVE));
+    Assert.assertTrue(subject.find("ABC"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void stepLimitMustBePositive() {
+    new JavaUtilRegexpFactory(0);
+  }
+
+}
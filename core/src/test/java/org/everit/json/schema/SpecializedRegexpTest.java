@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SpecializedRegexpTest {
+
+  private static final List<String> LITERALS = Arrays.asList(
+      "", "^", "$", "^$", "abc", "^abc", "abc$", "^abc$", "^urn:", "^(?:ab)c", "a\\.b$",
+      "^\\$\\^$", "^a\\nb$");
+
+  private static final List<String> CLASS_SEQUENCES = Arrays.asList(
+      "^[a-z0-9-]+$", "^\\d{4}-\\d{2}-\\d{2}$", "^[a-z][a-z0-9_]*$", "^[A-Z]{2}\\d{2,4}$",
+      "^\\d+", "^[^a]{2}$", "^.{1,3}$", "^\\s*$", "^a?$", "^[^x]*$", "^x\\S+", "^\\w{0,2}$");
+
+  private static final List<String> NOT_SPECIALIZED = Arrays.asList(
+      "[a-z]+", "^a+b+$", "^(ab)+$", "^(a|b)$", "a^b", "(?i)^abc$", "^(?=a)", "\\d$",
+      "^\\d{300}$");
+
+  private static final List<String> SUBJECTS = Arrays.asList(
+      "", "abc", "xabc", "abcx", "abc\n", "abc\r\n", "abc\n\n", "abc ", "urn:x", "ab",
+      "a.b", "$^", "a\nb", "my-id-42", "My-id", "2016-01-02", "2016-1-02", "2016-01-02\n",
+      "a", "a_1", "1a", "AB12", "AB12345", "AB1", "123", "12a", " \t", "\n", "\r\n", "bb",
+      "😀", "😀😀", "\ud83d", "b😀", "x😀",
+      "xa", "x", "\u0085", "abc\r");
+
+  private static void assertAgrees(final String regex, final String subject) {
+    Pattern pattern = Pattern.compile(regex);
+    Assert.assertEquals("pattern " + regex + ", subject [" + subject + "]",
+        pattern.matcher(subject).find(), SpecializedRegexp.of(pattern).find(subject));
+  }
+
+  @Test
+  public void classSequencesAgreeWithPatterns() {
+    for (String regex : CLASS_SEQUENCES) {
+      Assert.assertTrue(regex,
+          SpecializedRegexp.of(Pattern.compile(regex)) instanceof SpecializedRegexp.ClassSequence);
+      for (String subject : SUBJECTS) {
+        assertAgrees(regex, subject);
+      }
+    }
+  }
+
+  @Test
+  public void factoryUsesSpecializedRegexps() {
+    Assert.assertTrue(LinearTimeRegexpFactory.INSTANCE.createHandler(Pattern.compile("^urn:"))
+        instanceof SpecializedRegexp);
+    Assert.assertTrue(LinearTimeRegexpFactory.INSTANCE.createHandler(Pattern.compile("^a+b+$"))
+        instanceof MultiPatternMatcher);
+  }
+
+  @Test
+  public void literalsAgreeWithPatterns() {
+    for (String regex : LITERALS) {
+      Assert.assertTrue(regex,
+          SpecializedRegexp.of(Pattern.compile(regex)) instanceof SpecializedRegexp.Literal);
+      for (String subject : SUBJECTS) {
+        assertAgrees(regex, subject);
+      }
+    }
+  }
+
+  @Test
+  public void notSpecialized() {
+    for (String regex : NOT_SPECIALIZED) {
+      Assert.assertNull(regex, SpecializedRegexp.of(Pattern.compile(regex)));
+    }
+  }
+
+  @Test
+  public void randomSubjectsAgreeWithPatterns() {
+    Random random = new Random(42);
+    for (String regex : Arrays.asList("^[a-b]+$", "^\\w\\W?$", "^[^a]{1,2}$", "^ab$", "b$")) {
+      for (int i = 0; i < 200; ++i) {
+        char[] subject = new char[random.nextInt(5)];
+        for (int j = 0; j < subject.length; ++j) {
+          subject[j] = "ab- \n\r😀".charAt(random.nextInt(8));
+        }
+        assertAgrees(regex, new String(subject));
+      }
+    }
+  }
+
+}
@@ -15,10 +15,34 @@
  */
 package org.everit.json.schema;
 
+import org.junit.Assert;
 import org.junit.Test;
 
 public class StringSchemaTest {
 
+  @Test
+  public void customFormat() {
+    FormatRegistry registry = FormatRegistry.builder()
+        .format("even-length", subject -> subject.length() % 2 == 0)
+        .build();
+    StringSchema subject = StringSchema.builder().format("even-length").formatRegistry(registry)
+        .build();
+    subject.validate("ab");
+    TestSupport.expectFailure(subject, "abc");
+  }
+
+  @Test
+  public void formatFailure() {
+    StringSchema subject = StringSchema.builder().format("ipv4").build();
+    Assert.assertSame(Formats.IPV4, subject.getFormatValidator());
+    TestSupport.expectFailure(subject, "127.0.0");
+  }
+
+  @Test
+  public void formatSuccess() {
+    StringSchema.builder().format("date-time").build().validate("2016-02-29T23:59:60+01:00");
+  }
+
   @Test
   public void maxLength() {
     StringSchema subject = StringSchema.builder().maxLength(3).build();
@@ -36,6 +60,15 @@ public class StringSchemaTest {
     StringSchema.builder().requiresString(false).build().validate(2);
   }
 
+  @Test
+  public void patternExceedingStepLimit() {
+    StringSchema subject = StringSchema.builder().pattern("^a*$")
+        .regexpFactory(new JavaUtilRegexpFactory(1000))
+        .build();
+    TestSupport.expectFailure(subject, new String(new char[2000]).replace('\0', 'a'));
+    subject.validate("aaaa");
+  }
+
   @Test
   public void patternFailure() {
     StringSchema subject = StringSchema.builder().pattern("^a*$").build();
@@ -47,6 +80,12 @@ public class StringSchemaTest {
     StringSchema.builder().pattern("^a*$").build().validate("aaaa");
   }
 
+  @Test
+  public void regexpFactoryDefault() {
+    Assert.assertSame(LinearTimeRegexpFactory.INSTANCE,
+        StringSchema.builder().build().getRegexpFactory());
+  }
+
   @Test
   public void success() {
     StringSchema.builder().build().validate("foo");
@@ -56,4 +95,12 @@ public class StringSchemaTest {
   public void typeFailure() {
     TestSupport.expectFailure(StringSchema.builder().build(), null);
   }
+
+  @Test
+  public void unknownFormatIsIgnored() {
+    StringSchema subject = StringSchema.builder().format("unknown").build();
+    Assert.assertNull(subject.getFormatValidator());
+    subject.validate("anything");
+  }
+
 }
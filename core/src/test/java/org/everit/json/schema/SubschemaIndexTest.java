@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import org.everit.json.schema.loader.SchemaLoader;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SubschemaIndexTest {
+
+  private static SubschemaIndex index(final String combinedSchemaJson) {
+    CombinedSchema schema = (CombinedSchema) SchemaLoader.load(new JSONObject(combinedSchemaJson));
+    return new SubschemaIndex(schema.getSubschemas().toArray(new Schema[0]));
+  }
+
+  @Test
+  public void discriminatorInAllOf() {
+    SubschemaIndex subject = index("{\"oneOf\": ["
+        + "{\"allOf\": [{\"$ref\": \"#/definitions/event\"},"
+        + "  {\"properties\": {\"type\": {\"enum\": [\"a\", \"b\"]}}}]},"
+        + "{\"properties\": {\"type\": {\"enum\": [\"c\"]}}}"
+        + "], \"definitions\": {"
+        + "  \"event\": {\"properties\": {\"type\": {\"enum\": [\"a\", \"c\"]}}}}}");
+    Assert.assertEquals("type", subject.getDiscriminator());
+    Assert.assertArrayEquals(new int[] {0},
+        subject.candidates(new JSONObject("{\"type\": \"a\"}")));
+    Assert.assertArrayEquals(new int[0], subject.candidates(new JSONObject("{\"type\": \"b\"}")));
+    Assert.assertArrayEquals(new int[] {1},
+        subject.candidates(new JSONObject("{\"type\": \"c\"}")));
+  }
+
+  @Test
+  public void discriminatorValues() {
+    SubschemaIndex subject = index("{\"oneOf\": ["
+        + "{\"properties\": {\"type\": {\"enum\": [\"a\"]}, \"x\": {\"enum\": [1]}}},"
+        + "{\"properties\": {\"type\": {\"enum\": [\"b\", 2]}}, \"required\": [\"type\"]},"
+        + "{\"properties\": {\"type\": {\"enum\": [\"b\", null]}}}"
+        + "]}");
+    Assert.assertEquals("type", subject.getDiscriminator());
+    Assert.assertArrayEquals(new int[] {0},
+        subject.candidates(new JSONObject("{\"type\": \"a\"}")));
+    Assert.assertArrayEquals(new int[] {1, 2},
+        subject.candidates(new JSONObject("{\"type\": \"b\"}")));
+    Assert.assertArrayEquals(new int[] {1}, subject.candidates(new JSONObject("{\"type\": 2}")));
+    Assert.assertArrayEquals(new int[] {2}, subject.candidates(new JSONObject("{\"type\": null}")));
+    Assert.assertArrayEquals(new int[] {1}, subject.candidates(new JSONObject("{\"type\": 2.0}")));
+    Assert.assertArrayEquals(new int[0], subject.candidates(new JSONObject("{\"type\": 2.5}")));
+    Assert.assertArrayEquals(new int[0], subject.candidates(new JSONObject("{\"type\": \"c\"}")));
+  }
+
+  @Test
+  public void fallsBackToTypesWithoutDiscriminatorProperty() {
+    SubschemaIndex subject = index("{\"anyOf\": ["
+        + "{\"type\": \"object\", \"properties\": {\"type\": {\"enum\": [\"a\"]}}},"
+        + "{\"type\": \"object\", \"properties\": {\"type\": {\"enum\": [\"b\"]}}}"
+        + "]}");
+    Assert.assertArrayEquals(new int[] {0, 1}, subject.candidates(new JSONObject("{}")));
+    Assert.assertArrayEquals(new int[0], subject.candidates("a"));
+  }
+
+  @Test
+  public void noCommonEnumProperty() {
+    Assert.assertNull(index("{\"oneOf\": ["
+        + "{\"properties\": {\"type\": {\"enum\": [\"a\"]}}},"
+        + "{\"properties\": {\"kind\": {\"enum\": [\"b\"]}}}"
+        + "]}").getDiscriminator());
+    Assert.assertNull(index("{\"oneOf\": ["
+        + "{\"properties\": {\"type\": {\"enum\": [\"a\"]}}},"
+        + "{\"properties\": {\"type\": {\"type\": \"string\"}}}"
+        + "]}").getDiscriminator());
+    Assert.assertNull(index("{\"oneOf\": ["
+        + "{\"properties\": {\"type\": {\"enum\": [\"a\"]}}},"
+        + "{\"properties\": {\"type\": {\"enum\": [{\"b\": 1}]}}}"
+        + "]}").getDiscriminator());
+    Assert.assertNull(index("{\"anyOf\": ["
+        + "{\"properties\": {\"type\": {\"enum\": [\"a\"]}}},"
+        + "{\"type\": \"string\"}"
+        + "]}").getDiscriminator());
+  }
+
+}
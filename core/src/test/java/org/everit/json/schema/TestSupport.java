@@ -57,6 +57,7 @@ public class TestSupport {
 
   private static void test(final Schema failingSchema, final String expectedPointer,
       final Object input) {
+    Assert.assertFalse(failingSchema + " is valid for " + input, failingSchema.isValid(input));
     try {
       failingSchema.validate(input);
       Assert.fail(failingSchema + " did not fail for " + input);
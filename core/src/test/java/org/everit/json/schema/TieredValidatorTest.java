@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.everit.json.schema.TieredValidator.Tier;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TieredValidatorTest {
+
+  private final List<Runnable> pendingCompilations = new ArrayList<>();
+
+  private TieredValidators deferred(final long compileThreshold) {
+    return TieredValidators.builder()
+        .compileThreshold(compileThreshold)
+        .executor(pendingCompilations::add)
+        .compiler(CompiledSchema::compile)
+        .build();
+  }
+
+  private void runPendingCompilations() {
+    pendingCompilations.forEach(Runnable::run);
+    pendingCompilations.clear();
+  }
+
+  @Test
+  public void compilationDoesNotBlockCallers() {
+    TieredValidator subject = deferred(2).forSchema(BooleanSchema.INSTANCE);
+    Assert.assertTrue(subject.isValid(true));
+    Assert.assertEquals(Tier.INTERPRETED, subject.getTier());
+    Assert.assertFalse(subject.isValid(1));
+    Assert.assertEquals(Tier.COMPILING, subject.getTier());
+    Assert.assertEquals(1, pendingCompilations.size());
+    Assert.assertTrue(subject.isValid(false));
+    Assert.assertFalse(subject.getCurrentValidator() instanceof CompiledSchema);
+    runPendingCompilations();
+    Assert.assertEquals(Tier.COMPILED, subject.getTier());
+    Assert.assertTrue(subject.getCurrentValidator() instanceof CompiledSchema);
+    Assert.assertTrue(subject.isValid(true));
+    Assert.assertEquals(4, subject.getInvocationCount());
+    Assert.assertTrue(pendingCompilations.isEmpty());
+  }
+
+  @Test
+  public void compilationFailure() {
+    IllegalStateException failure = new IllegalStateException();
+    TieredValidator subject = TieredValidators.builder()
+        .compileThreshold(1)
+        .executor(Runnable::run)
+        .compiler(schema -> {
+          throw failure;
+        })
+        .build()
+        .forSchema(BooleanSchema.INSTANCE);
+    Assert.assertTrue(subject.isValid(true));
+    Assert.assertEquals(Tier.FAILED, subject.getTier());
+    Assert.assertSame(failure, subject.getCompilationFailure());
+    Assert.assertFalse(subject.isValid(1));
+  }
+
+  @Test
+  public void defaultCompiler() {
+    TieredValidator subject = TieredValidators.builder()
+        .compileThreshold(0)
+        .executor(Runnable::run)
+        .build()
+        .forSchema(NullSchema.INSTANCE);
+    subject.validate(null);
+    Assert.assertEquals(Tier.COMPILED, subject.getTier());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void negativeThreshold() {
+    TieredValidators.builder().compileThreshold(-1);
+  }
+
+  @Test
+  public void tiersArePerRootSchema() {
+    TieredValidators validators = deferred(1);
+    Assert.assertSame(validators.forSchema(BooleanSchema.INSTANCE),
+        validators.forSchema(BooleanSchema.INSTANCE));
+    validators.forSchema(BooleanSchema.INSTANCE).isValid(true);
+    validators.forSchema(NullSchema.INSTANCE);
+    Assert.assertEquals(Tier.COMPILING, validators.getTiers().get(BooleanSchema.INSTANCE));
+    Assert.assertEquals(Tier.INTERPRETED, validators.getTiers().get(NullSchema.INSTANCE));
+    runPendingCompilations();
+    Assert.assertEquals(Tier.COMPILED, validators.getTiers().get(BooleanSchema.INSTANCE));
+    Assert.assertTrue(validators.remove(NullSchema.INSTANCE));
+    Assert.assertEquals(1, validators.getTiers().size());
+  }
+
+  @Test
+  public void validateReportsViolationsInEveryTier() {
+    TieredValidator subject = deferred(1).forSchema(BooleanSchema.INSTANCE);
+    for (int i = 0; i < 2; ++i) {
+      try {
+        subject.validate("string");
+        Assert.fail("did not throw exception");
+      } catch (ValidationException e) {
+        Assert.assertSame(BooleanSchema.INSTANCE, e.getViolatedSchema());
+      }
+      runPendingCompilations();
+    }
+    Assert.assertEquals(Tier.COMPILED, subject.getTier());
+  }
+
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ValidationContextTest {
+
+  private final ArraySchema boolArray = ArraySchema.builder()
+      .allItemSchema(BooleanSchema.INSTANCE)
+      .build();
+
+  private final JSONArray fourInvalidItems = new JSONArray("[\"a\", true, 1, null, \"b\"]");
+
+  private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+  private ValidationException expectFailure(final Schema schema, final Object input,
+      final ValidationContext context) {
+    try {
+      schema.validate(input, context);
+      Assert.fail("did not throw ValidationException");
+      return null;
+    } catch (ValidationException e) {
+      return e;
+    }
+  }
+
+  @Test
+  public void collectAll() {
+    ValidationContext context = ValidationContext.collectAll();
+    ValidationException e = expectFailure(boolArray, fourInvalidItems, context);
+    Assert.assertEquals(4, e.getCausingExceptions().size());
+    Assert.assertEquals(4, e.getViolationCount());
+    Assert.assertEquals(4, context.getFailureCount());
+    Assert.assertFalse(context.isFailureLimitReached());
+  }
+
+  @Test
+  public void customSchemaFailuresAreCounted() {
+    Schema custom = new Schema(EmptySchema.builder()) {
+
+      @Override
+      public void validate(final Object subject) {
+        throw new ValidationException(this, "custom failure");
+      }
+
+    };
+    ValidationContext context = ValidationContext.failFast();
+    ValidationException e = expectFailure(ArraySchema.builder().allItemSchema(custom).build(),
+        new JSONArray("[1, 2]"), context);
+    Assert.assertEquals("#/0", e.getPointerToViolation());
+    Assert.assertEquals(1, context.getFailureCount());
+  }
+
+  private JSONArray largeArray() {
+    JSONArray rval = new JSONArray();
+    for (int i = 0; i < 1000; ++i) {
+      rval.put(i % 7 == 0 ? i : (Object) Boolean.TRUE);
+    }
+    return rval;
+  }
+
+  private List<String> messages(final ValidationException e) {
+    return e.getCausingExceptions().stream()
+        .map(ValidationException::getMessage)
+        .collect(Collectors.toList());
+  }
+
+  private List<String> pointers(final ValidationException e) {
+    return e.getCausingExceptions().stream()
+        .map(ValidationException::getPointerToViolation)
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  public void failFastInArray() {
+    ValidationException e = expectFailure(boolArray, fourInvalidItems,
+        ValidationContext.failFast());
+    Assert.assertEquals("#/0", e.getPointerToViolation());
+    Assert.assertSame(BooleanSchema.INSTANCE, e.getViolatedSchema());
+    Assert.assertTrue(e.getCausingExceptions().isEmpty());
+  }
+
+  @Test
+  public void failFastInNestedObjects() {
+    ObjectSchema subject = ObjectSchema.builder()
+        .addPropertySchema("items", boolArray)
+        .addRequiredProperty("items")
+        .addRequiredProperty("name")
+        .minProperties(3)
+        .build();
+    JSONObject input = new JSONObject();
+    input.put("items", fourInvalidItems);
+    ValidationContext context = ValidationContext.failFast();
+    ValidationException e = expectFailure(subject, input, context);
+    Assert.assertEquals(1, e.getViolationCount());
+    Assert.assertEquals(1, context.getFailureCount());
+    Assert.assertTrue(context.isFailureLimitReached());
+  }
+
+  @Test
+  public void maxFailures() {
+    ValidationContext context = ValidationContext.maxFailures(2);
+    ValidationException e = expectFailure(boolArray, fourInvalidItems, context);
+    Assert.assertEquals(2, e.getCausingExceptions().size());
+    Assert.assertEquals("#/0", e.getCausingExceptions().get(0).getPointerToViolation());
+    Assert.assertEquals("#/2", e.getCausingExceptions().get(1).getPointerToViolation());
+    Assert.assertTrue(context.isFailureLimitReached());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void nonPositiveMaxFailures() {
+    ValidationContext.maxFailures(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void nonPositiveParallelThreshold() {
+    ValidationContext.collectAll().parallel(POOL, 0);
+  }
+
+  @Test
+  public void parallelArrayItems() {
+    JSONArray input = largeArray();
+    ValidationException expected = expectFailure(boolArray, input,
+        ValidationContext.collectAll());
+    ValidationContext context = ValidationContext.collectAll().parallel(POOL, 10);
+    ValidationException actual = expectFailure(boolArray, input, context);
+    Assert.assertEquals(143, actual.getViolationCount());
+    Assert.assertEquals(pointers(expected), pointers(actual));
+    Assert.assertEquals(143, context.getFailureCount());
+  }
+
+  @Test
+  public void parallelFailFast() {
+    ValidationContext context = ValidationContext.maxFailures(3).parallel(POOL, 10);
+    ValidationException e = expectFailure(boolArray, largeArray(), context);
+    Assert.assertEquals(3, context.getFailureCount());
+    Assert.assertEquals(3, e.getViolationCount());
+    Assert.assertEquals(Arrays.asList("#/0", "#/7", "#/14"), pointers(e));
+  }
+
+  @Test
+  public void parallelMaxFailuresWithinItems() {
+    ArraySchema schema = ArraySchema.builder()
+        .allItemSchema(ObjectSchema.builder()
+            .addRequiredProperty("a")
+            .addRequiredProperty("b")
+            .build())
+        .build();
+    JSONArray input = new JSONArray();
+    // a single violation in the first two items, two violations in each item of the second half
+    for (int i = 0; i < 1000; ++i) {
+      JSONObject item = new JSONObject();
+      if (i < 500) {
+        item.put("a", true);
+      }
+      if (i >= 2 && i < 500) {
+        item.put("b", true);
+      }
+      input.put(item);
+    }
+    List<String> expected = new ArrayList<>();
+    schema.validate(input, ValidationContext.withListener(
+        violation -> expected.add(violation.toString()), 3));
+    List<String> actual = new ArrayList<>();
+    ValidationContext context = ValidationContext.withListener(
+        violation -> actual.add(violation.toString()), 3).parallel(POOL, 10);
+    schema.validate(input, context);
+    Assert.assertEquals(3, actual.size());
+    Assert.assertEquals(expected, actual);
+    Assert.assertEquals(3, context.getFailureCount());
+    ValidationException e = expectFailure(schema, input,
+        ValidationContext.maxFailures(3).parallel(POOL, 10));
+    Assert.assertEquals(3, e.getViolationCount());
+    Assert.assertEquals(Arrays.asList("#/0", "#/1", "#/500"), pointers(e));
+  }
+
+  @Test
+  public void parallelListener() {
+    List<String> pointers = new ArrayList<>();
+    ValidationContext context = ValidationContext.withListener(
+        violation -> pointers.add(violation.getPointerToViolation())).parallel(POOL, 10);
+    ArraySchema.builder().allItemSchema(boolArray).build()
+        .validate(new JSONArray().put(largeArray()).put(largeArray()), context);
+    Assert.assertEquals(286, pointers.size());
+    Assert.assertEquals("#/0/0", pointers.get(0));
+    Assert.assertEquals("#/0/994", pointers.get(142));
+    Assert.assertEquals("#/1/0", pointers.get(143));
+    Assert.assertEquals("#/1/994", pointers.get(285));
+  }
+
+  @Test
+  public void parallelObjectProperties() {
+    ObjectSchema schema = ObjectSchema.builder()
+        .addPropertySchema("p0", NullSchema.INSTANCE)
+        .patternProperty("^p", BooleanSchema.INSTANCE)
+        .additionalProperties(false)
+        .build();
+    JSONObject input = new JSONObject();
+    for (int i = 0; i < 100; ++i) {
+      input.put("p" + i, i % 10 == 0 ? (Object) i : Boolean.TRUE);
+    }
+    input.put("other", 1);
+    ValidationException expected = expectFailure(schema, input, ValidationContext.collectAll());
+    ValidationException actual = expectFailure(schema, input,
+        ValidationContext.collectAll().parallel(POOL, 10));
+    Assert.assertEquals(expected.getViolationCount(), actual.getViolationCount());
+    Assert.assertEquals(pointers(expected), pointers(actual));
+    Assert.assertEquals(messages(expected), messages(actual));
+  }
+
+  @Test
+  public void validSubject() {
+    ValidationContext context = ValidationContext.failFast();
+    boolArray.validate(new JSONArray("[true, false]"), context);
+    Assert.assertEquals(0, context.getFailureCount());
+  }
+
+}
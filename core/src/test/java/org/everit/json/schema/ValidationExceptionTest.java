@@ -15,6 +15,10 @@
  */
 package org.everit.json.schema;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -26,6 +30,15 @@ public class ValidationExceptionTest {
 
   private final Schema rootSchema = ObjectSchema.builder().build();
 
+  private ValidationException aggregate(final ValidationException... causes) {
+    try {
+      ValidationException.throwFor(rootSchema, Arrays.asList(causes));
+      throw new AssertionError("did not throw exception");
+    } catch (ValidationException e) {
+      return e;
+    }
+  }
+
   @Test
   public void constructorNullSchema() {
     new ValidationException(null, Boolean.class, 2);
@@ -102,6 +115,57 @@ public class ValidationExceptionTest {
 
   }
 
+  @Test
+  public void prependEscapesCausePointersOnce() {
+    ValidationException cause1 = createDummyException("#/a");
+    ValidationException cause2 = createDummyException("#/b");
+    try {
+      ValidationException.throwFor(rootSchema, Arrays.asList(cause1, cause2));
+      Assert.fail();
+    } catch (ValidationException e) {
+      ValidationException actual = e.prepend("x/y").prepend("z~");
+      Assert.assertEquals("#/z~0/x~1y", actual.getPointerToViolation());
+      Assert.assertEquals("#/z~0/x~1y/a",
+          actual.getCausingExceptions().get(0).getPointerToViolation());
+    }
+  }
+
+  @Test
+  public void prependToDeepHierarchy() {
+    ValidationException exc = createDummyException("#/leaf");
+    for (int i = 0; i < 1000; ++i) {
+      exc = aggregate(exc, createDummyException("#")).prepend(String.valueOf(i));
+    }
+    ValidationException leaf = exc;
+    for (int i = 0; i < 3; ++i) {
+      leaf = leaf.getCausingExceptions().get(0);
+    }
+    Assert.assertTrue(leaf.getPointerToViolation().startsWith("#/999/998/997/"));
+    Assert.assertEquals(1001, exc.getViolationCount());
+  }
+
+  @Test
+  public void serialization() throws Exception {
+    ValidationException exc = new ValidationException(BooleanSchema.INSTANCE, Boolean.class, 2)
+        .prepend("a");
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(exc);
+    }
+    try (ObjectInputStream in = new ObjectInputStream(
+        new ByteArrayInputStream(bytes.toByteArray()))) {
+      ValidationException actual = (ValidationException) in.readObject();
+      Assert.assertEquals("#/a: expected type: Boolean, found: Integer", actual.getMessage());
+      Assert.assertEquals("#/b/a", actual.prepend("b").getPointerToViolation());
+    }
+  }
+
+  @Test
+  public void stackTraceIsNotCaptured() {
+    ValidationException exc = new ValidationException(BooleanSchema.INSTANCE, "msg");
+    Assert.assertEquals(0, exc.getStackTrace().length);
+  }
+
   @Test
   public void testConstructor() {
     ValidationException exc = new ValidationException(BooleanSchema.INSTANCE, Boolean.class, 2);
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ValidationListenerTest {
+
+  private final ObjectSchema schema = ObjectSchema.builder()
+      .addPropertySchema("items", ArraySchema.builder()
+          .allItemSchema(BooleanSchema.INSTANCE)
+          .build())
+      .addPropertySchema("a/b", StringSchema.builder().maxLength(2).build())
+      .addRequiredProperty("name")
+      .build();
+
+  private final JSONObject subject = new JSONObject(
+      "{\"items\": [true, 1, false, null], \"a/b\": \"abc\"}");
+
+  @Test
+  public void collectorKeepsViolationsInOrder() {
+    ViolationCollector collector = new ViolationCollector();
+    ArraySchema.builder().allItemSchema(BooleanSchema.INSTANCE).build()
+        .validate(subject.get("items"), ValidationContext.withListener(collector));
+    List<Violation> violations = collector.getViolations();
+    Assert.assertEquals(2, violations.size());
+    Assert.assertEquals("#/1", violations.get(0).getPointerToViolation());
+    Assert.assertEquals("#/3", violations.get(1).getPointerToViolation());
+    Assert.assertSame(BooleanSchema.INSTANCE, violations.get(1).getViolatedSchema());
+  }
+
+  @Test
+  public void collectorReceivesNestedViolations() {
+    ViolationCollector collector = new ViolationCollector();
+    schema.validate(subject, ValidationContext.withListener(collector));
+    Map<String, Violation> violations = new HashMap<>();
+    for (Violation violation : collector.getViolations()) {
+      violations.put(violation.getPointerToViolation(), violation);
+    }
+    Assert.assertEquals(new HashSet<>(Arrays.asList("#", "#/items/1", "#/items/3", "#/a~1b")),
+        violations.keySet());
+    Assert.assertEquals("expected maxLength: 2, actual: 3", violations.get("#/a~1b").getMessage());
+    Assert.assertEquals("required key [name] not found", violations.get("#").getMessage());
+    Assert.assertSame(schema, violations.get("#").getViolatedSchema());
+  }
+
+  @Test
+  public void collectorWithMaxViolations() {
+    ViolationCollector collector = new ViolationCollector(1);
+    schema.validate(subject, ValidationContext.withListener(collector));
+    Assert.assertEquals(1, collector.getViolations().size());
+    Assert.assertEquals(4, collector.getTotalCount());
+  }
+
+  @Test
+  public void counter() {
+    ViolationCounter counter = new ViolationCounter();
+    ValidationContext context = ValidationContext.withListener(counter);
+    schema.validate(subject, context);
+    Assert.assertEquals(4, counter.getCount());
+    Assert.assertEquals(4, context.getFailureCount());
+  }
+
+  @Test
+  public void customSchemaViolationsAreReportedWithAbsolutePointers() {
+    Schema custom = new Schema(EmptySchema.builder()) {
+
+      @Override
+      public void validate(final Object subject) {
+        throw new ValidationException(this, "custom failure").prepend("x/y");
+      }
+
+    };
+    ViolationCollector collector = new ViolationCollector();
+    ArraySchema.builder().allItemSchema(custom).build()
+        .validate(new JSONArray("[1]"), ValidationContext.withListener(collector));
+    Violation violation = collector.getViolations().get(0);
+    Assert.assertEquals("#/0/x~1y", violation.getPointerToViolation());
+    Assert.assertEquals("custom failure", violation.getMessage());
+    Assert.assertSame(custom, violation.getViolatedSchema());
+  }
+
+  @Test
+  public void failureLimit() {
+    ViolationCounter counter = new ViolationCounter();
+    ValidationContext context = ValidationContext.withListener(counter, 2);
+    schema.validate(subject, context);
+    Assert.assertEquals(2, counter.getCount());
+    Assert.assertTrue(context.isFailureLimitReached());
+  }
+
+  @Test
+  public void jsonWriter() {
+    StringWriter out = new StringWriter();
+    ArraySchema.builder().allItemSchema(BooleanSchema.INSTANCE).build()
+        .validate(new JSONArray("[\"a\"]"), ValidationContext.withListener(
+            new JSONViolationWriter(out)));
+    JSONObject written = new JSONObject(out.toString().trim());
+    Assert.assertEquals("#/0", written.getString("pointerToViolation"));
+    Assert.assertEquals("expected type: Boolean, found: String", written.getString("message"));
+  }
+
+  @Test
+  public void listenerContextDoesNotThrow() {
+    schema.validate(subject, ValidationContext.withListener(violation -> {
+    }));
+  }
+
+  @Test
+  public void validSubjectIsNotReported() {
+    ViolationCounter counter = new ViolationCounter();
+    schema.validate(new JSONObject("{\"name\": \"x\", \"items\": [true]}"),
+        ValidationContext.withListener(counter));
+    Assert.assertEquals(0, counter.getCount());
+  }
+
+}
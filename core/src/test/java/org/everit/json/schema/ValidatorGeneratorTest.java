@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ValidatorGeneratorTest {
+
+  private static final Schema CUSTOM = new Schema(EmptySchema.builder()) {
+
+    @Override
+    public void validate(final Object subject) {
+      if (!"custom".equals(subject)) {
+        throw new ValidationException(this, "not custom");
+      }
+    }
+
+  };
+
+  private ObjectSchema buildObjectSchema() {
+    return ObjectSchema.builder()
+        .addPropertySchema("name", StringSchema.builder().minLength(1).maxLength(5)
+            .pattern("^[^\"\\\\]*$").build())
+        .addPropertySchema("age", NumberSchema.builder().requiresInteger(true)
+            .minimum(0).exclusiveMaximum(true).maximum(150).build())
+        .addPropertySchema("ch\"aré", EnumSchema.builder()
+            .possibleValue("a\nb")
+            .possibleValue(1.5)
+            .possibleValue(new JSONObject("{\"a\": [1]}"))
+            .possibleValue(JSONObject.NULL)
+            .build())
+        .addRequiredProperty("name")
+        .patternProperty("^x-", BooleanSchema.INSTANCE)
+        .additionalProperties(false)
+        .propertyDependency("age", "name")
+        .schemaDependency("age", ObjectSchema.builder().minProperties(2).build())
+        .build();
+  }
+
+  private SchemaValidator generate(final Schema schema) {
+    SchemaValidator rval = ValidatorGenerator.generate(schema);
+    Assert.assertTrue(rval instanceof GeneratedValidator);
+    return rval;
+  }
+
+  @Test
+  public void arraySchema() {
+    SchemaValidator subject = generate(ArraySchema.builder()
+        .addItemSchema(BooleanSchema.INSTANCE)
+        .addItemSchema(NullSchema.INSTANCE)
+        .schemaOfAdditionalItems(NumberSchema.builder().multipleOf(0.5).build())
+        .uniqueItems(true)
+        .maxItems(4)
+        .build());
+    Assert.assertTrue(subject.isValid(new JSONArray("[true, null, 1.5, 2]")));
+    Assert.assertTrue(subject.isValid(new JSONArray("[true]")));
+    Assert.assertFalse(subject.isValid(new JSONArray("[true, null, 1.5, 1.5]")));
+    Assert.assertFalse(subject.isValid(new JSONArray("[true, null, 1.6]")));
+    Assert.assertFalse(subject.isValid(new JSONArray("[null]")));
+    Assert.assertFalse(subject.isValid(new JSONArray("[true, null, 1, 2, 3]")));
+  }
+
+  @Test
+  public void combinedSchemas() {
+    Schema oneOf = CombinedSchema.oneOf(Arrays.asList(
+        NumberSchema.builder().multipleOf(2).build(),
+        NumberSchema.builder().multipleOf(3).build())).build();
+    SchemaValidator subject = generate(oneOf);
+    Assert.assertTrue(subject.isValid(4));
+    Assert.assertFalse(subject.isValid(6));
+    Assert.assertFalse(subject.isValid(7));
+    SchemaValidator not = generate(NotSchema.builder().mustNotMatch(oneOf).build());
+    Assert.assertTrue(not.isValid(6));
+  }
+
+  @Test
+  public void customCriterionAndSchema() {
+    CombinedSchema noneOf = CombinedSchema.builder()
+        .criterion((subschemaCount, matchingCount) -> {
+          if (matchingCount > 0) {
+            throw new ValidationException("matched");
+          }
+        })
+        .subschema(BooleanSchema.INSTANCE)
+        .subschema(CUSTOM)
+        .build();
+    SchemaValidator subject = generate(noneOf);
+    Assert.assertTrue(subject.isValid("string"));
+    Assert.assertFalse(subject.isValid(true));
+    Assert.assertFalse(subject.isValid("custom"));
+  }
+
+  @Test
+  public void disabled() {
+    System.setProperty(ValidatorGenerator.ENABLED_PROPERTY, "false");
+    try {
+      Assert.assertFalse(ValidatorGenerator.isAvailable());
+      SchemaValidator subject = ValidatorGenerator.generate(BooleanSchema.INSTANCE);
+      Assert.assertFalse(subject instanceof GeneratedValidator);
+      Assert.assertSame(BooleanSchema.INSTANCE, subject.getSchema());
+      Assert.assertTrue(subject.isValid(true));
+    } finally {
+      System.clearProperty(ValidatorGenerator.ENABLED_PROPERTY);
+    }
+  }
+
+  @Test
+  public void embeddedRemoteDocuments() {
+    String url = "http://example.invalid/item.json";
+    GeneratedValidator subject = new GeneratedValidator("{\"$ref\": \"" + url + "\"}",
+        GeneratedValidator.documents(new String[][] {{url, "{\"type\": ", "\"boolean\"}"}})) {
+
+      @Override
+      public boolean isValid(final Object subject) {
+        return subject instanceof Boolean;
+      }
+
+    };
+    subject.validate(true);
+    try {
+      subject.validate("string");
+      Assert.fail("did not throw exception");
+    } catch (ValidationException e) {
+      Assert.assertEquals("#: expected type: Boolean, found: String", e.getMessage());
+    }
+    String source = new ValidatorSourceGenerator(BooleanSchema.INSTANCE).generateStandalone(
+        "com.example", "ItemValidator", "{\"$ref\": \"" + url + "\"}",
+        Collections.singletonMap(url, "{\"type\": \"boolean\"}"));
+    Assert.assertTrue(source.contains("private static final String[][] REMOTE_DOCUMENTS = {"));
+    Assert.assertTrue(source.contains("super(String.join(\"\", SCHEMA_JSON), "
+        + "documents(REMOTE_DOCUMENTS));"));
+  }
+
+  @Test
+  public void formats() {
+    SchemaValidator subject = generate(StringSchema.builder().format("email").build());
+    Assert.assertTrue(subject.isValid("joe.bloggs@example.com"));
+    Assert.assertFalse(subject.isValid("joe.bloggs"));
+    ValidatorSourceGenerator generator = new ValidatorSourceGenerator(
+        StringSchema.builder().format("ipv4").build());
+    Assert.assertTrue(generator.generate(null, "Ipv4Validator").contains(
+        "org.everit.json.schema.FormatRegistry.DEFAULT.getValidator(\"ipv4\")"));
+    Assert.assertTrue(generator.getExternalConstants().isEmpty());
+    FormatRegistry registry = FormatRegistry.builder().format("ipv4", Formats.IPV6).build();
+    SchemaValidator custom = generate(StringSchema.builder().format("ipv4")
+        .formatRegistry(registry).build());
+    Assert.assertTrue(custom.isValid("::1"));
+    Assert.assertFalse(custom.isValid("127.0.0.1"));
+  }
+
+  @Test
+  public void noCompiler() {
+    SchemaValidator subject = ValidatorGenerator.generate(BooleanSchema.INSTANCE, null);
+    Assert.assertFalse(subject instanceof GeneratedValidator);
+    Assert.assertFalse(subject.isValid(1));
+  }
+
+  @Test
+  public void objectSchema() {
+    SchemaValidator subject = generate(buildObjectSchema());
+    Assert.assertTrue(subject.isValid(new JSONObject("{\"name\": \"abc\", \"x-a\": true}")));
+    Assert.assertTrue(subject.isValid(new JSONObject("{\"name\": \"abc\", \"age\": 0}")));
+    Assert.assertTrue(subject.isValid(new JSONObject(
+        "{\"name\": \"abc\", \"ch\\\"ar\\u00e9\": {\"a\": [1]}}")));
+    Assert.assertTrue(subject.isValid(new JSONObject(
+        "{\"name\": \"abc\", \"ch\\\"ar\\u00e9\": \"a\\nb\"}")));
+    Assert.assertFalse(subject.isValid("not an object"));
+    Assert.assertFalse(subject.isValid(new JSONObject("{\"name\": \"\"}")));
+    Assert.assertFalse(subject.isValid(new JSONObject("{\"name\": \"a\\\\\"}")));
+    Assert.assertFalse(subject.isValid(new JSONObject("{\"name\": \"abc\", \"age\": 150}")));
+    Assert.assertFalse(subject.isValid(new JSONObject("{\"name\": \"abc\", \"age\": 1.5}")));
+    Assert.assertFalse(subject.isValid(new JSONObject("{\"name\": \"abc\", \"x-a\": 1}")));
+    Assert.assertFalse(subject.isValid(new JSONObject("{\"name\": \"abc\", \"other\": 1}")));
+    Assert.assertFalse(subject.isValid(new JSONObject(
+        "{\"name\": \"abc\", \"ch\\\"ar\\u00e9\": \"ab\"}")));
+    Assert.assertFalse(subject.isValid(new JSONObject("{\"age\": 1}")));
+  }
+
+  @Test
+  public void recursiveSchema() {
+    ReferenceSchema ref = ReferenceSchema.builder().build();
+    ObjectSchema tree = ObjectSchema.builder()
+        .addPropertySchema("value", NumberSchema.builder().build())
+        .addPropertySchema("children", ArraySchema.builder().allItemSchema(ref).build())
+        .build();
+    ref.setReferredSchema(tree);
+    SchemaValidator subject = generate(ref);
+    Assert.assertTrue(subject.isValid(new JSONObject(
+        "{\"value\": 1, \"children\": [{\"value\": 2, \"children\": [{\"value\": 3}]}]}")));
+    Assert.assertFalse(subject.isValid(new JSONObject(
+        "{\"value\": 1, \"children\": [{\"value\": 2, \"children\": [{\"value\": \"3\"}]}]}")));
+  }
+
+  @Test
+  public void sourceContainsLiterals() {
+    String source = new ValidatorSourceGenerator(buildObjectSchema()).generate("com.example",
+        "PersonValidator");
+    Assert.assertTrue(source.startsWith("package com.example;"));
+    Assert.assertTrue(source.contains("public final class PersonValidator"));
+    Assert.assertTrue(source.contains("case \"name\":"));
+    Assert.assertTrue(source.contains("case \"ch\\\"ar\\u00e9\":"));
+    Assert.assertTrue(source.contains("value >= 150.0"));
+    Assert.assertTrue(source.contains("new org.everit.json.schema.LinearTimeRegexpFactory("
+        + LinearTimeRegexpFactory.DEFAULT_STEP_LIMIT + "L).createHandler("));
+  }
+
+  @Test
+  public void validateThrowsTheExceptionOfTheSchema() {
+    ObjectSchema schema = buildObjectSchema();
+    SchemaValidator subject = generate(schema);
+    subject.validate(new JSONObject("{\"name\": \"abc\"}"));
+    try {
+      subject.validate(new JSONObject("{\"other\": 1}"));
+      Assert.fail("did not throw exception");
+    } catch (ValidationException e) {
+      Assert.assertSame(schema, e.getViolatedSchema());
+      Assert.assertEquals(2, e.getViolationCount());
+    }
+  }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema.loader;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BigNumberTokenerTest {
+
+  private JSONArray parse(final String json) {
+    return new JSONArray(new BigNumberTokener(json));
+  }
+
+  @Test
+  public void bigIntegers() {
+    JSONArray subject = parse("[18446744073709551615, -18446744073709551616, 3000000000, 1]");
+    Assert.assertEquals(new BigInteger("18446744073709551615"), subject.get(0));
+    Assert.assertEquals(new BigInteger("-18446744073709551616"), subject.get(1));
+    Assert.assertEquals(Long.valueOf(3000000000L), subject.get(2));
+    Assert.assertEquals(Integer.valueOf(1), subject.get(3));
+  }
+
+  @Test
+  public void decimals() {
+    JSONArray subject = parse("[0.1, 1.5e2, 0.10000000000000000001, 1e400]");
+    Assert.assertEquals(Double.valueOf(0.1), subject.get(0));
+    Assert.assertEquals(Double.valueOf(150), subject.get(1));
+    Assert.assertEquals(new BigDecimal("0.10000000000000000001"), subject.get(2));
+    Assert.assertEquals(new BigDecimal("1e400"), subject.get(3));
+  }
+
+  @Test
+  public void nestedValues() {
+    JSONObject subject = new JSONObject(new BigNumberTokener(
+        "{\"a\": [{\"b\": 12345678901234567890}], \"c\": \"12345678901234567890\", \"d\": null}"));
+    Assert.assertEquals(new BigInteger("12345678901234567890"),
+        subject.getJSONArray("a").getJSONObject(0).get("b"));
+    Assert.assertEquals("12345678901234567890", subject.get("c"));
+    Assert.assertSame(JSONObject.NULL, subject.get("d"));
+  }
+
+  @Test
+  public void otherTokensAreKept() {
+    JSONArray subject = parse("[true, false, null, 01, -]");
+    Assert.assertEquals(Boolean.TRUE, subject.get(0));
+    Assert.assertEquals(Boolean.FALSE, subject.get(1));
+    Assert.assertSame(JSONObject.NULL, subject.get(2));
+    Assert.assertEquals("-", subject.get(4));
+  }
+
+}
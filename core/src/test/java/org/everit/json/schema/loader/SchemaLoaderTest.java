@@ -24,11 +24,17 @@ import org.everit.json.schema.BooleanSchema;
 import org.everit.json.schema.CombinedSchema;
 import org.everit.json.schema.EmptySchema;
 import org.everit.json.schema.EnumSchema;
+import org.everit.json.schema.FormatRegistry;
+import org.everit.json.schema.FormatValidator;
+import org.everit.json.schema.Formats;
+import org.everit.json.schema.JavaUtilRegexpFactory;
+import org.everit.json.schema.LinearTimeRegexpFactory;
 import org.everit.json.schema.NotSchema;
 import org.everit.json.schema.NullSchema;
 import org.everit.json.schema.NumberSchema;
 import org.everit.json.schema.ObjectSchema;
 import org.everit.json.schema.ReferenceSchema;
+import org.everit.json.schema.RegexpFactory;
 import org.everit.json.schema.Schema;
 import org.everit.json.schema.SchemaException;
 import org.everit.json.schema.StringSchema;
@@ -146,6 +152,23 @@ public class SchemaLoaderTest {
     Assert.assertEquals(4, actual.getPossibleValues().size());
   }
 
+  @Test
+  public void formatRegistry() {
+    FormatValidator uuid = subject -> subject.length() == 36;
+    FormatRegistry registry = FormatRegistry.builder().format("uuid", uuid).build();
+    JSONObject schemaJson = new JSONObject("{\"properties\": {\"a\": {\"format\": \"uuid\"},"
+        + " \"b\": {\"$ref\": \"#/definitions/email\"}},"
+        + " \"definitions\": {\"email\": {\"type\": \"string\", \"format\": \"email\"}}}");
+    ObjectSchema actual = (ObjectSchema) SchemaLoader.load(schemaJson, httpClient,
+        LinearTimeRegexpFactory.INSTANCE, registry);
+    StringSchema a = (StringSchema) actual.getPropertySchemas().get("a");
+    Assert.assertFalse(a.requiresString());
+    Assert.assertSame(uuid, a.getFormatValidator());
+    StringSchema b = (StringSchema) ((ReferenceSchema) actual.getPropertySchemas().get("b"))
+        .getReferredSchema();
+    Assert.assertSame(Formats.EMAIL, b.getFormatValidator());
+  }
+
   @Test
   public void genericProperties() {
     Schema actual = SchemaLoader.load(get("genericProperties"));
@@ -317,6 +340,17 @@ public class SchemaLoaderTest {
     SchemaLoader.load(get("recursiveSchema"));
   }
 
+  @Test
+  public void regexpFactory() {
+    RegexpFactory regexpFactory = new JavaUtilRegexpFactory();
+    JSONObject schemaJson = new JSONObject("{\"properties\": {\"a\": {\"pattern\": \"b\"}},"
+        + " \"patternProperties\": {\"c\": {}}}");
+    ObjectSchema actual = (ObjectSchema) SchemaLoader.load(schemaJson, httpClient, regexpFactory);
+    Assert.assertSame(regexpFactory, actual.getRegexpFactory());
+    StringSchema property = (StringSchema) actual.getPropertySchemas().get("a");
+    Assert.assertSame(regexpFactory, property.getRegexpFactory());
+  }
+
   @Test
   public void remotePointerResulion() {
     SchemaClient httpClient = Mockito.mock(SchemaClient.class);
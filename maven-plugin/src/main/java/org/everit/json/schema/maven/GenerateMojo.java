@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+import org.everit.json.schema.SchemaException;
+
+/**
+ * Generates standalone validator classes from the JSON schema files of the project, and adds them
+ * to the compile source roots.
+ *
+ * @goal generate
+ * @phase generate-sources
+ * @threadSafe
+ */
+public class GenerateMojo extends AbstractMojo {
+
+  /**
+   * The directory containing the schema files.
+   *
+   * @parameter default-value="${basedir}/src/main/json-schema"
+   * @required
+   */
+  private File sourceDirectory;
+
+  /**
+   * The root directory of the generated sources.
+   *
+   * @parameter default-value="${project.build.directory}/generated-sources/json-schema"
+   * @required
+   */
+  private File outputDirectory;
+
+  /**
+   * The package of the generated validators.
+   *
+   * @parameter
+   * @required
+   */
+  private String packageName;
+
+  /**
+   * @parameter default-value="${project}"
+   * @required
+   * @readonly
+   */
+  private MavenProject project;
+
+  @Override
+  public void execute() throws MojoExecutionException, MojoFailureException {
+    try {
+      List<File> generatedFiles = new ValidatorSourceWriter(sourceDirectory, outputDirectory,
+          packageName).write();
+      getLog().info("Generated " + generatedFiles.size() + " validator(s) into "
+          + outputDirectory);
+    } catch (IOException e) {
+      throw new MojoExecutionException("failed to generate validators", e);
+    } catch (UncheckedIOException e) {
+      // thrown by SchemaLoader if a referred document cannot be read
+      throw new MojoExecutionException("failed to generate validators: " + e.getMessage(),
+          e.getCause());
+    } catch (SchemaException | IllegalStateException e) {
+      throw new MojoFailureException(e.getMessage(), e);
+    }
+    project.addCompileSourceRoot(outputDirectory.getAbsolutePath());
+  }
+
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema.maven;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.everit.json.schema.Schema;
+import org.everit.json.schema.ValidatorSourceGenerator;
+import org.everit.json.schema.loader.BigNumberTokener;
+import org.everit.json.schema.loader.SchemaClient;
+import org.everit.json.schema.loader.SchemaLoader;
+import org.everit.json.schema.loader.internal.DefaultSchemaClient;
+import org.json.JSONObject;
+
+/**
+ * Generates a standalone validator class for each schema file of a source directory.
+ *
+ * <p>
+ * The schema files are the files with {@code .json} extension. The generated classes are placed
+ * into the base package, or its subpackages mirroring the subdirectories of the source directory.
+ * The name of a generated class is derived from the schema file name, for example
+ * {@code purchase-order.json} becomes {@code PurchaseOrderValidator}. The {@code $ref}s of the
+ * schemas are resolved by {@link SchemaLoader} when the sources are generated, and the fetched
+ * remote documents are embedded into the generated classes, so the validators do not fetch them
+ * again when they load their schema at runtime to report violations.
+ * </p>
+ *
+ * <p>
+ * The schemas may refer to the other schema files by relative URLs, such as
+ * {@code {"$ref": "item.json"}}, which are resolved against the location of the referring file.
+ * Since a schema may refer to the other schema files, all validators are regenerated if any schema
+ * file is newer than any of the generated sources. Changes of remote documents outside of the
+ * source directory are not detected, they are only picked up by a clean build.
+ * </p>
+ */
+public class ValidatorSourceWriter {
+
+  private static final String SCHEMA_FILE_EXTENSION = ".json";
+
+  static String className(final String fileName) {
+    String baseName = fileName.substring(0, fileName.length() - SCHEMA_FILE_EXTENSION.length());
+    StringBuilder sb = new StringBuilder();
+    boolean upperCaseNext = true;
+    for (char ch : baseName.toCharArray()) {
+      if (Character.isJavaIdentifierPart(ch) && ch != '_' && ch != '$') {
+        sb.append(upperCaseNext ? Character.toUpperCase(ch) : ch);
+        upperCaseNext = false;
+      } else {
+        upperCaseNext = true;
+      }
+    }
+    if (sb.length() == 0 || !Character.isJavaIdentifierStart(sb.charAt(0))) {
+      sb.insert(0, "Schema");
+    }
+    return sb.append("Validator").toString();
+  }
+
+  /**
+   * Loads the schema of {@code schemaJson}, recording the remote documents fetched to resolve its
+   * {@code $ref}s into {@code remoteDocuments}. The relative URLs, such as the names of the other
+   * schema files, are fetched relative to {@code schemaFile}, but are recorded as they are, so
+   * the generated validator finds them without depending on the location of the schema file.
+   */
+  private static Schema load(final Path schemaFile, final String schemaJson,
+      final Map<String, String> remoteDocuments) {
+    SchemaClient client = new DefaultSchemaClient();
+    URI baseUri = schemaFile.toUri();
+    return SchemaLoader.load(new JSONObject(new BigNumberTokener(schemaJson)), url -> {
+      // decoded and encoded with the charset SchemaLoader decodes the fetched documents with
+      String document;
+      try (InputStream in = client.get(baseUri.resolve(url).toString())) {
+        document = new String(readAll(in), Charset.defaultCharset());
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      remoteDocuments.put(url, document);
+      return new ByteArrayInputStream(document.getBytes(Charset.defaultCharset()));
+    });
+  }
+
+  private static byte[] readAll(final InputStream in) throws IOException {
+    ByteArrayOutputStream rval = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+    int length;
+    while ((length = in.read(buffer)) != -1) {
+      rval.write(buffer, 0, length);
+    }
+    return rval.toByteArray();
+  }
+
+  private final Path sourceDirectory;
+
+  private final Path outputDirectory;
+
+  private final String basePackage;
+
+  /**
+   * Constructor.
+   *
+   * @param sourceDirectory
+   *          the directory containing the schema files
+   * @param outputDirectory
+   *          the root directory of the generated Java sources
+   * @param basePackage
+   *          the package of the validators generated for the schema files directly in
+   *          {@code sourceDirectory}
+   */
+  public ValidatorSourceWriter(final File sourceDirectory, final File outputDirectory,
+      final String basePackage) {
+    this.sourceDirectory = Objects.requireNonNull(sourceDirectory, "sourceDirectory cannot be null")
+        .toPath();
+    this.outputDirectory = Objects.requireNonNull(outputDirectory, "outputDirectory cannot be null")
+        .toPath();
+    this.basePackage = Objects.requireNonNull(basePackage, "basePackage cannot be null");
+  }
+
+  /**
+   * Tells if the sources generated for {@code schemaFiles} exist, and are newer than all of the
+   * schema files.
+   */
+  private boolean isUpToDate(final List<Path> schemaFiles) throws IOException {
+    FileTime newestSchema = null;
+    for (Path schemaFile : schemaFiles) {
+      FileTime modified = Files.getLastModifiedTime(schemaFile);
+      if (newestSchema == null || modified.compareTo(newestSchema) > 0) {
+        newestSchema = modified;
+      }
+    }
+    for (Path schemaFile : schemaFiles) {
+      Path outputFile = outputFile(schemaFile);
+      if (!Files.exists(outputFile)
+          || Files.getLastModifiedTime(outputFile).compareTo(newestSchema) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private Path outputFile(final Path schemaFile) {
+    return outputFile(packageName(schemaFile), className(schemaFile.getFileName().toString()));
+  }
+
+  private Path outputFile(final String packageName, final String className) {
+    return outputDirectory.resolve(packageName.replace('.', File.separatorChar))
+        .resolve(className + ".java");
+  }
+
+  private String packageName(final Path schemaFile) {
+    StringBuilder sb = new StringBuilder(basePackage);
+    Path relativeDirectory = sourceDirectory.relativize(schemaFile).getParent();
+    if (relativeDirectory != null) {
+      for (Path segment : relativeDirectory) {
+        sb.append(sb.length() == 0 ? "" : ".").append(segment.toString().replace('-', '_'));
+      }
+    }
+    return sb.toString();
+  }
+
+  private List<Path> schemaFiles() throws IOException {
+    if (!Files.isDirectory(sourceDirectory)) {
+      return new ArrayList<>();
+    }
+    try (Stream<Path> files = Files.walk(sourceDirectory)) {
+      return files.filter(file -> file.getFileName().toString().endsWith(SCHEMA_FILE_EXTENSION))
+          .filter(Files::isRegularFile)
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * Generates the validators of the schema files, unless all of them are up to date: if any
+   * schema file has been modified since the validators were generated, then all of them are
+   * regenerated, since the other schemas may refer to it.
+   *
+   * @return the generated source files
+   * @throws IOException
+   *           if reading a schema file or writing a source file fails
+   * @throws org.everit.json.schema.SchemaException
+   *           if a schema file is not a valid schema
+   */
+  public List<File> write() throws IOException {
+    List<File> rval = new ArrayList<>();
+    List<Path> schemaFiles = schemaFiles();
+    if (isUpToDate(schemaFiles)) {
+      return rval;
+    }
+    for (Path schemaFile : schemaFiles) {
+      String packageName = packageName(schemaFile);
+      String className = className(schemaFile.getFileName().toString());
+      Path outputFile = outputFile(packageName, className);
+      String schemaJson = new String(Files.readAllBytes(schemaFile), StandardCharsets.UTF_8);
+      Map<String, String> remoteDocuments = new HashMap<>();
+      Schema schema = load(schemaFile, schemaJson, remoteDocuments);
+      String source = new ValidatorSourceGenerator(schema).generateStandalone(packageName,
+          className, schemaJson, remoteDocuments);
+      Files.createDirectories(outputFile.getParent());
+      Files.write(outputFile, source.getBytes(StandardCharsets.UTF_8));
+      rval.add(outputFile.toFile());
+    }
+    return rval;
+  }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ValidatorSourceWriterTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private File writeSchema(final File dir, final String fileName, final String schemaJson)
+      throws IOException {
+    dir.mkdirs();
+    File rval = new File(dir, fileName);
+    Files.write(rval.toPath(), schemaJson.getBytes(StandardCharsets.UTF_8));
+    return rval;
+  }
+
+  @Test
+  public void className() {
+    Assert.assertEquals("PurchaseOrderValidator",
+        ValidatorSourceWriter.className("purchase-order.json"));
+    Assert.assertEquals("PurchaseOrderValidator",
+        ValidatorSourceWriter.className("purchase_order.json"));
+    Assert.assertEquals("Schema1stValidator", ValidatorSourceWriter.className("1st.json"));
+  }
+
+  @Test
+  public void missingSourceDirectory() throws IOException {
+    File output = folder.newFolder("generated");
+    Assert.assertTrue(new ValidatorSourceWriter(new File(folder.getRoot(), "missing"), output,
+        "com.example").write().isEmpty());
+  }
+
+  @Test
+  public void onlyModifiedSchemasAreRegenerated() throws IOException {
+    File source = folder.newFolder("schemas");
+    File output = folder.newFolder("generated");
+    File schemaFile = writeSchema(source, "person.json", "{\"type\": \"object\"}");
+    ValidatorSourceWriter writer = new ValidatorSourceWriter(source, output, "com.example");
+    Assert.assertEquals(1, writer.write().size());
+    Assert.assertEquals(0, writer.write().size());
+    Assert.assertTrue(schemaFile.setLastModified(System.currentTimeMillis() + 10000));
+    Assert.assertEquals(1, writer.write().size());
+  }
+
+  @Test
+  public void referredDocumentsAreEmbedded() throws IOException {
+    File source = folder.newFolder("schemas");
+    File output = folder.newFolder("generated");
+    String itemUrl = new File(folder.newFolder("common"), "item.json").toURI().toString();
+    writeSchema(new File(folder.getRoot(), "common"), "item.json", "{\"type\": \"boolean\"}");
+    writeSchema(source, "list.json", "{\"items\": {\"$ref\": \"" + itemUrl + "\"}}");
+    List<File> generated = new ValidatorSourceWriter(source, output, "com.example").write();
+    String listSource = new String(Files.readAllBytes(generated.get(0).toPath()),
+        StandardCharsets.UTF_8);
+    Assert.assertTrue(listSource.contains("\"" + itemUrl + "\","));
+    Assert.assertTrue(listSource.contains("\"{\\\"type\\\": \\\"boolean\\\"}\","));
+  }
+
+  @Test
+  public void relativeReferencesToSchemaFiles() throws IOException {
+    File source = folder.newFolder("schemas");
+    File output = folder.newFolder("generated");
+    writeSchema(new File(source, "common"), "item.json", "{\"type\": \"boolean\"}");
+    writeSchema(source, "list.json", "{\"items\": {\"$ref\": \"common/item.json\"}}");
+    List<File> generated = new ValidatorSourceWriter(source, output, "com.example").write();
+    File listValidator = new File(output, "com/example/ListValidator.java");
+    Assert.assertTrue(generated.contains(listValidator));
+    String listSource = new String(Files.readAllBytes(listValidator.toPath()),
+        StandardCharsets.UTF_8);
+    Assert.assertTrue(listSource.contains("\"common/item.json\","));
+    Assert.assertTrue(listSource.contains("\"{\\\"type\\\": \\\"boolean\\\"}\","));
+    Assert.assertFalse(listSource.contains(source.toURI().toString()));
+  }
+
+  @Test
+  public void schemasAreRegeneratedIfAnySchemaIsModified() throws IOException {
+    File source = folder.newFolder("schemas");
+    File output = folder.newFolder("generated");
+    File itemFile = writeSchema(source, "item.json", "{\"type\": \"boolean\"}");
+    writeSchema(source, "list.json", "{\"items\": {\"$ref\": \"" + itemFile.toURI() + "\"}}");
+    ValidatorSourceWriter writer = new ValidatorSourceWriter(source, output, "com.example");
+    Assert.assertEquals(2, writer.write().size());
+    Assert.assertEquals(0, writer.write().size());
+    Assert.assertTrue(itemFile.setLastModified(System.currentTimeMillis() + 10000));
+    Assert.assertEquals(2, writer.write().size());
+  }
+
+  @Test
+  public void subdirectoriesAreSubpackages() throws IOException {
+    File source = folder.newFolder("schemas");
+    File output = folder.newFolder("generated");
+    writeSchema(source, "person.json", "{\"type\": \"object\"}");
+    writeSchema(new File(source, "order-api"), "purchase-order.json",
+        "{\"properties\": {\"id\": {\"type\": \"integer\"}}}");
+    List<File> generated = new ValidatorSourceWriter(source, output, "com.example").write();
+    Assert.assertEquals(2, generated.size());
+    File orderValidator = new File(output, "com/example/order_api/PurchaseOrderValidator.java");
+    Assert.assertTrue(generated.contains(orderValidator));
+    String orderSource = new String(Files.readAllBytes(orderValidator.toPath()),
+        StandardCharsets.UTF_8);
+    Assert.assertTrue(orderSource.startsWith("package com.example.order_api;"));
+    Assert.assertTrue(orderSource.contains("public PurchaseOrderValidator() {"));
+    Assert.assertTrue(generated.contains(new File(output, "com/example/PersonValidator.java")));
+  }
+
+}
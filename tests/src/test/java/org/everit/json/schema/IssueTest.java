@@ -122,6 +122,8 @@ public class IssueTest {
     ValidationException thrown = null;
     try {
       JSONObject subject = new JSONObject(new JSONTokener(new FileInputStream(file)));
+      Assert.assertEquals(shouldBeValid, CompiledSchema.compile(schema).isValid(subject));
+      Assert.assertEquals(shouldBeValid, ValidatorGenerator.generate(schema).isValid(subject));
       try {
         schema.validate(subject);
       } catch (ValidationException e) {
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.json.schema;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.servlet.ServletHandler;
+import org.everit.json.schema.maven.ValidatorSourceWriter;
+import org.json.JSONObject;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Runs the draft4 test suite against the standalone validators generated by the Maven plugin.
+ */
+@RunWith(Parameterized.class)
+public class StandaloneValidatorTestSuiteTest {
+
+  @ClassRule
+  public static TemporaryFolder folder = new TemporaryFolder();
+
+  private static Server server;
+
+  private static final Map<String, SchemaValidator> VALIDATORS = new HashMap<>();
+
+  private static String classPath() {
+    List<String> entries = new ArrayList<>();
+    for (Class<?> clazz : new Class<?>[] {GeneratedValidator.class, JSONObject.class}) {
+      entries.add(clazz.getProtectionDomain().getCodeSource().getLocation().getPath());
+    }
+    entries.add(System.getProperty("java.class.path"));
+    return String.join(File.pathSeparator, entries);
+  }
+
+  @Parameters(name = "{2}")
+  public static List<Object[]> params() {
+    return TestSuiteTest.params();
+  }
+
+  @BeforeClass
+  public static void startJetty() throws Exception {
+    server = new Server(1234);
+    ServletHandler handler = new ServletHandler();
+    server.setHandler(handler);
+    handler.addServletWithMapping(TestSuiteTestServlet.class, "/*");
+    server.start();
+  }
+
+  @AfterClass
+  public static void stopJetty() throws Exception {
+    if (server != null) {
+      server.stop();
+    }
+  }
+
+  private static SchemaValidator generate(final JSONObject schemaJson) throws IOException,
+      ReflectiveOperationException {
+    File root = folder.newFolder();
+    File sourceDir = new File(root, "schemas");
+    File outputDir = new File(root, "generated");
+    File classesDir = new File(root, "classes");
+    sourceDir.mkdirs();
+    classesDir.mkdirs();
+    Files.write(new File(sourceDir, "test-schema.json").toPath(),
+        schemaJson.toString().getBytes(StandardCharsets.UTF_8));
+    List<File> sources = new ValidatorSourceWriter(sourceDir, outputDir, "com.example").write();
+    Assert.assertEquals(1, sources.size());
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    int result = compiler.run(null, null, null, "-classpath", classPath(), "-d",
+        classesDir.getPath(), "-proc:none", sources.get(0).getPath());
+    Assert.assertEquals("compilation of " + sources.get(0) + " failed", 0, result);
+    URLClassLoader classLoader = new URLClassLoader(new URL[] {classesDir.toURI().toURL()},
+        StandaloneValidatorTestSuiteTest.class.getClassLoader());
+    return (SchemaValidator) classLoader.loadClass("com.example.TestSchemaValidator")
+        .newInstance();
+  }
+
+  private final String schemaDescription;
+
+  private final JSONObject schemaJson;
+
+  private final String inputDescription;
+
+  private final Object input;
+
+  private final boolean expectedToBeValid;
+
+  public StandaloneValidatorTestSuiteTest(final String schemaDescription,
+      final JSONObject schemaJson, final String inputDescription, final Object input,
+      final Boolean expectedToBeValid) {
+    this.schemaDescription = schemaDescription;
+    this.schemaJson = schemaJson;
+    this.inputDescription = inputDescription;
+    this.input = input;
+    this.expectedToBeValid = expectedToBeValid;
+  }
+
+  @Test
+  public void test() throws Exception {
+    SchemaValidator validator = VALIDATORS.get(schemaDescription);
+    if (validator == null) {
+      validator = generate(schemaJson);
+      VALIDATORS.put(schemaDescription, validator);
+    }
+    if (validator.isValid(input) != expectedToBeValid) {
+      throw new AssertionError("isValid() returned " + !expectedToBeValid + " for "
+          + inputDescription);
+    }
+    try {
+      validator.validate(input);
+      if (!expectedToBeValid) {
+        throw new AssertionError("false success for " + inputDescription);
+      }
+    } catch (ValidationException e) {
+      if (expectedToBeValid) {
+        throw new AssertionError("false failure for " + inputDescription, e);
+      }
+    }
+  }
+
+}